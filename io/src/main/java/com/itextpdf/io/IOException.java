@@ -133,6 +133,7 @@ public class IOException extends RuntimeException {
     public static final String Tiff50StyleLzwCodesAreNotSupported = "TIFF 5.0-style LZW codes are not supported.";
     public static final String TiffFillOrderTagMustBeEither1Or2 = "TIFF_FILL_ORDER tag must be either 1 or 2.";
     public static final String TiffImageException = "TIFF image exception.";
+    public static final String TiffImageDataOf1BytesIsTooLarge = "TIFF image data of {0} bytes exceeds the 4 GB limit of the TIFF format.";
     public static final String TilesAreNotSupported = "Tiles are not supported.";
     public static final String TransparencyLengthMustBeEqualTo2WithCcittImages = "Transparency length must be equal to 2 with CCITT images";
     public static final String TtcIndexDoesNotExistInThisTtcFile = "TTC index doesn't exist in this TTC file.";
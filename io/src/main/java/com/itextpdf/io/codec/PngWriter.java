@@ -63,10 +63,17 @@ public class PngWriter {
     private static final byte[] IEND = ByteUtils.getIsoBytes("IEND");
     private static final byte[] iCCP = ByteUtils.getIsoBytes("iCCP");
 
+    /**
+     * The maximum size of the data of the IDAT chunks written by {@link #writeRow(byte[], int, int)}.
+     */
+    private static final int IDAT_CHUNK_SIZE = 32768;
+
     private static int[] crc_table;
 
     private OutputStream outp;
 
+    private DeflaterOutputStream rowsStream;
+
     public PngWriter(OutputStream outp) throws IOException {
         this.outp = outp;
         outp.write(PNG_SIGNTURE);
@@ -105,6 +112,39 @@ public class PngWriter {
         writeChunk(IDAT, stream.toByteArray());
     }
 
+    /**
+     * Writes a row of the image data. Rows are compressed while they are written and the compressed data
+     * is written in several IDAT chunks, so that neither the rows nor the compressed data are kept in memory
+     * as a whole. After the last row is written, {@link #endRows()} must be called.
+     *
+     * @param row    the buffer containing the row
+     * @param offset the offset of the row in the buffer
+     * @param length the length of the row, i.e. the stride of the image
+     * @throws IOException if the data couldn't be written
+     */
+    public void writeRow(byte[] row, int offset, int length) throws IOException {
+        if (rowsStream == null) {
+            rowsStream = new DeflaterOutputStream(new IdatChunkOutputStream());
+        }
+        // filter type None
+        rowsStream.write(0);
+        rowsStream.write(row, offset, length);
+    }
+
+    /**
+     * Finishes writing of the rows started by {@link #writeRow(byte[], int, int)}
+     * and writes the last IDAT chunk.
+     *
+     * @throws IOException if the data couldn't be written
+     */
+    public void endRows() throws IOException {
+        if (rowsStream == null) {
+            rowsStream = new DeflaterOutputStream(new IdatChunkOutputStream());
+        }
+        rowsStream.close();
+        rowsStream = null;
+    }
+
     public void writePalette(byte[] data) throws IOException {
         writeChunk(PLTE, data);
     }
@@ -170,12 +210,58 @@ public class PngWriter {
     }
 
     public void writeChunk(byte[] chunkType, byte[] data) throws IOException {
-        outputInt(data.length);
+        writeChunk(chunkType, data, data.length);
+    }
+
+    private void writeChunk(byte[] chunkType, byte[] data, int length) throws IOException {
+        outputInt(length);
         outp.write(chunkType, 0, 4);
-        outp.write(data);
+        outp.write(data, 0, length);
         int c = update_crc(-1, chunkType, 0, chunkType.length);
-        c = ~update_crc(c, data, 0, data.length);
+        c = ~update_crc(c, data, 0, length);
         outputInt(c);
     }
 
+    /**
+     * Writes the compressed image data in IDAT chunks of limited size.
+     */
+    private class IdatChunkOutputStream extends OutputStream {
+        private final byte[] chunk = new byte[IDAT_CHUNK_SIZE];
+        private int length;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (length == chunk.length) {
+                writeChunkData();
+            }
+            chunk[length++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (length == chunk.length) {
+                    writeChunkData();
+                }
+                int count = Math.min(len, chunk.length - length);
+                System.arraycopy(b, off, chunk, length, count);
+                length += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (length > 0) {
+                writeChunkData();
+            }
+        }
+
+        private void writeChunkData() throws IOException {
+            writeChunk(IDAT, chunk, length);
+            length = 0;
+        }
+    }
+
 }
@@ -45,14 +45,21 @@ package com.itextpdf.io.codec;
 
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.TreeMap;
 
 /**
  * Exports images as TIFF.
  */
 public class TiffWriter {
+    /**
+     * The maximum length of a classic TIFF file, the offsets are unsigned 32-bit values.
+     */
+    private static final long MAX_FILE_LENGTH = 0xFFFFFFFFL;
+
     private TreeMap<Integer, FieldBase> ifd = new TreeMap<Integer, FieldBase>();
 
     public void addField(FieldBase field) {
@@ -85,6 +92,77 @@ public class TiffWriter {
         }
     }
 
+    /**
+     * Writes the file with the uncompressed image data read from the stream. The data is split into strips
+     * of the given size, the strip offsets and byte counts fields are added by this method, the rows per strip
+     * field must be set accordingly. The data is written after the directory while it is being read,
+     * so that it's never kept in memory as a whole. If the stream ends before all the data is read,
+     * the rest of the image is filled with zeros.
+     * <p>
+     * The offsets of the classic TIFF format are 32-bit, so the file including the image data cannot exceed 4 GB.
+     *
+     * @param stream          the stream to write the file to
+     * @param imageData       the stream to read the uncompressed image data from
+     * @param imageDataLength the length of the image data
+     * @param stripSize       the size of a strip, i.e. the number of rows per strip multiplied by the stride.
+     *                        If it is not positive, the data are written as a single strip
+     * @throws IOException if the data couldn't be read or written
+     * @throws com.itextpdf.io.IOException if the file would exceed 4 GB
+     */
+    public void writeFile(OutputStream stream, InputStream imageData, long imageDataLength, int stripSize) throws IOException {
+        if (stripSize <= 0) {
+            // e.g. an empty image, all the data, if any, is written as a single strip
+            stripSize = (int) Math.min(Math.max(imageDataLength, 1), Integer.MAX_VALUE);
+        }
+        if (imageDataLength > MAX_FILE_LENGTH) {
+            throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.TiffImageDataOf1BytesIsTooLarge)
+                    .setMessageParams(imageDataLength);
+        }
+        int stripCount = (int) Math.max(1, (imageDataLength + stripSize - 1) / stripSize);
+        int[] stripOffsets = new int[stripCount];
+        int[] stripByteCounts = new int[stripCount];
+        // the size of the fields doesn't depend on their values, so the layout is calculated with placeholders first
+        addField(new FieldLong(TIFFConstants.TIFFTAG_STRIPOFFSETS, stripOffsets));
+        addField(new FieldLong(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS, stripByteCounts));
+        int offset = 8 + getIfdSize();
+        for (FieldBase field : ifd.values()) {
+            int size = field.getValueSize();
+            if (size > 4) {
+                offset += size;
+            }
+        }
+        if (offset + imageDataLength > MAX_FILE_LENGTH) {
+            throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.TiffImageDataOf1BytesIsTooLarge)
+                    .setMessageParams(imageDataLength);
+        }
+        for (int i = 0; i < stripCount; i++) {
+            long stripStart = (long) i * stripSize;
+            // the offsets and the byte counts are unsigned 32-bit values
+            stripOffsets[i] = (int) (offset + stripStart);
+            stripByteCounts[i] = (int) Math.min(stripSize, imageDataLength - stripStart);
+        }
+        addField(new FieldLong(TIFFConstants.TIFFTAG_STRIPOFFSETS, stripOffsets));
+        addField(new FieldLong(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS, stripByteCounts));
+        writeFile(stream);
+
+        byte[] buffer = new byte[Math.min(Math.max(stripSize, 1), 8192)];
+        long remaining = imageDataLength;
+        while (remaining > 0) {
+            int read = imageData.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            stream.write(buffer, 0, read);
+            remaining -= read;
+        }
+        Arrays.fill(buffer, (byte) 0);
+        while (remaining > 0) {
+            int count = (int) Math.min(buffer.length, remaining);
+            stream.write(buffer, 0, count);
+            remaining -= count;
+        }
+    }
+
     /**
      * Inner class class containing information about a field.
      */
@@ -54,6 +54,10 @@ public final class ByteUtils {
 
     static boolean HighPrecision = false;
 
+    private static final long MAX_EXACT_MANTISSA = (1L << 53) - 1;
+    private static final double[] EXACT_POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     private static final byte[] bytes = new byte[]{48, 49, 50, 51, 52, 53, 54, 55, 56, 57, 97, 98, 99, 100, 101, 102};
     private static final byte[] zero = new byte[]{48};
     private static final byte[] one = new byte[]{49};
@@ -267,6 +271,116 @@ public final class ByteUtils {
         return buffer == null ? buf.getInternalBuffer() : null;
     }
 
+    /**
+     * Parses the decimal integer written in ISO-8859-1 bytes, without creating an intermediate {@link String}.
+     * Accepts the same input as {@link Integer#parseInt(String)} does.
+     *
+     * @param b   the buffer
+     * @param off the offset of the number in the buffer
+     * @param len the length of the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes don't represent an integer or it doesn't fit into int
+     */
+    public static int parseInt(byte[] b, int off, int len) {
+        long value = parseLong(b, off, len);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw numberFormatException(b, off, len);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses the decimal integer written in ISO-8859-1 bytes, without creating an intermediate {@link String}.
+     * Accepts the same input as {@link Long#parseLong(String)} does.
+     *
+     * @param b   the buffer
+     * @param off the offset of the number in the buffer
+     * @param len the length of the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes don't represent an integer or it doesn't fit into long
+     */
+    public static long parseLong(byte[] b, int off, int len) {
+        int end = off + len;
+        int i = off;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw numberFormatException(b, off, len);
+        }
+        // the value is accumulated negatively, since the range of negative values is greater
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9 || result < multiplicationLimit) {
+                throw numberFormatException(b, off, len);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                throw numberFormatException(b, off, len);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses the decimal number written in ISO-8859-1 bytes. The numbers in the form used by PDF, i.e. digits with
+     * an optional sign and an optional decimal point, are parsed without creating an intermediate {@link String},
+     * if they have no more than 15 significant digits. The result is exactly the same as {@link Double#parseDouble(String)}
+     * returns.
+     *
+     * @param b   the buffer
+     * @param off the offset of the number in the buffer
+     * @param len the length of the number
+     * @return the parsed value
+     * @throws NumberFormatException if the bytes don't represent a number
+     */
+    public static double parseDouble(byte[] b, int off, int len) {
+        int end = off + len;
+        int i = off;
+        boolean negative = false;
+        if (i < end && (b[i] == '-' || b[i] == '+')) {
+            negative = b[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            int ch = b[i];
+            if (ch >= '0' && ch <= '9') {
+                mantissa = mantissa * 10 + ch - '0';
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    break;
+                }
+                digits++;
+                if (point) {
+                    fractionDigits++;
+                }
+            } else if (ch == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end || digits == 0 || fractionDigits >= EXACT_POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(b, off, len, StandardCharsets.ISO_8859_1));
+        }
+        // both mantissa and power of ten are exact doubles, so the division is correctly rounded
+        double value = fractionDigits == 0 ? mantissa : mantissa / EXACT_POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static NumberFormatException numberFormatException(byte[] b, int off, int len) {
+        return new NumberFormatException("For input string: \"" + new String(b, off, len, StandardCharsets.ISO_8859_1) + "\"");
+    }
+
     private static int longSize(long l) {
         long m = 10;
         for (int i = 1; i < 19; i++) {
@@ -120,6 +120,10 @@ public class PdfTokenizer implements Closeable, Serializable {
     protected boolean hexString;
     protected ByteBuffer outBuf;
 
+    // the numbers read ahead while checking for indirect reference or object header, reused to avoid allocations
+    private final ByteBuffer firstNumber = new ByteBuffer(16);
+    private final ByteBuffer secondNumber = new ByteBuffer(16);
+
     private final RandomAccessFileOrArray file;
     /**
      * Streams are closed automatically.
@@ -187,6 +191,26 @@ public class PdfTokenizer implements Closeable, Serializable {
         return new String(outBuf.getInternalBuffer(), 0, outBuf.size());
     }
 
+    /**
+     * Gets the internal buffer holding the content of the current token, the content starts at index 0 and has
+     * {@link #getTokenLength()} bytes. Unlike {@link #getByteContent()} the content is not copied,
+     * so it is valid only until the next token is read and shall not be modified.
+     *
+     * @return the internal buffer of the current token
+     */
+    public byte[] getTokenBuffer() {
+        return outBuf.getInternalBuffer();
+    }
+
+    /**
+     * Gets the length of the current token content in the buffer returned by {@link #getTokenBuffer()}.
+     *
+     * @return the length of the current token content
+     */
+    public int getTokenLength() {
+        return outBuf.size();
+    }
+
     public byte[] getDecodedStringContent() {
         return decodeStringContent(outBuf.getInternalBuffer(), 0, outBuf.size() - 1, isHexString());
     }
@@ -265,8 +289,6 @@ public class PdfTokenizer implements Closeable, Serializable {
 
     public void nextValidToken() throws java.io.IOException {
         int level = 0;
-        byte[] n1 = null;
-        byte[] n2 = null;
         long ptr = 0;
         while (nextToken()) {
             if (type == TokenType.Comment)
@@ -276,7 +298,7 @@ public class PdfTokenizer implements Closeable, Serializable {
                     if (type != TokenType.Number)
                         return;
                     ptr = file.getPosition();
-                    n1 = getByteContent();
+                    firstNumber.reset().append(outBuf.getInternalBuffer(), 0, outBuf.size());
                     ++level;
                     break;
                 }
@@ -284,41 +306,40 @@ public class PdfTokenizer implements Closeable, Serializable {
                     if (type != TokenType.Number) {
                         file.seek(ptr);
                         type = TokenType.Number;
-                        outBuf.reset().append(n1);
+                        restoreToken(firstNumber);
                         return;
                     }
-                    n2 = getByteContent();
+                    secondNumber.reset().append(outBuf.getInternalBuffer(), 0, outBuf.size());
                     ++level;
                     break;
                 }
                 case 2: {
                     if (type == TokenType.Other) {
                         if (tokenValueEqualsTo(R)) {
-                            assert n2 != null;
                             type = TokenType.Ref;
                             try {
-                                reference = Integer.parseInt(new String(n1));
-                                generation = Integer.parseInt(new String(n2));
+                                reference = parseInt(firstNumber);
+                                generation = parseInt(secondNumber);
                             } catch (Exception ex) {
                                 //warn about incorrect reference number
                                 //Exception: NumberFormatException for java, FormatException or OverflowException for .NET
                                 Logger logger = LoggerFactory.getLogger(PdfTokenizer.class);
-                                logger.error(MessageFormatUtil.format(LogMessageConstant.INVALID_INDIRECT_REFERENCE, new String(n1), new String(n2)));
+                                logger.error(MessageFormatUtil.format(LogMessageConstant.INVALID_INDIRECT_REFERENCE,
+                                        new String(firstNumber.toByteArray()), new String(secondNumber.toByteArray())));
                                 reference = -1;
                                 generation = 0;
                             }
                             return;
                         } else if (tokenValueEqualsTo(Obj)) {
-                            assert n2 != null;
                             type = TokenType.Obj;
-                            reference = Integer.parseInt(new String(n1));
-                            generation = Integer.parseInt(new String(n2));
+                            reference = parseInt(firstNumber);
+                            generation = parseInt(secondNumber);
                             return;
                         }
                     }
                     file.seek(ptr);
                     type = TokenType.Number;
-                    outBuf.reset().append(n1);
+                    restoreToken(firstNumber);
                     return;
                 }
             }
@@ -328,7 +349,7 @@ public class PdfTokenizer implements Closeable, Serializable {
         // then we are still looking at a number - set the type back to Number
         if (level == 1) {
             type = TokenType.Number;
-            outBuf.reset().append(n1);
+            restoreToken(firstNumber);
         }
 
         // if we hit here, the file is either corrupt (stream ended unexpectedly),
@@ -505,11 +526,20 @@ public class PdfTokenizer implements Closeable, Serializable {
     }
 
     public long getLongValue() {
-        return Long.parseLong(getStringValue());
+        return ByteUtils.parseLong(outBuf.getInternalBuffer(), 0, outBuf.size());
     }
 
     public int getIntValue() {
-        return Integer.parseInt(getStringValue());
+        return ByteUtils.parseInt(outBuf.getInternalBuffer(), 0, outBuf.size());
+    }
+
+    /**
+     * Parses the current token as a decimal number without creating an intermediate {@link String}.
+     *
+     * @return the value of the current token
+     */
+    public double getDoubleValue() {
+        return ByteUtils.parseDouble(outBuf.getInternalBuffer(), 0, outBuf.size());
     }
 
     public boolean isHexString() {
@@ -644,6 +674,14 @@ public class PdfTokenizer implements Closeable, Serializable {
         return decodeStringContent(content, 0, content.length - 1, hexWriting);
     }
 
+    private void restoreToken(ByteBuffer token) {
+        outBuf.reset().append(token.getInternalBuffer(), 0, token.size());
+    }
+
+    private static int parseInt(ByteBuffer number) {
+        return ByteUtils.parseInt(number.getInternalBuffer(), 0, number.size());
+    }
+
         /**
          * Is a certain character a whitespace? Currently checks on the following: '0', '9', '10', '12', '13', '32'.
          * <br>
@@ -0,0 +1,115 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.source;
+
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ReadNumbersTest extends ExtendedITextTest {
+
+    // a fixed seed, so that a failure can be reproduced
+    private static final long RANDOM_SEED = 20181017L;
+
+    @Test
+    public void parseDoubleTest() {
+        Random rnd = new Random(RANDOM_SEED);
+        for (int i = 0; i < 100000; i++) {
+            String number = (rnd.nextBoolean() ? "-" : "") + rnd.nextInt(100000) + "." + rnd.nextInt(1000000);
+            checkDouble(number);
+        }
+        String[] numbers = {"0", "-0", "+5", "5.", ".5", "-.5", "0.1", "123456789012345678901", "1.0000000000000000000000001",
+                "9007199254740993", "3.14159265358979323846"};
+        for (String number : numbers) {
+            checkDouble(number);
+        }
+    }
+
+    @Test
+    public void parseIntTest() {
+        Random rnd = new Random(RANDOM_SEED);
+        for (int i = 0; i < 100000; i++) {
+            int number = rnd.nextInt();
+            Assert.assertEquals(number, ByteUtils.parseInt(getBytes(String.valueOf(number)), 0, String.valueOf(number).length()));
+        }
+        Assert.assertEquals(Integer.MIN_VALUE, ByteUtils.parseInt(getBytes("-2147483648"), 0, 11));
+        Assert.assertEquals(Long.MAX_VALUE, ByteUtils.parseLong(getBytes("9223372036854775807"), 0, 19));
+        Assert.assertEquals(42, ByteUtils.parseInt(getBytes("xx+42xx"), 2, 3));
+    }
+
+    @Test
+    public void parseInvalidNumbersTest() {
+        String[] invalidIntegers = {"", "-", "+", "1.5", "2147483648", "12a", "9223372036854775808"};
+        for (String number : invalidIntegers) {
+            try {
+                ByteUtils.parseInt(getBytes(number), 0, number.length());
+                Assert.fail("NumberFormatException expected for " + number);
+            } catch (NumberFormatException expected) {
+            }
+        }
+        String[] invalidDoubles = {"", "-", ".", "1..5", "--1"};
+        for (String number : invalidDoubles) {
+            try {
+                ByteUtils.parseDouble(getBytes(number), 0, number.length());
+                Assert.fail("NumberFormatException expected for " + number);
+            } catch (NumberFormatException expected) {
+            }
+        }
+    }
+
+    private static void checkDouble(String number) {
+        Assert.assertEquals(number, Double.doubleToLongBits(Double.parseDouble(number)),
+                Double.doubleToLongBits(ByteUtils.parseDouble(getBytes(number), 0, number.length())));
+    }
+
+    private static byte[] getBytes(String number) {
+        return number.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
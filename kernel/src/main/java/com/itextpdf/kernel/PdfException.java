@@ -195,6 +195,7 @@ public class PdfException extends RuntimeException {
     public static final String InvalidIndirectReference1 = "Invalid indirect reference {0}.";
     public static final String InvalidMediaBoxValue = "Tne media box object has incorrect values.";
     public static final String InvalidPageStructure1 = "Invalid page structure {0}.";
+    public static final String InvalidPredictorRowSize1 = "Invalid row size {0} defined by the predictor parameters.";
     public static final String InvalidPageStructurePagesPagesMustBePdfDictionary = "Invalid page structure. /Pages must be PdfDictionary.";
     public static final String InvalidRangeArray = "Invalid range array.";
     public static final String InvalidOffsetForObject1 = "Invalid offset for object {0}.";
@@ -230,6 +231,7 @@ public class PdfException extends RuntimeException {
     public static final String OnlyBmpCanBeWrappedInWmf = "Only BMP can be wrapped in WMF.";
     public static final String OperatorEINotFoundAfterEndOfImageData = "Operator EI not found after the end of image data.";
     public static final String Page1CannotBeAddedToDocument2BecauseItBelongsToDocument3 = "Page {0} cannot be added to document {1}, because it belongs to document {2}.";
+    public static final String PageCopyingWasInterrupted = "Page copying was interrupted.";
     public static final String PageIsNotSetForThePdfTagStructure = "Page is not set for the pdf tag structure.";
     public static final String PageAlreadyFlushed = "The page has been already flushed.";
     public static final String PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing = "The page has been already flushed. Use PdfAcroForm#addFieldAppearanceToPage() method before page flushing.";
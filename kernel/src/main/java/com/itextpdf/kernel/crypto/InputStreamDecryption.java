@@ -0,0 +1,116 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.crypto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream which decrypts the data read from the underlying stream on the fly
+ * using the provided {@link IDecryptor}.
+ */
+public class InputStreamDecryption extends InputStream {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    protected InputStream in;
+    private final IDecryptor decryptor;
+    private final byte[] encrypted = new byte[BUFFER_SIZE];
+    private byte[] decrypted;
+    private int position;
+    private boolean finished;
+
+    /**
+     * Creates a new instance of {@link InputStreamDecryption}
+     * @param in the source {@link InputStream} to read encrypted content from
+     * @param decryptor the {@link IDecryptor} to be used for decryption
+     */
+    public InputStreamDecryption(InputStream in, IDecryptor decryptor) {
+        this.in = in;
+        this.decryptor = decryptor;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureDecryptedBytes()) {
+            return -1;
+        }
+        return decrypted[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureDecryptedBytes()) {
+            return -1;
+        }
+        int n = Math.min(len, decrypted.length - position);
+        System.arraycopy(decrypted, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean ensureDecryptedBytes() throws IOException {
+        while (decrypted == null || position >= decrypted.length) {
+            if (finished) {
+                return false;
+            }
+            int n = in.read(encrypted);
+            if (n < 0) {
+                finished = true;
+                decrypted = decryptor.finish();
+            } else {
+                decrypted = decryptor.update(encrypted, 0, n);
+            }
+            position = 0;
+        }
+        return true;
+    }
+}
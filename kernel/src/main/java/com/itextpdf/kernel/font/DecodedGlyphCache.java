@@ -0,0 +1,255 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.font;
+
+import com.itextpdf.io.font.otf.Glyph;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of the glyphs which character codes of a font are decoded into.
+ * <p>
+ * Codes are kept together with their length in bytes in a primitive open addressing table, so that the lookup
+ * doesn't require boxing. Once the cache is full, new codes are no longer added. The cache of a font read from
+ * a document is shared between all {@link PdfFont} instances of the same font dictionary, e.g. between the ones
+ * created while processing different pages, see {@link com.itextpdf.kernel.pdf.PdfDocument#getDecodedGlyphCache}.
+ * <p>
+ * The cache is thread-safe. Lookups don't lock: the table is published through a volatile field and the values
+ * are stored in an {@link AtomicReferenceArray}, so a lookup either sees a completely added code or treats
+ * the code as not cached. Only the additions are synchronized, and there are at most as many of them as
+ * the maximum number of codes.
+ */
+public class DecodedGlyphCache {
+
+    /**
+     * The default maximum number of codes in the cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 8192;
+
+    /**
+     * Marks the code which is in the code space of the font, but is not mapped to any glyph.
+     */
+    static final Object NO_GLYPH = new Object();
+
+    /**
+     * Marks the code which is not in the code space of the font.
+     */
+    static final Object NOT_IN_CODE_SPACE = new Object();
+
+    private static final int MAX_CACHED_CODE_LENGTH = 3;
+
+    private static final int EMPTY_KEY = -1;
+
+    private final int maxSize;
+    private final Object lock = new Object();
+    private volatile Table table;
+    private volatile int size;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a cache of {@link #DEFAULT_MAX_SIZE} size.
+     */
+    public DecodedGlyphCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache of the specified size.
+     *
+     * @param maxSize the maximum number of codes in the cache
+     */
+    public DecodedGlyphCache(int maxSize) {
+        this.maxSize = maxSize;
+        int capacity = 16;
+        while (capacity < Math.min(maxSize, 256) * 2) {
+            capacity <<= 1;
+        }
+        table = new Table(capacity);
+    }
+
+    /**
+     * Gets the number of the codes found in the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of the codes which had to be decoded, because they were not found in the cache.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the ratio of the codes found in the cache to all the looked up codes.
+     *
+     * @return the hit rate from 0 to 1, or 0 if no codes were looked up yet
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Gets the number of the codes in the cache.
+     *
+     * @return the number of the codes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Looks the decoded code up.
+     *
+     * @param code       the character code
+     * @param codeLength the length of the code in bytes
+     * @return the {@link Glyph}, {@link #NO_GLYPH} or {@link #NOT_IN_CODE_SPACE}, or {@code null} if the code is not cached
+     */
+    Object get(int code, int codeLength) {
+        if (codeLength > MAX_CACHED_CODE_LENGTH) {
+            return null;
+        }
+        Table t = table;
+        int key = toKey(code, codeLength);
+        int[] keys = t.keys;
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; keys[i] != EMPTY_KEY; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                // the key may be visible before the value is, then the code is treated as not cached
+                Object value = t.values.get(i);
+                if (value != null) {
+                    hits.incrementAndGet();
+                    return value;
+                }
+                break;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Adds the decoded code to the cache, unless the cache is full.
+     *
+     * @param code       the character code
+     * @param codeLength the length of the code in bytes
+     * @param value      the {@link Glyph}, {@link #NO_GLYPH} or {@link #NOT_IN_CODE_SPACE}
+     */
+    void put(int code, int codeLength, Object value) {
+        if (codeLength > MAX_CACHED_CODE_LENGTH || size >= maxSize) {
+            return;
+        }
+        synchronized (lock) {
+            if (size >= maxSize) {
+                return;
+            }
+            Table t = table;
+            if ((size + 1) * 2 > t.keys.length) {
+                t = rehash(t, t.keys.length * 2);
+                table = t;
+            }
+            int key = toKey(code, codeLength);
+            int mask = t.keys.length - 1;
+            int i = mix(key) & mask;
+            while (t.keys[i] != EMPTY_KEY) {
+                if (t.keys[i] == key) {
+                    t.values.set(i, value);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            t.values.set(i, value);
+            t.keys[i] = key;
+            size++;
+        }
+    }
+
+    private static Table rehash(Table old, int capacity) {
+        // the new table is filled completely before it is published, so the lookups never see it partially filled
+        Table t = new Table(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.keys.length; j++) {
+            if (old.keys[j] != EMPTY_KEY) {
+                int i = mix(old.keys[j]) & mask;
+                while (t.keys[i] != EMPTY_KEY) {
+                    i = (i + 1) & mask;
+                }
+                t.keys[i] = old.keys[j];
+                t.values.set(i, old.values.get(j));
+            }
+        }
+        return t;
+    }
+
+    private static int toKey(int code, int codeLength) {
+        // codes of up to 3 bytes fit into 24 bits, so the key is never negative
+        return (code << 2) | (codeLength - 1);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Table {
+        final int[] keys;
+        final AtomicReferenceArray<Object> values;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY_KEY);
+            values = new AtomicReferenceArray<>(capacity);
+        }
+    }
+}
@@ -50,11 +50,13 @@ import com.itextpdf.io.util.TextUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfObjectWrapper;
 import com.itextpdf.kernel.pdf.PdfOutputStream;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfString;
 
@@ -90,9 +92,24 @@ public abstract class PdfFont extends PdfObjectWrapper<PdfDictionary> {
     protected boolean subset = true;
     protected List<int[]> subsetRanges;
 
+    private transient DecodedGlyphCache decodedGlyphCache;
+
     protected PdfFont(PdfDictionary fontDictionary) {
         super(fontDictionary);
-        getPdfObject().put(PdfName.Type, PdfName.Font);
+        // the font dictionary may be shared by the fonts created by several threads reading the same document,
+        // so it is only modified if needed and under the reader lock
+        if (!PdfName.Font.equals(fontDictionary.getAsName(PdfName.Type))) {
+            PdfIndirectReference reference = fontDictionary.getIndirectReference();
+            PdfDocument document = reference != null ? reference.getDocument() : null;
+            PdfReader reader = document != null ? document.getReader() : null;
+            if (reader != null && reader.isThreadSafeReading()) {
+                synchronized (reader) {
+                    fontDictionary.put(PdfName.Type, PdfName.Font);
+                }
+            } else {
+                fontDictionary.put(PdfName.Type, PdfName.Font);
+            }
+        }
     }
 
     protected PdfFont() {
@@ -360,6 +377,28 @@ public abstract class PdfFont extends PdfObjectWrapper<PdfDictionary> {
         return fontProgram;
     }
 
+    /**
+     * Gets the cache of the glyphs the character codes of the font are decoded into, see {@link #decode(PdfString)}.
+     * The cache is only used for fonts read from a document, since glyphs of new fonts may still change.
+     * Fonts of the same font dictionary share the cache.
+     *
+     * @return the cache, or {@code null} if the font is a new one
+     */
+    public DecodedGlyphCache getDecodedGlyphCache() {
+        if (newFont) {
+            return null;
+        }
+        if (decodedGlyphCache == null) {
+            PdfIndirectReference reference = getPdfObject().getIndirectReference();
+            if (reference != null && reference.getDocument() != null) {
+                decodedGlyphCache = reference.getDocument().getDecodedGlyphCache(reference);
+            } else {
+                decodedGlyphCache = new DecodedGlyphCache();
+            }
+        }
+        return decodedGlyphCache;
+    }
+
     public boolean isEmbedded() {
         return embedded;
     }
@@ -275,22 +275,20 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
     public GlyphLine decodeIntoGlyphLine(PdfString content) {
         byte[] contentBytes = content.getValueBytes();
         List<Glyph> glyphs = new ArrayList<>(contentBytes.length);
+        DecodedGlyphCache cache = getDecodedGlyphCache();
         for (byte b : contentBytes) {
             int code = b & 0xff;
-            Glyph glyph = null;
-            if (toUnicode != null && toUnicode.lookup(code) != null && (glyph = fontProgram.getGlyphByCode(code)) != null) {
-                if (!Arrays.equals(toUnicode.lookup(code), glyph.getChars())) {
-                    // Copy the glyph because the original one may be reused (e.g. standard Helvetica font program)
-                    glyph = new Glyph(glyph);
-                    glyph.setChars(toUnicode.lookup(code));
+            Glyph glyph;
+            if (cache != null) {
+                Object cached = cache.get(code, 1);
+                if (cached == null) {
+                    glyph = decodeGlyph(code);
+                    cache.put(code, 1, glyph != null ? glyph : DecodedGlyphCache.NO_GLYPH);
+                } else {
+                    glyph = cached != DecodedGlyphCache.NO_GLYPH ? (Glyph) cached : null;
                 }
             } else {
-                int uni = fontEncoding.getUnicode(code);
-                if (uni > -1) {
-                    glyph = getGlyph(uni);
-                } else if (fontEncoding.getBaseEncoding() == null) {
-                    glyph = fontProgram.getGlyphByCode(code);
-                }
+                glyph = decodeGlyph(code);
             }
             if (glyph != null) {
                 glyphs.add(glyph);
@@ -309,6 +307,26 @@ public abstract class PdfSimpleFont<T extends FontProgram> extends PdfFont {
         return width;
     }
 
+    private Glyph decodeGlyph(int code) {
+        Glyph glyph = null;
+        char[] toUnicodeChars = toUnicode != null ? toUnicode.lookup(code) : null;
+        if (toUnicodeChars != null && (glyph = fontProgram.getGlyphByCode(code)) != null) {
+            if (!Arrays.equals(toUnicodeChars, glyph.getChars())) {
+                // Copy the glyph because the original one may be reused (e.g. standard Helvetica font program)
+                glyph = new Glyph(glyph);
+                glyph.setChars(toUnicodeChars);
+            }
+        } else {
+            int uni = fontEncoding.getUnicode(code);
+            if (uni > -1) {
+                glyph = getGlyph(uni);
+            } else if (fontEncoding.getBaseEncoding() == null) {
+                glyph = fontProgram.getGlyphByCode(code);
+            }
+        }
+        return glyph;
+    }
+
     /**
      * Gets the state of the property.
      *
@@ -531,6 +531,7 @@ public class PdfType0Font extends PdfFont {
         //have been tested. There will be at most one match because codespace ranges shall not overlap.
         String cids = content.getValue();
         List<Glyph> glyphs = new ArrayList<>();
+        DecodedGlyphCache cache = getDecodedGlyphCache();
         for (int i = 0; i < cids.length(); i++) {
             //The code length shall not be greater than 4.
             int code = 0;
@@ -538,14 +539,20 @@ public class PdfType0Font extends PdfFont {
             int codeSpaceMatchedLength = 1;
             for (int codeLength = 1; codeLength <= 4 && i + codeLength <= cids.length(); codeLength++) {
                 code = (code << 8) + cids.charAt(i + codeLength - 1);
-                if (!cmapEncoding.containsCodeInCodeSpaceRange(code, codeLength)) {
+                Object decoded = cache != null ? cache.get(code, codeLength) : null;
+                if (decoded == null) {
+                    decoded = decodeCode(code, codeLength);
+                    if (cache != null) {
+                        cache.put(code, codeLength, decoded);
+                    }
+                }
+                if (decoded == DecodedGlyphCache.NOT_IN_CODE_SPACE) {
                     continue;
                 } else {
                     codeSpaceMatchedLength = codeLength;
                 }
-                int glyphCode = cmapEncoding.getCidCode(code);
-                glyph = fontProgram.getGlyphByCode(glyphCode);
-                if (glyph != null) {
+                if (decoded != DecodedGlyphCache.NO_GLYPH) {
+                    glyph = (Glyph) decoded;
                     i += codeLength - 1;
                     break;
                 }
@@ -568,6 +575,14 @@ public class PdfType0Font extends PdfFont {
         return new GlyphLine(glyphs);
     }
 
+    private Object decodeCode(int code, int codeLength) {
+        if (!cmapEncoding.containsCodeInCodeSpaceRange(code, codeLength)) {
+            return DecodedGlyphCache.NOT_IN_CODE_SPACE;
+        }
+        Glyph glyph = fontProgram.getGlyphByCode(cmapEncoding.getCidCode(code));
+        return glyph != null ? glyph : DecodedGlyphCache.NO_GLYPH;
+    }
+
     @Override
     public float getContentWidth(PdfString content) {
         float width = 0;
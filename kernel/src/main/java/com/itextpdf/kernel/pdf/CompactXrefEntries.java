@@ -0,0 +1,130 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Compact storage of cross-reference entries which are kept in parallel primitive arrays
+ * indexed by object number instead of {@link PdfIndirectReference} instances.
+ * <p>
+ * For in use entries the offsets array holds the byte offset of the object in the file,
+ * for compressed entries it holds the index of the object inside its object stream, while
+ * the generations array holds the object stream number.
+ */
+class CompactXrefEntries implements Serializable {
+
+    private static final long serialVersionUID = -5325480829411446093L;
+
+    static final byte ABSENT = 0;
+    static final byte FREE = 1;
+    static final byte IN_USE = 2;
+    static final byte COMPRESSED = 3;
+
+    private byte[] types;
+    private long[] offsets;
+    private int[] generations;
+    private int count = 0;
+
+    CompactXrefEntries(int capacity) {
+        types = new byte[capacity];
+        offsets = new long[capacity];
+        generations = new int[capacity];
+    }
+
+    void put(int objNr, byte type, int genOrObjStreamNr, long offsetOrIndex) {
+        ensureCapacity(objNr + 1);
+        if (types[objNr] == ABSENT) {
+            ++count;
+        }
+        types[objNr] = type;
+        generations[objNr] = genOrObjStreamNr;
+        offsets[objNr] = offsetOrIndex;
+    }
+
+    void remove(int objNr) {
+        if (contains(objNr)) {
+            types[objNr] = ABSENT;
+            --count;
+        }
+    }
+
+    boolean contains(int objNr) {
+        return getType(objNr) != ABSENT;
+    }
+
+    byte getType(int objNr) {
+        return objNr >= 0 && objNr < types.length ? types[objNr] : ABSENT;
+    }
+
+    int getGenOrObjStreamNumber(int objNr) {
+        return generations[objNr];
+    }
+
+    long getOffsetOrIndex(int objNr) {
+        return offsets[objNr];
+    }
+
+    void setOffsetOrIndex(int objNr, long offsetOrIndex) {
+        offsets[objNr] = offsetOrIndex;
+    }
+
+    /**
+     * Gets the number of entries currently stored.
+     *
+     * @return the number of entries.
+     */
+    int size() {
+        return count;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            int newCapacity = Math.max(capacity, types.length << 1);
+            types = Arrays.copyOf(types, newCapacity);
+            offsets = Arrays.copyOf(offsets, newCapacity);
+            generations = Arrays.copyOf(generations, newCapacity);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Types of the streams, for which compression settings can be defined separately,
+ * see {@link WriterProperties#setCompressionLevel(CompressedStreamType, int)}.
+ */
+public enum CompressedStreamType {
+    /**
+     * Page content streams, form XObjects and the other streams, which don't fall under the other types.
+     */
+    CONTENT,
+    /**
+     * Embedded font programs.
+     */
+    FONT,
+    /**
+     * Image XObjects.
+     */
+    IMAGE,
+    /**
+     * Object streams, used in full compression mode.
+     */
+    OBJECT_STREAM;
+
+    private static final Set<String> FONT_FILE_3_SUBTYPES = new HashSet<>(Arrays.asList("Type1C", "CIDFontType0C", "OpenType"));
+
+    /**
+     * Determines the type of the stream by its dictionary.
+     *
+     * @param pdfStream the stream to get the type of.
+     * @return the type of the stream.
+     */
+    public static CompressedStreamType of(PdfStream pdfStream) {
+        if (pdfStream instanceof PdfObjectStream || PdfName.ObjStm.equals(pdfStream.getAsName(PdfName.Type))) {
+            return OBJECT_STREAM;
+        }
+        PdfName subtype = pdfStream.getAsName(PdfName.Subtype);
+        if (PdfName.Image.equals(subtype)) {
+            return IMAGE;
+        }
+        // FontFile and FontFile2 streams have Length1 entry, FontFile3 streams are recognized by subtype
+        if (pdfStream.containsKey(PdfName.Length1) || subtype != null && FONT_FILE_3_SUBTYPES.contains(subtype.getValue())) {
+            return FONT;
+        }
+        return CONTENT;
+    }
+}
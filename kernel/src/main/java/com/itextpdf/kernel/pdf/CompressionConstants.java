@@ -67,4 +67,17 @@ public class CompressionConstants {
      * A possible compression level.
      */
     public static final int BEST_COMPRESSION = java.util.zip.Deflater.BEST_COMPRESSION;
+    /**
+     * A possible compression strategy, used for the general data.
+     */
+    public static final int DEFAULT_STRATEGY = java.util.zip.Deflater.DEFAULT_STRATEGY;
+    /**
+     * A possible compression strategy, suitable for the data consisting mostly of small values with somewhat
+     * random distribution, e.g. image samples encoded with a predictor.
+     */
+    public static final int FILTERED = java.util.zip.Deflater.FILTERED;
+    /**
+     * A possible compression strategy, which uses Huffman coding only and is the fastest one.
+     */
+    public static final int HUFFMAN_ONLY = java.util.zip.Deflater.HUFFMAN_ONLY;
 }
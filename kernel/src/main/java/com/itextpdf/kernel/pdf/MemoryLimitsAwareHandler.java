@@ -182,6 +182,23 @@ public class MemoryLimitsAwareHandler implements Serializable {
         return this;
     }
 
+    /**
+     * Considers the number of bytes which were occupied by a pdf stream decompressed while being read,
+     * see {@link PdfReader#openStream(PdfStream, boolean)}.
+     * If memory limits have not been faced, throws an exception.
+     *
+     * @param numOfOccupiedBytes the number of bytes which were occupied by the decompressed pdf stream.
+     * @return this {@link MemoryLimitsAwareHandler} instance.
+     * @see MemoryLimitsAwareException
+     */
+    MemoryLimitsAwareHandler considerDecompressedPdfStream(long numOfOccupiedBytes) {
+        allMemoryUsedForDecompression += numOfOccupiedBytes;
+        if (allMemoryUsedForDecompression > maxSizeOfDecompressedPdfStreamsSum) {
+            throw new MemoryLimitsAwareException(PdfException.DuringDecompressionMultipleStreamsInSumOccupiedMoreMemoryThanAllowed);
+        }
+        return this;
+    }
+
     long getAllMemoryUsedForDecompression() {
         return allMemoryUsedForDecompression;
     }
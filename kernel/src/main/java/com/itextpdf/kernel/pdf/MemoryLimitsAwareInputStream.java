@@ -0,0 +1,133 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.PdfException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * This class implements an input stream which checks the limits of {@link MemoryLimitsAwareHandler} while the data
+ * decoded by a filter is being read, in the same way as {@link MemoryLimitsAwareOutputStream} does for the data
+ * decoded at once.
+ */
+class MemoryLimitsAwareInputStream extends FilterInputStream {
+
+    private final MemoryLimitsAwareHandler memoryLimitsAwareHandler;
+
+    /**
+     * The stream of the preceding filter of the same pdf stream.
+     */
+    private final MemoryLimitsAwareInputStream previous;
+
+    private long count = 0;
+
+    private boolean lastFilter = false;
+
+    private boolean considered = false;
+
+    MemoryLimitsAwareInputStream(InputStream in, MemoryLimitsAwareHandler memoryLimitsAwareHandler,
+            MemoryLimitsAwareInputStream previous) {
+        super(in);
+        this.memoryLimitsAwareHandler = memoryLimitsAwareHandler;
+        this.previous = previous;
+    }
+
+    /**
+     * Marks this stream as the stream of the last filter, which considers the pdf stream in the sum of all the
+     * decompressed pdf streams once it is read to the end.
+     *
+     * @return this {@link MemoryLimitsAwareInputStream} instance.
+     */
+    MemoryLimitsAwareInputStream setLastFilter() {
+        this.lastFilter = true;
+        return this;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        consider(b < 0 ? -1 : 1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        consider(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count += skipped;
+        checkSingleStream();
+        return skipped;
+    }
+
+    private void consider(int n) {
+        if (n > 0) {
+            count += n;
+            checkSingleStream();
+        } else if (n < 0 && lastFilter && !considered) {
+            considered = true;
+            // as for the data decoded at once, the biggest of the filters outputs is considered
+            long occupied = 0;
+            for (MemoryLimitsAwareInputStream stream = this; stream != null; stream = stream.previous) {
+                occupied = Math.max(occupied, stream.count);
+            }
+            synchronized (memoryLimitsAwareHandler) {
+                memoryLimitsAwareHandler.considerDecompressedPdfStream(occupied);
+            }
+        }
+    }
+
+    private void checkSingleStream() {
+        if (count > memoryLimitsAwareHandler.getMaxSizeOfSingleDecompressedPdfStream()) {
+            throw new MemoryLimitsAwareException(PdfException.DuringDecompressionSingleStreamOccupiedMoreMemoryThanAllowed);
+        }
+    }
+}
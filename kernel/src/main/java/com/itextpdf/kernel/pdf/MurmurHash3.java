@@ -0,0 +1,206 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+/**
+ * The 128-bit x64 variant of the MurmurHash3 non-cryptographic hash function.
+ * It is used in smart mode to fingerprint the stream contents, which is considerably faster than a cryptographic digest.
+ * The data may be hashed incrementally, so that streams are hashed while being read, without keeping them in memory.
+ */
+final class MurmurHash3 {
+
+    static final int HASH_LENGTH = 16;
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+    private long h2;
+    private long length;
+
+    private final byte[] tail = new byte[16];
+    private int tailLength;
+
+    /**
+     * Creates a hash function with zero seed.
+     */
+    MurmurHash3() {
+    }
+
+    /**
+     * Calculates the 128-bit hash of the data with zero seed.
+     *
+     * @param data the data to hash
+     * @return the hash, two 64-bit halves written in little-endian order
+     */
+    static byte[] hash128(byte[] data) {
+        return hash128(data, 0, data.length);
+    }
+
+    /**
+     * Calculates the 128-bit hash of the part of the data with zero seed.
+     *
+     * @param data   the data to hash
+     * @param offset the offset of the first byte to hash
+     * @param length the number of bytes to hash
+     * @return the hash, two 64-bit halves written in little-endian order
+     */
+    static byte[] hash128(byte[] data, int offset, int length) {
+        MurmurHash3 hash = new MurmurHash3();
+        hash.update(data, offset, length);
+        return hash.digest();
+    }
+
+    /**
+     * Adds the part of the data to the hashed data.
+     *
+     * @param data   the data to hash
+     * @param offset the offset of the first byte to hash
+     * @param length the number of bytes to hash
+     */
+    void update(byte[] data, int offset, int length) {
+        this.length += length;
+        if (tailLength > 0) {
+            int n = Math.min(16 - tailLength, length);
+            System.arraycopy(data, offset, tail, tailLength, n);
+            tailLength += n;
+            offset += n;
+            length -= n;
+            if (tailLength < 16) {
+                return;
+            }
+            processBlock(tail, 0);
+            tailLength = 0;
+        }
+        int blocksEnd = offset + (length & ~15);
+        for (; offset < blocksEnd; offset += 16) {
+            processBlock(data, offset);
+        }
+        tailLength = length & 15;
+        System.arraycopy(data, blocksEnd, tail, 0, tailLength);
+    }
+
+    /**
+     * Completes the calculation. The instance shall not be used afterwards.
+     *
+     * @return the hash, two 64-bit halves written in little-endian order
+     */
+    byte[] digest() {
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = tailLength - 1; i >= 8; i--) {
+            k2 ^= (long) (tail[i] & 0xff) << ((i - 8) * 8);
+        }
+        for (int i = Math.min(tailLength, 8) - 1; i >= 0; i--) {
+            k1 ^= (long) (tail[i] & 0xff) << (i * 8);
+        }
+        if (tailLength > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (tailLength > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+
+        byte[] hash = new byte[HASH_LENGTH];
+        putLongLittleEndian(hash, 0, h1);
+        putLongLittleEndian(hash, 8, h2);
+        return hash;
+    }
+
+    private void processBlock(byte[] data, int offset) {
+        h1 ^= mixK1(getLongLittleEndian(data, offset));
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(getLongLittleEndian(data, offset + 8));
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLongLittleEndian(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static void putLongLittleEndian(byte[] data, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            data[offset + i] = (byte) (value >>> (i * 8));
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.filters.IFlateCodec;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Queue of the flushed objects, whose writing is postponed while the streams are deflated by an executor.
+ * <p>
+ * Once a stream which needs compression is flushed, its content is submitted for compression and the stream
+ * together with all the objects flushed after it are kept in the queue. The objects are written in the order
+ * they were flushed as soon as the compression of all the preceding streams is finished, so the output is exactly
+ * the same as if the streams were compressed on the writing thread. If the uncompressed size of the streams in the
+ * queue exceeds the in-flight byte budget, the writing thread waits for the compression of the queued streams.
+ */
+class ParallelCompressionQueue {
+
+    private final PdfWriter writer;
+    private final ExecutorService executor;
+    private final long maxInFlightBytes;
+
+    private final Deque<QueuedObject> queue = new ArrayDeque<>();
+    private long inFlightBytes = 0;
+    private QueuedObject writingObject;
+
+    ParallelCompressionQueue(PdfWriter writer, ExecutorService executor, long maxInFlightBytes) {
+        this.writer = writer;
+        this.executor = executor;
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * Puts the flushed object to the queue, if it's a stream which needs compression or if there are
+     * other objects waiting in the queue.
+     *
+     * @param pdfObject the flushed object.
+     * @return true if the object was queued and its writing is postponed, false if it shall be written right away.
+     * @throws IOException on error.
+     */
+    boolean offer(PdfObject pdfObject) throws IOException {
+        QueuedObject queuedObject;
+        if (pdfObject.getType() == PdfObject.STREAM && writer.isDeflatedOnWrite((PdfStream) pdfObject)) {
+            queuedObject = submitCompression((PdfStream) pdfObject);
+        } else if (!queue.isEmpty()) {
+            queuedObject = new QueuedObject(pdfObject, null, 0);
+        } else {
+            return false;
+        }
+        queue.addLast(queuedObject);
+        inFlightBytes += queuedObject.size;
+        return true;
+    }
+
+    /**
+     * Writes the queued objects in the order they were flushed.
+     *
+     * @param waitForAll true if all the objects shall be written, waiting for the compression of the streams
+     *                   if needed; false if only the objects, which are not preceded by a stream still being
+     *                   compressed, shall be written unless the in-flight byte budget is exceeded.
+     * @throws IOException on error.
+     */
+    void writeCompleted(boolean waitForAll) throws IOException {
+        while (!queue.isEmpty()) {
+            QueuedObject head = queue.peekFirst();
+            if (!waitForAll && inFlightBytes <= maxInFlightBytes && head.compressed != null && !head.compressed.isDone()) {
+                break;
+            }
+            queue.pollFirst();
+            inFlightBytes -= head.size;
+            writingObject = head;
+            try {
+                writer.writeQueuedObject(head.pdfObject);
+            } finally {
+                writingObject = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the content compressed by the executor for the stream currently being written.
+     *
+     * @param pdfStream the stream being written.
+     * @return the compressed content or null if the content of the given stream was not compressed by the executor.
+     */
+    ByteArrayOutputStream getCompressedContent(PdfStream pdfStream) {
+        if (writingObject == null || writingObject.pdfObject != pdfStream || writingObject.compressed == null) {
+            return null;
+        }
+        try {
+            return writingObject.compressed.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.CannotWriteToPdfStream, e, pdfStream);
+        } catch (ExecutionException e) {
+            throw new PdfException(PdfException.CannotWriteToPdfStream, e.getCause(), pdfStream);
+        }
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private QueuedObject submitCompression(PdfStream pdfStream) throws IOException {
+        final int compressionLevel = writer.getCompressionLevel(pdfStream);
+        final int strategy = writer.getCompressionStrategy(pdfStream);
+        final IFlateCodec codec = writer.getFlateCodec();
+        final java.io.ByteArrayOutputStream[] parts;
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            parts = new java.io.ByteArrayOutputStream[] {
+                    (java.io.ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream(),
+                    (java.io.ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()};
+        } else {
+            parts = new java.io.ByteArrayOutputStream[] {(java.io.ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()};
+        }
+        long size = 0;
+        for (java.io.ByteArrayOutputStream part : parts) {
+            size += part.size();
+        }
+        Future<ByteArrayOutputStream> compressed = executor.submit(new Callable<ByteArrayOutputStream>() {
+            @Override
+            public ByteArrayOutputStream call() throws IOException {
+                return PdfOutputStream.deflate(codec, compressionLevel, strategy, parts);
+            }
+        });
+        return new QueuedObject(pdfStream, compressed, size);
+    }
+
+    private static class QueuedObject {
+        final PdfObject pdfObject;
+        final Future<ByteArrayOutputStream> compressed;
+        final long size;
+
+        QueuedObject(PdfObject pdfObject, Future<ByteArrayOutputStream> compressed, long size) {
+            this.pdfObject = pdfObject;
+            this.compressed = compressed;
+            this.size = size;
+        }
+    }
+}
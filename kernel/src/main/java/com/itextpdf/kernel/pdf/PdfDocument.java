@@ -60,6 +60,7 @@ import com.itextpdf.kernel.events.EventDispatcher;
 import com.itextpdf.kernel.events.IEventDispatcher;
 import com.itextpdf.kernel.events.IEventHandler;
 import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.font.DecodedGlyphCache;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
@@ -202,6 +203,8 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
     private Map<PdfIndirectReference, PdfFont> documentFonts = new HashMap<>();
     private PdfFont defaultFont = null;
 
+    private transient Map<PdfIndirectReference, DecodedGlyphCache> decodedGlyphCaches;
+
     protected transient TagStructureContext tagStructureContext;
 
     private static final AtomicLong lastDocumentId = new AtomicLong();
@@ -221,6 +224,11 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
      */
     Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
 
+    /**
+     * The smart mode serializer which filled {@link #serializedObjectsCache}.
+     */
+    transient Object serializedObjectsCacheOwner;
+
     /**
      * Handler which will be used for decompression of pdf streams.
      */
@@ -406,6 +414,12 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
      */
     public PdfPage getPage(int pageNum) {
         checkClosingStatus();
+        if (reader != null && reader.isThreadSafeReading()) {
+            // pages are loaded lazily, so the page tree is guarded by the same lock as the reader
+            synchronized (reader) {
+                return catalog.getPageTree().getPage(pageNum);
+            }
+        }
         return catalog.getPageTree().getPage(pageNum);
     }
 
@@ -944,6 +958,8 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                     }
                 }
 
+                // The objects waiting for the compression of the preceding streams shall still be encrypted.
+                writer.writeQueuedObjects();
                 // To avoid encryption of XrefStream and Encryption dictionary remove crypto.
                 // NOTE. No need in reverting, because it is the last operation with the document.
                 writer.crypto = null;
@@ -964,6 +980,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
                 // either writer properties, or in the writer init section on document open or from pdfreader. So we shouldn't worry about it being null next
                 PdfObject fileId = PdfEncryption.createInfoId(ByteUtils.getIsoBytes(originalDocumentId.getValue()),
                         ByteUtils.getIsoBytes(modifiedDocumentId.getValue()));
+                writer.writeQueuedObjects();
                 xref.writeXrefTableAndTrailer(this, fileId, crypto);
                 writer.flush();
                 for (ICounter counter : getCounters()) {
@@ -1729,6 +1746,25 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         }
     }
 
+    /**
+     * Gets the cache of the glyphs decoded with the font of the document. The cache is shared by all {@link PdfFont}
+     * instances created for the same font dictionary, e.g. by the ones created while processing different pages.
+     *
+     * @param fontReference the indirect reference of the font dictionary
+     * @return the cache of the decoded glyphs
+     */
+    public synchronized DecodedGlyphCache getDecodedGlyphCache(PdfIndirectReference fontReference) {
+        if (decodedGlyphCaches == null) {
+            decodedGlyphCaches = new HashMap<>();
+        }
+        DecodedGlyphCache cache = decodedGlyphCaches.get(fontReference);
+        if (cache == null) {
+            cache = new DecodedGlyphCache();
+            decodedGlyphCaches.put(fontReference, cache);
+        }
+        return cache;
+    }
+
     /**
      * Gets default font for the document: Helvetica, WinAnsi.
      * One instance per document.
@@ -46,6 +46,7 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.util.SystemUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.IDecryptor;
+import com.itextpdf.kernel.crypto.InputStreamDecryption;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.crypto.securityhandler.PubKeySecurityHandler;
 import com.itextpdf.kernel.crypto.securityhandler.PubSecHandlerUsingAes128;
@@ -61,6 +62,7 @@ import com.itextpdf.kernel.crypto.securityhandler.StandardSecurityHandler;
 import com.itextpdf.kernel.security.IExternalDecryptionProcess;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
@@ -419,6 +421,16 @@ public class PdfEncryption extends PdfObjectWrapper<PdfDictionary> {
         }
     }
 
+    /**
+     * Creates a stream which decrypts the bytes read from the passed stream as they are requested.
+     *
+     * @param is the stream to read encrypted bytes from
+     * @return {@link InputStreamDecryption} wrapping the passed stream
+     */
+    public InputStreamDecryption getDecryptionStream(InputStream is) {
+        return new InputStreamDecryption(is, securityHandler.getDecryptor());
+    }
+
     public boolean isOpenedWithFullPermission() {
         if (securityHandler instanceof PubKeySecurityHandler) {
             return true;
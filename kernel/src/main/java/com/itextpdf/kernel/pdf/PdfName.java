@@ -47,6 +47,7 @@ import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.ByteUtils;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Map;
 
 public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
@@ -935,6 +936,8 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
      */
     public static Map<String, PdfName> staticNames;
 
+    private static final PdfNameLookup staticNamesLookup;
+
     /**
      * Use reflection to cache all the public static final names so
      * future <code>PdfName</code> additions don't have to be "added twice".
@@ -943,12 +946,26 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
      */
     static {
         staticNames = PdfNameLoader.loadNames();
+        staticNamesLookup = new PdfNameLookup(staticNames != null ? staticNames : Collections.<String, PdfName>emptyMap());
     }
 
     private static PdfName createDirectName(String name) {
         return new PdfName(name, true);
     }
 
+    /**
+     * Gets the static name, whose value consists of the given bytes, without creating a {@link String} of the value.
+     * Only the names, which were in {@link #staticNames} when the class was initialized, are found.
+     *
+     * @param content the buffer containing the name
+     * @param offset  the offset of the name in the buffer
+     * @param length  the length of the name
+     * @return the static name or null if there is no static name with such value
+     */
+    public static PdfName getStaticName(byte[] content, int offset, int length) {
+        return staticNamesLookup.get(content, offset, length);
+    }
+
     /**
      * Create a PdfName from the passed string
      *
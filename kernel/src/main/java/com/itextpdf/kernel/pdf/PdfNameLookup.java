@@ -0,0 +1,106 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteUtils;
+
+import java.util.Map;
+
+/**
+ * Open addressing hash table of the static names, which are looked up directly by the bytes of the name,
+ * so that no {@link String} needs to be created for each name token while parsing.
+ */
+final class PdfNameLookup {
+
+    private final byte[][] keys;
+    private final PdfName[] names;
+    private final int mask;
+
+    PdfNameLookup(Map<String, PdfName> staticNames) {
+        int capacity = Integer.highestOneBit(Math.max(staticNames.size(), 1) * 4 - 1) << 1;
+        keys = new byte[capacity][];
+        names = new PdfName[capacity];
+        mask = capacity - 1;
+        for (Map.Entry<String, PdfName> entry : staticNames.entrySet()) {
+            byte[] key = ByteUtils.getIsoBytes(entry.getKey());
+            int i = hash(key, 0, key.length) & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            names[i] = entry.getValue();
+        }
+    }
+
+    PdfName get(byte[] content, int offset, int length) {
+        int i = hash(content, offset, length) & mask;
+        byte[] key;
+        while ((key = keys[i]) != null) {
+            if (equals(key, content, offset, length)) {
+                return names[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(byte[] content, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + content[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] content, int offset, int length) {
+        if (key.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key[i] != content[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -46,11 +46,12 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
-import com.itextpdf.io.source.DeflaterOutputStream;
 import com.itextpdf.io.source.OutputStream;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.OutputStreamEncryption;
 import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
+import com.itextpdf.kernel.pdf.filters.IFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipFlateCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +69,8 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
     private static final byte[] endIndirect = ByteUtils.getIsoBytes(" R");
     private static final byte[] endIndirectWithZeroGenNr = ByteUtils.getIsoBytes(" 0 R");
 
+    private static final IFlateCodec DEFAULT_FLATE_CODEC = new ZipFlateCodec();
+
     // For internal usage only
     private byte[] duplicateContentBuffer = null;
 
@@ -286,24 +289,22 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         try {
             boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
             if (!userDefinedCompression) {
-                int defaultCompressionLevel = document != null ?
-                        document.getWriter().getCompressionLevel() :
-                        CompressionConstants.DEFAULT_COMPRESSION;
-                pdfStream.setCompressionLevel(defaultCompressionLevel);
+                pdfStream.setCompressionLevel(getCompressionLevel(pdfStream));
             }
             boolean toCompress = pdfStream.getCompressionLevel() != CompressionConstants.NO_COMPRESSION;
             boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
 
             if (pdfStream.getInputStream() != null) {
                 java.io.OutputStream fout = this;
-                DeflaterOutputStream def = null;
+                java.io.OutputStream def = null;
                 OutputStreamEncryption ose = null;
                 if (crypto != null && !crypto.isEmbeddedFilesOnly()) {
                     fout = ose = crypto.getEncryptionStream(fout);
                 }
                 if (toCompress && (allowCompression || userDefinedCompression)) {
                     updateCompressionFilter(pdfStream);
-                    fout = def = new DeflaterOutputStream(fout, pdfStream.getCompressionLevel(), 0x8000);
+                    fout = def = getFlateCodec().createDeflaterStream(fout, pdfStream.getCompressionLevel(),
+                            getCompressionStrategy(pdfStream));
                 }
                 this.write((PdfDictionary) pdfStream);
                 writeBytes(PdfOutputStream.stream);
@@ -316,7 +317,8 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                     fout.write(buf, 0, n);
                 }
                 if (def != null) {
-                    def.finish();
+                    // finishes the compressed data, the underlying stream is left open
+                    def.close();
                 }
                 if (ose != null) {
                     ose.finish();
@@ -344,17 +346,7 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
                     if (toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression)) {
                         // compress
                         updateCompressionFilter(pdfStream);
-                        byteArrayStream = new ByteArrayOutputStream();
-                        DeflaterOutputStream zip = new DeflaterOutputStream(byteArrayStream, pdfStream.getCompressionLevel());
-                        if (pdfStream instanceof PdfObjectStream) {
-                            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
-                            ((ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream()).writeTo(zip);
-                            ((ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        } else {
-                            assert pdfStream.getOutputStream() != null : "Error in outputStream";
-                            ((ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream()).writeTo(zip);
-                        }
-                        zip.finish();
+                        byteArrayStream = compressStreamContent(pdfStream);
                     } else {
                         if (pdfStream instanceof PdfObjectStream) {
                             PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
@@ -389,6 +381,91 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         }
     }
 
+    /**
+     * Checks whether the content of the stream will be compressed by {@link #compressStreamContent(PdfStream)}
+     * from the bytes kept in memory when the stream is written.
+     *
+     * @param pdfStream the stream to be written.
+     * @return true if the content will be deflated by {@link #compressStreamContent(PdfStream)}, false otherwise.
+     */
+    boolean isDeflatedOnWrite(PdfStream pdfStream) {
+        if (pdfStream.getInputStream() != null || pdfStream.getOutputStream() == null
+                || pdfStream.getOutputStream().getOutputStream() == null || isXRefStream(pdfStream)) {
+            return false;
+        }
+        boolean userDefinedCompression = pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION;
+        boolean toCompress = getCompressionLevel(pdfStream) != CompressionConstants.NO_COMPRESSION;
+        boolean allowCompression = !pdfStream.containsKey(PdfName.Filter) && isNotMetadataPdfStream(pdfStream);
+        return toCompress && !containsFlateFilter(pdfStream) && (allowCompression || userDefinedCompression);
+    }
+
+    /**
+     * Gets the compression level the stream will be written with.
+     *
+     * @param pdfStream the stream to be written.
+     * @return the compression level of the stream if it is defined, otherwise the default compression level.
+     */
+    int getCompressionLevel(PdfStream pdfStream) {
+        if (pdfStream.getCompressionLevel() != CompressionConstants.UNDEFINED_COMPRESSION) {
+            return pdfStream.getCompressionLevel();
+        }
+        return document != null ? document.getWriter().getCompressionLevel(CompressedStreamType.of(pdfStream))
+                : CompressionConstants.DEFAULT_COMPRESSION;
+    }
+
+    /**
+     * Gets the compression strategy the stream will be written with.
+     *
+     * @param pdfStream the stream to be written.
+     * @return the compression strategy defined for the type of the stream, otherwise the default strategy.
+     */
+    int getCompressionStrategy(PdfStream pdfStream) {
+        return document != null ? document.getWriter().getCompressionStrategy(CompressedStreamType.of(pdfStream))
+                : CompressionConstants.DEFAULT_STRATEGY;
+    }
+
+    /**
+     * Gets the codec the streams are compressed with.
+     *
+     * @return the codec set in the writer properties, otherwise the default codec.
+     */
+    IFlateCodec getFlateCodec() {
+        IFlateCodec codec = document != null ? document.getWriter().properties.flateCodec : null;
+        return codec != null ? codec : DEFAULT_FLATE_CODEC;
+    }
+
+    /**
+     * Compresses the content of the stream, which is kept in memory, with the {@link IFlateCodec} of the writer.
+     *
+     * @param pdfStream the stream to be written.
+     * @return the compressed content.
+     * @throws IOException on error.
+     */
+    ByteArrayOutputStream compressStreamContent(PdfStream pdfStream) throws IOException {
+        int strategy = getCompressionStrategy(pdfStream);
+        if (pdfStream instanceof PdfObjectStream) {
+            PdfObjectStream objectStream = (PdfObjectStream) pdfStream;
+            return deflate(getFlateCodec(), pdfStream.getCompressionLevel(), strategy,
+                    (ByteArrayOutputStream) objectStream.getIndexStream().getOutputStream(),
+                    (ByteArrayOutputStream) objectStream.getOutputStream().getOutputStream());
+        } else {
+            assert pdfStream.getOutputStream() != null : "Error in outputStream";
+            return deflate(getFlateCodec(), pdfStream.getCompressionLevel(), strategy,
+                    (ByteArrayOutputStream) pdfStream.getOutputStream().getOutputStream());
+        }
+    }
+
+    static ByteArrayOutputStream deflate(IFlateCodec codec, int compressionLevel, int strategy,
+            java.io.ByteArrayOutputStream... parts) throws IOException {
+        ByteArrayOutputStream byteArrayStream = new ByteArrayOutputStream();
+        java.io.OutputStream zip = codec.createDeflaterStream(byteArrayStream, compressionLevel, strategy);
+        for (java.io.ByteArrayOutputStream part : parts) {
+            part.writeTo(zip);
+        }
+        zip.close();
+        return byteArrayStream;
+    }
+
     protected boolean checkEncryption(PdfStream pdfStream) {
         if (crypto == null || crypto.isEmbeddedFilesOnly()) {
             return false;
@@ -494,9 +571,9 @@ public class PdfOutputStream extends OutputStream<PdfOutputStream> {
         }
 
         // decode
-        byte[] res = FlateDecodeFilter.flateDecode(bytes, true);
+        byte[] res = FlateDecodeFilter.flateDecode(bytes, true, getFlateCodec());
         if (res == null)
-            res = FlateDecodeFilter.flateDecode(bytes, false);
+            res = FlateDecodeFilter.flateDecode(bytes, false, getFlateCodec());
         bytes = FlateDecodeFilter.decodePredictor(res, decodeParams);
 
 
@@ -48,20 +48,26 @@ import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.IRandomAccessSource;
 import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RASInputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.source.ThreadSafeRandomAccessSource;
 import com.itextpdf.io.source.WindowRandomAccessSource;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.crypto.securityhandler.UnsupportedSecurityHandlerException;
 import com.itextpdf.kernel.pdf.filters.FilterHandlers;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
 import com.itextpdf.kernel.pdf.filters.IFilterHandler;
+import com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler;
 import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -96,6 +102,12 @@ public class PdfReader implements Closeable, Serializable {
     protected PdfTokenizer tokens;
     protected PdfEncryption decrypt;
 
+    // the last decoded object stream, it is kept only if lazy xref loading is enabled
+    private transient ObjectStreamContent lastReadObjectStream;
+
+    // filter handlers using the flate codec of the reader properties, if it is set
+    private transient Map<PdfName, IFilterHandler> filterHandlers;
+
     // here we store only the pdfVersion that is written in the document's header,
     // however it could differ from the actual pdf version that could be written in document's catalog
     protected PdfVersion headerPdfVersion;
@@ -120,7 +132,7 @@ public class PdfReader implements Closeable, Serializable {
      */
     public PdfReader(IRandomAccessSource byteSource, ReaderProperties properties) throws IOException {
         this.properties = properties;
-        this.tokens = getOffsetTokeniser(byteSource);
+        this.tokens = getOffsetTokeniser(properties.threadSafeReading ? new ThreadSafeRandomAccessSource(byteSource) : byteSource);
     }
 
     /**
@@ -238,6 +250,16 @@ public class PdfReader implements Closeable, Serializable {
         tokens.setCloseStream(closeStream);
     }
 
+    /**
+     * Gets whether the document is read in thread safe mode, see {@link ReaderProperties#setThreadSafeReading(boolean)}.
+     *
+     * @return true, if objects and streams of the document may be read from several threads concurrently,
+     * otherwise false.
+     */
+    public boolean isThreadSafeReading() {
+        return properties.threadSafeReading;
+    }
+
     /**
      * If any exception generated while reading XRef section, PdfReader will try to rebuild it.
      *
@@ -322,7 +344,7 @@ public class PdfReader implements Closeable, Serializable {
     public byte[] readStreamBytes(PdfStream stream, boolean decode) throws IOException {
         byte[] b = readStreamBytesRaw(stream);
         if (decode && b != null) {
-            return decodeBytes(b, stream);
+            return decodeBytes(b, stream, getFilterHandlers());
         } else {
             return b;
         }
@@ -336,6 +358,15 @@ public class PdfReader implements Closeable, Serializable {
      * @throws IOException on error.
      */
     public byte[] readStreamBytesRaw(PdfStream stream) throws IOException {
+        if (properties.threadSafeReading) {
+            synchronized (this) {
+                return readStreamBytesRawUnlocked(stream);
+            }
+        }
+        return readStreamBytesRawUnlocked(stream);
+    }
+
+    private byte[] readStreamBytesRawUnlocked(PdfStream stream) throws IOException {
         PdfName type = stream.getAsName(PdfName.Type);
         if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
             checkPdfStreamLength(stream);
@@ -351,27 +382,9 @@ public class PdfReader implements Closeable, Serializable {
             file.seek(stream.getOffset());
             bytes = new byte[length];
             file.readFully(bytes);
-            if (decrypt != null && !decrypt.isEmbeddedFilesOnly()) {
-                PdfObject filter = stream.get(PdfName.Filter, true);
-                boolean skip = false;
-                if (filter != null) {
-                    if (PdfName.Crypt.equals(filter)) {
-                        skip = true;
-                    } else if (filter.getType() == PdfObject.ARRAY) {
-                        PdfArray filters = (PdfArray) filter;
-                        for (int k = 0; k < filters.size(); k++) {
-                            if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
-                                skip = true;
-                                break;
-                            }
-                        }
-                    }
-                    filter.release();
-                }
-                if (!skip) {
-                    decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
-                    bytes = decrypt.decryptByteArray(bytes);
-                }
+            if (isDecryptionNeeded(stream)) {
+                decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
+                bytes = decrypt.decryptByteArray(bytes);
             }
         } finally {
             try {
@@ -395,6 +408,45 @@ public class PdfReader implements Closeable, Serializable {
         return bytes != null ? new ByteArrayInputStream(bytes) : null;
     }
 
+    /**
+     * Opens a stream for reading, decrypting and optionally decoding the stream bytes.
+     * The bytes are read directly from the source of the document and decrypted and decoded while the returned
+     * stream is being read, so that neither encoded nor decoded data is kept in memory as a whole,
+     * unless one of the stream filters doesn't support streaming decoding, see {@link IStreamingFilterHandler}.
+     * User is responsible for closing returned stream.
+     *
+     * @param decode true if to get decoded stream, false if to leave it originally encoded.
+     * @return InputStream or {@code null} if stream has no data in the file.
+     * @throws IOException on error.
+     */
+    public InputStream openStream(PdfStream stream, boolean decode) throws IOException {
+        if (properties.threadSafeReading) {
+            synchronized (this) {
+                return openStreamUnlocked(stream, decode);
+            }
+        }
+        return openStreamUnlocked(stream, decode);
+    }
+
+    private InputStream openStreamUnlocked(PdfStream stream, boolean decode) throws IOException {
+        PdfName type = stream.getAsName(PdfName.Type);
+        if (!PdfName.XRefStm.equals(type) && !PdfName.ObjStm.equals(type))
+            checkPdfStreamLength(stream);
+        long offset = stream.getOffset();
+        if (offset <= 0)
+            return null;
+        int length = stream.getLength();
+        if (length <= 0)
+            return new ByteArrayInputStream(new byte[0]);
+        InputStream is = new RASInputStream(new WindowRandomAccessSource(tokens.getSafeFile().createSourceView(), offset, length));
+        if (isDecryptionNeeded(stream)) {
+            // decryptor copies the object key, so other objects can be decrypted while the returned stream is being read
+            decrypt.setHashKeyForNextObject(stream.getIndirectReference().getObjNumber(), stream.getIndirectReference().getGenNumber());
+            is = decrypt.getDecryptionStream(is);
+        }
+        return decode ? decodeStream(is, stream, getFilterHandlers()) : is;
+    }
+
     /**
      * Decode bytes applying the filters specified in the provided dictionary using default filter handlers.
      *
@@ -420,16 +472,93 @@ public class PdfReader implements Closeable, Serializable {
         if (b == null) {
             return null;
         }
-        PdfObject filter = streamDictionary.get(PdfName.Filter);
-        PdfArray filters = new PdfArray();
-        if (filter != null) {
-            if (filter.getType() == PdfObject.NAME) {
-                filters.add(filter);
-            } else if (filter.getType() == PdfObject.ARRAY) {
-                filters = ((PdfArray) filter);
+        PdfArray filters = getFilters(streamDictionary);
+
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = getMemoryLimitsAwareHandler(streamDictionary, filters);
+        if (null != memoryLimitsAwareHandler) {
+            // the handler keeps the state of the stream being decompressed,
+            // so the suspicious streams of a document are decoded one at a time
+            synchronized (memoryLimitsAwareHandler) {
+                memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
+                b = applyFilters(b, streamDictionary, filters, filterHandlers, memoryLimitsAwareHandler);
+                memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+            }
+            return b;
+        }
+        return applyFilters(b, streamDictionary, filters, filterHandlers, null);
+    }
+
+    /**
+     * Creates a stream which decodes the passed stream applying the filters specified in the provided dictionary
+     * using default filter handlers.
+     *
+     * @param is               the stream of the bytes to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @return the stream of the decoded bytes
+     * @throws IOException if the bytes couldn't be read for a filter which doesn't support streaming decoding
+     * @throws PdfException if there are any problems decoding the bytes
+     */
+    public static InputStream decodeStream(InputStream is, PdfDictionary streamDictionary) throws IOException {
+        return decodeStream(is, streamDictionary, FilterHandlers.getDefaultFilterHandlers());
+    }
+
+    /**
+     * Creates a stream which decodes the passed stream applying the filters specified in the provided dictionary
+     * using the provided filter handlers.
+     * The filters implementing {@link IStreamingFilterHandler} decode the data while the returned stream is being read.
+     * For the other filters all the bytes preceding them in the filter chain are read and decoded at once.
+     * The decompression is limited by the {@link MemoryLimitsAwareHandler} of the document in the same way
+     * as in {@link #decodeBytes(byte[], PdfDictionary, Map)}, while the returned stream is being read.
+     *
+     * @param is               the stream of the bytes to decode
+     * @param streamDictionary the dictionary that contains filter information
+     * @param filterHandlers   the map used to look up a handler for each type of filter
+     * @return the stream of the decoded bytes
+     * @throws IOException if the bytes couldn't be read for a filter which doesn't support streaming decoding
+     * @throws PdfException if there are any problems decoding the bytes
+     */
+    public static InputStream decodeStream(InputStream is, PdfDictionary streamDictionary, Map<PdfName, IFilterHandler> filterHandlers) throws IOException {
+        if (is == null) {
+            return null;
+        }
+        PdfArray filters = getFilters(streamDictionary);
+        PdfArray dp = getDecodeParams(streamDictionary);
+        MemoryLimitsAwareHandler memoryLimitsAwareHandler = getMemoryLimitsAwareHandler(streamDictionary, filters);
+        MemoryLimitsAwareInputStream limitedStream = null;
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            if (filterHandler instanceof IStreamingFilterHandler) {
+                is = ((IStreamingFilterHandler) filterHandler).decodeStream(is, filterName, decodeParams, streamDictionary);
+            } else {
+                byte[] b;
+                try {
+                    b = StreamUtil.inputStreamToArray(is);
+                } finally {
+                    is.close();
+                }
+                is = new ByteArrayInputStream(filterHandler.decode(b, filterName, decodeParams, streamDictionary));
+            }
+            if (null != memoryLimitsAwareHandler) {
+                limitedStream = new MemoryLimitsAwareInputStream(is, memoryLimitsAwareHandler, limitedStream);
+                is = limitedStream;
             }
         }
+        if (null != limitedStream) {
+            limitedStream.setLastFilter();
+        }
+        return is;
+    }
 
+    /**
+     * Gets the memory limits aware handler of the document if the stream is suspicious, i.e. has several filters of
+     * the same type, so that its decompression shall be limited.
+     */
+    private static MemoryLimitsAwareHandler getMemoryLimitsAwareHandler(PdfDictionary streamDictionary, PdfArray filters) {
         MemoryLimitsAwareHandler memoryLimitsAwareHandler = null;
         if (null != streamDictionary.getIndirectReference()) {
             memoryLimitsAwareHandler = streamDictionary.getIndirectReference().getDocument().memoryLimitsAwareHandler;
@@ -440,7 +569,6 @@ public class PdfReader implements Closeable, Serializable {
             for (index = 0; index < filters.size(); index++) {
                 PdfName filterName = filters.getAsName(index);
                 if (!filterSet.add(filterName)) {
-                    memoryLimitsAwareHandler.beginDecompressedPdfStreamProcessing();
                     break;
                 }
             }
@@ -450,7 +578,23 @@ public class PdfReader implements Closeable, Serializable {
                 memoryLimitsAwareHandler = null;
             }
         }
+        return memoryLimitsAwareHandler;
+    }
 
+    private static PdfArray getFilters(PdfDictionary streamDictionary) {
+        PdfObject filter = streamDictionary.get(PdfName.Filter);
+        PdfArray filters = new PdfArray();
+        if (filter != null) {
+            if (filter.getType() == PdfObject.NAME) {
+                filters.add(filter);
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                filters = ((PdfArray) filter);
+            }
+        }
+        return filters;
+    }
+
+    private static PdfArray getDecodeParams(PdfDictionary streamDictionary) {
         PdfArray dp = new PdfArray();
         PdfObject dpo = streamDictionary.get(PdfName.DecodeParms);
         if (dpo == null || (dpo.getType() != PdfObject.DICTIONARY && dpo.getType() != PdfObject.ARRAY)) {
@@ -465,34 +609,44 @@ public class PdfReader implements Closeable, Serializable {
             }
             dpo.release();
         }
-        for (int j = 0; j < filters.size(); ++j) {
-            PdfName filterName = (PdfName) filters.get(j);
-            IFilterHandler filterHandler = filterHandlers.get(filterName);
-            if (filterHandler == null)
-                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+        return dp;
+    }
 
-            PdfDictionary decodeParams;
-            if (j < dp.size()) {
-                PdfObject dpEntry = dp.get(j, true);
-                if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
-                    decodeParams = null;
-                } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
-                    decodeParams = (PdfDictionary) dpEntry;
-                } else {
-                    throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
-                }
+    private static PdfDictionary getDecodeParams(PdfArray dp, int filterIndex) {
+        if (filterIndex < dp.size()) {
+            PdfObject dpEntry = dp.get(filterIndex, true);
+            if (dpEntry == null || dpEntry.getType() == PdfObject.NULL) {
+                return null;
+            } else if (dpEntry.getType() == PdfObject.DICTIONARY) {
+                return (PdfDictionary) dpEntry;
             } else {
-                decodeParams = null;
-            }
-            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
-            if (null != memoryLimitsAwareHandler) {
-                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
+                throw new PdfException(PdfException.DecodeParameterType1IsNotSupported).setMessageParams(dpEntry.getClass().toString());
             }
         }
-        if (null != memoryLimitsAwareHandler) {
-            memoryLimitsAwareHandler.endDecompressedPdfStreamProcessing();
+        return null;
+    }
+
+    private boolean isDecryptionNeeded(PdfStream stream) {
+        if (decrypt == null || decrypt.isEmbeddedFilesOnly()) {
+            return false;
         }
-        return b;
+        PdfObject filter = stream.get(PdfName.Filter, true);
+        boolean skip = false;
+        if (filter != null) {
+            if (PdfName.Crypt.equals(filter)) {
+                skip = true;
+            } else if (filter.getType() == PdfObject.ARRAY) {
+                PdfArray filters = (PdfArray) filter;
+                for (int k = 0; k < filters.size(); k++) {
+                    if (!filters.isEmpty() && PdfName.Crypt.equals(filters.get(k, true))) {
+                        skip = true;
+                        break;
+                    }
+                }
+            }
+            filter.release();
+        }
+        return !skip;
     }
 
     /**
@@ -673,6 +827,9 @@ public class PdfReader implements Closeable, Serializable {
         } catch (IllegalArgumentException exc) {
             throw new PdfException(PdfException.PdfVersionNotValid, version);
         }
+        if (properties.lazyXrefLoading) {
+            pdfDocument.getXref().initLazyEntries(pdfDocument);
+        }
         try {
             readXref();
         } catch (RuntimeException ex) {
@@ -687,16 +844,21 @@ public class PdfReader implements Closeable, Serializable {
 
     protected void readObjectStream(PdfStream objectStream) throws IOException {
         int objectStreamNumber = objectStream.getIndirectReference().getObjNumber();
+        ObjectStreamContent content = lastReadObjectStream;
+        boolean parsed = content != null && content.objectStreamNumber == objectStreamNumber;
+        if (!parsed) {
+            content = new ObjectStreamContent(objectStreamNumber, objectStream.getAsNumber(PdfName.N).intValue(),
+                    readStreamBytes(objectStream, true));
+        }
         int first = objectStream.getAsNumber(PdfName.First).intValue();
-        int n = objectStream.getAsNumber(PdfName.N).intValue();
-        byte[] bytes = readStreamBytes(objectStream, true);
+        int n = content.objNumber.length;
+        int[] address = content.address;
+        int[] objNumber = content.objNumber;
         PdfTokenizer saveTokens = tokens;
         try {
-            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes)));
-            int[] address = new int[n];
-            int[] objNumber = new int[n];
+            tokens = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(content.bytes)));
             boolean ok = true;
-            for (int k = 0; k < n; ++k) {
+            for (int k = 0; k < n && !parsed; ++k) {
                 ok = tokens.nextToken();
                 if (!ok)
                     break;
@@ -716,7 +878,16 @@ public class PdfReader implements Closeable, Serializable {
             }
             if (!ok)
                 throw new PdfException(PdfException.ErrorWhileReadingObjectStream);
+            if (properties.lazyXrefLoading) {
+                // Keep the decoded stream, so that the rest of its objects could be read on demand
+                // without decoding it again.
+                lastReadObjectStream = content;
+            }
             for (int k = 0; k < n; ++k) {
+                if (pdfDocument.getXref().hasLazyEntry(objNumber[k])) {
+                    // Nobody has requested this object yet, it will be read when its reference is created.
+                    continue;
+                }
                 tokens.seek(address[k]);
                 tokens.nextToken();
                 PdfObject obj;
@@ -749,6 +920,14 @@ public class PdfReader implements Closeable, Serializable {
     }
 
     protected PdfObject readObject(PdfIndirectReference reference) {
+        if (properties.threadSafeReading) {
+            synchronized (this) {
+                PdfObject object = readObject(reference, true);
+                // published under the lock, so that concurrent readers of the same reference get the same object
+                reference.setRefersTo(object);
+                return object;
+            }
+        }
         return readObject(reference, true);
     }
 
@@ -828,7 +1007,8 @@ public class PdfReader implements Closeable, Serializable {
             case String: {
                 PdfString pdfString = new PdfString(tokens.getByteContent(), tokens.isHexString());
                 if (encrypted && !decrypt.isEmbeddedFilesOnly() && !objStm) {
-                    pdfString.setDecryption(currentIndirectReference.getObjNumber(), currentIndirectReference.getGenNumber(), decrypt);
+                    pdfString.setDecryption(currentIndirectReference.getObjNumber(), currentIndirectReference.getGenNumber(),
+                            decrypt, properties.threadSafeReading ? this : null);
                 }
                 return pdfString;
             }
@@ -860,7 +1040,7 @@ public class PdfReader implements Closeable, Serializable {
 
     protected PdfName readPdfName(boolean readAsDirect) {
         if (readAsDirect) {
-            PdfName cachedName = PdfName.staticNames.get(tokens.getStringValue());
+            PdfName cachedName = PdfName.getStaticName(tokens.getTokenBuffer(), 0, tokens.getTokenLength());
             if (cachedName != null)
                 return cachedName;
         }
@@ -991,6 +1171,10 @@ public class PdfReader implements Closeable, Serializable {
                     end--;
                     continue;
                 }
+                if (xref.hasLazyEntry(num)) {
+                    // the entry has already been read from a more recent section
+                    continue;
+                }
                 PdfIndirectReference reference = xref.get(num);
                 boolean refReadingState = reference != null && reference.checkState(PdfObject.READING) && reference.getGenNumber() == gen;
                 // for references that are added by xref table itself (like 0 entry)
@@ -998,7 +1182,7 @@ public class PdfReader implements Closeable, Serializable {
                         || !refReadingState && reference.getDocument() == null;
 
                 if (refFirstEncountered) {
-                    reference = new PdfIndirectReference(pdfDocument, num, gen, pos);
+                    reference = properties.lazyXrefLoading ? null : new PdfIndirectReference(pdfDocument, num, gen, pos);
                 } else if (refReadingState) {
                     reference.setOffset(pos);
                     reference.clearState(PdfObject.READING);
@@ -1011,7 +1195,7 @@ public class PdfReader implements Closeable, Serializable {
                         tokens.throwError(PdfException.FilePosition1CrossReferenceEntryInThisXrefSubsection);
                     }
                 } else if (tokens.tokenValueEqualsTo(PdfTokenizer.F)) {
-                    if (refFirstEncountered) {
+                    if (refFirstEncountered && reference != null) {
                         reference.setState(PdfObject.FREE);
                     }
                 } else {
@@ -1019,7 +1203,11 @@ public class PdfReader implements Closeable, Serializable {
                 }
 
                 if (refFirstEncountered) {
-                    xref.add(reference);
+                    if (reference == null) {
+                        xref.addLazyEntry(num, gen, pos, 0, tokens.tokenValueEqualsTo(PdfTokenizer.F));
+                    } else {
+                        xref.add(reference);
+                    }
                 }
             }
         }
@@ -1116,7 +1304,14 @@ public class PdfReader implements Closeable, Serializable {
                     for (int k = 0; k < wc[2]; ++k) {
                         field3 = (field3 << 8) + (b[bptr++] & 0xff);
                     }
-                    int base = start;
+                    int base = start++;
+                    if (xref.hasLazyEntry(base)) {
+                        // the entry has already been read from a more recent xref stream
+                        continue;
+                    }
+                    if (properties.lazyXrefLoading && addLazyXrefStreamEntry(xref, base, type, field2, field3)) {
+                        continue;
+                    }
                     PdfIndirectReference newReference;
                     switch (type) {
                         case 0:
@@ -1146,7 +1341,6 @@ public class PdfReader implements Closeable, Serializable {
                         reference.setObjStreamNumber(newReference.getObjStreamNumber());
                         reference.clearState(PdfObject.READING);
                     }
-                    ++start;
                 }
             }
             ptr = prev;
@@ -1173,6 +1367,10 @@ public class PdfReader implements Closeable, Serializable {
                     continue;
                 int num = obj[0];
                 int gen = obj[1];
+                if (xref.hasLazyEntry(num)) {
+                    xref.fixLazyEntryOffset(num, gen, pos);
+                    continue;
+                }
                 PdfIndirectReference reference = xref.get(num);
                 if (reference != null && reference.getGenNumber() == gen) {
                     reference.fixOffset(pos);
@@ -1191,47 +1389,137 @@ public class PdfReader implements Closeable, Serializable {
         trailer = null;
         ByteBuffer buffer = new ByteBuffer(24);
         PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)));
-        for (; ; ) {
-            long pos = tokens.getPosition();
-            buffer.reset();
+        XrefRebuildScanner scanner = null;
+        if (properties.xrefRebuildPool != null) {
+            scanner = new XrefRebuildScanner(tokens.getSafeFile(), properties.xrefRebuildPool.getParallelism());
+        }
+        if (scanner != null && scanner.isWorthSplitting()) {
+            rebuildXrefFromMarkers(scanner.scan(properties.xrefRebuildPool), buffer, lineTokeniser);
+        } else {
+            for (; ; ) {
+                long pos = tokens.getPosition();
+                buffer.reset();
 
-            // added boolean because of mailing list issue (17 Feb. 2014)
-            if (!tokens.readLineSegment(buffer, true))
-                break;
-            if (buffer.get(0) == 't') {
-                if (!PdfTokenizer.checkTrailer(buffer))
+                // added boolean because of mailing list issue (17 Feb. 2014)
+                if (!tokens.readLineSegment(buffer, true))
+                    break;
+                processRebuildXrefLine(pos, buffer, lineTokeniser);
+            }
+        }
+        if (trailer == null)
+            throw new PdfException(PdfException.TrailerNotFound);
+    }
+
+    /**
+     * Rebuilds xref from object declarations and trailers found by {@link XrefRebuildScanner}.
+     * The markers correspond to the lines of the file read from its beginning, however after reading a trailer
+     * the serial rebuilding continues from the end of the trailer dictionary. Such lines are read here one by one
+     * until they coincide with the lines the markers were found in.
+     */
+    private void rebuildXrefFromMarkers(XrefRebuildScanner.Markers markers, ByteBuffer buffer, PdfTokenizer lineTokeniser) throws IOException {
+        PdfXrefTable xref = pdfDocument.getXref();
+        PdfTokenizer lines = new PdfTokenizer(tokens.getSafeFile());
+        try {
+            int index = 0;
+            while (index < markers.size()) {
+                long pos = markers.getPosition(index);
+                if (!markers.isTrailer(index)) {
+                    addRebuiltReference(xref, markers.getObjNumber(index), markers.getGenNumber(index), pos);
+                    ++index;
                     continue;
-                tokens.seek(pos);
-                tokens.nextToken();
-                pos = tokens.getPosition();
-                try {
-                    PdfDictionary dic = (PdfDictionary) readObject(false);
-                    if (dic.get(PdfName.Root, false) != null)
-                        trailer = dic;
-                    else
-                        tokens.seek(pos);
-                } catch (Exception e) {
+                }
+                readRebuiltTrailer(pos);
+                long lineStart = pos;
+                for (; ; ) {
+                    pos = tokens.getPosition();
+                    while (lineStart < pos) {
+                        lineStart = XrefRebuildScanner.nextLineStart(lines, lineStart, buffer);
+                    }
+                    if (lineStart == pos) {
+                        break;
+                    }
                     tokens.seek(pos);
+                    buffer.reset();
+                    if (!tokens.readLineSegment(buffer, true)) {
+                        pos = Long.MAX_VALUE;
+                        break;
+                    }
+                    processRebuildXrefLine(pos, buffer, lineTokeniser);
                 }
-            } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
-                int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
-                if (obj == null)
-                    continue;
-                int num = obj[0];
-                int gen = obj[1];
-                if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
-                    xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+                while (index < markers.size() && markers.getPosition(index) < pos) {
+                    ++index;
                 }
             }
+        } finally {
+            lines.close();
+        }
+    }
+
+    private void processRebuildXrefLine(long pos, ByteBuffer line, PdfTokenizer lineTokeniser) throws IOException {
+        if (line.get(0) == 't') {
+            if (PdfTokenizer.checkTrailer(line)) {
+                readRebuiltTrailer(pos);
+            }
+        } else if (line.get(0) >= '0' && line.get(0) <= '9') {
+            int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
+            if (obj != null) {
+                addRebuiltReference(pdfDocument.getXref(), obj[0], obj[1], pos);
+            }
+        }
+    }
+
+    private void readRebuiltTrailer(long pos) throws IOException {
+        tokens.seek(pos);
+        tokens.nextToken();
+        pos = tokens.getPosition();
+        try {
+            PdfDictionary dic = (PdfDictionary) readObject(false);
+            if (dic.get(PdfName.Root, false) != null)
+                trailer = dic;
+            else
+                tokens.seek(pos);
+        } catch (Exception e) {
+            tokens.seek(pos);
+        }
+    }
+
+    private void addRebuiltReference(PdfXrefTable xref, int num, int gen, long pos) {
+        if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
+            xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
         }
-        if (trailer == null)
-            throw new PdfException(PdfException.TrailerNotFound);
     }
 
     boolean isMemorySavingMode() {
         return memorySavingMode;
     }
 
+    /**
+     * Stores the xref stream entry in a compact form if it is encountered for the first time.
+     *
+     * @return false if there is an already created reference for the entry which should be processed in a regular way.
+     */
+    private boolean addLazyXrefStreamEntry(PdfXrefTable xref, int objNr, int type, long field2, int field3) {
+        PdfIndirectReference reference = xref.get(objNr);
+        // for references that are added by xref table itself (like 0 entry)
+        if (reference != null && reference.getDocument() != null) {
+            return false;
+        }
+        switch (type) {
+            case 0:
+                xref.addLazyEntry(objNr, field3, field2, 0, true);
+                break;
+            case 1:
+                xref.addLazyEntry(objNr, field3, field2, 0, false);
+                break;
+            case 2:
+                xref.addLazyEntry(objNr, 0, field3, (int) field2, false);
+                break;
+            default:
+                throw new PdfException(PdfException.InvalidXrefStream);
+        }
+        return true;
+    }
+
     private void readDecryptObj() {
         if (encrypted)
             return;
@@ -1312,6 +1600,37 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
+    private static byte[] applyFilters(byte[] b, PdfDictionary streamDictionary, PdfArray filters,
+            Map<PdfName, IFilterHandler> filterHandlers, MemoryLimitsAwareHandler memoryLimitsAwareHandler) {
+        PdfArray dp = getDecodeParams(streamDictionary);
+        for (int j = 0; j < filters.size(); ++j) {
+            PdfName filterName = (PdfName) filters.get(j);
+            IFilterHandler filterHandler = filterHandlers.get(filterName);
+            if (filterHandler == null)
+                throw new PdfException(PdfException.Filter1IsNotSupported).setMessageParams(filterName);
+
+            PdfDictionary decodeParams = getDecodeParams(dp, j);
+            b = filterHandler.decode(b, filterName, decodeParams, streamDictionary);
+            if (null != memoryLimitsAwareHandler) {
+                memoryLimitsAwareHandler.considerBytesOccupiedByDecompressedPdfStream(b.length);
+            }
+        }
+        return b;
+    }
+
+    private Map<PdfName, IFilterHandler> getFilterHandlers() {
+        if (properties.flateCodec == null) {
+            return FilterHandlers.getDefaultFilterHandlers();
+        }
+        if (filterHandlers == null) {
+            Map<PdfName, IFilterHandler> handlers = new HashMap<>(FilterHandlers.getDefaultFilterHandlers());
+            handlers.put(PdfName.FlateDecode, new FlateDecodeFilter(properties.flateCodec));
+            handlers.put(PdfName.Fl, new FlateDecodeFilter(properties.flateCodec));
+            filterHandlers = handlers;
+        }
+        return filterHandlers;
+    }
+
     private void checkPdfStreamLength(PdfStream pdfStream) throws IOException {
         if (!correctStreamLength)
             return;
@@ -1406,6 +1725,20 @@ public class PdfReader implements Closeable, Serializable {
         }
     }
 
+    private static class ObjectStreamContent {
+        final int objectStreamNumber;
+        final byte[] bytes;
+        final int[] address;
+        final int[] objNumber;
+
+        ObjectStreamContent(int objectStreamNumber, int n, byte[] bytes) {
+            this.objectStreamNumber = objectStreamNumber;
+            this.bytes = bytes;
+            this.address = new int[n];
+            this.objNumber = new int[n];
+        }
+    }
+
     protected static class ReusableRandomAccessSource implements IRandomAccessSource {
         private ByteBuffer buffer;
 
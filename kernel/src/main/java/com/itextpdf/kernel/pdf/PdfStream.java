@@ -48,6 +48,7 @@ import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.kernel.PdfException;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
@@ -66,6 +67,7 @@ public class PdfStream extends PdfDictionary {
     private InputStream inputStream;
     private long offset;
     private int length = -1;
+    private transient byte[] prefetchedBytes;
 
     /**
      * Constructs a {@code PdfStream}-object.
@@ -254,6 +256,10 @@ public class PdfStream extends PdfDictionary {
             } catch (IOException ioe) {
                 throw new PdfException(PdfException.CannotGetPdfStreamBytes, ioe, this);
             }
+        } else if (!decoded && prefetchedBytes != null) {
+            // the bytes are handed over once, so that they don't stay in memory after e.g. the stream is copied
+            bytes = prefetchedBytes;
+            prefetchedBytes = null;
         } else if (getIndirectReference() != null) {
             // This logic makes sense only for the case when PdfStream was created by reader and in this
             // case PdfStream instance always has indirect reference and is never in the MustBeIndirect state
@@ -269,6 +275,42 @@ public class PdfStream extends PdfDictionary {
         return bytes;
     }
 
+    /**
+     * Opens the stream's content for reading.
+     * For the streams read from a document the bytes are read from the document source and, if requested, decoded
+     * while the returned stream is being read, so that even huge streams can be processed in constant memory
+     * as long as all their filters support streaming decoding, see {@link com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler}.
+     * User is responsible for closing returned stream.
+     *
+     * @param decoded true if to get decoded stream, false if to leave it originally encoded.
+     * @return InputStream of the stream's content or {@code null} if the content is not available,
+     * see {@link #getBytes(boolean)}.
+     */
+    public InputStream openStream(boolean decoded) {
+        if (isFlushed()) {
+            throw new PdfException(PdfException.CannotOperateWithFlushedPdfStream);
+        }
+        if (inputStream != null) {
+            LoggerFactory.getLogger(PdfStream.class).warn("PdfStream was created by InputStream." +
+                    "openStream() always returns null in this case");
+            return null;
+        }
+        try {
+            if (outputStream != null && outputStream.getOutputStream() != null) {
+                InputStream is = new ByteArrayInputStream(getBytes(false));
+                return decoded && containsKey(PdfName.Filter) ? PdfReader.decodeStream(is, this) : is;
+            } else if (getIndirectReference() != null) {
+                PdfReader reader = getIndirectReference().getReader();
+                if (reader != null) {
+                    return reader.openStream(this, decoded);
+                }
+            }
+        } catch (IOException ioe) {
+            throw new PdfException(PdfException.CannotGetPdfStreamBytes, ioe, this);
+        }
+        return null;
+    }
+
     /**
      * Sets <code>bytes</code> as stream's content.
      * Could not be used with streams which were created by <code>InputStream</code>.
@@ -367,6 +409,38 @@ public class PdfStream extends PdfDictionary {
         }
     }
 
+    /**
+     * Reads the raw bytes of the stream in advance, so that the next {@code getBytes(false)} call returns them
+     * without reading the document. This way the bytes can be read on another thread before they are needed,
+     * e.g. while the pages of other documents are being merged. The bytes are kept until they are requested
+     * or released with {@link #releasePrefetchedBytes()}.
+     * <p>
+     * NOTE: For internal usage! The stream must not be used by other threads meanwhile. Has no effect for
+     * the streams which are not read from a document or were modified.
+     *
+     * @return the number of the prefetched bytes
+     */
+    public int prefetchBytes() {
+        if (prefetchedBytes == null && inputStream == null && !isFlushed() && getIndirectReference() != null
+                && (outputStream == null || outputStream.getOutputStream() == null)) {
+            byte[] bytes = getBytes(false);
+            if (bytes != null) {
+                prefetchedBytes = bytes;
+                return bytes.length;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Releases the bytes read with {@link #prefetchBytes()}, if they were not requested yet.
+     * <p>
+     * NOTE: For internal usage!
+     */
+    public void releasePrefetchedBytes() {
+        prefetchedBytes = null;
+    }
+
     protected void initOutputStream(java.io.OutputStream stream) {
         if (getOutputStream() == null && inputStream == null)
             outputStream = new PdfOutputStream(stream != null ? stream : new ByteArrayOutputStream());
@@ -377,6 +451,7 @@ public class PdfStream extends PdfDictionary {
      */
     protected void releaseContent() {
         super.releaseContent();
+        prefetchedBytes = null;
         try {
             if (outputStream != null) {
                 outputStream.close();
@@ -78,6 +78,8 @@ public class PdfString extends PdfPrimitiveObject {
     private int decryptInfoGen;
     // if it's not null: content shall contain encrypted data; value shall be null
     private PdfEncryption decryption;
+    // the lock guarding the decryption, if the string is read in thread safe mode, otherwise null
+    private transient Object decryptionLock;
 
     public PdfString(String value, String encoding) {
         super();
@@ -232,15 +234,30 @@ public class PdfString extends PdfPrimitiveObject {
         setState(PdfObject.UNENCRYPTED);
     }
 
-    void setDecryption(int decryptInfoNum, int decryptInfoGen, PdfEncryption decryption) {
+    void setDecryption(int decryptInfoNum, int decryptInfoGen, PdfEncryption decryption, Object decryptionLock) {
         this.decryptInfoNum = decryptInfoNum;
         this.decryptInfoGen = decryptInfoGen;
         this.decryption = decryption;
+        this.decryptionLock = decryptionLock;
     }
 
     protected void generateValue() {
+        Object lock = decryptionLock;
+        if (lock != null) {
+            // the decryption is shared by the document and keeps the key of the object being decrypted
+            synchronized (lock) {
+                if (value == null) {
+                    generateValueUnlocked();
+                }
+            }
+        } else {
+            generateValueUnlocked();
+        }
+    }
+
+    private void generateValueUnlocked() {
         assert content != null : "No byte[] content to generate value";
-        value = PdfEncodings.convertToString(decodeContent(), null);
+        value = PdfEncodings.convertToString(decodeContentUnlocked(), null);
         if (decryption != null) {
             decryption = null;
             content = null;
@@ -276,6 +293,20 @@ public class PdfString extends PdfPrimitiveObject {
     }
 
     protected byte[] decodeContent() {
+        Object lock = decryptionLock;
+        if (lock == null) {
+            return decodeContentUnlocked();
+        }
+        synchronized (lock) {
+            if (content == null) {
+                // the value is decrypted by another thread in the meantime
+                generateContent();
+            }
+            return decodeContentUnlocked();
+        }
+    }
+
+    private byte[] decodeContentUnlocked() {
         byte[] decodedBytes = PdfTokenizer.decodeStringContent(content, hexWriting);
         if (decryption != null && !checkState(PdfObject.UNENCRYPTED)) {
             decryption.setHashKeyForNextObject(decryptInfoNum, decryptInfoGen);
@@ -318,6 +349,7 @@ public class PdfString extends PdfPrimitiveObject {
         decryption = string.decryption;
         decryptInfoNum = string.decryptInfoNum;
         decryptInfoGen = string.decryptInfoGen;
+        decryptionLock = string.decryptionLock;
         encoding = string.encoding;
     }
 }
@@ -47,6 +47,7 @@ import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.util.FileUtil;
+import com.itextpdf.kernel.PdfException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -91,7 +92,13 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     /**
      * Is used in smart mode to serialize and store serialized objects content.
      */
-    private SmartModePdfObjectsSerializer smartModeSerializer = new SmartModePdfObjectsSerializer();
+    private SmartModePdfObjectsSerializer smartModeSerializer;
+
+    /**
+     * Queue of the flushed objects waiting for the streams to be compressed.
+     * Only used if compression executor is set, see {@link WriterProperties#setCompressionExecutor(java.util.concurrent.ExecutorService)}.
+     */
+    private transient ParallelCompressionQueue compressionQueue;
 
     //forewarned is forearmed
     protected boolean isUserWarnedAboutAcroFormCopying;
@@ -117,6 +124,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
     public PdfWriter(java.io.OutputStream os, WriterProperties properties) {
         super(FileUtil.wrapWithBufferedOutputStream(os));
         this.properties = properties;
+        this.smartModeSerializer = new SmartModePdfObjectsSerializer(properties.smartModeProperties);
         if (properties.debugMode) {
             setDebugMode();
         }
@@ -173,6 +181,28 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         return this;
     }
 
+    /**
+     * Gets the compression level for the streams of the given type.
+     *
+     * @param streamType the type of the streams.
+     * @return the compression level defined for the type of the streams, otherwise the compression level of the document.
+     */
+    int getCompressionLevel(CompressedStreamType streamType) {
+        Integer level = properties.streamTypeCompressionLevels != null ? properties.streamTypeCompressionLevels.get(streamType) : null;
+        return level != null ? (int) level : getCompressionLevel();
+    }
+
+    /**
+     * Gets the compression strategy for the streams of the given type.
+     *
+     * @param streamType the type of the streams.
+     * @return the compression strategy defined for the type of the streams, otherwise the default strategy.
+     */
+    int getCompressionStrategy(CompressedStreamType streamType) {
+        Integer strategy = properties.streamTypeCompressionStrategies != null ? properties.streamTypeCompressionStrategies.get(streamType) : null;
+        return strategy != null ? (int) strategy : CompressionConstants.DEFAULT_STRATEGY;
+    }
+
     /**
      * Sets the smart mode.
      * <br>
@@ -267,7 +297,8 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             objectStream = new PdfObjectStream(document);
         } else if (objectStream.getSize() == PdfObjectStream.MAX_OBJ_STREAM_SIZE) {
             objectStream.flush();
-            objectStream = new PdfObjectStream(objectStream);
+            // the flushed object stream may still wait in compression queue, so its buffers can't be reused
+            objectStream = compressionQueue != null ? new PdfObjectStream(document) : new PdfObjectStream(objectStream);
         }
         return objectStream;
     }
@@ -292,14 +323,79 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     protected void flushObject(PdfObject pdfObject, boolean canBeInObjStm) throws IOException {
         PdfIndirectReference indirectReference = pdfObject.getIndirectReference();
+        if (properties.smartMode && pdfObject.isStream()) {
+            smartModeSerializer.streamFlushing((PdfStream) pdfObject);
+        }
+        boolean queued = false;
         if (isFullCompression() && canBeInObjStm) {
             PdfObjectStream objectStream = getObjectStream();
             objectStream.addObject(pdfObject);
+        } else if (getCompressionQueue() != null && compressionQueue.offer(pdfObject)) {
+            // the object is written once the preceding streams are compressed
+            queued = true;
         } else {
             indirectReference.setOffset(getCurrentPos());
             writeToBody(pdfObject);
         }
         indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
+        switch (pdfObject.getType()) {
+            case PdfObject.ARRAY:
+                markArrayContentToFlush((PdfArray) pdfObject);
+                break;
+            case PdfObject.STREAM:
+            case PdfObject.DICTIONARY:
+                markDictionaryContentToFlush((PdfDictionary) pdfObject);
+                break;
+            case PdfObject.INDIRECT_REFERENCE:
+                markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
+        }
+        if (queued) {
+            compressionQueue.writeCompleted(false);
+        } else {
+            releaseFlushedObject(pdfObject);
+        }
+    }
+
+    /**
+     * Writes the flushed object, which was postponed until the preceding streams are compressed.
+     *
+     * @param pdfObject the flushed object.
+     * @throws IOException on error.
+     */
+    void writeQueuedObject(PdfObject pdfObject) throws IOException {
+        pdfObject.getIndirectReference().setOffset(getCurrentPos());
+        writeToBody(pdfObject);
+        releaseFlushedObject(pdfObject);
+    }
+
+    /**
+     * Writes all the flushed objects, whose writing is postponed while the streams are compressed.
+     * Shall be called before anything is written directly to the output.
+     */
+    void writeQueuedObjects() {
+        if (compressionQueue != null && !compressionQueue.isEmpty()) {
+            try {
+                compressionQueue.writeCompleted(true);
+            } catch (IOException e) {
+                throw new PdfException(PdfException.CannotFlushObject, e);
+            }
+        }
+    }
+
+    @Override
+    ByteArrayOutputStream compressStreamContent(PdfStream pdfStream) throws IOException {
+        ByteArrayOutputStream compressed = compressionQueue != null ? compressionQueue.getCompressedContent(pdfStream) : null;
+        return compressed != null ? compressed : super.compressStreamContent(pdfStream);
+    }
+
+    private ParallelCompressionQueue getCompressionQueue() {
+        if (compressionQueue == null && properties.compressionExecutor != null) {
+            compressionQueue = new ParallelCompressionQueue(this, properties.compressionExecutor, properties.maxInFlightCompressionBytes);
+        }
+        return compressionQueue;
+    }
+
+    private void releaseFlushedObject(PdfObject pdfObject) {
         switch (pdfObject.getType()) {
             case PdfObject.BOOLEAN:
             case PdfObject.NAME:
@@ -309,22 +405,18 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
                 ((PdfPrimitiveObject) pdfObject).content = null;
                 break;
             case PdfObject.ARRAY:
-                PdfArray array = ((PdfArray) pdfObject);
-                markArrayContentToFlush(array);
-                array.releaseContent();
+                ((PdfArray) pdfObject).releaseContent();
                 break;
             case PdfObject.STREAM:
             case PdfObject.DICTIONARY:
-                PdfDictionary dictionary = ((PdfDictionary) pdfObject);
-                markDictionaryContentToFlush(dictionary);
-                dictionary.releaseContent();
+                ((PdfDictionary) pdfObject).releaseContent();
                 break;
-            case PdfObject.INDIRECT_REFERENCE:
-                markObjectToFlush(((PdfIndirectReference) pdfObject).getRefersTo(false));
+        }
+        if (properties.compactXref) {
+            document.getXref().compactFlushedReference(pdfObject.getIndirectReference());
         }
     }
 
-
     protected PdfObject copyObject(PdfObject obj, PdfDocument documentTo, boolean allowDuplicating) {
         if (obj instanceof PdfIndirectReference)
             obj = ((PdfIndirectReference) obj).getRefersTo();
@@ -355,7 +447,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
         if (properties.smartMode && tryToFindDuplicate && !checkTypeOfPdfDictionary(obj, PdfName.Page)) {
             serializedContent = smartModeSerializer.serializeObject(obj);
             PdfIndirectReference objectRef = smartModeSerializer.getSavedSerializedObject(serializedContent);
-            if (objectRef != null) {
+            if (objectRef != null && smartModeSerializer.isSameContent(obj, objectRef)) {
                 copiedObjects.put(copiedObjectKey, objectRef);
                 return objectRef.refersTo;
             }
@@ -370,6 +462,9 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             if (serializedContent != null) {
                 smartModeSerializer.saveSerializedObject(serializedContent, indRef);
             }
+            if (properties.smartMode) {
+                smartModeSerializer.objectCopied(obj, indRef);
+            }
             copiedObjects.put(copiedObjectKey, indRef);
         }
         newObject.copyContent(obj, documentTo);
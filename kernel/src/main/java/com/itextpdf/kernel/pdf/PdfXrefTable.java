@@ -74,6 +74,26 @@ class PdfXrefTable implements Serializable {
     private int count = 0;
     private boolean readingCompleted;
 
+    /**
+     * Entries read from the cross-reference sections for which no {@link PdfIndirectReference} has been created yet.
+     * Only used if the document is read with lazy xref loading, see {@link ReaderProperties#setLazyXrefLoading(boolean)}.
+     */
+    private CompactXrefEntries lazyEntries;
+    private PdfDocument lazyEntriesDocument;
+
+    /**
+     * The lock of the reader under which the entries are looked up if the document is read in thread safe mode,
+     * see {@link ReaderProperties#setThreadSafeReading(boolean)}, otherwise {@code null}.
+     */
+    private transient Object lazyEntriesLock;
+
+    /**
+     * Entries of the references which have already been flushed to the output and dropped from the table.
+     * Only used if the document is written with compact xref, see {@link WriterProperties#useCompactXref()}.
+     */
+    private CompactXrefEntries flushedEntries;
+    private PdfDocument flushedEntriesDocument;
+
     /**
      * Free references linked list is stored in a form of a map, where:
      * key - free reference obj number;
@@ -107,6 +127,9 @@ class PdfXrefTable implements Serializable {
         this.count = Math.max(this.count, objNr);
         ensureCount(objNr);
         xref[objNr] = reference;
+        if (flushedEntries != null) {
+            flushedEntries.remove(objNr);
+        }
         return reference;
     }
 
@@ -115,10 +138,27 @@ class PdfXrefTable implements Serializable {
     }
 
     public PdfIndirectReference get(int index) {
+        if (lazyEntriesLock != null) {
+            // the references are created and published to the other reading threads under the same lock
+            synchronized (lazyEntriesLock) {
+                return getUnlocked(index);
+            }
+        }
+        return getUnlocked(index);
+    }
+
+    private PdfIndirectReference getUnlocked(int index) {
         if (index > count) {
             return null;
         }
-        return xref[index];
+        PdfIndirectReference reference = xref[index];
+        if (reference == null && lazyEntries != null && lazyEntries.contains(index)) {
+            reference = createReferenceFromLazyEntry(index);
+        }
+        if (reference == null && isFlushedEntry(index)) {
+            reference = createReferenceFromFlushedEntry(index);
+        }
+        return reference;
     }
 
     void markReadingCompleted() {
@@ -129,26 +169,108 @@ class PdfXrefTable implements Serializable {
         return readingCompleted;
     }
 
+    /**
+     * Makes the table keep the entries read from cross-reference sections in a compact form,
+     * creating {@link PdfIndirectReference} instances only when they are requested.
+     *
+     * @param document the document the created references will belong to.
+     */
+    void initLazyEntries(PdfDocument document) {
+        lazyEntries = new CompactXrefEntries(xref.length);
+        lazyEntriesDocument = document;
+        PdfReader reader = document.getReader();
+        lazyEntriesLock = reader != null && reader.isThreadSafeReading() ? reader : null;
+    }
+
+    /**
+     * Checks whether there is an entry for the given object number for which reference has not been created yet.
+     *
+     * @param objNr object number.
+     * @return true if there is such entry, false otherwise.
+     */
+    boolean hasLazyEntry(int objNr) {
+        return lazyEntries != null && lazyEntries.contains(objNr);
+    }
+
+    /**
+     * Stores cross-reference entry without creating {@link PdfIndirectReference} for it.
+     * Placeholder references which are added by xref table itself (like 0 entry) are replaced.
+     *
+     * @param objNr          object number.
+     * @param gen            generation number, ignored for compressed entries.
+     * @param offsetOrIndex  byte offset of the object or its index in the object stream for compressed entries.
+     * @param objStreamNr    number of the object stream containing the object, 0 if object is not compressed.
+     * @param free           true if the entry is free.
+     */
+    void addLazyEntry(int objNr, int gen, long offsetOrIndex, int objStreamNr, boolean free) {
+        this.count = Math.max(this.count, objNr);
+        ensureCount(objNr);
+        xref[objNr] = null;
+        if (free) {
+            lazyEntries.put(objNr, CompactXrefEntries.FREE, gen, offsetOrIndex);
+        } else if (objStreamNr == 0) {
+            lazyEntries.put(objNr, CompactXrefEntries.IN_USE, gen, offsetOrIndex);
+        } else {
+            lazyEntries.put(objNr, CompactXrefEntries.COMPRESSED, objStreamNr, offsetOrIndex);
+        }
+    }
+
+    /**
+     * Fixes the offset of not yet created reference, see {@link PdfIndirectReference#fixOffset(long)}.
+     *
+     * @param objNr  object number.
+     * @param gen    generation number of the object found at the given offset.
+     * @param offset the actual offset of the object.
+     */
+    void fixLazyEntryOffset(int objNr, int gen, long offset) {
+        if (lazyEntries.getType(objNr) == CompactXrefEntries.IN_USE && lazyEntries.getGenOrObjStreamNumber(objNr) == gen) {
+            lazyEntries.setOffsetOrIndex(objNr, offset);
+        }
+    }
+
+    /**
+     * Replaces the flushed reference with a compact entry holding only the data needed for writing cross-reference
+     * section, so that neither the reference nor the released object it refers to are retained by the table.
+     * {@link #get(int)} creates new transient reference for such entries.
+     *
+     * @param reference flushed indirect reference.
+     */
+    void compactFlushedReference(PdfIndirectReference reference) {
+        int objNr = reference.getObjNumber();
+        if (objNr > count || xref[objNr] != reference || !reference.checkState(PdfObject.FLUSHED)) {
+            return;
+        }
+        if (flushedEntries == null) {
+            flushedEntries = new CompactXrefEntries(xref.length);
+            flushedEntriesDocument = reference.getDocument();
+        }
+        if (reference.getObjStreamNumber() == 0) {
+            flushedEntries.put(objNr, CompactXrefEntries.IN_USE, reference.getGenNumber(), reference.getOffset());
+        } else {
+            flushedEntries.put(objNr, CompactXrefEntries.COMPRESSED, reference.getObjStreamNumber(), reference.getIndex());
+        }
+        xref[objNr] = null;
+    }
+
     void initFreeReferencesList(PdfDocument pdfDocument) {
         freeReferencesLinkedList.clear();
 
         // ensure zero object is free
-        xref[0].setState(PdfObject.FREE);
+        get(0).setState(PdfObject.FREE);
         TreeSet<Integer> freeReferences = new TreeSet<>();
         for (int i = 1; i < size(); ++i) {
-            PdfIndirectReference ref = xref[i];
-            if (ref == null || ref.isFree()) {
+            if (isFreeOrAbsent(i)) {
                 freeReferences.add(i);
             }
         }
 
-        PdfIndirectReference prevFreeRef = xref[0];
+        PdfIndirectReference prevFreeRef = get(0);
         while (!freeReferences.<Integer>isEmpty()) {
             int currFreeRefObjNr = -1;
             if (prevFreeRef.getOffset() <= Integer.MAX_VALUE) {
                 currFreeRefObjNr = (int) prevFreeRef.getOffset();
             }
-            if (!freeReferences.contains(currFreeRefObjNr) || xref[currFreeRefObjNr] == null) {
+            if (!freeReferences.contains(currFreeRefObjNr) || get(currFreeRefObjNr) == null) {
                 break;
             }
 
@@ -159,7 +281,7 @@ class PdfXrefTable implements Serializable {
 
         while (!freeReferences.<Integer>isEmpty()) {
             int next = freeReferences.pollFirst();
-            if (xref[next] == null) {
+            if (get(next) == null) {
                 if (pdfDocument.properties.appendMode) {
                     continue;
                 }
@@ -239,7 +361,10 @@ class PdfXrefTable implements Serializable {
 
         if (!document.properties.appendMode) {
             for (int i = count; i > 0; --i) {
-                PdfIndirectReference lastRef = xref[i];
+                if (isFlushedEntry(i)) {
+                    break;
+                }
+                PdfIndirectReference lastRef = get(i);
                 if (lastRef == null || lastRef.isFree()) {
                     removeFreeRefFromList(i);
                     --count;
@@ -288,6 +413,19 @@ class PdfXrefTable implements Serializable {
                 int first = (int) sections.get(k);
                 int len = (int) sections.get(k + 1);
                 for (int i = first; i < first + len; i++) {
+                    if (xrefTable.isFlushedEntry(i)) {
+                        CompactXrefEntries entries = xrefTable.flushedEntries;
+                        if (entries.getType(i) == CompactXrefEntries.COMPRESSED) {
+                            xrefStream.getOutputStream().write(2);
+                            xrefStream.getOutputStream().write(entries.getGenOrObjStreamNumber(i), offsetSize);
+                            xrefStream.getOutputStream().write(entries.getOffsetOrIndex(i), 2);
+                        } else {
+                            xrefStream.getOutputStream().write(1);
+                            xrefStream.getOutputStream().write(entries.getOffsetOrIndex(i), offsetSize);
+                            xrefStream.getOutputStream().write(entries.getGenOrObjStreamNumber(i), 2);
+                        }
+                        continue;
+                    }
                     PdfIndirectReference reference = xrefTable.get(i);
                     if (reference.isFree()) {
                         xrefStream.getOutputStream().write(0);
@@ -326,13 +464,27 @@ class PdfXrefTable implements Serializable {
                 int len = (int) sections.get(k + 1);
                 writer.writeInteger(first).writeSpace().writeInteger(len).writeByte((byte) '\n');
                 for (int i = first; i < first + len; i++) {
-                    PdfIndirectReference reference = xrefTable.get(i);
+                    long offset;
+                    int genNr;
+                    boolean free;
+                    if (xrefTable.isFlushedEntry(i)) {
+                        CompactXrefEntries entries = xrefTable.flushedEntries;
+                        boolean compressed = entries.getType(i) == CompactXrefEntries.COMPRESSED;
+                        offset = compressed ? -1 : entries.getOffsetOrIndex(i);
+                        genNr = compressed ? 0 : entries.getGenOrObjStreamNumber(i);
+                        free = false;
+                    } else {
+                        PdfIndirectReference reference = xrefTable.get(i);
+                        offset = reference.getOffset();
+                        genNr = reference.getGenNumber();
+                        free = reference.isFree();
+                    }
 
-                    StringBuilder off = new StringBuilder("0000000000").append(reference.getOffset());
-                    StringBuilder gen = new StringBuilder("00000").append(reference.getGenNumber());
+                    StringBuilder off = new StringBuilder("0000000000").append(offset);
+                    StringBuilder gen = new StringBuilder("00000").append(genNr);
                     writer.writeString(off.substring(off.length() - 10, off.length())).writeSpace().
                             writeString(gen.substring(gen.length() - 5, gen.length())).writeSpace();
-                    if (reference.isFree()) {
+                    if (free) {
                         writer.writeBytes(freeXRefEntry);
                     } else {
                         writer.writeBytes(inUseXRefEntry);
@@ -365,6 +517,7 @@ class PdfXrefTable implements Serializable {
                 writeLong(startxref).
                 writeString("\n%%EOF\n");
         xref = null;
+        flushedEntries = null;
         freeReferencesLinkedList.clear();
     }
 
@@ -374,6 +527,12 @@ class PdfXrefTable implements Serializable {
                 continue;
             }
             xref[i] = null;
+            if (lazyEntries != null && lazyEntries.getType(i) != CompactXrefEntries.FREE) {
+                lazyEntries.remove(i);
+            }
+            if (flushedEntries != null) {
+                flushedEntries.remove(i);
+            }
         }
         count = 1;
     }
@@ -383,13 +542,18 @@ class PdfXrefTable implements Serializable {
         int first = 0;
         int len = 0;
         for (int i = 0; i < size(); i++) {
-            PdfIndirectReference reference = xref[i];
-            if (document.properties.appendMode && reference != null &&
-                    (!reference.checkState(PdfObject.MODIFIED) || dropObjectsFromObjectStream && reference.getObjStreamNumber() != 0)) {
-                reference = null;
+            boolean present;
+            if (isFlushedEntry(i)) {
+                // flushed entries are always modified in append mode, see PdfObject#flush
+                present = !(document.properties.appendMode && dropObjectsFromObjectStream
+                        && flushedEntries.getType(i) == CompactXrefEntries.COMPRESSED);
+            } else {
+                PdfIndirectReference reference = get(i);
+                present = reference != null && !(document.properties.appendMode &&
+                        (!reference.checkState(PdfObject.MODIFIED) || dropObjectsFromObjectStream && reference.getObjStreamNumber() != 0));
             }
 
-            if (reference == null) {
+            if (!present) {
                 if (len > 0) {
                     sections.add(first);
                     sections.add(len);
@@ -513,6 +677,56 @@ class PdfXrefTable implements Serializable {
         return freeRef;
     }
 
+    private boolean isFreeOrAbsent(int objNr) {
+        PdfIndirectReference reference = xref[objNr];
+        if (reference != null) {
+            return reference.isFree();
+        }
+        byte lazyType = lazyEntries != null ? lazyEntries.getType(objNr) : CompactXrefEntries.ABSENT;
+        return lazyType == CompactXrefEntries.ABSENT || lazyType == CompactXrefEntries.FREE;
+    }
+
+    private boolean isFlushedEntry(int objNr) {
+        return flushedEntries != null && xref[objNr] == null && flushedEntries.contains(objNr);
+    }
+
+    private PdfIndirectReference createReferenceFromFlushedEntry(int objNr) {
+        PdfIndirectReference reference;
+        int genOrObjStreamNr = flushedEntries.getGenOrObjStreamNumber(objNr);
+        long offsetOrIndex = flushedEntries.getOffsetOrIndex(objNr);
+        if (flushedEntries.getType(objNr) == CompactXrefEntries.COMPRESSED) {
+            reference = new PdfIndirectReference(flushedEntriesDocument, objNr, 0, offsetOrIndex);
+            reference.setObjStreamNumber(genOrObjStreamNr);
+        } else {
+            reference = new PdfIndirectReference(flushedEntriesDocument, objNr, genOrObjStreamNr, offsetOrIndex);
+        }
+        reference.setState(PdfObject.FLUSHED);
+        if (flushedEntriesDocument != null && flushedEntriesDocument.properties.appendMode) {
+            // only modified objects are flushed in append mode
+            reference.setState(PdfObject.MODIFIED);
+        }
+        return reference;
+    }
+
+    private PdfIndirectReference createReferenceFromLazyEntry(int objNr) {
+        PdfIndirectReference reference;
+        byte type = lazyEntries.getType(objNr);
+        int genOrObjStreamNr = lazyEntries.getGenOrObjStreamNumber(objNr);
+        long offsetOrIndex = lazyEntries.getOffsetOrIndex(objNr);
+        if (type == CompactXrefEntries.COMPRESSED) {
+            reference = new PdfIndirectReference(lazyEntriesDocument, objNr, 0, offsetOrIndex);
+            reference.setObjStreamNumber(genOrObjStreamNr);
+        } else {
+            reference = new PdfIndirectReference(lazyEntriesDocument, objNr, genOrObjStreamNr, offsetOrIndex);
+            if (type == CompactXrefEntries.FREE) {
+                reference.setState(PdfObject.FREE);
+            }
+        }
+        lazyEntries.remove(objNr);
+        xref[objNr] = reference;
+        return reference;
+    }
+
     private void ensureCount(int count) {
         if (count >= xref.length) {
             extendXref(count << 1);
@@ -43,11 +43,15 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.kernel.pdf.filters.IFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipInstancePool;
 import com.itextpdf.kernel.security.IExternalDecryptionProcess;
 
 import java.io.Serializable;
 import java.security.Key;
 import java.security.cert.Certificate;
+import java.util.concurrent.ForkJoinPool;
 
 public class ReaderProperties implements Serializable {
 
@@ -66,6 +70,14 @@ public class ReaderProperties implements Serializable {
 
     protected MemoryLimitsAwareHandler memoryLimitsAwareHandler;
 
+    protected boolean lazyXrefLoading = false;
+
+    protected transient ForkJoinPool xrefRebuildPool;
+
+    protected transient IFlateCodec flateCodec;
+
+    protected boolean threadSafeReading = false;
+
     /**
      * Defines the password which will be used if the document is encrypted with standard encryption.
      * This could be either user or owner password.
@@ -120,4 +132,71 @@ public class ReaderProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Defines if lazy xref loading is enabled.
+     * <p>
+     * By default all cross-reference sections are read into {@link PdfIndirectReference} instances
+     * when the document is opened.
+     * <p>
+     * If lazy xref loading is enabled, cross-reference entries are kept in a compact primitive form
+     * and indirect references are only created when corresponding objects are requested for the first time.
+     * This significantly reduces opening time and memory consumption for huge documents
+     * of which only a small part is processed.
+     *
+     * @param lazyXrefLoading true to enable lazy xref loading, false to disable it.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setLazyXrefLoading(boolean lazyXrefLoading) {
+        this.lazyXrefLoading = lazyXrefLoading;
+        return this;
+    }
+
+    /**
+     * Sets the pool which will be used to rebuild the cross-reference table of damaged documents.
+     * <p>
+     * By default the whole file is scanned for objects and trailers on the current thread.
+     * If the pool is set, big files are split into chunks which are scanned in parallel.
+     * The rebuilt cross-reference table is the same as the one rebuilt without the pool.
+     *
+     * @param xrefRebuildPool the pool to scan the file on, or {@code null} to scan it on the current thread.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setXrefRebuildPool(ForkJoinPool xrefRebuildPool) {
+        this.xrefRebuildPool = xrefRebuildPool;
+        return this;
+    }
+
+    /**
+     * Sets the codec which will be used to decompress FlateDecode streams.
+     * By default {@link ZipFlateCodec} reusing the decompressors of the shared {@link ZipInstancePool} is used.
+     *
+     * @param flateCodec the codec to decompress streams with, or {@code null} to use the default one.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setFlateCodec(IFlateCodec flateCodec) {
+        this.flateCodec = flateCodec;
+        return this;
+    }
+
+    /**
+     * Enables thread safe reading of the document.
+     * <p>
+     * By default a {@link PdfReader} shares a single tokenizer and a single position in the source between all reads,
+     * so a document may only be read from one thread at a time.
+     * In thread safe mode the source is accessed through {@link com.itextpdf.io.source.ThreadSafeRandomAccessSource},
+     * indirect objects are resolved and raw stream bytes are read under the lock of the reader, while
+     * decoding of the streams is done without holding it. Pages, their content streams and resources
+     * may then be processed by several threads concurrently, e.g. with
+     * {@link com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor#getTextFromAllPages(PdfDocument, java.util.concurrent.ExecutorService)}.
+     * <p>
+     * The mode is meant for documents opened in reading mode only. Modifying the document is not thread safe.
+     *
+     * @param threadSafeReading true to enable thread safe reading, false to disable it.
+     * @return this {@link ReaderProperties} instance.
+     */
+    public ReaderProperties setThreadSafeReading(boolean threadSafeReading) {
+        this.threadSafeReading = threadSafeReading;
+        return this;
+    }
+
 }
@@ -0,0 +1,251 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps in memory the objects which are shared by the pages of several parts of a document processed part
+ * by part, e.g. fonts and color profiles used by all the parts of a split document, while all the other objects
+ * of the processed pages are released with {@link PageFlushingHelper#releaseDeep(int)}. Thus the shared objects
+ * are not read and parsed again for every part.
+ * <p>
+ * An object is kept once it is found in the pages of a second part. The kept objects are prevented from being
+ * released. Their total size is limited by the estimated memory they take, once the limit is exceeded, the least
+ * recently used objects are released.
+ * <p>
+ * The cache is meant for documents opened in reading mode.
+ */
+public class SharedPageObjectsCache {
+
+    /**
+     * The default limit of the estimated size of the kept objects, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+    private final PdfDocument document;
+
+    private final long maxSize;
+
+    private long size;
+
+    /**
+     * The numbers of the objects found in the pages of the previous parts.
+     */
+    private final BitSet seen = new BitSet();
+
+    private final LinkedHashMap<PdfIndirectReference, Long> kept = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates a cache limited to {@link #DEFAULT_MAX_SIZE} bytes.
+     *
+     * @param document the document which pages are processed
+     */
+    public SharedPageObjectsCache(PdfDocument document) {
+        this(document, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache of the specified limit.
+     *
+     * @param document the document which pages are processed
+     * @param maxSize  the limit of the estimated size of the kept objects, in bytes
+     */
+    public SharedPageObjectsCache(PdfDocument document, long maxSize) {
+        this.document = document;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the estimated size of the kept objects.
+     *
+     * @return the size of the cache, in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of the kept objects.
+     *
+     * @return the number of the kept objects
+     */
+    public int getCount() {
+        return kept.size();
+    }
+
+    /**
+     * Registers the pages of the next part. The objects of the pages which were found in the pages of the
+     * previous parts are kept. Shall be called before the pages are released.
+     *
+     * @param pageNumbers the numbers of the pages of the part
+     */
+    public void addPart(Collection<Integer> pageNumbers) {
+        BitSet partObjects = new BitSet();
+        Deque<PdfObject> objects = new ArrayDeque<>();
+        for (int pageNumber : pageNumbers) {
+            PdfDictionary pageDict = document.getPage(pageNumber).getPdfObject();
+            for (PdfName key : pageDict.keySet()) {
+                if (!PdfName.Parent.equals(key)) {
+                    objects.push(pageDict.get(key, false));
+                }
+            }
+        }
+        while (!objects.isEmpty()) {
+            PdfObject obj = objects.pop();
+            if (obj == null) {
+                continue;
+            }
+            if (obj.isIndirectReference()) {
+                PdfIndirectReference reference = (PdfIndirectReference) obj;
+                int objNr = reference.getObjNumber();
+                if (partObjects.get(objNr)) {
+                    continue;
+                }
+                partObjects.set(objNr);
+                // objects not loaded yet were not used by the part
+                obj = reference.refersTo;
+                // other pages are released by their own parts
+                if (obj == null || obj.isDictionary() && PdfName.Page.equals(((PdfDictionary) obj).getAsName(PdfName.Type))) {
+                    continue;
+                }
+                if (seen.get(objNr)) {
+                    keep(reference, obj);
+                } else {
+                    seen.set(objNr);
+                }
+            }
+            if (obj.isDictionary() || obj.isStream()) {
+                for (PdfName key : ((PdfDictionary) obj).keySet()) {
+                    if (!PdfName.Parent.equals(key) && !PdfName.P.equals(key)) {
+                        objects.push(((PdfDictionary) obj).get(key, false));
+                    }
+                }
+            } else if (obj.isArray()) {
+                PdfArray array = (PdfArray) obj;
+                for (int i = 0; i < array.size(); i++) {
+                    objects.push(array.get(i, false));
+                }
+            }
+        }
+        evict();
+    }
+
+    /**
+     * Releases all the kept objects.
+     */
+    public void clear() {
+        for (PdfIndirectReference reference : kept.keySet()) {
+            release(reference);
+        }
+        kept.clear();
+        size = 0;
+    }
+
+    private void keep(PdfIndirectReference reference, PdfObject obj) {
+        if (kept.get(reference) != null || obj.isReleaseForbidden()) {
+            return;
+        }
+        long objectSize = estimateSize(obj);
+        if (objectSize > maxSize) {
+            return;
+        }
+        obj.setState(PdfObject.FORBID_RELEASE);
+        kept.put(reference, objectSize);
+        size += objectSize;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<PdfIndirectReference, Long>> eldest = kept.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Map.Entry<PdfIndirectReference, Long> entry = eldest.next();
+            size -= entry.getValue();
+            release(entry.getKey());
+            eldest.remove();
+        }
+    }
+
+    private static void release(PdfIndirectReference reference) {
+        PdfObject obj = reference.refersTo;
+        if (obj != null) {
+            obj.clearState(PdfObject.FORBID_RELEASE);
+            obj.release();
+        }
+    }
+
+    /**
+     * Roughly estimates the memory taken by the object, not including the objects it refers to.
+     * The content of the streams read from a document is not kept in memory.
+     */
+    private static long estimateSize(PdfObject obj) {
+        switch (obj.getType()) {
+            case PdfObject.DICTIONARY:
+            case PdfObject.STREAM: {
+                long size = 64;
+                PdfDictionary dictionary = (PdfDictionary) obj;
+                for (PdfName key : dictionary.keySet()) {
+                    size += 32 + estimateSize(dictionary.get(key, false));
+                }
+                return size;
+            }
+            case PdfObject.ARRAY: {
+                PdfArray array = (PdfArray) obj;
+                long size = 32;
+                for (int i = 0; i < array.size(); i++) {
+                    size += 8 + estimateSize(array.get(i, false));
+                }
+                return size;
+            }
+            case PdfObject.STRING:
+                return 48 + ((PdfString) obj).getValueBytes().length;
+            default:
+                return 24;
+        }
+    }
+}
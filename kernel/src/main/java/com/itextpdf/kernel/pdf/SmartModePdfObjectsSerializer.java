@@ -44,24 +44,73 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.kernel.PdfException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Serializes the copied objects in smart mode, so that the objects with the same content are found.
+ * <p>
+ * Each indirect object is serialized once per source document. Its parents only contain the id of its serialized
+ * content, which is assigned once per distinct content, so the serialized content of any object is small, nested
+ * resources are not serialized again, and the objects with the same serialized content are still exactly the objects
+ * with the same structure. The serialized content of a stream consists of its dictionary, its length and
+ * a fingerprint of its data. The fingerprint is an MD5 digest, unless the fast non-cryptographic fingerprints
+ * are enabled by {@link SmartModeProperties#setFastFingerprints(boolean)}.
+ * <p>
+ * Streams are only hashed if a stream with the same dictionary and length was seen before. The first stream of
+ * each such signature gets a token without fingerprint, it is hashed lazily from its copy, when another stream
+ * of the same signature is found or at the latest when the copy is flushed. The streams of the same signature
+ * are hashed while being read from the source document, so that they are not kept in memory entirely.
+ */
 class SmartModePdfObjectsSerializer implements Serializable {
 
     private static final long serialVersionUID = 2502203520776244051L;
 
-    private transient MessageDigest md5;
-    private HashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj = new HashMap<>();
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final SmartModeProperties properties;
+    private final LinkedHashMap<SerializedObjectContent, PdfIndirectReference> serializedContentToObj;
+
+    /**
+     * The ids of the serialized contents of the nested objects. The ids are never reused, so an evicted content
+     * gets a new id and the objects containing it are just not matched with the objects serialized before.
+     */
+    private final LinkedHashMap<SerializedObjectContent, Integer> nestedObjectIds;
+    private int nestedObjectsCount;
+
+    /**
+     * The first streams of the signatures, i.e. of the dictionaries followed by the content length.
+     */
+    private final LinkedHashMap<SerializedObjectContent, FirstStream> firstStreams;
+    private int firstStreamsCount;
+
+    /**
+     * The first streams which are not copied yet, by the source streams.
+     */
+    private final transient Map<PdfStream, FirstStream> notCopiedFirstStreams = new IdentityHashMap<>();
+
+    /**
+     * The first streams whose fingerprints are not known yet, by the not flushed copies.
+     */
+    private final transient Map<PdfIndirectReference, FirstStream> notFlushedFirstStreams = new HashMap<>();
 
     SmartModePdfObjectsSerializer() {
-        try {
-            md5 = MessageDigest.getInstance("MD5");
-        } catch (Exception e) {
-            throw new PdfException(e);
-        }
+        this(new SmartModeProperties());
+    }
+
+    SmartModePdfObjectsSerializer(SmartModeProperties properties) {
+        this.properties = properties;
+        this.serializedContentToObj = new LeastRecentlyUsedMap<>(properties.maxCachedObjects);
+        this.nestedObjectIds = new LeastRecentlyUsedMap<>(properties.maxCachedObjects);
+        this.firstStreams = new LeastRecentlyUsedMap<>(properties.maxCachedObjects);
     }
 
     public void saveSerializedObject(SerializedObjectContent serializedContent, PdfIndirectReference objectReference) {
@@ -75,13 +124,74 @@ class SmartModePdfObjectsSerializer implements Serializable {
         return null;
     }
 
+    /**
+     * Checks that the object and the previously copied object found by its serialized content are the same.
+     * The serialized content of a stream only contains a fingerprint of its data, so if the collision verification
+     * is enabled, the data of both streams are compared. The data of a flushed copy are no longer available,
+     * so a stream whose previous copy is flushed is considered the same by its fingerprint only, which is
+     * a cryptographic digest unless the fast fingerprints are enabled.
+     *
+     * @param obj       the object being copied
+     * @param objectRef the reference to the previously copied object with the same serialized content
+     * @return false if the data of the streams differ, true otherwise
+     */
+    public boolean isSameContent(PdfObject obj, PdfIndirectReference objectRef) {
+        if (!properties.collisionVerification || !obj.isStream() || objectRef.checkState(PdfObject.FLUSHED)) {
+            return true;
+        }
+        PdfObject copiedObj = objectRef.getRefersTo(false);
+        if (copiedObj == null || !copiedObj.isStream()) {
+            return true;
+        }
+        byte[] copiedBytes = ((PdfStream) copiedObj).getBytes(false);
+        return copiedBytes == null || contentEquals((PdfStream) obj, copiedBytes);
+    }
+
+    /**
+     * Is called once the object is copied, so that the fingerprint of the first stream of a signature
+     * can be calculated from its copy.
+     *
+     * @param obj       the copied object
+     * @param objectRef the reference to the copy
+     */
+    public void objectCopied(PdfObject obj, PdfIndirectReference objectRef) {
+        if (obj.isStream()) {
+            FirstStream firstStream = notCopiedFirstStreams.remove(obj);
+            if (firstStream != null) {
+                firstStream.source = null;
+                firstStream.copy = objectRef;
+                notFlushedFirstStreams.put(objectRef, firstStream);
+            }
+        }
+    }
+
+    /**
+     * Is called before the stream is flushed, so that the fingerprint of the first stream of a signature
+     * is calculated while its copy is in memory.
+     *
+     * @param stream the stream to be flushed
+     */
+    public void streamFlushing(PdfStream stream) {
+        FirstStream firstStream = notFlushedFirstStreams.remove(stream.getIndirectReference());
+        if (firstStream != null) {
+            firstStream.getFingerprint();
+            firstStream.copy = null;
+        }
+    }
+
     public SerializedObjectContent serializeObject(PdfObject obj) {
         if (!obj.isStream() && !obj.isDictionary()) {
             return null;
         }
         PdfIndirectReference indRef = obj.getIndirectReference();
         assert indRef != null;
-        Map<PdfIndirectReference, byte[]> serializedCache = indRef.getDocument().serializedObjectsCache;
+        PdfDocument document = indRef.getDocument();
+        // first stream tokens and nested object ids depend on the serializer
+        if (document.serializedObjectsCacheOwner != this) {
+            document.serializedObjectsCache.clear();
+            document.serializedObjectsCacheOwner = this;
+        }
+        Map<PdfIndirectReference, byte[]> serializedCache = document.serializedObjectsCache;
 
         byte[] content = serializedCache.get(indRef);
         if (content == null) {
@@ -91,13 +201,17 @@ class SmartModePdfObjectsSerializer implements Serializable {
                 serObject(obj, bb, level, serializedCache);
             } catch (SelfReferenceException e) {
                 return null;
+            } catch (UnavailableContentException e) {
+                return null;
             }
             content = bb.toByteArray();
+            serializedCache.put(indRef, content);
         }
         return new SerializedObjectContent(content);
     }
 
-    private void serObject(PdfObject obj, ByteBuffer bb, int level, Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
+    private void serObject(PdfObject obj, ByteBuffer bb, int level, Map<PdfIndirectReference, byte[]> serializedCache)
+            throws SelfReferenceException, UnavailableContentException {
         if (level <= 0) {
             return;
         }
@@ -112,7 +226,7 @@ class SmartModePdfObjectsSerializer implements Serializable {
             reference = (PdfIndirectReference) obj;
             byte[] cached = serializedCache.get(reference);
             if (cached != null) {
-                bb.append(cached);
+                bb.append("$R").append(String.valueOf(getNestedObjectId(cached)));
                 return;
             } else {
 
@@ -132,7 +246,7 @@ class SmartModePdfObjectsSerializer implements Serializable {
             serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
             bb.append("$B");
             if (level > 0) {
-                bb.append(md5.digest(((PdfStream) obj).getBytes(false)));
+                serStreamContent((PdfStream) obj, bb);
             }
         } else if (obj.isDictionary()) {
             serDic((PdfDictionary) obj, bb, level - 1, serializedCache);
@@ -149,13 +263,150 @@ class SmartModePdfObjectsSerializer implements Serializable {
         }
 
         if (savedBb != null) {
-            serializedCache.put(reference, bb.toByteArray());
-            savedBb.append(bb.getInternalBuffer(), 0, bb.size());
+            byte[] content = bb.toByteArray();
+            serializedCache.put(reference, content);
+            savedBb.append("$R").append(String.valueOf(getNestedObjectId(content)));
+        }
+    }
+
+    private int getNestedObjectId(byte[] content) {
+        SerializedObjectContent key = new SerializedObjectContent(content);
+        Integer id = nestedObjectIds.get(key);
+        if (id == null) {
+            id = nestedObjectsCount++;
+            nestedObjectIds.put(key, id);
+        }
+        return (int) id;
+    }
+
+    /**
+     * Appends the token of the stream content to the serialized stream dictionary.
+     */
+    private void serStreamContent(PdfStream stream, ByteBuffer bb) throws UnavailableContentException {
+        int length = stream.getLength();
+        if (length < 0) {
+            bb.append("$#").append(getFingerprint(stream));
+            return;
+        }
+        bb.append(String.valueOf(length));
+        SerializedObjectContent signature = new SerializedObjectContent(bb.toByteArray());
+        FirstStream firstStream = firstStreams.get(signature);
+        if (firstStream == null) {
+            // the id keeps the tokens unique even if the first stream of the signature is evicted and replaced
+            firstStream = new FirstStream(stream, firstStreamsCount++, properties.fastFingerprints);
+            firstStreams.put(signature, firstStream);
+            notCopiedFirstStreams.put(stream, firstStream);
+            bb.append("$=").append(String.valueOf(firstStream.id));
+            return;
+        }
+        if (firstStream.source == stream) {
+            bb.append("$=").append(String.valueOf(firstStream.id));
+            return;
+        }
+        byte[] fingerprint = getFingerprint(stream);
+        if (Arrays.equals(fingerprint, firstStream.getFingerprint())) {
+            bb.append("$=").append(String.valueOf(firstStream.id));
+        } else {
+            bb.append("$#").append(fingerprint);
+        }
+    }
+
+    private byte[] getFingerprint(PdfStream stream) throws UnavailableContentException {
+        StreamFingerprintStore store = properties.fingerprintStore;
+        String key = store != null ? StreamFingerprintStore.createKey(stream) : null;
+        if (key != null) {
+            // the fingerprints of the different algorithms are never mixed up
+            key = (properties.fastFingerprints ? "M:" : "D:") + key;
+        }
+        byte[] fingerprint = key != null ? store.get(key) : null;
+        if (fingerprint == null) {
+            fingerprint = calculateFingerprint(stream, properties.fastFingerprints);
+            if (fingerprint == null) {
+                throw new UnavailableContentException();
+            }
+            if (key != null) {
+                store.put(key, fingerprint);
+            }
         }
+        return fingerprint;
+    }
+
+    /**
+     * Hashes the stream content while reading it.
+     *
+     * @return the fingerprint, or null if the content is not available
+     */
+    private static byte[] calculateFingerprint(PdfStream stream, boolean fast) {
+        InputStream is = stream.openStream(false);
+        if (is == null) {
+            return null;
+        }
+        MurmurHash3 murmur = fast ? new MurmurHash3() : null;
+        MessageDigest md5 = fast ? null : createMd5();
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        try {
+            try {
+                int n;
+                while ((n = is.read(buffer)) > 0) {
+                    if (murmur != null) {
+                        murmur.update(buffer, 0, n);
+                    } else {
+                        md5.update(buffer, 0, n);
+                    }
+                }
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotGetPdfStreamBytes, e, stream);
+        }
+        return murmur != null ? murmur.digest() : md5.digest();
+    }
+
+    private static byte[] calculateFingerprint(byte[] bytes, boolean fast) {
+        return fast ? MurmurHash3.hash128(bytes) : createMd5().digest(bytes);
+    }
+
+    private static MessageDigest createMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new PdfException(e);
+        }
+    }
+
+    private static boolean contentEquals(PdfStream stream, byte[] bytes) {
+        InputStream is = stream.openStream(false);
+        if (is == null) {
+            return false;
+        }
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int pos = 0;
+        try {
+            try {
+                int n;
+                while ((n = is.read(buffer)) > 0) {
+                    if (pos + n > bytes.length) {
+                        return false;
+                    }
+                    for (int i = 0; i < n; i++) {
+                        if (buffer[i] != bytes[pos++]) {
+                            return false;
+                        }
+                    }
+                }
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotGetPdfStreamBytes, e, stream);
+        }
+        return pos == bytes.length;
     }
 
     private void serDic(PdfDictionary dic, ByteBuffer bb, int level,
-                        Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
+                        Map<PdfIndirectReference, byte[]> serializedCache)
+            throws SelfReferenceException, UnavailableContentException {
         bb.append("$D");
         if (level <= 0)
             return;
@@ -171,7 +422,8 @@ class SmartModePdfObjectsSerializer implements Serializable {
     }
 
     private void serArray(PdfArray array, ByteBuffer bb, int level,
-                          Map<PdfIndirectReference, byte[]> serializedCache) throws SelfReferenceException {
+                          Map<PdfIndirectReference, byte[]> serializedCache)
+            throws SelfReferenceException, UnavailableContentException {
         bb.append("$A");
         if (level <= 0)
             return;
@@ -190,4 +442,64 @@ class SmartModePdfObjectsSerializer implements Serializable {
 
     private static class SelfReferenceException extends Exception {
     }
+
+    private static class UnavailableContentException extends Exception {
+    }
+
+    /**
+     * The first stream of a signature, its fingerprint is calculated lazily
+     * from the copy, or from the source stream if it is not copied.
+     */
+    private static class FirstStream implements Serializable {
+
+        private static final long serialVersionUID = -4081470513387218377L;
+
+        private final int id;
+        private final boolean fast;
+        private transient PdfStream source;
+        private transient PdfIndirectReference copy;
+        private byte[] fingerprint;
+
+        FirstStream(PdfStream source, int id, boolean fast) {
+            this.source = source;
+            this.id = id;
+            this.fast = fast;
+        }
+
+        /**
+         * Gets the fingerprint of the stream content.
+         *
+         * @return the fingerprint, or null if neither the copy nor the source stream are available any longer
+         */
+        byte[] getFingerprint() {
+            if (fingerprint == null) {
+                if (copy != null && !copy.checkState(PdfObject.FLUSHED) && copy.getRefersTo(false) instanceof PdfStream) {
+                    byte[] bytes = ((PdfStream) copy.getRefersTo(false)).getBytes(false);
+                    if (bytes != null) {
+                        fingerprint = calculateFingerprint(bytes, fast);
+                    }
+                } else if (source != null && !source.isFlushed() && !source.getIndirectReference().getDocument().isClosed()) {
+                    fingerprint = calculateFingerprint(source, fast);
+                }
+            }
+            return fingerprint;
+        }
+    }
+
+    private static class LeastRecentlyUsedMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = -6310934584376157231L;
+
+        private final int maxSize;
+
+        LeastRecentlyUsedMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
 }
@@ -0,0 +1,132 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+
+/**
+ * Allows configuration of the smart mode of a {@link PdfWriter}.
+ * <p>
+ * In smart mode the copied dictionaries and streams are serialized and the streams contents are fingerprinted
+ * with an MD5 digest, so that objects with the same content are written only once.
+ *
+ * @see WriterProperties#useSmartMode(SmartModeProperties)
+ */
+public class SmartModeProperties implements Serializable {
+
+    private static final long serialVersionUID = -2475961826413704186L;
+
+    protected int maxCachedObjects = Integer.MAX_VALUE;
+
+    protected boolean collisionVerification = true;
+
+    protected boolean fastFingerprints = false;
+
+    protected transient StreamFingerprintStore fingerprintStore;
+
+    /**
+     * Limits the number of the copied objects which are remembered by the writer to find duplicates.
+     * Once the limit is exceeded, the least recently reused objects are forgotten, so that their later copies
+     * are written again. By default the number is not limited.
+     *
+     * @param maxCachedObjects the limit of the number of the remembered objects
+     * @return this {@link SmartModeProperties} instance.
+     */
+    public SmartModeProperties setMaxCachedObjects(int maxCachedObjects) {
+        this.maxCachedObjects = maxCachedObjects;
+        return this;
+    }
+
+    /**
+     * Defines if the contents of the streams are compared byte by byte when a duplicate is found by a fingerprint.
+     * Enabled by default.
+     * <p>
+     * Note that the comparison is only possible while the data of the previously copied stream is still in memory,
+     * i.e. before the copy is flushed. Once it is flushed, which is usually the case when documents are merged
+     * page by page with flushing, a duplicate is found by the fingerprint only and the comparison is skipped,
+     * so this option does not protect against the fingerprint collisions with flushed streams. The same applies
+     * to the fingerprints taken from a {@link StreamFingerprintStore}.
+     *
+     * @param collisionVerification true to compare the contents of the duplicate streams, false to trust the fingerprints.
+     * @return this {@link SmartModeProperties} instance.
+     */
+    public SmartModeProperties setCollisionVerification(boolean collisionVerification) {
+        this.collisionVerification = collisionVerification;
+        return this;
+    }
+
+    /**
+     * Defines if the stream contents are fingerprinted with a fast 128-bit non-cryptographic hash (MurmurHash3)
+     * instead of an MD5 digest. Disabled by default.
+     * <p>
+     * The fast fingerprints considerably speed up hashing of big streams, but they are unsafe: the collisions
+     * of a non-cryptographic hash are not negligible and they are not detected when the previous copy of a stream
+     * is already flushed or its fingerprint comes from a {@link StreamFingerprintStore}. In such a case
+     * one stream is silently replaced with another one in the output document.
+     *
+     * @param fastFingerprints true to use the fast non-cryptographic fingerprints, false to use MD5 digests.
+     * @return this {@link SmartModeProperties} instance.
+     */
+    public SmartModeProperties setFastFingerprints(boolean fastFingerprints) {
+        this.fastFingerprints = fastFingerprints;
+        return this;
+    }
+
+    /**
+     * Sets the store of the stream fingerprints which may be shared between several writers,
+     * so that the streams of the documents which are copied repeatedly are not hashed again.
+     * No store is used by default.
+     * <p>
+     * The store is unsafe: a stream is identified by the {@code ID}, the length and the last cross-reference
+     * offset of its file, not by its content, so a file edited without changing these values gets the
+     * fingerprints of the original file and its streams may be replaced with the original ones in the output
+     * document. Use it only for the source files which are known not to be modified in such a way.
+     *
+     * @param fingerprintStore the store to use, or {@code null} to calculate fingerprints for every copy.
+     * @return this {@link SmartModeProperties} instance.
+     */
+    public SmartModeProperties setFingerprintStore(StreamFingerprintStore fingerprintStore) {
+        this.fingerprintStore = fingerprintStore;
+        return this;
+    }
+}
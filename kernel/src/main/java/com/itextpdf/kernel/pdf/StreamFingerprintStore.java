@@ -0,0 +1,245 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the fingerprints of the stream contents calculated in smart mode, so that the streams of the documents
+ * which are copied again and again, e.g. the same letterhead merged into many bundles, are recognized without
+ * reading and hashing their content once more.
+ * <p>
+ * A fingerprint is stored under a key identifying the stream in the source file: the {@code ID} of the document,
+ * the length of the file, the offset of its last cross-reference section, the object number and the generation
+ * of the stream and the length of its content. Only the streams of the documents opened in reading mode, which
+ * have an {@code ID} and which were not modified, get a key. Files with equal keys are assumed to be the same file.
+ * <p>
+ * Using the store is therefore unsafe: the content of a stream is not verified against the stored fingerprint,
+ * so if a file is edited, but keeps its {@code ID} and its length, a stream of it may be silently replaced
+ * with a stream of the original file in the output document. The store is only used if it is explicitly set.
+ * <p>
+ * The store may be shared between several writers, access to it is synchronized. The number of the fingerprints
+ * is limited, once the limit is exceeded, the least recently used ones are evicted. Optionally the fingerprints
+ * are kept in an index file, so that they are reused by the next runs of the application.
+ *
+ * @see SmartModeProperties#setFingerprintStore(StreamFingerprintStore)
+ */
+public class StreamFingerprintStore {
+
+    /**
+     * The default limit of the number of the stored fingerprints.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private static final int INDEX_FILE_MAGIC = 0x69545346;
+    private static final int INDEX_FILE_VERSION = 2;
+
+    /**
+     * Both the MD5 digests and the MurmurHash3 fingerprints are 128 bits long.
+     */
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private final int maxEntries;
+
+    private final File indexFile;
+
+    private final LinkedHashMap<String, byte[]> fingerprints = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Creates an in-memory store limited to {@link #DEFAULT_MAX_ENTRIES} fingerprints.
+     */
+    public StreamFingerprintStore() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates an in-memory store of the specified limit.
+     *
+     * @param maxEntries the limit of the number of the stored fingerprints
+     */
+    public StreamFingerprintStore(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.indexFile = null;
+    }
+
+    /**
+     * Creates a store of the specified limit backed by the index file. If the file exists, the fingerprints
+     * are loaded from it, a file which is not a valid index is ignored. The fingerprints are written to the file
+     * by {@link #save()}.
+     *
+     * @param maxEntries the limit of the number of the stored fingerprints
+     * @param indexFile  the index file
+     * @throws IOException if the existing index file cannot be read
+     */
+    public StreamFingerprintStore(int maxEntries, File indexFile) throws IOException {
+        this.maxEntries = maxEntries;
+        this.indexFile = indexFile;
+        if (indexFile.isFile()) {
+            load();
+        }
+    }
+
+    /**
+     * Gets the number of the stored fingerprints.
+     *
+     * @return the number of the stored fingerprints
+     */
+    public synchronized int getCount() {
+        return fingerprints.size();
+    }
+
+    /**
+     * Removes all the stored fingerprints. The index file is not changed until {@link #save()} is called.
+     */
+    public synchronized void clear() {
+        fingerprints.clear();
+    }
+
+    /**
+     * Writes the stored fingerprints to the index file. Does nothing if the store is not backed by a file.
+     *
+     * @throws IOException if the index file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (indexFile == null) {
+            return;
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+        try {
+            out.writeInt(INDEX_FILE_MAGIC);
+            out.writeInt(INDEX_FILE_VERSION);
+            out.writeInt(fingerprints.size());
+            for (Map.Entry<String, byte[]> entry : fingerprints.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.write(entry.getValue());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    synchronized byte[] get(String key) {
+        return fingerprints.get(key);
+    }
+
+    synchronized void put(String key, byte[] fingerprint) {
+        fingerprints.put(key, fingerprint);
+        Iterator<byte[]> eldest = fingerprints.values().iterator();
+        while (fingerprints.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Creates the key identifying the stream in the source file.
+     *
+     * @param stream the stream to identify
+     * @return the key, or {@code null} if the stream cannot be reliably identified
+     */
+    static String createKey(PdfStream stream) {
+        PdfIndirectReference reference = stream.getIndirectReference();
+        if (reference == null || reference.getReader() == null || stream.getOutputStream() != null
+                || reference.checkState(PdfObject.MODIFIED)) {
+            return null;
+        }
+        PdfDocument document = reference.getDocument();
+        if (document == null || document.getWriter() != null
+                || document.getOriginalDocumentId() == null || document.getModifiedDocumentId() == null) {
+            return null;
+        }
+        long fileLength;
+        try {
+            fileLength = reference.getReader().getFileLength();
+        } catch (IOException e) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder();
+        appendHex(key, document.getOriginalDocumentId().getValueBytes());
+        key.append(':');
+        appendHex(key, document.getModifiedDocumentId().getValueBytes());
+        key.append(':').append(fileLength)
+                .append(':').append(reference.getReader().getLastXref())
+                .append(':').append(reference.getObjNumber())
+                .append(' ').append(reference.getGenNumber())
+                .append(':').append(stream.getLength());
+        return key.toString();
+    }
+
+    private void load() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            if (in.readInt() != INDEX_FILE_MAGIC || in.readInt() != INDEX_FILE_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte[] fingerprint = new byte[FINGERPRINT_LENGTH];
+                in.readFully(fingerprint);
+                put(key, fingerprint);
+            }
+        } catch (EOFException e) {
+            // a truncated index, the fingerprints read so far are kept
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void appendHex(StringBuilder sb, byte[] bytes) {
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+    }
+}
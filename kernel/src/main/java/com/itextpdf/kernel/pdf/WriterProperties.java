@@ -43,13 +43,25 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.kernel.pdf.filters.IFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipInstancePool;
+
 import java.io.Serializable;
 import java.security.cert.Certificate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 public class WriterProperties implements Serializable {
 
     private static final long serialVersionUID = -8692165914703604764L;
 
+    /**
+     * Default maximum total size of the uncompressed content of the streams which are being compressed concurrently.
+     */
+    public static final long DEFAULT_MAX_IN_FLIGHT_COMPRESSION_BYTES = 64L * 1024 * 1024;
+
     protected int compressionLevel;
 
     /**
@@ -62,6 +74,11 @@ public class WriterProperties implements Serializable {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+
+    /**
+     * The configuration of the smart mode.
+     */
+    protected SmartModeProperties smartModeProperties;
     protected boolean debugMode;
     protected boolean addXmpMetadata;
     protected boolean addUAXmpMetadata;
@@ -77,11 +94,45 @@ public class WriterProperties implements Serializable {
      */
     protected PdfString modifiedDocumentId;
 
+    /**
+     * Indicates if cross-reference entries of the flushed objects shall be kept in a compact form.
+     */
+    protected boolean compactXref;
+
+    /**
+     * The executor used to compress the streams concurrently, null if streams are compressed on the writing thread.
+     */
+    protected transient ExecutorService compressionExecutor;
+
+    /**
+     * The maximum total size of the uncompressed content of the streams which are being compressed by the executor.
+     */
+    protected long maxInFlightCompressionBytes;
+
+    /**
+     * The codec used to compress the streams, null if the default one is used.
+     */
+    protected transient IFlateCodec flateCodec;
+
+    /**
+     * The compression levels defined for the specific types of streams.
+     */
+    protected Map<CompressedStreamType, Integer> streamTypeCompressionLevels;
+
+    /**
+     * The compression strategies defined for the specific types of streams.
+     */
+    protected Map<CompressedStreamType, Integer> streamTypeCompressionStrategies;
+
     public WriterProperties() {
         smartMode = false;
+        smartModeProperties = new SmartModeProperties();
+        maxInFlightCompressionBytes = DEFAULT_MAX_IN_FLIGHT_COMPRESSION_BYTES;
         debugMode = false;
         addUAXmpMetadata = false;
         compressionLevel = CompressionConstants.DEFAULT_COMPRESSION;
+        streamTypeCompressionLevels = new EnumMap<>(CompressedStreamType.class);
+        streamTypeCompressionStrategies = new EnumMap<>(CompressedStreamType.class);
         isFullCompression = null;
         encryptionProperties = new EncryptionProperties();
     }
@@ -113,6 +164,37 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables smart mode with the specified configuration, e.g. with a limited number of the remembered
+     * objects or with a store of the stream fingerprints shared between the writers.
+     *
+     * @param smartModeProperties the configuration of the smart mode.
+     * @return this {@link WriterProperties} instance
+     * @see #useSmartMode()
+     */
+    public WriterProperties useSmartMode(SmartModeProperties smartModeProperties) {
+        this.smartMode = true;
+        this.smartModeProperties = smartModeProperties;
+        return this;
+    }
+
+    /**
+     * Enables compact cross-reference table mode.
+     * <br>
+     * In this mode the offset and generation number of each flushed object are kept in primitive
+     * arrays instead of the {@link PdfIndirectReference} instances, which are dropped from the
+     * cross-reference table as soon as their objects are written. This considerably reduces
+     * memory consumption of the documents with millions of objects that are flushed early.
+     * Note that references which are requested after flushing, e.g. via {@link PdfDocument#getPdfObject(int)},
+     * are created anew and therefore are not the same instances as the ones used before flushing.
+     *
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties useCompactXref() {
+        this.compactXref = true;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * For PDF 2.0 documents, metadata will be added in any case.
@@ -136,6 +218,76 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Defines the level of compression for the streams of the given type, overriding the level of the document.
+     * The level explicitly set for the stream via {@link PdfStream#setCompressionLevel(int)} still takes precedence.
+     * See {@link CompressionConstants}
+     *
+     * @param streamType       the type of the streams.
+     * @param compressionLevel {@link CompressionConstants} value.
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setCompressionLevel(CompressedStreamType streamType, int compressionLevel) {
+        this.streamTypeCompressionLevels.put(streamType, compressionLevel);
+        return this;
+    }
+
+    /**
+     * Defines the compression strategy for the streams of the given type, e.g. {@link CompressionConstants#FILTERED}
+     * for the images encoded with predictors. {@link CompressionConstants#DEFAULT_STRATEGY} is used by default.
+     *
+     * @param streamType the type of the streams.
+     * @param strategy   {@link CompressionConstants} strategy value.
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setCompressionStrategy(CompressedStreamType streamType, int strategy) {
+        this.streamTypeCompressionStrategies.put(streamType, strategy);
+        return this;
+    }
+
+    /**
+     * Sets the codec used to compress the streams.
+     * By default {@link ZipFlateCodec} reusing the compressors of the shared {@link ZipInstancePool} is used.
+     *
+     * @param flateCodec the codec to compress the streams with, null to use the default one.
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setFlateCodec(IFlateCodec flateCodec) {
+        this.flateCodec = flateCodec;
+        return this;
+    }
+
+    /**
+     * Sets the executor which compresses the streams concurrently with the writing thread.
+     * <br>
+     * The flushed streams are deflated by the executor, while the writing thread continues creating
+     * and flushing other objects. The objects are still written in the order they were flushed, so the
+     * resulting document is identical to the one written without the executor. The executor is not shut down
+     * by the writer.
+     * The total size of the streams being compressed is limited by {@link #DEFAULT_MAX_IN_FLIGHT_COMPRESSION_BYTES}.
+     *
+     * @param executor the executor to compress the streams with, null to compress streams on the writing thread
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setCompressionExecutor(ExecutorService executor) {
+        return setCompressionExecutor(executor, DEFAULT_MAX_IN_FLIGHT_COMPRESSION_BYTES);
+    }
+
+    /**
+     * Sets the executor which compresses the streams concurrently with the writing thread,
+     * see {@link #setCompressionExecutor(ExecutorService)}.
+     *
+     * @param executor         the executor to compress the streams with, null to compress streams on the writing thread
+     * @param maxInFlightBytes the maximum total size of the uncompressed content of the streams being compressed.
+     *                         Once it is exceeded, the writing thread waits for the compression to finish.
+     * @return this {@link WriterProperties} instance
+     */
+    public WriterProperties setCompressionExecutor(ExecutorService executor, long maxInFlightBytes) {
+        this.compressionExecutor = executor;
+        this.maxInFlightCompressionBytes = maxInFlightBytes;
+        return this;
+    }
+
     /**
      * Defines if full compression mode is enabled. If enabled, not only the content of the pdf document will be
      * compressed, but also the pdf document inner structure.
@@ -0,0 +1,256 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.GetBufferedRandomAccessSource;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.kernel.PdfException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scans the file for object declarations ({@code N G obj}) and trailer markers in parallel chunks,
+ * used by {@link PdfReader#rebuildXref()}.
+ * <p>
+ * Lines are split the same way {@link PdfTokenizer#readLineSegment(ByteBuffer, boolean)} splits them
+ * when the file is read line by line from the beginning. Each chunk starts at the first line which starts after
+ * the line containing the chunk boundary: reading any line segment from an arbitrary position ends at the same
+ * end of line as the line read from the beginning of the file, thus all chunks together produce exactly the
+ * lines which serial reading would produce.
+ */
+class XrefRebuildScanner {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int LINE_BUFFER_CAPACITY = 24;
+
+    private final RandomAccessFileOrArray file;
+    private final long length;
+    private final long chunkSize;
+
+    /**
+     * Creates new scanner.
+     *
+     * @param file        the file to scan, it is only used to create independent views for each chunk.
+     * @param parallelism the expected number of threads which will scan the file.
+     */
+    XrefRebuildScanner(RandomAccessFileOrArray file, int parallelism) throws IOException {
+        this.file = file;
+        this.length = file.length();
+        this.chunkSize = Math.max(MIN_CHUNK_SIZE, length / ((long) Math.max(parallelism, 1) * CHUNKS_PER_THREAD) + 1);
+    }
+
+    /**
+     * Checks whether the file is big enough to be scanned in several chunks.
+     *
+     * @return true if the file will be split into more than one chunk.
+     */
+    boolean isWorthSplitting() {
+        return length > chunkSize;
+    }
+
+    /**
+     * Scans the whole file using the given pool.
+     *
+     * @param pool the pool to run the chunk scanning tasks on.
+     * @return found markers, ordered by position.
+     */
+    Markers scan(ForkJoinPool pool) {
+        int chunks = (int) ((length + chunkSize - 1) / chunkSize);
+        return pool.invoke(new ScanTask(this, 0, Math.max(chunks, 1)));
+    }
+
+    /**
+     * Reads line segments starting from the given position. The returned position is the start of the line
+     * which follows the line containing {@code position} in the serial reading of the file.
+     */
+    static long nextLineStart(PdfTokenizer lines, long position, ByteBuffer buffer) throws IOException {
+        lines.seek(position);
+        buffer.reset();
+        if (!lines.readLineSegment(buffer, true)) {
+            return Long.MAX_VALUE;
+        }
+        return lines.getPosition();
+    }
+
+    private Markers scanChunk(int chunk) throws IOException {
+        Markers markers = new Markers();
+        long chunkStart = chunk * chunkSize;
+        if (chunkStart >= length) {
+            return markers;
+        }
+        RandomAccessFileOrArray view = new RandomAccessFileOrArray(new GetBufferedRandomAccessSource(file.createSourceView()));
+        PdfTokenizer lines = new PdfTokenizer(view);
+        try {
+            ByteBuffer buffer = new ByteBuffer(LINE_BUFFER_CAPACITY);
+            PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new PdfReader.ReusableRandomAccessSource(buffer)));
+            long start = chunk == 0 ? 0 : nextLineStart(lines, chunkStart, buffer);
+            long end = chunkStart + chunkSize >= length ? Long.MAX_VALUE : nextLineStart(lines, chunkStart + chunkSize, buffer);
+            if (start >= end) {
+                return markers;
+            }
+            lines.seek(start);
+            for (long pos = start; pos < end; pos = lines.getPosition()) {
+                buffer.reset();
+                if (!lines.readLineSegment(buffer, true)) {
+                    break;
+                }
+                if (buffer.get(0) == 't') {
+                    if (PdfTokenizer.checkTrailer(buffer)) {
+                        markers.addTrailer(pos);
+                    }
+                } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
+                    int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
+                    if (obj != null) {
+                        markers.addObject(pos, obj[0], obj[1]);
+                    }
+                }
+            }
+        } finally {
+            lines.close();
+        }
+        return markers;
+    }
+
+    /**
+     * Positions of object declarations and trailers found in the file, stored in primitive arrays.
+     */
+    static class Markers {
+        private static final int TRAILER = -1;
+
+        private long[] positions = new long[64];
+        private int[] objNumbers = new int[64];
+        private int[] genNumbers = new int[64];
+        private int size = 0;
+
+        int size() {
+            return size;
+        }
+
+        long getPosition(int index) {
+            return positions[index];
+        }
+
+        boolean isTrailer(int index) {
+            return genNumbers[index] == TRAILER;
+        }
+
+        int getObjNumber(int index) {
+            return objNumbers[index];
+        }
+
+        int getGenNumber(int index) {
+            return genNumbers[index];
+        }
+
+        void addObject(long position, int objNr, int genNr) {
+            add(position, objNr, genNr);
+        }
+
+        void addTrailer(long position) {
+            add(position, 0, TRAILER);
+        }
+
+        void addAll(Markers other) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.positions, 0, positions, size, other.size);
+            System.arraycopy(other.objNumbers, 0, objNumbers, size, other.size);
+            System.arraycopy(other.genNumbers, 0, genNumbers, size, other.size);
+            size += other.size;
+        }
+
+        private void add(long position, int objNr, int genNr) {
+            ensureCapacity(size + 1);
+            positions[size] = position;
+            objNumbers[size] = objNr;
+            genNumbers[size] = genNr;
+            ++size;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > positions.length) {
+                int newCapacity = Math.max(capacity, positions.length << 1);
+                positions = Arrays.copyOf(positions, newCapacity);
+                objNumbers = Arrays.copyOf(objNumbers, newCapacity);
+                genNumbers = Arrays.copyOf(genNumbers, newCapacity);
+            }
+        }
+    }
+
+    private static class ScanTask extends RecursiveTask<Markers> {
+
+        private static final long serialVersionUID = 2286399718405765452L;
+
+        private final transient XrefRebuildScanner scanner;
+        private final int fromChunk;
+        private final int toChunk;
+
+        ScanTask(XrefRebuildScanner scanner, int fromChunk, int toChunk) {
+            this.scanner = scanner;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected Markers compute() {
+            if (toChunk - fromChunk == 1) {
+                try {
+                    return scanner.scanChunk(fromChunk);
+                } catch (IOException e) {
+                    throw new PdfException(PdfException.CannotReadPdfObject, e);
+                }
+            }
+            int middle = (fromChunk + toChunk) >>> 1;
+            ScanTask right = new ScanTask(scanner, middle, toChunk);
+            right.fork();
+            Markers result = new ScanTask(scanner, fromChunk, middle).compute();
+            result.addAll(right.join());
+            return result;
+        }
+    }
+}
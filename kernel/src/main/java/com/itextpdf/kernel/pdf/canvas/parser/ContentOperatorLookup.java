@@ -0,0 +1,156 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.source.ByteUtils;
+
+import java.util.Map;
+
+/**
+ * Open addressing hash table of values, e.g. the registered content operators, which are looked up directly
+ * by the bytes of the operator. All the operators defined in ISO-32000-1 are not longer than three bytes,
+ * so such operators are packed together with their length into a single int key.
+ * Longer operators are not stored in the table and have to be looked up by their string value.
+ *
+ * @param <T> the type of the values
+ */
+final class ContentOperatorLookup<T> {
+
+    static final int MAX_PACKED_LENGTH = 3;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    ContentOperatorLookup() {
+        this(0);
+    }
+
+    ContentOperatorLookup(Map<String, ? extends T> registeredOperators) {
+        this(registeredOperators.size());
+        for (Map.Entry<String, ? extends T> entry : registeredOperators.entrySet()) {
+            byte[] operator = ByteUtils.getIsoBytes(entry.getKey());
+            if (operator.length == 0 || operator.length > MAX_PACKED_LENGTH) {
+                continue;
+            }
+            put(operator, operator.length, entry.getValue());
+        }
+    }
+
+    private ContentOperatorLookup(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 1) * 4 - 1) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Gets the value stored for the given bytes. The length shall be in range from 1 to
+     * {@link #MAX_PACKED_LENGTH}.
+     *
+     * @return the stored value or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    T get(byte[] operator, int length) {
+        int key = pack(operator, length);
+        int i = hash(key) & mask;
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                return (T) values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Stores the value for the given bytes, replacing the previous one, if any. The length shall be in range
+     * from 1 to {@link #MAX_PACKED_LENGTH}.
+     */
+    void put(byte[] operator, int length, T value) {
+        insert(pack(operator, length), value);
+    }
+
+    private void insert(int key, Object value) {
+        int i = hash(key) & mask;
+        int k;
+        while ((k = keys[i]) != 0) {
+            if (k == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        // the table is kept at most half full
+        if (++size * 2 > keys.length) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            mask = keys.length - 1;
+            size = 0;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] != 0) {
+                    insert(oldKeys[j], oldValues[j]);
+                }
+            }
+        }
+    }
+
+    private static int pack(byte[] operator, int length) {
+        int key = length;
+        for (int i = 0; i < length; i++) {
+            key = (key << 8) | (operator[i] & 0xff);
+        }
+        return key;
+    }
+
+    private static int hash(int key) {
+        key *= 0x9E3779B9;
+        return key ^ (key >>> 16);
+    }
+}
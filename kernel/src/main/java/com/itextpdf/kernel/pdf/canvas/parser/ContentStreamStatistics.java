@@ -0,0 +1,325 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of the content of a page collected by {@link ProfilingPdfCanvasProcessor}.
+ * <p>
+ * The statistics are meant to find out why the processing of a page is slow, e.g. whether its content is huge,
+ * deeply nested form XObjects are used or most of the time is spent on text, paths or images.
+ */
+public class ContentStreamStatistics {
+
+    /**
+     * Kinds of the content operators the processing time is collected for.
+     */
+    public enum OperatorCategory {
+        /**
+         * Font selection (Tf), which loads the font on its first use.
+         */
+        FONT_LOADING,
+        /**
+         * Text showing operators (Tj, TJ, ' and "), which decode the glyphs and calculate their geometry.
+         */
+        TEXT_SHOWING,
+        /**
+         * Path construction operators (m, l, c, v, y, h and re).
+         */
+        PATH_CONSTRUCTION,
+        /**
+         * Path painting and clipping operators.
+         */
+        PATH_PAINTING,
+        /**
+         * Inline images and image XObjects.
+         */
+        IMAGE,
+        /**
+         * Form XObjects, excluding the time spent on the operators of their content.
+         */
+        FORM_XOBJECT,
+        /**
+         * All the other operators.
+         */
+        OTHER
+    }
+
+    private final int pageNumber;
+    // the counts and times are mutable, so that nothing is allocated per invoked operator
+    private final Map<String, int[]> operatorCounts = new TreeMap<>();
+    private final long[] operatorTimes = new long[OperatorCategory.values().length];
+    private int pageContentStreamCount;
+    private final List<Integer> processedContentLengths = new ArrayList<>();
+    private long processedContentLength;
+    private int maxXObjectNestingDepth;
+    private int formXObjectCount;
+    private int imageXObjectCount;
+    private int inlineImageCount;
+    private int resourceObjectCount;
+    private long resourceLength = -1;
+    private long totalTime;
+
+    ContentStreamStatistics(int pageNumber) {
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * Gets the number of the page the statistics are collected for.
+     *
+     * @return the number of the page, or 0 if the content doesn't belong to a page of a document
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Gets the number of the invocations of each operator, including the operators of the form XObjects.
+     *
+     * @return unmodifiable map of the operators sorted by name to the numbers of their invocations
+     */
+    public Map<String, Integer> getOperatorCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, int[]> entry : operatorCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue()[0]);
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * Gets the time spent on the operators of the category, including the time spent by the event listener.
+     *
+     * @param category the category of the operators
+     * @return the time in nanoseconds
+     */
+    public long getOperatorTime(OperatorCategory category) {
+        return operatorTimes[category.ordinal()];
+    }
+
+    /**
+     * Gets the number of the content streams of the page.
+     *
+     * @return the number of the content streams
+     */
+    public int getPageContentStreamCount() {
+        return pageContentStreamCount;
+    }
+
+    /**
+     * Gets the number of the processed contents, i.e. the content of the page and the contents of the
+     * form XObjects, which are counted each time they are drawn. The contents of the form XObjects replayed
+     * from a {@link FormXObjectContentCache} are not counted.
+     *
+     * @return the number of the processed contents
+     */
+    public int getProcessedContentCount() {
+        return processedContentLengths.size();
+    }
+
+    /**
+     * Gets the lengths of the decoded processed contents in the order they were processed,
+     * see {@link #getProcessedContentCount()}. The content of the page comes first, its content streams
+     * are processed together, so they have a single length.
+     *
+     * @return unmodifiable list of the lengths in bytes
+     */
+    public List<Integer> getProcessedContentLengths() {
+        return Collections.unmodifiableList(processedContentLengths);
+    }
+
+    /**
+     * Gets the total length of the decoded processed contents, see {@link #getProcessedContentCount()}.
+     *
+     * @return the length in bytes
+     */
+    public long getProcessedContentLength() {
+        return processedContentLength;
+    }
+
+    /**
+     * Gets the maximum nesting depth of the form XObjects, 0 if no form XObjects are drawn on the page.
+     *
+     * @return the maximum nesting depth
+     */
+    public int getMaxXObjectNestingDepth() {
+        return maxXObjectNestingDepth;
+    }
+
+    /**
+     * Gets the number of the form XObjects drawn, including the nested ones.
+     *
+     * @return the number of the form XObjects
+     */
+    public int getFormXObjectCount() {
+        return formXObjectCount;
+    }
+
+    /**
+     * Gets the number of the image XObjects drawn.
+     *
+     * @return the number of the image XObjects
+     */
+    public int getImageXObjectCount() {
+        return imageXObjectCount;
+    }
+
+    /**
+     * Gets the number of the inline images.
+     *
+     * @return the number of the inline images
+     */
+    public int getInlineImageCount() {
+        return inlineImageCount;
+    }
+
+    /**
+     * Gets the number of the indirect objects the page refers to, directly or indirectly,
+     * see {@link com.itextpdf.kernel.utils.PdfResourceCounter}.
+     *
+     * @return the number of the indirect objects
+     */
+    public int getResourceObjectCount() {
+        return resourceObjectCount;
+    }
+
+    /**
+     * Gets the total length of the indirect objects the page refers to, directly or indirectly,
+     * see {@link com.itextpdf.kernel.utils.PdfResourceCounter#getLength(Map)}.
+     *
+     * @return the length in bytes, or -1 if it was not counted,
+     * see {@link ProfilingPdfCanvasProcessor#setResourceLengthCounting(boolean)}
+     */
+    public long getResourceLength() {
+        return resourceLength;
+    }
+
+    /**
+     * Gets the total time of the processing of the page content.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * Exports the statistics as a structured report, which can be serialized, e.g. into JSON.
+     * The values are numbers, the operator counts and times are nested maps.
+     *
+     * @return the map of the names of the statistics to their values
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pageNumber", pageNumber);
+        report.put("totalTimeNanos", totalTime);
+        report.put("pageContentStreamCount", pageContentStreamCount);
+        report.put("processedContentCount", processedContentLengths.size());
+        report.put("processedContentLength", processedContentLength);
+        report.put("processedContentLengths", new ArrayList<>(processedContentLengths));
+        report.put("maxXObjectNestingDepth", maxXObjectNestingDepth);
+        report.put("formXObjectCount", formXObjectCount);
+        report.put("imageXObjectCount", imageXObjectCount);
+        report.put("inlineImageCount", inlineImageCount);
+        report.put("resourceObjectCount", resourceObjectCount);
+        report.put("resourceLength", resourceLength);
+        Map<String, Long> times = new LinkedHashMap<>();
+        for (OperatorCategory category : OperatorCategory.values()) {
+            times.put(category.name(), operatorTimes[category.ordinal()]);
+        }
+        report.put("operatorTimesNanos", times);
+        report.put("operatorCounts", new LinkedHashMap<>(getOperatorCounts()));
+        return report;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    void addOperator(String operator, OperatorCategory category, long time) {
+        int[] count = operatorCounts.get(operator);
+        if (count == null) {
+            count = new int[1];
+            operatorCounts.put(operator, count);
+        }
+        count[0]++;
+        operatorTimes[category.ordinal()] += time;
+    }
+
+    void addProcessedContent(int length) {
+        processedContentLengths.add(length);
+        processedContentLength += length;
+    }
+
+    void addFormXObject(int nestingDepth) {
+        formXObjectCount++;
+        maxXObjectNestingDepth = Math.max(maxXObjectNestingDepth, nestingDepth);
+    }
+
+    void addImageXObject() {
+        imageXObjectCount++;
+    }
+
+    void addInlineImage() {
+        inlineImageCount++;
+    }
+
+    void setPageContentStreamCount(int pageContentStreamCount) {
+        this.pageContentStreamCount = pageContentStreamCount;
+    }
+
+    void setResources(int resourceObjectCount, long resourceLength) {
+        this.resourceObjectCount = resourceObjectCount;
+        this.resourceLength = resourceLength;
+    }
+
+    void setTotalTime(long totalTime) {
+        this.totalTime = totalTime;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Cache of the parsed content of form XObjects, which may be set to {@link PdfCanvasProcessor} with
+ * {@link PdfCanvasProcessor#setFormXObjectContentCache(FormXObjectContentCache)}.
+ * <p>
+ * When a form XObject is drawn, the processor parses its content into a sequence of operators and operands,
+ * which is kept in the cache by the indirect reference of the XObject stream. When the same XObject is drawn
+ * again, e.g. on another page, the content is neither decoded nor parsed once more, but the cached sequence is
+ * replayed with the current graphics state. The cache may be shared between several processors of the same
+ * or of different documents, access to it is synchronized.
+ * <p>
+ * Form XObjects without their own resources are not cached, as they use the resources of the content they are
+ * drawn in, e.g. for the color spaces of inline images, which may differ from one drawing to another.
+ * <p>
+ * The size of the cache is limited by the total length of the decoded content streams. Once the limit is
+ * exceeded, the least recently used contents are evicted.
+ * <p>
+ * The cache only keeps the parsed operators and operands, which are direct objects not referring to the document.
+ * The documents themselves are referenced weakly, so the cache does not keep a closed document and its objects
+ * in memory, but the contents of a document stay in the cache until the document is garbage collected or until
+ * they are evicted. Call {@link #remove(PdfDocument)} once a document is closed to release its contents right away.
+ * <p>
+ * The cache shall only be used for documents which are not modified while being processed.
+ */
+public class FormXObjectContentCache {
+
+    /**
+     * The default limit of the total length of the cached content streams, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+    private final long maxSize;
+
+    private long size;
+
+    private final LinkedHashMap<ContentKey, ParsedContent> contents = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<PdfDocument, DocumentReference> documents = new WeakHashMap<>();
+
+    private final ReferenceQueue<PdfDocument> collectedDocuments = new ReferenceQueue<>();
+
+    /**
+     * Creates a cache limited to {@link #DEFAULT_MAX_SIZE} bytes.
+     */
+    public FormXObjectContentCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache of the specified limit.
+     *
+     * @param maxSize the limit of the total length of the cached content streams, in bytes
+     */
+    public FormXObjectContentCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the total length of the cached content streams.
+     *
+     * @return the size of the cache, in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of the cached contents.
+     *
+     * @return the number of the cached contents
+     */
+    public synchronized int getCount() {
+        return contents.size();
+    }
+
+    /**
+     * Removes all the cached contents.
+     */
+    public synchronized void clear() {
+        contents.clear();
+        documents.clear();
+        size = 0;
+    }
+
+    /**
+     * Removes the cached contents of the document.
+     *
+     * @param document the document, e.g. the one which is closed
+     */
+    public synchronized void remove(PdfDocument document) {
+        DocumentReference documentReference = documents.remove(document);
+        if (documentReference != null) {
+            Set<DocumentReference> removedDocuments = new HashSet<>();
+            removedDocuments.add(documentReference);
+            removeContents(removedDocuments);
+        }
+    }
+
+    synchronized ParsedContent get(PdfIndirectReference reference) {
+        removeCollectedDocuments();
+        DocumentReference documentReference = documents.get(reference.getDocument());
+        if (documentReference == null) {
+            return null;
+        }
+        return contents.get(new ContentKey(documentReference, reference.getObjNumber(), reference.getGenNumber()));
+    }
+
+    synchronized void put(PdfIndirectReference reference, ParsedContent content) {
+        removeCollectedDocuments();
+        if (content.size > maxSize) {
+            return;
+        }
+        DocumentReference documentReference = documents.get(reference.getDocument());
+        if (documentReference == null) {
+            documentReference = new DocumentReference(reference.getDocument(), collectedDocuments);
+            documents.put(reference.getDocument(), documentReference);
+        }
+        ParsedContent replaced = contents.put(
+                new ContentKey(documentReference, reference.getObjNumber(), reference.getGenNumber()), content);
+        if (replaced != null) {
+            size -= replaced.size;
+        }
+        size += content.size;
+        Iterator<Map.Entry<ContentKey, ParsedContent>> eldest = contents.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().getValue().size;
+            eldest.remove();
+        }
+    }
+
+    private void removeCollectedDocuments() {
+        Set<DocumentReference> collected = null;
+        Reference<? extends PdfDocument> reference;
+        while ((reference = collectedDocuments.poll()) != null) {
+            if (collected == null) {
+                collected = new HashSet<>();
+            }
+            collected.add((DocumentReference) reference);
+        }
+        if (collected != null) {
+            removeContents(collected);
+        }
+    }
+
+    private void removeContents(Set<DocumentReference> removedDocuments) {
+        Iterator<Map.Entry<ContentKey, ParsedContent>> entries = contents.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<ContentKey, ParsedContent> entry = entries.next();
+            if (removedDocuments.contains(entry.getKey().document)) {
+                size -= entry.getValue().size;
+                entries.remove();
+            }
+        }
+    }
+
+    /**
+     * Parsed content stream. Operands of all the commands are kept in a single array,
+     * the operands of the command {@code i} are the ones from {@code operandStarts[i]} to {@code operandStarts[i + 1]}.
+     */
+    static final class ParsedContent {
+        final long size;
+        final byte[][] operators;
+        final int[] operandStarts;
+        final PdfObject[] operands;
+
+        ParsedContent(long size, byte[][] operators, int[] operandStarts, PdfObject[] operands) {
+            this.size = size;
+            this.operators = operators;
+            this.operandStarts = operandStarts;
+            this.operands = operands;
+        }
+    }
+
+    /**
+     * Weak reference to a document, there is a single one for each document with cached contents.
+     */
+    private static final class DocumentReference extends WeakReference<PdfDocument> {
+        DocumentReference(PdfDocument document, ReferenceQueue<PdfDocument> queue) {
+            super(document, queue);
+        }
+    }
+
+    /**
+     * Identifies the form XObject stream within its document. The reference of the stream itself is not kept,
+     * as it refers to the document.
+     */
+    private static final class ContentKey {
+        private final DocumentReference document;
+        private final int objNumber;
+        private final int genNumber;
+
+        ContentKey(DocumentReference document, int objNumber, int genNumber) {
+            this.document = document;
+            this.objNumber = objNumber;
+            this.genNumber = genNumber;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ContentKey that = (ContentKey) o;
+            return document == that.document && objNumber == that.objNumber && genNumber == that.genNumber;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(document);
+            result = 31 * result + objNumber;
+            return 31 * result + genNumber;
+        }
+    }
+}
@@ -44,9 +44,14 @@
 package com.itextpdf.kernel.pdf.canvas.parser;
 
 
+import com.itextpdf.kernel.geom.IShape;
+import com.itextpdf.kernel.geom.Line;
 import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.geom.ShapeTransformUtil;
+import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.canvas.CanvasGraphicsState;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.FillingRule;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.ClipperBridge;
@@ -54,6 +59,10 @@ import com.itextpdf.kernel.pdf.canvas.parser.clipper.DefaultClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.IClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.PolyTree;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Internal class which is essentially a {@link CanvasGraphicsState} which supports tracking of
  * clipping path state and changes.
@@ -63,6 +72,18 @@ public class ParserGraphicsState extends CanvasGraphicsState {
     // NOTE: From the spec default value of this field should be the boundary of the entire imageable portion of the output page.
     private Path clippingPath;
 
+    /**
+     * Paths the clipping path is to be intersected with, in the order of the clipping operators.
+     * The intersections are calculated when the clipping path is requested for the first time,
+     * until then the paths are transformed together with the clipping path.
+     */
+    private List<PendingClip> pendingClips;
+
+    /**
+     * Whether the intersection of axis-aligned rectangles is calculated directly, without the clipper.
+     */
+    private boolean rectangleClipping = true;
+
     /**
      * Internal empty and default constructor.
      */
@@ -81,6 +102,10 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         if (source.clippingPath != null) {
             clippingPath = new Path(source.clippingPath);
         }
+        if (source.pendingClips != null) {
+            pendingClips = new ArrayList<>(source.pendingClips);
+        }
+        rectangleClipping = source.rectangleClipping;
     }
 
     @Override
@@ -103,13 +128,51 @@ public class ParserGraphicsState extends CanvasGraphicsState {
      *                    {@link FillingRule#NONZERO_WINDING}
      */
     public void clip(Path path, int fillingRule) {
-        if (clippingPath == null || clippingPath.isEmpty()) {
+        if (clippingPath == null || (pendingClips == null && clippingPath.isEmpty())) {
             return;
         }
 
         Path pathCopy = new Path(path);
         pathCopy.closeAllSubpaths();
 
+        if (pendingClips == null && rectangleClipping) {
+            Rectangle clippingRectangle = getAxisAlignedRectangle(clippingPath);
+            Rectangle rectangle = clippingRectangle != null ? getAxisAlignedRectangle(pathCopy) : null;
+            if (rectangle != null) {
+                clippingPath = new Path();
+                Rectangle intersection = clippingRectangle.getIntersection(rectangle);
+                if (intersection != null && intersection.getWidth() > 0 && intersection.getHeight() > 0) {
+                    clippingPath.rectangle(intersection);
+                }
+                return;
+            }
+        }
+        // the intersection is calculated lazily, as the clipping path is not needed at all by most of the listeners
+        if (pendingClips == null) {
+            pendingClips = new ArrayList<>();
+        }
+        pendingClips.add(new PendingClip(pathCopy, fillingRule));
+    }
+
+    /**
+     * Intersects the current clipping path with the paths passed to {@link #clip(Path, int)} since
+     * the clipping path was calculated for the last time.
+     */
+    private void applyPendingClips() {
+        if (pendingClips == null) {
+            return;
+        }
+        List<PendingClip> clips = pendingClips;
+        pendingClips = null;
+        for (PendingClip clip : clips) {
+            if (clippingPath.isEmpty()) {
+                break;
+            }
+            intersect(clip.path, clip.fillingRule);
+        }
+    }
+
+    private void intersect(Path pathCopy, int fillingRule) {
         IClipper clipper = new DefaultClipper();
         ClipperBridge.addPath(clipper, clippingPath, IClipper.PolyType.SUBJECT);
         ClipperBridge.addPath(clipper, pathCopy, IClipper.PolyType.CLIP);
@@ -129,6 +192,7 @@ public class ParserGraphicsState extends CanvasGraphicsState {
      * @return The current clipping path.
      */
     public Path getClippingPath() {
+        applyPendingClips();
         return clippingPath;
     }
 
@@ -144,9 +208,83 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         Path pathCopy = new Path(clippingPath);
         pathCopy.closeAllSubpaths();
         this.clippingPath = pathCopy;
+        this.pendingClips = null;
+    }
+
+    /**
+     * Sets whether the intersection of the clipping path and the path passed to {@link #clip(Path, int)}
+     * is calculated directly if both are axis-aligned rectangles, which is the most common case,
+     * instead of running the polygon clipper. The resultant clipping path describes the same area,
+     * but the order of its points may differ from the one produced by the clipper. Enabled by default.
+     *
+     * @param rectangleClipping true to calculate the intersection of the rectangles directly
+     */
+    void setRectangleClipping(boolean rectangleClipping) {
+        this.rectangleClipping = rectangleClipping;
+    }
+
+    /**
+     * Gets the rectangle described by the path, if it consists of a single closed subpath
+     * with axis-aligned straight segments forming a rectangle.
+     *
+     * @return the rectangle or {@code null} if the path is not an axis-aligned rectangle
+     */
+    private static Rectangle getAxisAlignedRectangle(Path path) {
+        List<Subpath> subpaths = path.getSubpaths();
+        if (subpaths.size() != 1 || !subpaths.get(0).isClosed()) {
+            return null;
+        }
+        Subpath subpath = subpaths.get(0);
+        List<Point> points = new ArrayList<>(5);
+        points.add(subpath.getStartPoint());
+        for (IShape segment : subpath.getSegments()) {
+            if (!(segment instanceof Line)) {
+                return null;
+            }
+            Point point = segment.getBasePoints().get(1);
+            if (!point.equals(points.get(points.size() - 1))) {
+                points.add(point);
+            }
+        }
+        if (points.size() == 5 && points.get(4).equals(points.get(0))) {
+            points.remove(4);
+        }
+        if (points.size() != 4) {
+            return null;
+        }
+        // sides must alternate between horizontal and vertical ones
+        boolean firstHorizontal = points.get(0).getY() == points.get(1).getY();
+        for (int i = 0; i < 4; i++) {
+            Point point = points.get(i);
+            Point next = points.get((i + 1) % 4);
+            boolean horizontal = (i % 2 == 0) == firstHorizontal;
+            if (horizontal ? point.getY() != next.getY() : point.getX() != next.getX()) {
+                return null;
+            }
+        }
+        return Rectangle.calculateBBox(points);
+    }
+
+    private static class PendingClip implements Serializable {
+        private static final long serialVersionUID = -3541227016829216542L;
+
+        private final Path path;
+        private final int fillingRule;
+
+        PendingClip(Path path, int fillingRule) {
+            this.path = path;
+            this.fillingRule = fillingRule;
+        }
     }
 
     private void transformClippingPath(Matrix newCtm) {
         clippingPath = ShapeTransformUtil.transformPath(clippingPath, newCtm);
+        if (pendingClips != null) {
+            // the pending clips are shared with the copies of the state, so they are replaced instead of being modified
+            for (int i = 0; i < pendingClips.size(); i++) {
+                PendingClip clip = pendingClips.get(i);
+                pendingClips.set(i, new PendingClip(ShapeTransformUtil.transformPath(clip.path, newCtm), clip.fillingRule));
+            }
+        }
     }
 }
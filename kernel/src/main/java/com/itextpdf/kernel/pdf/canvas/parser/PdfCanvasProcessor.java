@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.FontMetrics;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
@@ -64,9 +65,13 @@ import com.itextpdf.kernel.colors.PatternColor;
 import com.itextpdf.kernel.colors.Separation;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.IShape;
 import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.NoninvertibleTransformException;
 import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
@@ -87,6 +92,7 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperandStack;
 import com.itextpdf.kernel.pdf.canvas.parser.util.PdfCanvasParser;
 import com.itextpdf.kernel.pdf.colorspace.PdfCieBasedCs;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
@@ -110,6 +116,12 @@ import static com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.FillingRule;
 public class PdfCanvasProcessor {
     public static final String DEFAULT_OPERATOR = "DefaultOperator";
 
+    /**
+     * The margin by which the region of interest is expanded, so that rounding doesn't cause the content
+     * on the region border to be skipped.
+     */
+    private static final float REGION_MARGIN = 1;
+
     /**
      * Listener that will be notified of render events
      */
@@ -139,6 +151,46 @@ public class PdfCanvasProcessor {
      */
     private Map<String, IContentOperator> operators;
 
+    /**
+     * Lookup table of the registered operators by their bytes. It is rebuilt lazily
+     * after the registered operators are changed.
+     */
+    private ContentOperatorLookup<IContentOperator> operatorLookup;
+
+    /**
+     * Indicates that a subclass overrides {@link #invokeOperator(PdfLiteral, List)}, so the content
+     * has to be parsed into operand lists and dispatched through that method.
+     */
+    private final boolean legacyOperatorDispatch;
+
+    /**
+     * The operand stacks the operand lists are copied to for the primitive operators invoked with lists,
+     * one per nesting level, as the operators drawing form XObjects are invoked recursively.
+     */
+    private final List<ContentOperandStack> adaptedOperandStacks = new ArrayList<>();
+    private int adaptedOperandStacksInUse;
+
+    /**
+     * Cache of the parsed content of form XObjects, caching is disabled if null.
+     */
+    private FormXObjectContentCache formXObjectContentCache;
+
+    /**
+     * The region outside of which no rendering events are produced, if set.
+     */
+    private Rectangle regionOfInterest;
+
+    /**
+     * Text shown outside of the region of interest since the last positioning of the text matrix.
+     * The text matrix is only advanced by it if the following text is shown inside of the region.
+     */
+    private List<SkippedText> skippedTexts;
+
+    /**
+     * Whether the intersections of axis-aligned rectangular clipping paths are calculated without the clipper.
+     */
+    private boolean fastRectangleClipping = true;
+
     /**
      * Resources for the content stream.
      * Current resources are always at the top of the stack.
@@ -179,6 +231,7 @@ public class PdfCanvasProcessor {
     public PdfCanvasProcessor(IEventListener eventListener) {
         this.eventListener = eventListener;
         this.supportedEvents = eventListener.getSupportedEvents();
+        this.legacyOperatorDispatch = overridesLegacyInvokeOperator(getClass());
         operators = new HashMap<>();
         populateOperators();
         xobjectDoHandlers = new HashMap<>();
@@ -227,6 +280,7 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        operatorLookup = null;
         return operators.put(operatorString, operator);
     }
 
@@ -239,14 +293,91 @@ public class PdfCanvasProcessor {
         return new ArrayList<String>(operators.keySet());
     }
 
+    /**
+     * Sets the cache of the parsed content of form XObjects. Form XObjects drawn several times, e.g. headers or
+     * watermarks repeated on every page, are then decoded and parsed only once. The same cache may be set to
+     * several processors. By default, form XObjects are parsed each time they are drawn.
+     *
+     * @param formXObjectContentCache the cache, or {@code null} to disable caching
+     */
+    public void setFormXObjectContentCache(FormXObjectContentCache formXObjectContentCache) {
+        this.formXObjectContentCache = formXObjectContentCache;
+    }
+
+    /**
+     * Gets the cache of the parsed content of form XObjects.
+     *
+     * @return the cache, or {@code null} if caching is disabled
+     */
+    public FormXObjectContentCache getFormXObjectContentCache() {
+        return formXObjectContentCache;
+    }
+
+    /**
+     * Sets the region of interest. Text, paths and images which can't intersect the region are skipped
+     * before their render info is computed, so no events are produced for them. Form XObjects which bounding
+     * boxes don't intersect the region are not processed at all. Clipping path events are still produced.
+     * <br>
+     * Text is skipped if the region doesn't intersect the line the text is shown on, bounded by the ascent and
+     * descent lines of the font, so the events of the text which is partly in the region are still produced.
+     * That is why the listener should still filter the events, e.g. with
+     * {@link com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter} for the same region.
+     *
+     * @param regionOfInterest the region in the page space, or {@code null} to produce the events for the whole content
+     */
+    public void setRegionOfInterest(Rectangle regionOfInterest) {
+        this.regionOfInterest = regionOfInterest;
+    }
+
+    /**
+     * Gets the region of interest.
+     *
+     * @return the region, or {@code null} if the events are produced for the whole content
+     */
+    public Rectangle getRegionOfInterest() {
+        return regionOfInterest;
+    }
+
+    /**
+     * Sets whether the intersection of the current clipping path and a new clipping path is calculated directly
+     * when both of them are axis-aligned rectangles, which is by far the most common case, instead of running
+     * the polygon clipper. Enabled by default.
+     * <p>
+     * The resultant clipping paths describe exactly the same areas, but the order of their points, i.e. the starting
+     * corner and the direction of the rectangle, may differ from the one produced by the clipper. Disable it
+     * if the listener relies on the exact points produced by the clipper.
+     * <br>
+     * Regardless of this setting, clipping paths are only calculated if {@link EventType#CLIP_PATH_CHANGED}
+     * events are supported by the listener or the clipping path is requested from the graphics state.
+     *
+     * @param fastRectangleClipping true to intersect rectangular clipping paths directly
+     */
+    public void setFastRectangleClipping(boolean fastRectangleClipping) {
+        this.fastRectangleClipping = fastRectangleClipping;
+        for (ParserGraphicsState gs : gsStack) {
+            gs.setRectangleClipping(fastRectangleClipping);
+        }
+    }
+
+    /**
+     * Gets whether the intersection of rectangular clipping paths is calculated without the clipper.
+     *
+     * @return true if rectangular clipping paths are intersected directly
+     */
+    public boolean isFastRectangleClipping() {
+        return fastRectangleClipping;
+    }
+
     /**
      * Resets the graphics state stack, matrices and resources.
      */
     public void reset() {
         gsStack.removeAllElements();
         gsStack.push(new ParserGraphicsState());
+        getGraphicsState().setRectangleClipping(fastRectangleClipping);
         textMatrix = null;
         textLineMatrix = null;
+        skippedTexts = null;
         resourcesStack = new Stack<>();
         isClip = false;
         currentPath = new Path();
@@ -275,11 +406,21 @@ public class PdfCanvasProcessor {
         this.resourcesStack.push(resources);
         PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
         PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
-        List<PdfObject> operands = new ArrayList<>();
         try {
-            while (ps.parse(operands).size() > 0) {
-                PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
-                invokeOperator(operator, operands);
+            if (legacyOperatorDispatch) {
+                List<PdfObject> operands = new ArrayList<>();
+                while (ps.parse(operands).size() > 0) {
+                    PdfLiteral operator = (PdfLiteral) operands.get(operands.size() - 1);
+                    invokeOperator(operator, operands);
+                }
+            } else {
+                ContentOperandStack operands = new ContentOperandStack();
+                while (ps.parseCommand(operands)) {
+                    // operands at the end of the content without an operator are ignored
+                    if (operands.hasOperator()) {
+                        invokeOperator(operands);
+                    }
+                }
             }
         } catch (IOException e) {
             throw new PdfException(PdfException.CannotParseContentStream, e);
@@ -289,6 +430,60 @@ public class PdfCanvasProcessor {
 
     }
 
+    /**
+     * Replays the parsed content, in the same way as {@link #processContent(byte[], PdfResources)} processes
+     * the content stream.
+     */
+    private void processContent(FormXObjectContentCache.ParsedContent content, PdfResources resources) {
+        this.resourcesStack.push(resources);
+        ContentOperandStack operands = new ContentOperandStack();
+        List<PdfObject> operandList = legacyOperatorDispatch ? new ArrayList<PdfObject>() : null;
+        for (int i = 0; i < content.operators.length; i++) {
+            operands.clear();
+            for (int j = content.operandStarts[i]; j < content.operandStarts[i + 1]; j++) {
+                operands.push(content.operands[j]);
+            }
+            operands.setOperator(content.operators[i], content.operators[i].length);
+            if (legacyOperatorDispatch) {
+                invokeOperator(operands.getOperator(), operands.toList(operandList));
+            } else {
+                invokeOperator(operands);
+            }
+        }
+        this.resourcesStack.pop();
+    }
+
+    private static FormXObjectContentCache.ParsedContent parseContent(PdfStream stream, PdfResources resources) {
+        byte[] contentBytes = stream.getBytes();
+        PdfTokenizer tokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(contentBytes)));
+        PdfCanvasParser ps = new PdfCanvasParser(tokeniser, resources);
+        List<byte[]> operators = new ArrayList<>();
+        List<Integer> operandStarts = new ArrayList<>();
+        List<PdfObject> operands = new ArrayList<>();
+        ContentOperandStack stack = new ContentOperandStack();
+        try {
+            while (ps.parseCommand(stack)) {
+                // operands at the end of the content without an operator are ignored
+                if (stack.hasOperator()) {
+                    operandStarts.add(operands.size());
+                    for (int i = 0; i < stack.size(); i++) {
+                        operands.add(stack.get(i));
+                    }
+                    operators.add(Arrays.copyOf(stack.getOperatorBuffer(), stack.getOperatorLength()));
+                }
+            }
+        } catch (IOException e) {
+            throw new PdfException(PdfException.CannotParseContentStream, e);
+        }
+        int[] starts = new int[operators.size() + 1];
+        for (int i = 0; i < operandStarts.size(); i++) {
+            starts[i] = (int) operandStarts.get(i);
+        }
+        starts[operators.size()] = operands.size();
+        return new FormXObjectContentCache.ParsedContent(contentBytes.length,
+                operators.toArray(new byte[operators.size()][]), starts, operands.toArray(new PdfObject[operands.size()]));
+    }
+
     /**
      * Processes PDF syntax.
      *
@@ -298,8 +493,7 @@ public class PdfCanvasProcessor {
      */
     public void processPageContent(PdfPage page) {
         initClippingPath(page);
-        ParserGraphicsState gs = getGraphicsState();
-        eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+        clippingPathChanged();
         processContent(page.getContentBytes(), page.getResources());
     }
 
@@ -360,29 +554,22 @@ public class PdfCanvasProcessor {
         }
 
         if (supportedEvents == null || supportedEvents.contains(EventType.RENDER_TEXT)) {
-            SetTextCharacterSpacingOperator tcOperator = new SetTextCharacterSpacingOperator();
-            registerContentOperator("Tc", tcOperator);
-            SetTextWordSpacingOperator twOperator = new SetTextWordSpacingOperator();
-            registerContentOperator("Tw", twOperator);
+            registerContentOperator("Tc", new SetTextCharacterSpacingOperator());
+            registerContentOperator("Tw", new SetTextWordSpacingOperator());
             registerContentOperator("Tz", new SetTextHorizontalScalingOperator());
-            SetTextLeadingOperator tlOperator = new SetTextLeadingOperator();
-            registerContentOperator("TL", tlOperator);
+            registerContentOperator("TL", new SetTextLeadingOperator());
             registerContentOperator("Tf", new SetTextFontOperator());
             registerContentOperator("Tr", new SetTextRenderModeOperator());
             registerContentOperator("Ts", new SetTextRiseOperator());
 
-            TextMoveStartNextLineOperator tdOperator = new TextMoveStartNextLineOperator();
-            registerContentOperator("Td", tdOperator);
-            registerContentOperator("TD", new TextMoveStartNextLineWithLeadingOperator(tdOperator, tlOperator));
+            registerContentOperator("Td", new TextMoveStartNextLineOperator());
+            registerContentOperator("TD", new TextMoveStartNextLineWithLeadingOperator());
             registerContentOperator("Tm", new TextSetTextMatrixOperator());
-            TextMoveNextLineOperator tstarOperator = new TextMoveNextLineOperator(tdOperator);
-            registerContentOperator("T*", tstarOperator);
-
-            ShowTextOperator tjOperator = new ShowTextOperator();
-            registerContentOperator("Tj", tjOperator);
-            MoveNextLineAndShowTextOperator tickOperator = new MoveNextLineAndShowTextOperator(tstarOperator, tjOperator);
-            registerContentOperator("'", tickOperator);
-            registerContentOperator("\"", new MoveNextLineAndShowTextWithSpacingOperator(twOperator, tcOperator, tickOperator));
+            registerContentOperator("T*", new TextMoveNextLineOperator());
+
+            registerContentOperator("Tj", new ShowTextOperator());
+            registerContentOperator("'", new MoveNextLineAndShowTextOperator());
+            registerContentOperator("\"", new MoveNextLineAndShowTextWithSpacingOperator());
             registerContentOperator("TJ", new ShowTextArrayOperator());
         }
 
@@ -428,13 +615,15 @@ public class PdfCanvasProcessor {
      */
     protected void paintPath(int operation, int rule) {
         ParserGraphicsState gs = getGraphicsState();
-        PathRenderInfo renderInfo = new PathRenderInfo(this.markedContentStack, gs, currentPath, operation, rule, isClip, clippingRule);
-        eventOccurred(renderInfo, EventType.RENDER_PATH);
+        if (regionOfInterest == null || !isPathOutsideRegion(gs)) {
+            PathRenderInfo renderInfo = new PathRenderInfo(this.markedContentStack, gs, currentPath, operation, rule, isClip, clippingRule);
+            eventOccurred(renderInfo, EventType.RENDER_PATH);
+        }
 
         if (isClip) {
             isClip = false;
             gs.clip(currentPath, clippingRule);
-            eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            clippingPathChanged();
         }
 
         currentPath = new Path();
@@ -454,6 +643,33 @@ public class PdfCanvasProcessor {
         op.invoke(this, operator, operands);
     }
 
+    /**
+     * Invokes an operator. Operators implementing {@link IPrimitiveContentOperator} get the operand stack as is,
+     * for all the other operators the operands are converted to a list.
+     *
+     * @param operands the operand stack holding the operands and the operator
+     */
+    protected void invokeOperator(ContentOperandStack operands) {
+        IContentOperator op = null;
+        int length = operands.getOperatorLength();
+        if (length <= ContentOperatorLookup.MAX_PACKED_LENGTH) {
+            if (operatorLookup == null) {
+                operatorLookup = new ContentOperatorLookup<>(operators);
+            }
+            op = operatorLookup.get(operands.getOperatorBuffer(), length);
+        } else {
+            op = operators.get(operands.getOperator().toString());
+        }
+        if (op == null) {
+            op = operators.get(DEFAULT_OPERATOR);
+        }
+        if (op instanceof IPrimitiveContentOperator) {
+            ((IPrimitiveContentOperator) op).invoke(this, operands);
+        } else {
+            op.invoke(this, operands.getOperator(), operands.toList(null));
+        }
+    }
+
     protected PdfStream getXObjectStream(PdfName xobjectName) {
         PdfDictionary xobjects = getResources().getResource(PdfName.XObject);
         return xobjects.getAsStream(xobjectName);
@@ -546,11 +762,158 @@ public class PdfCanvasProcessor {
      * @param string the text to display
      */
     private void displayPdfString(PdfString string) {
+        if (regionOfInterest != null && isTextOutsideRegion()) {
+            // the text matrix is advanced along the line, so until it is positioned again all the following
+            // text on the line is outside of the region as well, and its width is not needed
+            if (skippedTexts == null) {
+                skippedTexts = new ArrayList<>();
+            }
+            skippedTexts.add(new SkippedText(string, getGraphicsState()));
+            return;
+        }
+        applySkippedTexts();
         TextRenderInfo renderInfo = new TextRenderInfo(string, getGraphicsState(), textMatrix, markedContentStack);
         textMatrix = new Matrix(renderInfo.getUnscaledWidth(), 0).multiply(textMatrix);
         eventOccurred(renderInfo, EventType.RENDER_TEXT);
     }
 
+    /**
+     * Advances the text matrix by the skipped text, in the same order it would have been advanced
+     * if the text was not skipped.
+     */
+    private void applySkippedTexts() {
+        if (skippedTexts == null || skippedTexts.isEmpty()) {
+            return;
+        }
+        for (SkippedText skippedText : skippedTexts) {
+            float advance;
+            if (skippedText.string != null) {
+                ParserGraphicsState gs = new ParserGraphicsState();
+                gs.setFont(skippedText.font);
+                gs.setFontSize(skippedText.fontSize);
+                gs.setCharSpacing(skippedText.charSpacing);
+                gs.setWordSpacing(skippedText.wordSpacing);
+                gs.setHorizontalScaling(skippedText.horizontalScaling);
+                advance = new TextRenderInfo(skippedText.string, gs, textMatrix, new Stack<CanvasTag>()).getUnscaledWidth();
+            } else {
+                advance = skippedText.adjustment;
+            }
+            textMatrix = new Matrix(advance, 0).multiply(textMatrix);
+        }
+        skippedTexts.clear();
+    }
+
+    private boolean isTextOutsideRegion() {
+        ParserGraphicsState gs = getGraphicsState();
+        if (gs.getFont() == null || textMatrix == null) {
+            return false;
+        }
+        // same ascent and descent as the ones of TextRenderInfo
+        FontMetrics fontMetrics = gs.getFont().getFontProgram().getFontMetrics();
+        float ascent = fontMetrics.getTypoAscender();
+        float descent = fontMetrics.getTypoDescender();
+        if (descent > 0) {
+            descent = -descent;
+        }
+        float scale = ascent - descent < 700 ? ascent - descent : 1000;
+        ascent = ascent / scale * gs.getFontSize();
+        descent = descent / scale * gs.getFontSize();
+        float low = Math.min(0, Math.min(ascent, descent)) + gs.getTextRise();
+        float high = Math.max(0, Math.max(ascent, descent)) + gs.getTextRise();
+
+        // the line is the band between the low and high lines in the text space, which are parallel to the x axis,
+        // so it doesn't intersect the region if the y coordinates of the region corners in the text space are out of the band
+        Matrix m = textMatrix.multiply(gs.getCtm());
+        double a = m.get(Matrix.I11);
+        double b = m.get(Matrix.I12);
+        double c = m.get(Matrix.I21);
+        double d = m.get(Matrix.I22);
+        double det = a * d - b * c;
+        if (Math.abs(det) < 1e-9) {
+            return false;
+        }
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            double x = (i == 0 || i == 3 ? regionOfInterest.getLeft() - REGION_MARGIN : regionOfInterest.getRight() + REGION_MARGIN) - m.get(Matrix.I31);
+            double y = (i < 2 ? regionOfInterest.getBottom() - REGION_MARGIN : regionOfInterest.getTop() + REGION_MARGIN) - m.get(Matrix.I32);
+            double textY = (a * y - b * x) / det;
+            minY = Math.min(minY, textY);
+            maxY = Math.max(maxY, textY);
+        }
+        return maxY < low || minY > high;
+    }
+
+    private boolean isPathOutsideRegion(ParserGraphicsState gs) {
+        float left = Float.MAX_VALUE;
+        float bottom = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float top = -Float.MAX_VALUE;
+        for (Subpath subpath : currentPath.getSubpaths()) {
+            if (subpath.getStartPoint() != null) {
+                Point start = subpath.getStartPoint();
+                left = Math.min(left, (float) start.getX());
+                bottom = Math.min(bottom, (float) start.getY());
+                right = Math.max(right, (float) start.getX());
+                top = Math.max(top, (float) start.getY());
+            }
+            for (IShape segment : subpath.getSegments()) {
+                for (Point point : segment.getBasePoints()) {
+                    left = Math.min(left, (float) point.getX());
+                    bottom = Math.min(bottom, (float) point.getY());
+                    right = Math.max(right, (float) point.getX());
+                    top = Math.max(top, (float) point.getY());
+                }
+            }
+        }
+        if (left > right) {
+            return false;
+        }
+        // covers the stroke including the miter joins
+        float strokeMargin = gs.getLineWidth() * Math.max(1, gs.getMiterLimit()) / 2;
+        return isOutsideRegion(left - strokeMargin, bottom - strokeMargin, right + strokeMargin, top + strokeMargin, gs.getCtm());
+    }
+
+    private boolean isFormXObjectOutsideRegion(PdfStream xObjectStream) {
+        PdfArray bBox = xObjectStream.getAsArray(PdfName.BBox);
+        if (bBox == null || bBox.size() != 4) {
+            return false;
+        }
+        Matrix matrix = getGraphicsState().getCtm();
+        PdfArray formMatrix = xObjectStream.getAsArray(PdfName.Matrix);
+        if (formMatrix != null) {
+            float[] values = formMatrix.toFloatArray();
+            if (values.length != 6) {
+                return false;
+            }
+            matrix = new Matrix(values[0], values[1], values[2], values[3], values[4], values[5]).multiply(matrix);
+        }
+        Rectangle rectangle = bBox.toRectangle();
+        return isOutsideRegion(rectangle.getLeft(), rectangle.getBottom(), rectangle.getRight(), rectangle.getTop(), matrix);
+    }
+
+    /**
+     * Checks whether the rectangle transformed by the matrix is outside of the region of interest.
+     */
+    private boolean isOutsideRegion(float left, float bottom, float right, float top, Matrix matrix) {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            float x = i == 0 || i == 3 ? left : right;
+            float y = i < 2 ? bottom : top;
+            float userX = x * matrix.get(Matrix.I11) + y * matrix.get(Matrix.I21) + matrix.get(Matrix.I31);
+            float userY = x * matrix.get(Matrix.I12) + y * matrix.get(Matrix.I22) + matrix.get(Matrix.I32);
+            minX = Math.min(minX, userX);
+            minY = Math.min(minY, userY);
+            maxX = Math.max(maxX, userX);
+            maxY = Math.max(maxY, userY);
+        }
+        return maxX < regionOfInterest.getLeft() - REGION_MARGIN || minX > regionOfInterest.getRight() + REGION_MARGIN
+                || maxY < regionOfInterest.getBottom() - REGION_MARGIN || minY > regionOfInterest.getTop() + REGION_MARGIN;
+    }
+
     /**
      * Displays an XObject using the registered handler for this XObject's subtype
      *
@@ -559,6 +922,9 @@ public class PdfCanvasProcessor {
     private void displayXObject(PdfName resourceName) {
         PdfStream xobjectStream = getXObjectStream(resourceName);
         PdfName subType = xobjectStream.getAsName(PdfName.Subtype);
+        if (regionOfInterest != null && PdfName.Form.equals(subType) && isFormXObjectOutsideRegion(xobjectStream)) {
+            return;
+        }
         IXObjectDoHandler handler = xobjectDoHandlers.get(subType);
 
         if (handler == null) {
@@ -569,6 +935,10 @@ public class PdfCanvasProcessor {
     }
 
     private void displayImage(Stack<CanvasTag> canvasTagHierarchy, PdfStream imageStream, PdfName resourceName, boolean isInline) {
+        if (regionOfInterest != null && isOutsideRegion(0, 0, 1, 1, getGraphicsState().getCtm())) {
+            // images are drawn into the unit square of the user space
+            return;
+        }
         PdfDictionary colorSpaceDic = getResources().getResource(PdfName.ColorSpace);
         ImageRenderInfo renderInfo = new ImageRenderInfo(canvasTagHierarchy, getGraphicsState(), getGraphicsState().getCtm(),
                 imageStream, resourceName, colorSpaceDic, isInline);
@@ -583,9 +953,48 @@ public class PdfCanvasProcessor {
     private void applyTextAdjust(float tj) {
         float adjustBy = -tj / 1000f * getGraphicsState().getFontSize() * (getGraphicsState().getHorizontalScaling() / 100f);
 
+        if (skippedTexts != null && !skippedTexts.isEmpty()) {
+            skippedTexts.add(new SkippedText(adjustBy));
+            return;
+        }
         textMatrix = new Matrix(adjustBy, 0).multiply(textMatrix);
     }
 
+    /**
+     * Moves to the start of the next line, offset from the start of the current line.
+     *
+     * @param tx the horizontal offset
+     * @param ty the vertical offset
+     */
+    private void moveStartNextLine(float tx, float ty) {
+        textMatrix = new Matrix(tx, ty).multiply(textLineMatrix);
+        skippedTexts = null;
+        textLineMatrix = textMatrix;
+    }
+
+    private static boolean overridesLegacyInvokeOperator(Class<?> processorClass) {
+        for (Class<?> c = processorClass; c != PdfCanvasProcessor.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("invokeOperator", PdfLiteral.class, List.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+                // check the superclass
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Notifies the listener of the current clipping path, if it supports such events. Otherwise the clipping path
+     * is not requested, so that it is not calculated unless it is really needed.
+     */
+    private void clippingPathChanged() {
+        if (supportedEvents == null || supportedEvents.contains(EventType.CLIP_PATH_CHANGED)) {
+            ParserGraphicsState gs = getGraphicsState();
+            eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+        }
+    }
+
     private void initClippingPath(PdfPage page) {
         Path clippingPath = new Path();
         clippingPath.rectangle(page.getCropBox());
@@ -593,13 +1002,36 @@ public class PdfCanvasProcessor {
     }
 
     /**
-     * A handler that implements operator (unregistered).
+     * Base class for the handlers reading the operand stack. Operand lists passed to
+     * {@link IContentOperator#invoke(PdfCanvasProcessor, PdfLiteral, List)} are copied to a stack
+     * reused by the processor.
      */
-    private static class IgnoreOperator implements IContentOperator {
+    private abstract static class PrimitiveContentOperator implements IPrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+            if (processor.adaptedOperandStacksInUse == processor.adaptedOperandStacks.size()) {
+                processor.adaptedOperandStacks.add(new ContentOperandStack());
+            }
+            ContentOperandStack stack = processor.adaptedOperandStacks.get(processor.adaptedOperandStacksInUse++);
+            try {
+                invoke(processor, stack.load(operator, operands));
+            } finally {
+                stack.clear();
+                processor.adaptedOperandStacksInUse--;
+            }
+        }
+    }
+
+    /**
+     * A handler that implements operator (unregistered).
+     */
+    private static class IgnoreOperator extends PrimitiveContentOperator {
+        /**
+         * {@inheritDoc}
+         */
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             // ignore the operator
         }
     }
@@ -607,11 +1039,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (TJ). For more information see Table 51 ISO-32000-1
      */
-    private static class ShowTextArrayOperator implements IContentOperator {
+    private static class ShowTextArrayOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfArray array = (PdfArray) operands.get(0);
             float tj = 0;
             for (PdfObject entryObj : array) {
@@ -629,81 +1061,43 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator ("). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveNextLineAndShowTextWithSpacingOperator implements IContentOperator {
-        private final SetTextWordSpacingOperator setTextWordSpacing;
-        private final SetTextCharacterSpacingOperator setTextCharacterSpacing;
-        private final MoveNextLineAndShowTextOperator moveNextLineAndShowText;
-
-        /**
-         * Create new instance of this handler.
-         *
-         * @param setTextWordSpacing      the handler for Tw operator
-         * @param setTextCharacterSpacing the handler for Tc operator
-         * @param moveNextLineAndShowText the handler for ' operator
-         */
-        public MoveNextLineAndShowTextWithSpacingOperator(SetTextWordSpacingOperator setTextWordSpacing, SetTextCharacterSpacingOperator setTextCharacterSpacing, MoveNextLineAndShowTextOperator moveNextLineAndShowText) {
-            this.setTextWordSpacing = setTextWordSpacing;
-            this.setTextCharacterSpacing = setTextCharacterSpacing;
-            this.moveNextLineAndShowText = moveNextLineAndShowText;
-        }
-
+    private static class MoveNextLineAndShowTextWithSpacingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber aw = (PdfNumber) operands.get(0);
-            PdfNumber ac = (PdfNumber) operands.get(1);
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float aw = operands.getFloat(0);
+            float ac = operands.getFloat(1);
             PdfString string = (PdfString) operands.get(2);
 
-            List<PdfObject> twOperands = new ArrayList<PdfObject>(1);
-            twOperands.add(0, aw);
-            setTextWordSpacing.invoke(processor, null, twOperands);
-
-            List<PdfObject> tcOperands = new ArrayList<PdfObject>(1);
-            tcOperands.add(0, ac);
-            setTextCharacterSpacing.invoke(processor, null, tcOperands);
-
-            List<PdfObject> tickOperands = new ArrayList<PdfObject>(1);
-            tickOperands.add(0, string);
-            moveNextLineAndShowText.invoke(processor, null, tickOperands);
+            processor.getGraphicsState().setWordSpacing(aw);
+            processor.getGraphicsState().setCharSpacing(ac);
+            processor.moveStartNextLine(0, -processor.getGraphicsState().getLeading());
+            processor.displayPdfString(string);
         }
     }
 
     /**
      * A handler that implements operator ('). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveNextLineAndShowTextOperator implements IContentOperator {
-        private final TextMoveNextLineOperator textMoveNextLine;
-        private final ShowTextOperator showText;
-
-        /**
-         * Creates the new instance of this handler
-         *
-         * @param textMoveNextLine the handler for T* operator
-         * @param showText         the handler for Tj operator
-         */
-        public MoveNextLineAndShowTextOperator(TextMoveNextLineOperator textMoveNextLine, ShowTextOperator showText) {
-            this.textMoveNextLine = textMoveNextLine;
-            this.showText = showText;
-        }
-
+    private static class MoveNextLineAndShowTextOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            textMoveNextLine.invoke(processor, null, new ArrayList<PdfObject>(0));
-            showText.invoke(processor, null, operands);
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.moveStartNextLine(0, -processor.getGraphicsState().getLeading());
+            processor.displayPdfString((PdfString) operands.get(0));
         }
     }
 
     /**
      * A handler that implements operator (Tj). For more information see Table 51 ISO-32000-1
      */
-    private static class ShowTextOperator implements IContentOperator {
+    private static class ShowTextOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfString string = (PdfString) operands.get(0);
 
             processor.displayPdfString(string);
@@ -714,96 +1108,74 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (T*). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveNextLineOperator implements IContentOperator {
-        private final TextMoveStartNextLineOperator moveStartNextLine;
-
-        public TextMoveNextLineOperator(TextMoveStartNextLineOperator moveStartNextLine) {
-            this.moveStartNextLine = moveStartNextLine;
-        }
-
+    private static class TextMoveNextLineOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            List<PdfObject> tdoperands = new ArrayList<PdfObject>(2);
-            tdoperands.add(0, new PdfNumber(0));
-            tdoperands.add(1, new PdfNumber(-processor.getGraphicsState().getLeading()));
-            moveStartNextLine.invoke(processor, null, tdoperands);
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.moveStartNextLine(0, -processor.getGraphicsState().getLeading());
         }
     }
 
     /**
      * A handler that implements operator (Tm). For more information see Table 51 ISO-32000-1
      */
-    private static class TextSetTextMatrixOperator implements IContentOperator {
+    private static class TextSetTextMatrixOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float a = operands.getFloat(0);
+            float b = operands.getFloat(1);
+            float c = operands.getFloat(2);
+            float d = operands.getFloat(3);
+            float e = operands.getFloat(4);
+            float f = operands.getFloat(5);
 
             processor.textLineMatrix = new Matrix(a, b, c, d, e, f);
             processor.textMatrix = processor.textLineMatrix;
+            processor.skippedTexts = null;
         }
     }
 
     /**
      * A handler that implements operator (TD). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveStartNextLineWithLeadingOperator implements IContentOperator {
-        private final TextMoveStartNextLineOperator moveStartNextLine;
-        private final SetTextLeadingOperator setTextLeading;
-
-        public TextMoveStartNextLineWithLeadingOperator(TextMoveStartNextLineOperator moveStartNextLine, SetTextLeadingOperator setTextLeading) {
-            this.moveStartNextLine = moveStartNextLine;
-            this.setTextLeading = setTextLeading;
-        }
-
+    private static class TextMoveStartNextLineWithLeadingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float tx = operands.getFloat(0);
+            float ty = operands.getFloat(1);
 
-            List<PdfObject> tlOperands = new ArrayList<PdfObject>(1);
-            tlOperands.add(0, new PdfNumber(-ty));
-            setTextLeading.invoke(processor, null, tlOperands);
-            moveStartNextLine.invoke(processor, null, operands);
+            processor.getGraphicsState().setLeading(-ty);
+            processor.moveStartNextLine(tx, ty);
         }
     }
 
     /**
      * A handler that implements operator (Td). For more information see Table 51 ISO-32000-1
      */
-    private static class TextMoveStartNextLineOperator implements IContentOperator {
+    private static class TextMoveStartNextLineOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float tx = ((PdfNumber) operands.get(0)).floatValue();
-            float ty = ((PdfNumber) operands.get(1)).floatValue();
-
-            Matrix translationMatrix = new Matrix(tx, ty);
-            processor.textMatrix = translationMatrix.multiply(processor.textLineMatrix);
-            processor.textLineMatrix = processor.textMatrix;
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.moveStartNextLine(operands.getFloat(0), operands.getFloat(1));
         }
     }
 
     /**
      * A handler that implements operator (Tf). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextFontOperator implements IContentOperator {
+    private static class SetTextFontOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfName fontResourceName = (PdfName) operands.get(0);
-            float size = ((PdfNumber) operands.get(1)).floatValue();
+            float size = operands.getFloat(1);
 
             PdfDictionary fontsDictionary = processor.getResources().getResource(PdfName.Font);
             PdfDictionary fontDict = fontsDictionary.getAsDictionary(fontResourceName);
@@ -819,78 +1191,72 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Tr). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextRenderModeOperator implements IContentOperator {
+    private static class SetTextRenderModeOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber render = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setTextRenderingMode(render.intValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setTextRenderingMode(operands.getInt(0));
         }
     }
 
     /**
      * A handler that implements operator (Ts). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextRiseOperator implements IContentOperator {
+    private static class SetTextRiseOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber rise = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setTextRise(rise.floatValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setTextRise(operands.getFloat(0));
         }
     }
 
     /**
      * A handler that implements operator (TL). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextLeadingOperator implements IContentOperator {
+    private static class SetTextLeadingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber leading = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setLeading(leading.floatValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setLeading(operands.getFloat(0));
         }
     }
 
     /**
      * A handler that implements operator (Tz). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextHorizontalScalingOperator implements IContentOperator {
+    private static class SetTextHorizontalScalingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber scale = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setHorizontalScaling(scale.floatValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setHorizontalScaling(operands.getFloat(0));
         }
     }
 
     /**
      * A handler that implements operator (Tc). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextCharacterSpacingOperator implements IContentOperator {
+    private static class SetTextCharacterSpacingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber charSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setCharSpacing(charSpace.floatValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setCharSpacing(operands.getFloat(0));
         }
     }
 
     /**
      * A handler that implements operator (Tw). For more information see Table 51 ISO-32000-1
      */
-    private static class SetTextWordSpacingOperator implements IContentOperator {
+    private static class SetTextWordSpacingOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            PdfNumber wordSpace = (PdfNumber) operands.get(0);
-            processor.getGraphicsState().setWordSpacing(wordSpace.floatValue());
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            processor.getGraphicsState().setWordSpacing(operands.getFloat(0));
         }
     }
 
@@ -928,11 +1294,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (q). For more information see Table 51 ISO-32000-1
      */
-    private static class PushGraphicsStateOperator implements IContentOperator {
+    private static class PushGraphicsStateOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             ParserGraphicsState gs = processor.gsStack.peek();
             ParserGraphicsState copy = new ParserGraphicsState(gs);
             processor.gsStack.push(copy);
@@ -942,17 +1308,17 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (cm). For more information see Table 51 ISO-32000-1
      */
-    private static class ModifyCurrentTransformationMatrixOperator implements IContentOperator {
+    private static class ModifyCurrentTransformationMatrixOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float a = ((PdfNumber) operands.get(0)).floatValue();
-            float b = ((PdfNumber) operands.get(1)).floatValue();
-            float c = ((PdfNumber) operands.get(2)).floatValue();
-            float d = ((PdfNumber) operands.get(3)).floatValue();
-            float e = ((PdfNumber) operands.get(4)).floatValue();
-            float f = ((PdfNumber) operands.get(5)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float a = operands.getFloat(0);
+            float b = operands.getFloat(1);
+            float c = operands.getFloat(2);
+            float d = operands.getFloat(3);
+            float e = operands.getFloat(4);
+            float f = operands.getFloat(5);
             Matrix matrix = new Matrix(a, b, c, d, e, f);
             try {
                 processor.getGraphicsState().updateCtm(matrix);
@@ -1036,10 +1402,10 @@ public class PdfCanvasProcessor {
     /**
      * Gets a color based on a list of operands.
      */
-    private static Color getColor(int nOperands, List<PdfObject> operands) {
+    private static Color getColor(int nOperands, ContentOperandStack operands) {
         float[] c = new float[nOperands];
         for (int i = 0; i < nOperands; i++) {
-            c[i] = ((PdfNumber) operands.get(i)).floatValue();
+            c[i] = operands.getFloat(i);
         }
 
         switch (nOperands) {
@@ -1064,25 +1430,31 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Q). For more information see Table 51 ISO-32000-1
      */
-    protected static class PopGraphicsStateOperator implements IContentOperator {
+    protected static class PopGraphicsStateOperator implements IPrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+            invoke(processor, (ContentOperandStack) null);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.gsStack.pop();
-            ParserGraphicsState gs = processor.getGraphicsState();
-            processor.eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            processor.clippingPathChanged();
         }
     }
 
     /**
      * A handler that implements operator (g). For more information see Table 51 ISO-32000-1
      */
-    private static class SetGrayFillOperator implements IContentOperator {
+    private static class SetGrayFillOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setFillColor(getColor(1, operands));
         }
     }
@@ -1090,11 +1462,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (G). For more information see Table 51 ISO-32000-1
      */
-    private static class SetGrayStrokeOperator implements IContentOperator {
+    private static class SetGrayStrokeOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setStrokeColor(getColor(1, operands));
         }
     }
@@ -1102,11 +1474,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (rg). For more information see Table 51 ISO-32000-1
      */
-    private static class SetRGBFillOperator implements IContentOperator {
+    private static class SetRGBFillOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setFillColor(getColor(3, operands));
         }
     }
@@ -1114,11 +1486,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (RG). For more information see Table 51 ISO-32000-1
      */
-    private static class SetRGBStrokeOperator implements IContentOperator {
+    private static class SetRGBStrokeOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setStrokeColor(getColor(3, operands));
         }
     }
@@ -1126,11 +1498,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (k). For more information see Table 51 ISO-32000-1
      */
-    private static class SetCMYKFillOperator implements IContentOperator {
+    private static class SetCMYKFillOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setFillColor(getColor(4, operands));
         }
     }
@@ -1138,11 +1510,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (K). For more information see Table 51 ISO-32000-1
      */
-    private static class SetCMYKStrokeOperator implements IContentOperator {
+    private static class SetCMYKStrokeOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.getGraphicsState().setStrokeColor(getColor(4, operands));
         }
     }
@@ -1150,11 +1522,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (CS). For more information see Table 51 ISO-32000-1
      */
-    private static class SetColorSpaceFillOperator implements IContentOperator {
+    private static class SetColorSpaceFillOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfColorSpace pdfColorSpace = determineColorSpace((PdfName) operands.get(0), processor);
             processor.getGraphicsState().setFillColor(Color.makeColor(pdfColorSpace));
         }
@@ -1177,11 +1549,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (cs). For more information see Table 51 ISO-32000-1
      */
-    private static class SetColorSpaceStrokeOperator implements IContentOperator {
+    private static class SetColorSpaceStrokeOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfColorSpace pdfColorSpace = SetColorSpaceFillOperator.determineColorSpace((PdfName) operands.get(0), processor);
             processor.getGraphicsState().setStrokeColor(Color.makeColor(pdfColorSpace));
         }
@@ -1214,13 +1586,14 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (BT). For more information see Table 51 ISO-32000-1
      */
-    private static class BeginTextOperator implements IContentOperator {
+    private static class BeginTextOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.textMatrix = new Matrix();
             processor.textLineMatrix = processor.textMatrix;
+            processor.skippedTexts = null;
             processor.beginText();
         }
     }
@@ -1228,13 +1601,14 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (ET). For more information see Table 51 ISO-32000-1
      */
-    private static class EndTextOperator implements IContentOperator {
+    private static class EndTextOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.textMatrix = null;
             processor.textLineMatrix = null;
+            processor.skippedTexts = null;
             processor.endText();
         }
     }
@@ -1242,12 +1616,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (BMC). For more information see Table 51 ISO-32000-1
      */
-    private static class BeginMarkedContentOperator implements IContentOperator {
+    private static class BeginMarkedContentOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor,
-                           PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.beginMarkedContent((PdfName) operands.get(0), new PdfDictionary());
         }
 
@@ -1292,12 +1665,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (EMC). For more information see Table 51 ISO-32000-1
      */
-    private static class EndMarkedContentOperator implements IContentOperator {
+    private static class EndMarkedContentOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor,
-                           PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.endMarkedContent();
         }
     }
@@ -1305,11 +1677,11 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (Do). For more information see Table 51 ISO-32000-1
      */
-    private static class DoOperator implements IContentOperator {
+    private static class DoOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             PdfName resourceName = (PdfName) operands.get(0);
             processor.displayXObject(resourceName);
         }
@@ -1334,12 +1706,12 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (w). For more information see Table 51 ISO-32000-1
      */
-    private static class SetLineWidthOperator implements IContentOperator {
+    private static class SetLineWidthOperator extends PrimitiveContentOperator {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float lineWidth = ((PdfNumber) operands.get(0)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float lineWidth = operands.getFloat(0);
             processor.getGraphicsState().setLineWidth(lineWidth);
         }
     }
@@ -1347,13 +1719,13 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (J). For more information see Table 51 ISO-32000-1
      */
-    private static class SetLineCapOperator implements IContentOperator {
+    private static class SetLineCapOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            int lineCap = ((PdfNumber) operands.get(0)).intValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            int lineCap = operands.getInt(0);
             processor.getGraphicsState().setLineCapStyle(lineCap);
         }
     }
@@ -1361,13 +1733,13 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (j). For more information see Table 51 ISO-32000-1
      */
-    private static class SetLineJoinOperator implements IContentOperator {
+    private static class SetLineJoinOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            int lineJoin = ((PdfNumber) operands.get(0)).intValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            int lineJoin = operands.getInt(0);
             processor.getGraphicsState().setLineJoinStyle(lineJoin);
         }
     }
@@ -1375,13 +1747,13 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (M). For more information see Table 51 ISO-32000-1
      */
-    private static class SetMiterLimitOperator implements IContentOperator {
+    private static class SetMiterLimitOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral oper, List<PdfObject> operands) {
-            float miterLimit = ((PdfNumber) operands.get(0)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float miterLimit = operands.getFloat(0);
             processor.getGraphicsState().setMiterLimit(miterLimit);
         }
     }
@@ -1417,11 +1789,23 @@ public class PdfCanvasProcessor {
             // we read the content bytes up here so if it fails we don't leave the graphics state stack corrupted
             // this is probably not necessary (if we fail on this, probably the entire content stream processing
             // operation should be rejected
-            byte[] contentBytes;
-            contentBytes = xObjectStream.getBytes();
+            byte[] contentBytes = null;
+            FormXObjectContentCache.ParsedContent parsedContent = null;
+            FormXObjectContentCache cache = processor.formXObjectContentCache;
+            PdfIndirectReference reference = xObjectStream.getIndirectReference();
+            // the content of a form without own resources depends on the resources of the content it is drawn in
+            if (cache != null && reference != null && resourcesDic != null) {
+                parsedContent = cache.get(reference);
+                if (parsedContent == null) {
+                    parsedContent = parseContent(xObjectStream, resources);
+                    cache.put(reference, parsedContent);
+                }
+            } else {
+                contentBytes = xObjectStream.getBytes();
+            }
             final PdfArray matrix = xObjectStream.getAsArray(PdfName.Matrix);
 
-            new PushGraphicsStateOperator().invoke(processor, null, null);
+            new PushGraphicsStateOperator().invoke(processor, (ContentOperandStack) null);
 
             if (matrix != null) {
                 float a = matrix.getAsNumber(0).floatValue();
@@ -1434,9 +1818,13 @@ public class PdfCanvasProcessor {
                 processor.getGraphicsState().updateCtm(formMatrix);
             }
 
-            processor.processContent(contentBytes, resources);
+            if (parsedContent != null) {
+                processor.processContent(parsedContent, resources);
+            } else {
+                processor.processContent(contentBytes, resources);
+            }
 
-            new PopGraphicsStateOperator().invoke(processor, null, null);
+            new PopGraphicsStateOperator().invoke(processor, (ContentOperandStack) null);
         }
     }
 
@@ -1462,14 +1850,14 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (m). For more information see Table 51 ISO-32000-1
      */
-    private static class MoveToOperator implements IContentOperator {
+    private static class MoveToOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x = operands.getFloat(0);
+            float y = operands.getFloat(1);
             processor.currentPath.moveTo(x, y);
         }
     }
@@ -1477,14 +1865,14 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (l). For more information see Table 51 ISO-32000-1
      */
-    private static class LineToOperator implements IContentOperator {
+    private static class LineToOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x = operands.getFloat(0);
+            float y = operands.getFloat(1);
             processor.currentPath.lineTo(x, y);
         }
     }
@@ -1492,18 +1880,18 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (c). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveOperator implements IContentOperator {
+    private static class CurveOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x2 = ((PdfNumber) operands.get(2)).floatValue();
-            float y2 = ((PdfNumber) operands.get(3)).floatValue();
-            float x3 = ((PdfNumber) operands.get(4)).floatValue();
-            float y3 = ((PdfNumber) operands.get(5)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x1 = operands.getFloat(0);
+            float y1 = operands.getFloat(1);
+            float x2 = operands.getFloat(2);
+            float y2 = operands.getFloat(3);
+            float x3 = operands.getFloat(4);
+            float y3 = operands.getFloat(5);
             processor.currentPath.curveTo(x1, y1, x2, y2, x3, y3);
         }
     }
@@ -1511,16 +1899,16 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (v). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveFirstPointDuplicatedOperator implements IContentOperator {
+    private static class CurveFirstPointDuplicatedOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x2 = ((PdfNumber) operands.get(0)).floatValue();
-            float y2 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x2 = operands.getFloat(0);
+            float y2 = operands.getFloat(1);
+            float x3 = operands.getFloat(2);
+            float y3 = operands.getFloat(3);
             processor.currentPath.curveTo(x2, y2, x3, y3);
         }
     }
@@ -1528,16 +1916,16 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (y). For more information see Table 51 ISO-32000-1
      */
-    private static class CurveFourhPointDuplicatedOperator implements IContentOperator {
+    private static class CurveFourhPointDuplicatedOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x1 = ((PdfNumber) operands.get(0)).floatValue();
-            float y1 = ((PdfNumber) operands.get(1)).floatValue();
-            float x3 = ((PdfNumber) operands.get(2)).floatValue();
-            float y3 = ((PdfNumber) operands.get(3)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x1 = operands.getFloat(0);
+            float y1 = operands.getFloat(1);
+            float x3 = operands.getFloat(2);
+            float y3 = operands.getFloat(3);
             processor.currentPath.curveFromTo(x1, y1, x3, y3);
         }
     }
@@ -1545,12 +1933,12 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (h). For more information see Table 51 ISO-32000-1
      */
-    private static class CloseSubpathOperator implements IContentOperator {
+    private static class CloseSubpathOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.currentPath.closeSubpath();
         }
     }
@@ -1558,16 +1946,16 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (re). For more information see Table 51 ISO-32000-1
      */
-    private static class RectangleOperator implements IContentOperator {
+    private static class RectangleOperator extends PrimitiveContentOperator {
 
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            float x = ((PdfNumber) operands.get(0)).floatValue();
-            float y = ((PdfNumber) operands.get(1)).floatValue();
-            float w = ((PdfNumber) operands.get(2)).floatValue();
-            float h = ((PdfNumber) operands.get(3)).floatValue();
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+            float x = operands.getFloat(0);
+            float y = operands.getFloat(1);
+            float w = operands.getFloat(2);
+            float h = operands.getFloat(3);
             processor.currentPath.rectangle(x, y, w, h);
         }
     }
@@ -1575,7 +1963,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (S, s, f, F, f*, B, B*, b, b*). For more information see Table 51 ISO-32000-1
      */
-    private static class PaintPathOperator implements IContentOperator {
+    private static class PaintPathOperator extends PrimitiveContentOperator {
 
         private int operation;
         private int rule;
@@ -1600,7 +1988,7 @@ public class PdfCanvasProcessor {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             if (close) {
                 processor.currentPath.closeSubpath();
             }
@@ -1612,7 +2000,7 @@ public class PdfCanvasProcessor {
     /**
      * A handler that implements operator (W, W*). For more information see Table 51 ISO-32000-1
      */
-    private static class ClipPathOperator implements IContentOperator {
+    private static class ClipPathOperator extends PrimitiveContentOperator {
 
         private int rule;
 
@@ -1623,9 +2011,43 @@ public class PdfCanvasProcessor {
         /**
          * {@inheritDoc}
          */
-        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+        public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
             processor.isClip = true;
             processor.clippingRule = rule;
         }
     }
+
+    /**
+     * Text, or text position adjustment, which was shown outside of the region of interest
+     * and by which the text matrix has not been advanced yet.
+     */
+    private static class SkippedText {
+        private final PdfString string;
+        private final PdfFont font;
+        private final float fontSize;
+        private final float charSpacing;
+        private final float wordSpacing;
+        private final float horizontalScaling;
+        private final float adjustment;
+
+        SkippedText(PdfString string, ParserGraphicsState gs) {
+            this.string = string;
+            this.font = gs.getFont();
+            this.fontSize = gs.getFontSize();
+            this.charSpacing = gs.getCharSpacing();
+            this.wordSpacing = gs.getWordSpacing();
+            this.horizontalScaling = gs.getHorizontalScaling();
+            this.adjustment = 0;
+        }
+
+        SkippedText(float adjustment) {
+            this.string = null;
+            this.font = null;
+            this.fontSize = 0;
+            this.charSpacing = 0;
+            this.wordSpacing = 0;
+            this.horizontalScaling = 0;
+            this.adjustment = adjustment;
+        }
+    }
 }
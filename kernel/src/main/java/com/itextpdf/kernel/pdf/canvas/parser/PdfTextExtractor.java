@@ -43,12 +43,30 @@
  */
 package com.itextpdf.kernel.pdf.canvas.parser;
 
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.FilteredTextEventListener;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IPdfTextLocation;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextRunSink;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.MultiPatternLocationExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.StreamingTextExtractionListener;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.TextSearchPatterns;
+import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfPage;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class PdfTextExtractor {
 
@@ -95,4 +113,202 @@ public final class PdfTextExtractor {
     public static String getTextFromPage(PdfPage page) {
         return getTextFromPage(page, new LocationTextExtractionStrategy());
     }
+
+    /**
+     * Extract text located in the specified region of a page using the default strategy.
+     * The content which can't intersect the region is skipped by the {@link PdfCanvasProcessor}
+     * without computing its geometry, see {@link PdfCanvasProcessor#setRegionOfInterest(Rectangle)}.
+     * The result is the same as the one extracted with a {@link FilteredTextEventListener}
+     * and a {@link TextRegionEventFilter} for the region.
+     *
+     * @param page   the page for the text to be extracted from
+     * @param region the region of the page in the page space
+     * @return the extracted text
+     */
+    public static String getTextFromPageRegion(PdfPage page, Rectangle region) {
+        FilteredTextEventListener listener = new FilteredTextEventListener(new LocationTextExtractionStrategy(), new TextRegionEventFilter(region));
+        PdfCanvasProcessor parser = new PdfCanvasProcessor(listener);
+        parser.setRegionOfInterest(region);
+        parser.processPageContent(page);
+        return listener.getResultantText();
+    }
+
+    /**
+     * Extract text from all the pages of the document using the default strategy.
+     * The pages are processed concurrently by the executor and the texts are returned in the page order.
+     * <br>
+     * The document must be opened with {@link com.itextpdf.kernel.pdf.ReaderProperties#setThreadSafeReading(boolean)}
+     * enabled and must not be modified while the text is being extracted. If thread safe reading is not enabled,
+     * the pages are processed one by one on the current thread.
+     *
+     * @param pdfDocument the document for the text to be extracted from
+     * @param executor    the executor to process the pages with
+     * @return the list of the texts of the pages, the text of the first page comes first
+     */
+    public static List<String> getTextFromAllPages(PdfDocument pdfDocument, ExecutorService executor) {
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        List<String> texts = new ArrayList<>(numberOfPages);
+        if (pdfDocument.getReader() == null || !pdfDocument.getReader().isThreadSafeReading()) {
+            for (int i = 1; i <= numberOfPages; i++) {
+                texts.add(getTextFromPage(pdfDocument.getPage(i)));
+            }
+            return texts;
+        }
+
+        List<Callable<String>> pageTasks = new ArrayList<>(numberOfPages);
+        for (int i = 1; i <= numberOfPages; i++) {
+            final PdfPage page = pdfDocument.getPage(i);
+            pageTasks.add(new Callable<String>() {
+                @Override
+                public String call() {
+                    return getTextFromPage(page);
+                }
+            });
+        }
+        return processPages(pageTasks, executor);
+    }
+
+    /**
+     * Extract text from all the pages of the document, passing it to the sink run by run
+     * as soon as each run is assembled, see {@link StreamingTextExtractionListener}.
+     * The text of the pages is not collected, so that documents of any size can be processed.
+     *
+     * @param pdfDocument the document for the text to be extracted from
+     * @param sink        the sink to pass the text runs to
+     */
+    public static void streamTextFromAllPages(PdfDocument pdfDocument, ITextRunSink sink) {
+        StreamingTextExtractionListener listener = new StreamingTextExtractionListener(sink);
+        PdfCanvasProcessor parser = new PdfCanvasProcessor(listener);
+        for (int i = 1; i <= pdfDocument.getNumberOfPages(); i++) {
+            listener.startPage(i);
+            parser.reset();
+            parser.processPageContent(pdfDocument.getPage(i));
+            listener.flush();
+        }
+    }
+
+    /**
+     * Find the locations of the literals and regular expressions on all the pages of the document,
+     * see {@link MultiPatternLocationExtractionStrategy}.
+     * The pages are processed concurrently by the executor and the locations are returned in the page order.
+     * <br>
+     * The document must be opened with {@link com.itextpdf.kernel.pdf.ReaderProperties#setThreadSafeReading(boolean)}
+     * enabled and must not be modified while the pages are being processed. If thread safe reading is not enabled,
+     * the pages are processed one by one on the current thread.
+     *
+     * @param pdfDocument the document to search in
+     * @param patterns    the literals and regular expressions to search for
+     * @param executor    the executor to process the pages with
+     * @return the list of the locations, the locations of the first page come first
+     */
+    public static List<IPdfTextLocation> getLocationsFromAllPages(PdfDocument pdfDocument, final TextSearchPatterns patterns, ExecutorService executor) {
+        int numberOfPages = pdfDocument.getNumberOfPages();
+        List<IPdfTextLocation> locations = new ArrayList<>();
+        if (pdfDocument.getReader() == null || !pdfDocument.getReader().isThreadSafeReading()) {
+            for (int i = 1; i <= numberOfPages; i++) {
+                locations.addAll(getLocationsFromPage(pdfDocument.getPage(i), patterns, i));
+            }
+            return locations;
+        }
+
+        List<Callable<Collection<IPdfTextLocation>>> pageTasks = new ArrayList<>(numberOfPages);
+        for (int i = 1; i <= numberOfPages; i++) {
+            final PdfPage page = pdfDocument.getPage(i);
+            final int pageNumber = i;
+            pageTasks.add(new Callable<Collection<IPdfTextLocation>>() {
+                @Override
+                public Collection<IPdfTextLocation> call() {
+                    return getLocationsFromPage(page, patterns, pageNumber);
+                }
+            });
+        }
+        for (Collection<IPdfTextLocation> pageLocations : processPages(pageTasks, executor)) {
+            locations.addAll(pageLocations);
+        }
+        return locations;
+    }
+
+    private static Collection<IPdfTextLocation> getLocationsFromPage(PdfPage page, TextSearchPatterns patterns, int pageNumber) {
+        MultiPatternLocationExtractionStrategy strategy = new MultiPatternLocationExtractionStrategy(patterns, pageNumber);
+        new PdfCanvasProcessor(strategy).processPageContent(page);
+        return strategy.getResultantLocations();
+    }
+
+    /**
+     * Runs the tasks processing the pages on the executor and collects their results in the order of the tasks.
+     * If any of the tasks fails, the tasks which are not started yet are cancelled and the running ones
+     * are waited for, so that the document is not used any longer once the exception is thrown.
+     */
+    private static <T> List<T> processPages(List<Callable<T>> pageTasks, ExecutorService executor) {
+        List<PageTask<T>> tasks = new ArrayList<>(pageTasks.size());
+        List<T> results = new ArrayList<>(pageTasks.size());
+        try {
+            for (Callable<T> pageTask : pageTasks) {
+                PageTask<T> task = new PageTask<>(pageTask);
+                task.future = executor.submit(task);
+                tasks.add(task);
+            }
+            for (PageTask<T> task : tasks) {
+                results.add(task.future.get());
+            }
+        } catch (InterruptedException e) {
+            cancelAndWait(tasks);
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.CannotParseContentStream, e);
+        } catch (ExecutionException e) {
+            cancelAndWait(tasks);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PdfException(PdfException.CannotParseContentStream, e.getCause());
+        } catch (RuntimeException e) {
+            // e.g. the executor rejects a task
+            cancelAndWait(tasks);
+            throw e;
+        }
+        return results;
+    }
+
+    private static <T> void cancelAndWait(List<PageTask<T>> tasks) {
+        boolean interrupted = false;
+        for (PageTask<T> task : tasks) {
+            if (task.started.compareAndSet(false, true)) {
+                // the task will not process its page even if the executor runs it
+                task.future.cancel(false);
+                continue;
+            }
+            while (true) {
+                try {
+                    task.future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A task processing a page, which may be cancelled reliably as long as it is not started.
+     */
+    private static class PageTask<T> implements Callable<T> {
+
+        private final Callable<T> task;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private Future<T> future;
+
+        PageTask(Callable<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            return started.compareAndSet(false, true) ? task.call() : null;
+        }
+    }
 }
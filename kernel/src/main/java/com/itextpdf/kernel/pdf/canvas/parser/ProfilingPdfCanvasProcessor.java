@@ -0,0 +1,245 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfResources;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.parser.ContentStreamStatistics.OperatorCategory;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperandStack;
+import com.itextpdf.kernel.utils.PdfResourceCounter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link PdfCanvasProcessor} which collects the {@link ContentStreamStatistics} of the processed page:
+ * the numbers of the invocations of the operators, the time spent on the different kinds of operators,
+ * the length of the content, the nesting depth of the form XObjects, the numbers of the images and
+ * the resources of the page.
+ * <p>
+ * The events are passed to the listener the same way as by {@link PdfCanvasProcessor}, the time spent
+ * by the listener is included into the time of the operator which produced the event.
+ */
+public class ProfilingPdfCanvasProcessor extends PdfCanvasProcessor {
+
+    private static final Map<String, OperatorCategory> OPERATOR_CATEGORIES = new HashMap<>();
+
+    static {
+        OPERATOR_CATEGORIES.put("Tf", OperatorCategory.FONT_LOADING);
+        for (String operator : new String[] {"Tj", "TJ", "'", "\""}) {
+            OPERATOR_CATEGORIES.put(operator, OperatorCategory.TEXT_SHOWING);
+        }
+        for (String operator : new String[] {"m", "l", "c", "v", "y", "h", "re"}) {
+            OPERATOR_CATEGORIES.put(operator, OperatorCategory.PATH_CONSTRUCTION);
+        }
+        for (String operator : new String[] {"S", "s", "f", "F", "f*", "B", "B*", "b", "b*", "n", "W", "W*"}) {
+            OPERATOR_CATEGORIES.put(operator, OperatorCategory.PATH_PAINTING);
+        }
+        OPERATOR_CATEGORIES.put("EI", OperatorCategory.IMAGE);
+    }
+
+    /**
+     * The names and categories of the operators met so far, looked up by the bytes of the operators,
+     * so that no string is created per invoked operator.
+     */
+    private final ContentOperatorLookup<OperatorInfo> operatorInfos = new ContentOperatorLookup<>();
+
+    private ContentStreamStatistics statistics = new ContentStreamStatistics(0);
+
+    private boolean resourceLengthCounting;
+
+    /**
+     * The nesting depth of the form XObject being processed, 0 for the page content.
+     */
+    private int xObjectNestingDepth;
+
+    /**
+     * The time spent on the operators nested into the operator being invoked, i.e. on the operators
+     * of a form XObject. It's excluded from the time of the operator drawing the form XObject.
+     */
+    private long nestedOperatorsTime;
+
+    /**
+     * Creates a new processor which collects the statistics of the processed content.
+     *
+     * @param eventListener the listener to notify of the render events
+     */
+    public ProfilingPdfCanvasProcessor(IEventListener eventListener) {
+        super(eventListener);
+    }
+
+    /**
+     * Creates a new processor which collects the statistics of the processed content.
+     *
+     * @param eventListener              the listener to notify of the render events
+     * @param additionalContentOperators an optional map of custom {@link IContentOperator}s for rendering instructions
+     */
+    public ProfilingPdfCanvasProcessor(IEventListener eventListener, Map<String, IContentOperator> additionalContentOperators) {
+        super(eventListener, additionalContentOperators);
+    }
+
+    /**
+     * Sets whether the total length of the indirect objects of the page is counted, see
+     * {@link ContentStreamStatistics#getResourceLength()}. Counting requires serializing all the objects
+     * the page refers to, so it's disabled by default.
+     *
+     * @param resourceLengthCounting true to count the length of the resources
+     * @return this {@link ProfilingPdfCanvasProcessor} instance.
+     */
+    public ProfilingPdfCanvasProcessor setResourceLengthCounting(boolean resourceLengthCounting) {
+        this.resourceLengthCounting = resourceLengthCounting;
+        return this;
+    }
+
+    /**
+     * Gets the statistics of the last processed page. If contents are processed with
+     * {@link #processContent(byte[], PdfResources)} directly, the statistics of all of them are accumulated.
+     *
+     * @return the statistics
+     */
+    public ContentStreamStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The statistics of the previous page are discarded.
+     */
+    @Override
+    public void processPageContent(PdfPage page) {
+        statistics = new ContentStreamStatistics(page.getDocument() != null ? page.getDocument().getPageNumber(page) : 0);
+        statistics.setPageContentStreamCount(page.getContentStreamCount());
+        PdfResourceCounter resourceCounter = new PdfResourceCounter(page.getPdfObject());
+        statistics.setResources(resourceCounter.getResources().size(),
+                resourceLengthCounting ? resourceCounter.getLength(null) : -1);
+        long start = System.nanoTime();
+        super.processPageContent(page);
+        statistics.setTotalTime(System.nanoTime() - start);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <br>
+     * The length of the content is recorded, see {@link ContentStreamStatistics#getProcessedContentLengths()}.
+     */
+    @Override
+    public void processContent(byte[] contentBytes, PdfResources resources) {
+        statistics.addProcessedContent(contentBytes.length);
+        super.processContent(contentBytes, resources);
+    }
+
+    @Override
+    protected void invokeOperator(ContentOperandStack operands) {
+        OperatorInfo operator = getOperatorInfo(operands);
+        OperatorCategory category = operator.category;
+        boolean form = false;
+        if (category == OperatorCategory.OTHER) {
+            if (operator.xObjectDrawing && operands.size() > 0) {
+                PdfObject name = operands.get(0);
+                PdfDictionary xObjects = getResources().getResource(PdfName.XObject);
+                PdfStream xObject = xObjects != null && name instanceof PdfName ? xObjects.getAsStream((PdfName) name) : null;
+                PdfName subtype = xObject != null ? xObject.getAsName(PdfName.Subtype) : null;
+                if (PdfName.Form.equals(subtype)) {
+                    category = OperatorCategory.FORM_XOBJECT;
+                    form = true;
+                    statistics.addFormXObject(xObjectNestingDepth + 1);
+                } else if (PdfName.Image.equals(subtype)) {
+                    category = OperatorCategory.IMAGE;
+                    statistics.addImageXObject();
+                }
+            }
+        } else if (category == OperatorCategory.IMAGE) {
+            statistics.addInlineImage();
+        }
+
+        long outerNestedOperatorsTime = nestedOperatorsTime;
+        nestedOperatorsTime = 0;
+        if (form) {
+            xObjectNestingDepth++;
+        }
+        long start = System.nanoTime();
+        try {
+            super.invokeOperator(operands);
+        } finally {
+            long time = System.nanoTime() - start;
+            if (form) {
+                xObjectNestingDepth--;
+            }
+            statistics.addOperator(operator.name, category, time - nestedOperatorsTime);
+            nestedOperatorsTime = outerNestedOperatorsTime + time;
+        }
+    }
+
+    private OperatorInfo getOperatorInfo(ContentOperandStack operands) {
+        int length = operands.getOperatorLength();
+        if (length == 0 || length > ContentOperatorLookup.MAX_PACKED_LENGTH) {
+            // such operators are not defined by ISO-32000-1
+            return new OperatorInfo(operands.getOperator().toString());
+        }
+        OperatorInfo info = operatorInfos.get(operands.getOperatorBuffer(), length);
+        if (info == null) {
+            info = new OperatorInfo(operands.getOperator().toString());
+            operatorInfos.put(operands.getOperatorBuffer(), length, info);
+        }
+        return info;
+    }
+
+    private static final class OperatorInfo {
+        final String name;
+        final OperatorCategory category;
+        final boolean xObjectDrawing;
+
+        OperatorInfo(String name) {
+            this.name = name;
+            OperatorCategory category = OPERATOR_CATEGORIES.get(name);
+            this.category = category != null ? category : OperatorCategory.OTHER;
+            this.xObjectDrawing = "Do".equals(name);
+        }
+    }
+}
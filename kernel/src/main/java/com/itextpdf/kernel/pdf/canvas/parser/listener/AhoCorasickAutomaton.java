@@ -0,0 +1,203 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton which finds the occurrences of a set of literal strings in a text in a single pass.
+ * <p>
+ * The automaton is immutable once built, so that it can be shared between threads.
+ */
+final class AhoCorasickAutomaton {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final int[] NO_CHILDREN = new int[0];
+
+    /**
+     * Sorted transition characters of the nodes.
+     */
+    private char[][] keys;
+
+    /**
+     * Target nodes of the transitions, parallel to {@link #keys}.
+     */
+    private int[][] children;
+
+    /**
+     * Failure links, i.e. the node of the longest proper suffix of the node string which is a prefix of some literal.
+     */
+    private int[] failures;
+
+    /**
+     * Index of the literal which ends at the node, or -1.
+     */
+    private int[] literalIndexes;
+
+    /**
+     * The nearest node on the failure chain at which some literal ends, or -1.
+     */
+    private int[] outputLinks;
+
+    private int[] literalLengths;
+
+    private int nodeCount;
+
+    AhoCorasickAutomaton(List<String> literals) {
+        int capacity = 1;
+        for (String literal : literals) {
+            capacity += literal.length();
+        }
+        keys = new char[capacity][];
+        children = new int[capacity][];
+        literalIndexes = new int[capacity];
+        Arrays.fill(literalIndexes, -1);
+        literalLengths = new int[literals.size()];
+        keys[0] = NO_KEYS;
+        children[0] = NO_CHILDREN;
+        nodeCount = 1;
+        for (int i = 0; i < literals.size(); i++) {
+            String literal = literals.get(i);
+            int node = 0;
+            for (int j = 0; j < literal.length(); j++) {
+                int child = getChild(node, literal.charAt(j));
+                node = child >= 0 ? child : addChild(node, literal.charAt(j));
+            }
+            if (literalIndexes[node] < 0) {
+                literalIndexes[node] = i;
+            }
+            literalLengths[i] = literal.length();
+        }
+        buildLinks();
+    }
+
+    /**
+     * Finds the occurrences of the literals in the text. Occurrences of the same literal don't overlap,
+     * they are found from left to right, the same way as {@link java.util.regex.Matcher#find()} does.
+     *
+     * @param text    the text to search in
+     * @param matches the list to add the matches to, each of them is an array of the start index
+     *                (inclusive), the end index (exclusive) and the index of the literal
+     */
+    void findAll(CharSequence text, List<int[]> matches) {
+        int[] lastEnds = new int[literalLengths.length];
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = getChild(node, c);
+            while (next < 0 && node != 0) {
+                node = failures[node];
+                next = getChild(node, c);
+            }
+            node = next < 0 ? 0 : next;
+            int output = literalIndexes[node] >= 0 ? node : outputLinks[node];
+            while (output >= 0) {
+                int literal = literalIndexes[output];
+                int start = i + 1 - literalLengths[literal];
+                if (start >= lastEnds[literal]) {
+                    matches.add(new int[] {start, i + 1, literal});
+                    lastEnds[literal] = i + 1;
+                }
+                output = outputLinks[output];
+            }
+        }
+    }
+
+    private int getChild(int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index >= 0 ? children[node][index] : -1;
+    }
+
+    private int addChild(int node, char c) {
+        int child = nodeCount++;
+        keys[child] = NO_KEYS;
+        children[child] = NO_CHILDREN;
+
+        char[] nodeKeys = keys[node];
+        int[] nodeChildren = children[node];
+        int insertAt = -Arrays.binarySearch(nodeKeys, c) - 1;
+        char[] newKeys = new char[nodeKeys.length + 1];
+        int[] newChildren = new int[nodeKeys.length + 1];
+        System.arraycopy(nodeKeys, 0, newKeys, 0, insertAt);
+        System.arraycopy(nodeChildren, 0, newChildren, 0, insertAt);
+        newKeys[insertAt] = c;
+        newChildren[insertAt] = child;
+        System.arraycopy(nodeKeys, insertAt, newKeys, insertAt + 1, nodeKeys.length - insertAt);
+        System.arraycopy(nodeChildren, insertAt, newChildren, insertAt + 1, nodeKeys.length - insertAt);
+        keys[node] = newKeys;
+        children[node] = newChildren;
+        return child;
+    }
+
+    private void buildLinks() {
+        failures = new int[nodeCount];
+        outputLinks = new int[nodeCount];
+        outputLinks[0] = -1;
+        // breadth first, so that the links of the shorter strings are known when the longer ones are processed
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = 0; i < keys[node].length; i++) {
+                char c = keys[node][i];
+                int child = children[node][i];
+                int failure = 0;
+                if (node != 0) {
+                    int candidate = failures[node];
+                    int next = getChild(candidate, c);
+                    while (next < 0 && candidate != 0) {
+                        candidate = failures[candidate];
+                        next = getChild(candidate, c);
+                    }
+                    failure = next < 0 ? 0 : next;
+                }
+                failures[child] = failure;
+                outputLinks[child] = literalIndexes[failure] >= 0 ? failure : outputLinks[failure];
+                queue[tail++] = child;
+            }
+        }
+    }
+}
@@ -45,6 +45,7 @@ package com.itextpdf.kernel.pdf.canvas.parser.listener;
 
 import com.itextpdf.kernel.geom.LineSegment;
 import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.geom.Vector;
 import com.itextpdf.kernel.pdf.canvas.CanvasTag;
 import com.itextpdf.kernel.pdf.canvas.parser.EventType;
@@ -52,10 +53,7 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
@@ -78,6 +76,11 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
 
     private TextRenderInfo lastTextRenderInfo;
 
+    /**
+     * the index of the found text by lines, built on demand
+     */
+    private TextChunkLineIndex lineIndex;
+
     /**
      * Creates a new text extraction renderer.
      */
@@ -123,6 +126,7 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
      */
     public LocationTextExtractionStrategy setRightToLeftRunDirection(boolean rightToLeftRunDirection) {
         this.rightToLeftRunDirection = rightToLeftRunDirection;
+        lineIndex = null;
         return this;
     }
 
@@ -175,6 +179,7 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
             }
 
             lastTextRenderInfo = renderInfo;
+            lineIndex = null;
         }
     }
 
@@ -187,31 +192,21 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
     public String getResultantText() {
         if (DUMP_STATE) dumpState();
 
-        List<TextChunk> textChunks = new ArrayList<>(locationalResult);
-        sortWithMarks(textChunks);
-
-        StringBuilder sb = new StringBuilder();
-        TextChunk lastChunk = null;
-        for (TextChunk chunk : textChunks) {
-            if (lastChunk == null) {
-                sb.append(chunk.text);
-            } else {
-                if (chunk.sameLine(lastChunk)) {
-                    // we only insert a blank space if the trailing character of the previous string wasn't a space, and the leading character of the current string isn't a space
-                    if (isChunkAtWordBoundary(chunk, lastChunk) && !startsWithSpace(chunk.text) && !endsWithSpace(lastChunk.text)) {
-                        sb.append(' ');
-                    }
-
-                    sb.append(chunk.text);
-                } else {
-                    sb.append('\n');
-                    sb.append(chunk.text);
-                }
-            }
-            lastChunk = chunk;
-        }
+        return getText(getLineIndex().getOrderedChunks());
+    }
 
-        return sb.toString();
+    /**
+     * Returns the text found in the rectangle, i.e. the text of the chunks which baselines intersect it.
+     * The text is put together in the same way as in {@link #getResultantText()}. The text found so far is indexed
+     * by lines, so that the page doesn't have to be processed again for each region and only the lines
+     * which may cross the region are looked through.
+     *
+     * @param rectangle the rectangle in the page space to get the text from
+     * @return the text found in the rectangle
+     */
+    public String getTextInRectangle(Rectangle rectangle) {
+        List<TextChunk> chunksInRectangle = getLineIndex().getChunksInRectangle(rectangle);
+        return getText(new TextChunkLineIndex(chunksInRectangle, !rightToLeftRunDirection).getOrderedChunks());
     }
 
     /**
@@ -259,94 +254,51 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
         }
     }
 
-    private CanvasTag findLastTagWithActualText(List<CanvasTag> canvasTagHierarchy) {
-        CanvasTag lastActualText = null;
-        for (CanvasTag tag : canvasTagHierarchy) {
-            if (tag.getActualText() != null) {
-                lastActualText = tag;
-                break;
-            }
+    private TextChunkLineIndex getLineIndex() {
+        if (lineIndex == null) {
+            lineIndex = new TextChunkLineIndex(locationalResult, !rightToLeftRunDirection);
         }
-        return lastActualText;
+        return lineIndex;
     }
 
-    private void sortWithMarks(List<TextChunk> textChunks) {
-        Map<TextChunk, TextChunkMarks> marks = new HashMap<>();
-        List<TextChunk> toSort = new ArrayList<>();
-
-        for (int markInd = 0; markInd < textChunks.size(); markInd++) {
-            ITextChunkLocation location = textChunks.get(markInd).getLocation();
-            if (location.getStartLocation().equals(location.getEndLocation())) {
-                boolean foundBaseToAttachTo = false;
-                for (int baseInd = 0; baseInd < textChunks.size(); baseInd++) {
-                    if (markInd != baseInd) {
-                        ITextChunkLocation baseLocation = textChunks.get(baseInd).getLocation();
-                        if (!baseLocation.getStartLocation().equals(baseLocation.getEndLocation()) && TextChunkLocationDefaultImp.containsMark(baseLocation, location)) {
-                            TextChunkMarks currentMarks = marks.get(textChunks.get(baseInd));
-                            if (currentMarks == null) {
-                                currentMarks = new TextChunkMarks();
-                                marks.put(textChunks.get(baseInd), currentMarks);
-                            }
-
-                            if (markInd < baseInd) {
-                                currentMarks.preceding.add(textChunks.get(markInd));
-                            } else {
-                                currentMarks.succeeding.add(textChunks.get(markInd));
-                            }
-
-                            foundBaseToAttachTo = true;
-                            break;
-                        }
+    private String getText(List<TextChunk> textChunks) {
+        StringBuilder sb = new StringBuilder();
+        TextChunk lastChunk = null;
+        for (TextChunk chunk : textChunks) {
+            if (lastChunk == null) {
+                sb.append(chunk.text);
+            } else {
+                if (chunk.sameLine(lastChunk)) {
+                    // we only insert a blank space if the trailing character of the previous string wasn't a space, and the leading character of the current string isn't a space
+                    if (isChunkAtWordBoundary(chunk, lastChunk) && !startsWithSpace(chunk.text) && !endsWithSpace(lastChunk.text)) {
+                        sb.append(' ');
                     }
-                }
 
-                if (!foundBaseToAttachTo) {
-                    toSort.add(textChunks.get(markInd));
+                    sb.append(chunk.text);
+                } else {
+                    sb.append('\n');
+                    sb.append(chunk.text);
                 }
-            } else {
-                toSort.add(textChunks.get(markInd));
             }
+            lastChunk = chunk;
         }
 
-        Collections.sort(toSort, new TextChunkLocationBasedComparator(new DefaultTextChunkLocationComparator(!rightToLeftRunDirection)));
-
-        textChunks.clear();
+        return sb.toString();
+    }
 
-        for (TextChunk current : toSort) {
-            TextChunkMarks currentMarks = marks.get(current);
-            if (currentMarks != null) {
-                if (!rightToLeftRunDirection) {
-                    for (int j = 0; j < currentMarks.preceding.size(); j++) {
-                        textChunks.add(currentMarks.preceding.get(j));
-                    }
-                } else {
-                    for (int j = currentMarks.succeeding.size() - 1; j >= 0; j--) {
-                        textChunks.add(currentMarks.succeeding.get(j));
-                    }
-                }
-            }
-            textChunks.add(current);
-            if (currentMarks != null) {
-                if (!rightToLeftRunDirection) {
-                    for (int j = 0; j < currentMarks.succeeding.size(); j++) {
-                        textChunks.add(currentMarks.succeeding.get(j));
-                    }
-                } else {
-                    for (int j = currentMarks.preceding.size() - 1; j >= 0; j--) {
-                        textChunks.add(currentMarks.preceding.get(j));
-                    }
-                }
+    private CanvasTag findLastTagWithActualText(List<CanvasTag> canvasTagHierarchy) {
+        CanvasTag lastActualText = null;
+        for (CanvasTag tag : canvasTagHierarchy) {
+            if (tag.getActualText() != null) {
+                lastActualText = tag;
+                break;
             }
         }
+        return lastActualText;
     }
 
     public interface ITextChunkLocationStrategy {
         ITextChunkLocation createLocation(TextRenderInfo renderInfo, LineSegment baseline);
     }
 
-    private static class TextChunkMarks {
-        List<TextChunk> preceding = new ArrayList<>();
-        List<TextChunk> succeeding = new ArrayList<>();
-    }
-
 }
@@ -0,0 +1,169 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class is designed to search for the occurrences of several literal strings and regular expressions at once
+ * and return the resultant rectangles, see {@link TextSearchPatterns}.
+ * <p>
+ * The characters of the page are sorted and converted to text once, all the patterns are searched for in that text
+ * and the matches are mapped to the rectangles of the same characters. The locations are the same as the ones
+ * returned by a {@link RegexBasedLocationExtractionStrategy} for each of the patterns, merged together. Duplicates
+ * are removed for each pattern separately, so different patterns matching the same characters produce a location
+ * each.
+ */
+public class MultiPatternLocationExtractionStrategy implements ILocationExtractionStrategy {
+
+    private final TextSearchPatterns patterns;
+    private final int pageNumber;
+    private List<CharacterRenderInfo> parseResult = new ArrayList<>();
+    private CharacterRenderInfo.StringConversionInfo sortedText;
+
+    /**
+     * Creates the strategy searching for the patterns.
+     *
+     * @param patterns   the literals and regular expressions to search for
+     * @param pageNumber the number of the page the locations belong to
+     */
+    public MultiPatternLocationExtractionStrategy(TextSearchPatterns patterns, int pageNumber) {
+        this.patterns = patterns;
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * Creates the strategy searching for the patterns. The page number of the locations is 0.
+     *
+     * @param patterns the literals and regular expressions to search for
+     */
+    public MultiPatternLocationExtractionStrategy(TextSearchPatterns patterns) {
+        this(patterns, 0);
+    }
+
+    @Override
+    public Collection<IPdfTextLocation> getResultantLocations() {
+        if (sortedText == null) {
+            // align characters in "logical" order
+            Collections.sort(parseResult, new TextChunkLocationBasedComparator(new DefaultTextChunkLocationComparator()));
+            sortedText = CharacterRenderInfo.mapString(parseResult);
+        }
+
+        // duplicates are removed per pattern, the same way as a separate strategy for each of them does,
+        // so that the different patterns matching the same characters all produce their locations
+        int patternCount = patterns.getLiterals().size() + patterns.getPatterns().size();
+        List<List<IPdfTextLocation>> patternLocations = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            patternLocations.add(new ArrayList<IPdfTextLocation>());
+        }
+        String text = sortedText.text;
+        for (int[] match : patterns.findAll(text)) {
+            Integer startIndex = RegexBasedLocationExtractionStrategy.getStartIndex(sortedText.indexMap, match[0], text);
+            Integer endIndex = RegexBasedLocationExtractionStrategy.getEndIndex(sortedText.indexMap, match[1] - 1);
+            if (startIndex != null && endIndex != null && startIndex <= endIndex) {
+                String matchText = text.substring(match[0], match[1]);
+                for (Rectangle r : toRectangles(parseResult.subList(startIndex, endIndex + 1))) {
+                    patternLocations.get(match[2]).add(new DefaultPdfTextLocation(pageNumber, r, matchText));
+                }
+            }
+        }
+
+        List<IPdfTextLocation> retval = new ArrayList<>();
+        for (List<IPdfTextLocation> locations : patternLocations) {
+            RegexBasedLocationExtractionStrategy.sortAndRemoveDuplicates(locations);
+            retval.addAll(locations);
+        }
+        RegexBasedLocationExtractionStrategy.sortLocations(retval);
+        return retval;
+    }
+
+    @Override
+    public void eventOccurred(IEventData data, EventType type) {
+        if (data instanceof TextRenderInfo) {
+            parseResult.addAll(toCRI((TextRenderInfo) data));
+            sortedText = null;
+        }
+    }
+
+    @Override
+    public Set<EventType> getSupportedEvents() {
+        return null;
+    }
+
+    /**
+     * Convert {@link TextRenderInfo} to {@link CharacterRenderInfo}.
+     * This method is not final so that custom implementations can choose to override it,
+     * see {@link RegexBasedLocationExtractionStrategy#toCRI(TextRenderInfo)}.
+     *
+     * @param tri the text render info to convert
+     * @return the list of {@link CharacterRenderInfo} objects, one for each character
+     */
+    protected List<CharacterRenderInfo> toCRI(TextRenderInfo tri) {
+        List<CharacterRenderInfo> cris = new ArrayList<>();
+        for (TextRenderInfo subTri : tri.getCharacterRenderInfos()) {
+            cris.add(new CharacterRenderInfo(subTri));
+        }
+        return cris;
+    }
+
+    /**
+     * Converts {@link CharacterRenderInfo} objects to {@link Rectangle}s, one for each line.
+     * This method is not final so that custom implementations can choose to override it,
+     * see {@link RegexBasedLocationExtractionStrategy#toRectangles(List)}.
+     *
+     * @param cris the characters of a match
+     * @return the rectangles of the match
+     */
+    protected List<Rectangle> toRectangles(List<CharacterRenderInfo> cris) {
+        return RegexBasedLocationExtractionStrategy.toLineRectangles(cris);
+    }
+}
@@ -95,12 +95,32 @@ public class RegexBasedLocationExtractionStrategy implements ILocationExtraction
             }
         }
 
+        sortAndRemoveDuplicates(retval);
+
+        return retval;
+    }
+
+    /**
+     * Sorts the locations by their rectangles and removes the ones with the same rectangle.
+     */
+    static void sortAndRemoveDuplicates(List<IPdfTextLocation> locations) {
+        sortLocations(locations);
+
+        // ligatures can produces same rectangle
+        removeDuplicates(locations);
+    }
+
+    /**
+     * Sorts the locations by their rectangles. The sorting is stable, the locations with the same rectangle
+     * keep their order.
+     */
+    static void sortLocations(List<IPdfTextLocation> locations) {
         /* sort
          * even though the return type is Collection<Rectangle>, we apply a sorting algorithm here
          * This is to ensure that tests that use this functionality (for instance to generate pdf with
          * areas of interest highlighted) will not break when compared.
          */
-        java.util.Collections.sort(retval, new Comparator<IPdfTextLocation>() {
+        java.util.Collections.sort(locations, new Comparator<IPdfTextLocation>() {
             @Override
             public int compare(IPdfTextLocation l1, IPdfTextLocation l2) {
                 Rectangle o1 = l1.getRectangle();
@@ -112,14 +132,9 @@ public class RegexBasedLocationExtractionStrategy implements ILocationExtraction
                 }
             }
         });
-
-        // ligatures can produces same rectangle
-        removeDuplicates(retval);
-
-        return retval;
     }
 
-    private void removeDuplicates(List<IPdfTextLocation> sortedList) {
+    private static void removeDuplicates(List<IPdfTextLocation> sortedList) {
         IPdfTextLocation lastItem = null;
         int orgSize = sortedList.size();
         for (int i = orgSize - 1; i >= 0; i--) {
@@ -173,6 +188,13 @@ public class RegexBasedLocationExtractionStrategy implements ILocationExtraction
      * @param cris
      */
     protected List<Rectangle> toRectangles(List<CharacterRenderInfo> cris) {
+        return toLineRectangles(cris);
+    }
+
+    /**
+     * Merges the bounding boxes of the consecutive {@link CharacterRenderInfo} objects on the same line.
+     */
+    static List<Rectangle> toLineRectangles(List<CharacterRenderInfo> cris) {
         List<Rectangle> retval = new ArrayList<>();
         if (cris.isEmpty()) {
             return retval;
@@ -196,7 +218,7 @@ public class RegexBasedLocationExtractionStrategy implements ILocationExtraction
         return retval;
     }
 
-    private static Integer getStartIndex(Map<Integer, Integer> indexMap, int index,
+    static Integer getStartIndex(Map<Integer, Integer> indexMap, int index,
             String txt) {
         while (!indexMap.containsKey(index) && index < txt.length()) {
             index++;
@@ -204,7 +226,7 @@ public class RegexBasedLocationExtractionStrategy implements ILocationExtraction
         return indexMap.get(index);
     }
 
-    private static Integer getEndIndex(Map<Integer, Integer> indexMap, int index) {
+    static Integer getEndIndex(Map<Integer, Integer> indexMap, int index) {
         while (!indexMap.containsKey(index) && index >= 0) {
             index--;
         }
@@ -0,0 +1,167 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.kernel.geom.LineSegment;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Text extraction listener which doesn't collect the text of the page, but assembles it into text runs
+ * and passes each run to the {@link ITextRunSink} as soon as it is finished.
+ * <p>
+ * Unlike {@link LocationTextExtractionStrategy} the text is not reordered: a run is made of the text which is
+ * shown on the same line one piece after another, and the spaces between the pieces are inserted in the same way.
+ * Only the current run is kept by the listener and no render info is retained, so the memory used doesn't depend
+ * on the amount of text on the page.
+ * <p>
+ * The same listener may be used for many pages, see {@link #startPage(int)}.
+ */
+public class StreamingTextExtractionListener implements IEventListener {
+
+    private final ITextRunSink sink;
+
+    private int pageNumber;
+
+    private final StringBuilder runText = new StringBuilder();
+
+    private ITextChunkLocation lastLocation;
+
+    private boolean lastEndsWithSpace;
+
+    private float left;
+    private float bottom;
+    private float right;
+    private float top;
+
+    /**
+     * Creates a new listener.
+     *
+     * @param sink the sink to pass the text runs to
+     */
+    public StreamingTextExtractionListener(ITextRunSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Finishes the current text run and starts collecting the text of the page.
+     *
+     * @param pageNumber the number of the page which is going to be processed
+     */
+    public void startPage(int pageNumber) {
+        flush();
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * Passes the current text run to the sink, if there is one. Should be called when the page is processed.
+     */
+    public void flush() {
+        if (lastLocation != null) {
+            sink.textRunAssembled(pageNumber, runText.toString(), new Rectangle(left, bottom, right - left, top - bottom));
+            runText.setLength(0);
+            lastLocation = null;
+        }
+    }
+
+    @Override
+    public void eventOccurred(IEventData data, EventType type) {
+        if (!type.equals(EventType.RENDER_TEXT)) {
+            return;
+        }
+        TextRenderInfo renderInfo = (TextRenderInfo) data;
+        LineSegment segment = renderInfo.getBaseline();
+        if (renderInfo.getRise() != 0) {
+            // remove the rise from the baseline, so that super/subscript text is considered to be on the same line, same as in LocationTextExtractionStrategy
+            Matrix riseOffsetTransform = new Matrix(0, -renderInfo.getRise());
+            segment = segment.transformBy(riseOffsetTransform);
+        }
+        ITextChunkLocation location = new TextChunkLocationDefaultImp(segment.getStartPoint(), segment.getEndPoint(),
+                renderInfo.getSingleSpaceWidth());
+        String text = renderInfo.getText();
+
+        if (lastLocation != null && location.sameLine(lastLocation)) {
+            if (location.isAtWordBoundary(lastLocation) && !lastEndsWithSpace && !(text.length() != 0 && text.charAt(0) == ' ')) {
+                runText.append(' ');
+            }
+        } else {
+            flush();
+            left = Float.MAX_VALUE;
+            bottom = Float.MAX_VALUE;
+            right = -Float.MAX_VALUE;
+            top = -Float.MAX_VALUE;
+        }
+        runText.append(text);
+        extendBoundingBox(renderInfo.getAscentLine());
+        extendBoundingBox(renderInfo.getDescentLine());
+        lastLocation = location;
+        lastEndsWithSpace = text.length() != 0 && text.charAt(text.length() - 1) == ' ';
+    }
+
+    @Override
+    public Set<EventType> getSupportedEvents() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Collections.singletonList(EventType.RENDER_TEXT)));
+    }
+
+    private void extendBoundingBox(LineSegment line) {
+        extendBoundingBox(line.getStartPoint());
+        extendBoundingBox(line.getEndPoint());
+    }
+
+    private void extendBoundingBox(Vector point) {
+        float x = point.get(Vector.I1);
+        float y = point.get(Vector.I2);
+        left = Math.min(left, x);
+        bottom = Math.min(bottom, y);
+        right = Math.max(right, x);
+        top = Math.max(top, y);
+    }
+}
@@ -0,0 +1,386 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of text chunks by the lines they belong to, i.e. by their orientation and perpendicular distance.
+ * <p>
+ * Ordering the chunks in the reading order only requires ordering the lines and the chunks inside of each line,
+ * instead of sorting all chunks of the page together. The order is the same as the one defined by
+ * {@link DefaultTextChunkLocationComparator}, zero length chunks (i.e. marks) are kept next to the chunks they
+ * belong to. Region queries only visit the lines which may cross the region.
+ */
+final class TextChunkLineIndex {
+
+    private static final int DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION = 2;
+
+    /**
+     * Orientation magnitude is an angle in radians multiplied by 1000 and truncated.
+     */
+    private static final double ORIENTATION_MAGNITUDE_PRECISION = 0.001;
+
+    private static final Comparator<Line> LINE_COMPARATOR = new Comparator<Line>() {
+        @Override
+        public int compare(Line first, Line second) {
+            int result = Integer.compare(first.orientation, second.orientation);
+            return result != 0 ? result : Integer.compare(first.distPerpendicular, second.distPerpendicular);
+        }
+    };
+
+    private final TextChunk[] chunks;
+    private final boolean leftToRight;
+    private final Line[] lines;
+    private final Map<Integer, TextChunkMarks> marks = new HashMap<>();
+
+    /**
+     * Creates the index.
+     *
+     * @param chunks      the chunks in the order they appeared in the content
+     * @param leftToRight true if the text flows from left to right, false otherwise
+     */
+    TextChunkLineIndex(List<TextChunk> chunks, boolean leftToRight) {
+        this.chunks = chunks.toArray(new TextChunk[chunks.size()]);
+        this.leftToRight = leftToRight;
+        boolean[] attached = attachMarks();
+
+        Map<Long, Line> linesByKey = new HashMap<>();
+        List<Line> lineList = new ArrayList<>();
+        Line lastLine = null;
+        for (int i = 0; i < this.chunks.length; i++) {
+            if (attached != null && attached[i]) {
+                continue;
+            }
+            ITextChunkLocation location = this.chunks[i].getLocation();
+            int orientation = location.orientationMagnitude();
+            int distPerpendicular = location.distPerpendicular();
+            // subsequent chunks usually belong to the same line, so the lookup is avoided for them
+            if (lastLine == null || lastLine.orientation != orientation || lastLine.distPerpendicular != distPerpendicular) {
+                Long key = ((long) orientation << 32) | (distPerpendicular & 0xffffffffL);
+                lastLine = linesByKey.get(key);
+                if (lastLine == null) {
+                    lastLine = new Line(orientation, distPerpendicular);
+                    linesByKey.put(key, lastLine);
+                    lineList.add(lastLine);
+                }
+            }
+            lastLine.add(i);
+        }
+
+        lines = lineList.toArray(new Line[lineList.size()]);
+        Arrays.sort(lines, LINE_COMPARATOR);
+        for (Line line : lines) {
+            sortLine(line);
+        }
+    }
+
+    /**
+     * Gets all the chunks in the reading order.
+     *
+     * @return the ordered chunks
+     */
+    List<TextChunk> getOrderedChunks() {
+        List<TextChunk> result = new ArrayList<>(chunks.length);
+        for (Line line : lines) {
+            for (int i = 0; i < line.size; i++) {
+                int chunkIndex = line.chunkIndices[i];
+                TextChunkMarks chunkMarks = marks.isEmpty() ? null : marks.get(chunkIndex);
+                if (chunkMarks != null) {
+                    addMarks(result, leftToRight ? chunkMarks.preceding : chunkMarks.succeeding, !leftToRight);
+                }
+                result.add(chunks[chunkIndex]);
+                if (chunkMarks != null) {
+                    addMarks(result, leftToRight ? chunkMarks.succeeding : chunkMarks.preceding, !leftToRight);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the chunks which baselines intersect the rectangle.
+     *
+     * @param rectangle the rectangle to look for the chunks in
+     * @return the chunks in the order they appeared in the content
+     */
+    List<TextChunk> getChunksInRectangle(Rectangle rectangle) {
+        List<Integer> found = new ArrayList<>();
+        float[] cornersX = {rectangle.getLeft(), rectangle.getRight(), rectangle.getRight(), rectangle.getLeft()};
+        float[] cornersY = {rectangle.getBottom(), rectangle.getBottom(), rectangle.getTop(), rectangle.getTop()};
+        double maxCornerDistance = 0;
+        for (int i = 0; i < 4; i++) {
+            maxCornerDistance = Math.max(maxCornerDistance, Math.hypot(cornersX[i], cornersY[i]));
+        }
+        // covers both the imprecision of the orientation magnitude and the rounding of the perpendicular distance
+        double margin = 1 + DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION + maxCornerDistance * ORIENTATION_MAGNITUDE_PRECISION;
+
+        int groupStart = 0;
+        while (groupStart < lines.length) {
+            int orientation = lines[groupStart].orientation;
+            int groupEnd = groupStart;
+            while (groupEnd < lines.length && lines[groupEnd].orientation == orientation) {
+                groupEnd++;
+            }
+
+            // same as the perpendicular distance of TextChunkLocationDefaultImp, see the cross product there
+            double angle = orientation * ORIENTATION_MAGNITUDE_PRECISION;
+            double sin = Math.sin(angle);
+            double cos = Math.cos(angle);
+            double minDist = Double.MAX_VALUE;
+            double maxDist = -Double.MAX_VALUE;
+            for (int i = 0; i < 4; i++) {
+                double dist = cornersX[i] * sin - cornersY[i] * cos;
+                minDist = Math.min(minDist, dist);
+                maxDist = Math.max(maxDist, dist);
+            }
+
+            for (int i = findFirstLine(groupStart, groupEnd, minDist - margin); i < groupEnd
+                    && lines[i].distPerpendicular <= maxDist + margin; i++) {
+                Line line = lines[i];
+                for (int j = 0; j < line.size; j++) {
+                    int chunkIndex = line.chunkIndices[j];
+                    addIfIntersects(found, chunkIndex, rectangle);
+                    TextChunkMarks chunkMarks = marks.isEmpty() ? null : marks.get(chunkIndex);
+                    if (chunkMarks != null) {
+                        for (Integer markIndex : chunkMarks.preceding) {
+                            addIfIntersects(found, (int) markIndex, rectangle);
+                        }
+                        for (Integer markIndex : chunkMarks.succeeding) {
+                            addIfIntersects(found, (int) markIndex, rectangle);
+                        }
+                    }
+                }
+            }
+            groupStart = groupEnd;
+        }
+
+        Collections.sort(found);
+        List<TextChunk> result = new ArrayList<>(found.size());
+        for (Integer chunkIndex : found) {
+            result.add(chunks[(int) chunkIndex]);
+        }
+        return result;
+    }
+
+    /**
+     * Attaches each mark to the first chunk in the content which contains it.
+     *
+     * @return the flags of the attached marks, or null if there are no marks
+     */
+    private boolean[] attachMarks() {
+        Map<Integer, List<Integer>> candidatesByDistance = null;
+        boolean[] attached = null;
+        for (int markIndex = 0; markIndex < chunks.length; markIndex++) {
+            ITextChunkLocation location = chunks[markIndex].getLocation();
+            if (!isMark(location)) {
+                continue;
+            }
+            if (candidatesByDistance == null) {
+                candidatesByDistance = groupChunksByDistance();
+                attached = new boolean[chunks.length];
+            }
+            int baseIndex = -1;
+            for (int distance = location.distPerpendicular() - DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION;
+                    distance <= location.distPerpendicular() + DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION; distance++) {
+                List<Integer> candidates = candidatesByDistance.get(distance);
+                if (candidates == null) {
+                    continue;
+                }
+                for (Integer candidate : candidates) {
+                    if (baseIndex != -1 && candidate > baseIndex) {
+                        break;
+                    }
+                    if (TextChunkLocationDefaultImp.containsMark(chunks[(int) candidate].getLocation(), location)) {
+                        baseIndex = (int) candidate;
+                        break;
+                    }
+                }
+            }
+            if (baseIndex != -1) {
+                TextChunkMarks baseMarks = marks.get(baseIndex);
+                if (baseMarks == null) {
+                    baseMarks = new TextChunkMarks();
+                    marks.put(baseIndex, baseMarks);
+                }
+                if (markIndex < baseIndex) {
+                    baseMarks.preceding.add(markIndex);
+                } else {
+                    baseMarks.succeeding.add(markIndex);
+                }
+                attached[markIndex] = true;
+            }
+        }
+        return attached;
+    }
+
+    private Map<Integer, List<Integer>> groupChunksByDistance() {
+        Map<Integer, List<Integer>> chunksByDistance = new HashMap<>();
+        for (int i = 0; i < chunks.length; i++) {
+            ITextChunkLocation location = chunks[i].getLocation();
+            if (isMark(location)) {
+                continue;
+            }
+            List<Integer> group = chunksByDistance.get(location.distPerpendicular());
+            if (group == null) {
+                group = new ArrayList<>();
+                chunksByDistance.put(location.distPerpendicular(), group);
+            }
+            group.add(i);
+        }
+        return chunksByDistance;
+    }
+
+    private int findFirstLine(int from, int to, double minDistPerpendicular) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lines[mid].distPerpendicular < minDistPerpendicular) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void addIfIntersects(List<Integer> found, int chunkIndex, Rectangle rectangle) {
+        ITextChunkLocation location = chunks[chunkIndex].getLocation();
+        Vector start = location.getStartLocation();
+        Vector end = location.getEndLocation();
+        if (rectangle.intersectsLine(start.get(Vector.I1), start.get(Vector.I2), end.get(Vector.I1), end.get(Vector.I2))) {
+            found.add(chunkIndex);
+        }
+    }
+
+    private void addMarks(List<TextChunk> result, List<Integer> markIndices, boolean reversed) {
+        if (reversed) {
+            for (int i = markIndices.size() - 1; i >= 0; i--) {
+                result.add(chunks[(int) markIndices.get(i)]);
+            }
+        } else {
+            for (Integer markIndex : markIndices) {
+                result.add(chunks[(int) markIndex]);
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort of the chunks of the line by their parallel distance. Chunks are usually
+     * shown in the reading order, in which case the sort is linear.
+     */
+    private void sortLine(Line line) {
+        if (line.size < 2) {
+            return;
+        }
+        int[] buffer = new int[line.size];
+        mergeSort(line.chunkIndices, buffer, 0, line.size);
+    }
+
+    private void mergeSort(int[] indices, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(indices, buffer, from, mid);
+        mergeSort(indices, buffer, mid, to);
+        if (compareParallel(indices[mid - 1], indices[mid]) <= 0) {
+            return;
+        }
+        System.arraycopy(indices, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < mid && compareParallel(buffer[left], buffer[right]) <= 0) {
+                indices[i] = buffer[left++];
+            } else {
+                indices[i] = buffer[right++];
+            }
+        }
+    }
+
+    private int compareParallel(int first, int second) {
+        ITextChunkLocation firstLocation = chunks[first].getLocation();
+        ITextChunkLocation secondLocation = chunks[second].getLocation();
+        return leftToRight ? Float.compare(firstLocation.distParallelStart(), secondLocation.distParallelStart()) :
+                -Float.compare(firstLocation.distParallelEnd(), secondLocation.distParallelEnd());
+    }
+
+    private static boolean isMark(ITextChunkLocation location) {
+        return location.getStartLocation().equals(location.getEndLocation());
+    }
+
+    private static class Line {
+        final int orientation;
+        final int distPerpendicular;
+        int[] chunkIndices = new int[8];
+        int size;
+
+        Line(int orientation, int distPerpendicular) {
+            this.orientation = orientation;
+            this.distPerpendicular = distPerpendicular;
+        }
+
+        void add(int chunkIndex) {
+            if (size == chunkIndices.length) {
+                chunkIndices = Arrays.copyOf(chunkIndices, size * 2);
+            }
+            chunkIndices[size++] = chunkIndex;
+        }
+    }
+
+    private static class TextChunkMarks {
+        final List<Integer> preceding = new ArrayList<>();
+        final List<Integer> succeeding = new ArrayList<>();
+    }
+}
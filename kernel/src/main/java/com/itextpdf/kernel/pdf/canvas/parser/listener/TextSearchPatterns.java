@@ -0,0 +1,135 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A set of literal strings and regular expressions to search for in the text of a page,
+ * see {@link MultiPatternLocationExtractionStrategy}.
+ * <p>
+ * All the literals are found in a single pass over the text with an Aho-Corasick automaton,
+ * each regular expression is matched separately. Occurrences of the same literal or regular expression
+ * don't overlap, while occurrences of different ones may.
+ * <p>
+ * The instance is immutable, so that it can be shared between the strategies processing different pages
+ * concurrently.
+ */
+public final class TextSearchPatterns {
+
+    private final List<String> literals;
+    private final List<Pattern> patterns;
+    private final AhoCorasickAutomaton automaton;
+
+    /**
+     * Creates the set of literal strings and regular expressions to search for.
+     *
+     * @param literals the literal strings to search for, empty strings are ignored
+     * @param patterns the regular expressions to search for
+     */
+    public TextSearchPatterns(Collection<String> literals, Collection<Pattern> patterns) {
+        LinkedHashSet<String> uniqueLiterals = new LinkedHashSet<>();
+        for (String literal : literals) {
+            if (!literal.isEmpty()) {
+                uniqueLiterals.add(literal);
+            }
+        }
+        this.literals = Collections.unmodifiableList(new ArrayList<>(uniqueLiterals));
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+        this.automaton = this.literals.isEmpty() ? null : new AhoCorasickAutomaton(this.literals);
+    }
+
+    /**
+     * Creates the set of literal strings to search for.
+     *
+     * @param literals the literal strings to search for, empty strings are ignored
+     */
+    public TextSearchPatterns(Collection<String> literals) {
+        this(literals, Collections.<Pattern>emptyList());
+    }
+
+    /**
+     * Gets the literal strings to search for.
+     *
+     * @return the unmodifiable list of the literals
+     */
+    public List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * Gets the regular expressions to search for.
+     *
+     * @return the unmodifiable list of the regular expressions
+     */
+    public List<Pattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Finds the occurrences of all the literals and regular expressions in the text.
+     *
+     * @param text the text to search in
+     * @return the list of the matches, each of them is an array of the start index (inclusive), the end index (exclusive)
+     * and the index of the literal or regular expression, the latter ones are numbered after the literals
+     */
+    List<int[]> findAll(String text) {
+        List<int[]> matches = new ArrayList<>();
+        if (automaton != null) {
+            automaton.findAll(text, matches);
+        }
+        for (int i = 0; i < patterns.size(); i++) {
+            Matcher matcher = patterns.get(i).matcher(text);
+            while (matcher.find()) {
+                matches.add(new int[] {matcher.start(), matcher.end(), literals.size() + i});
+            }
+        }
+        return matches;
+    }
+}
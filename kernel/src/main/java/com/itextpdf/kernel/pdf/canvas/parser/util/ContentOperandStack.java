@@ -0,0 +1,357 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.util;
+
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reusable holder of the operands and the operator of a single content stream command.
+ * <br>
+ * Numeric operands are kept as primitive values together with their original bytes, so that
+ * no {@link PdfNumber} has to be created unless an operand is requested as a {@link PdfObject}.
+ * All other operands are kept as {@link PdfObject} instances.
+ * <br>
+ * The stack is filled by {@link PdfCanvasParser#parseCommand(ContentOperandStack)} and its content
+ * is valid only until the next command is parsed.
+ */
+public class ContentOperandStack {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private int size;
+
+    private double[] numbers = new double[INITIAL_CAPACITY];
+    private PdfObject[] objects = new PdfObject[INITIAL_CAPACITY];
+    private int[] numberOffsets = new int[INITIAL_CAPACITY];
+    private int[] numberLengths = new int[INITIAL_CAPACITY];
+
+    private byte[] numberBytes = new byte[64];
+    private int numberBytesSize;
+
+    private byte[] operatorBytes = new byte[4];
+    private int operatorLength;
+    private PdfLiteral operator;
+
+    /**
+     * Creates an empty stack.
+     */
+    public ContentOperandStack() {
+    }
+
+    /**
+     * Gets the number of operands, the operator is not counted.
+     *
+     * @return the number of operands
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the operand at the given index is a number.
+     *
+     * @param index the index of the operand
+     * @return true if the operand is a number, false otherwise
+     */
+    public boolean isNumber(int index) {
+        checkIndex(index);
+        return numberOffsets[index] >= 0 || objects[index] instanceof PdfNumber;
+    }
+
+    /**
+     * Gets the numeric operand at the given index as a double.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand is not a number
+     */
+    public double getDouble(int index) {
+        checkIndex(index);
+        if (numberOffsets[index] >= 0) {
+            return numbers[index];
+        }
+        return ((PdfNumber) objects[index]).doubleValue();
+    }
+
+    /**
+     * Gets the numeric operand at the given index as a float.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand is not a number
+     */
+    public float getFloat(int index) {
+        return (float) getDouble(index);
+    }
+
+    /**
+     * Gets the numeric operand at the given index as an int.
+     *
+     * @param index the index of the operand
+     * @return the value of the operand
+     * @throws ClassCastException if the operand is not a number
+     */
+    public int getInt(int index) {
+        return (int) getDouble(index);
+    }
+
+    /**
+     * Gets the operand at the given index as a {@link PdfObject}.
+     * A {@link PdfNumber} is created on the first request for a numeric operand.
+     *
+     * @param index the index of the operand
+     * @return the operand
+     */
+    public PdfObject get(int index) {
+        checkIndex(index);
+        PdfObject obj = objects[index];
+        if (obj == null) {
+            byte[] content = new byte[numberLengths[index]];
+            System.arraycopy(numberBytes, numberOffsets[index], content, 0, content.length);
+            obj = new PdfNumber(content);
+            objects[index] = obj;
+        }
+        return obj;
+    }
+
+    /**
+     * Gets the operator of the command.
+     *
+     * @return the operator as {@link PdfLiteral}
+     */
+    public PdfLiteral getOperator() {
+        if (operator == null) {
+            byte[] content = new byte[operatorLength];
+            System.arraycopy(operatorBytes, 0, content, 0, operatorLength);
+            operator = new PdfLiteral(content);
+        }
+        return operator;
+    }
+
+    /**
+     * Gets the internal buffer holding the bytes of the operator. Only the first
+     * {@link #getOperatorLength()} bytes are valid. The buffer shall not be modified.
+     *
+     * @return the internal buffer of the operator
+     */
+    public byte[] getOperatorBuffer() {
+        return operatorBytes;
+    }
+
+    /**
+     * Gets the length of the operator in the buffer returned by {@link #getOperatorBuffer()}.
+     *
+     * @return the length of the operator
+     */
+    public int getOperatorLength() {
+        return operatorLength;
+    }
+
+    /**
+     * Checks whether the stack holds a command, i.e. whether the operator is set.
+     *
+     * @return true if the operator is set, false otherwise
+     */
+    public boolean hasOperator() {
+        return operatorLength > 0;
+    }
+
+    /**
+     * Pushes a numeric operand.
+     *
+     * @param content the buffer with the bytes of the number
+     * @param offset  the offset of the number in the buffer
+     * @param length  the length of the number
+     */
+    public void pushNumber(byte[] content, int offset, int length) {
+        ensureCapacity();
+        if (numberBytesSize + length > numberBytes.length) {
+            byte[] newBytes = new byte[Math.max(numberBytes.length << 1, numberBytesSize + length)];
+            System.arraycopy(numberBytes, 0, newBytes, 0, numberBytesSize);
+            numberBytes = newBytes;
+        }
+        System.arraycopy(content, offset, numberBytes, numberBytesSize, length);
+        double value;
+        try {
+            value = ByteUtils.parseDouble(content, offset, length);
+        } catch (NumberFormatException e) {
+            value = Double.NaN;
+        }
+        numbers[size] = value;
+        numberOffsets[size] = numberBytesSize;
+        numberLengths[size] = length;
+        objects[size] = null;
+        numberBytesSize += length;
+        size++;
+    }
+
+    /**
+     * Pushes an operand.
+     *
+     * @param operand the operand
+     */
+    public void push(PdfObject operand) {
+        ensureCapacity();
+        objects[size] = operand;
+        numberOffsets[size] = -1;
+        size++;
+    }
+
+    /**
+     * Sets the operator of the command.
+     *
+     * @param content the buffer with the bytes of the operator
+     * @param length  the length of the operator
+     */
+    public void setOperator(byte[] content, int length) {
+        if (length > operatorBytes.length) {
+            operatorBytes = new byte[length];
+        }
+        System.arraycopy(content, 0, operatorBytes, 0, length);
+        operatorLength = length;
+        operator = null;
+    }
+
+    /**
+     * Sets the operator of the command.
+     *
+     * @param operator the operator
+     */
+    public void setOperator(PdfLiteral operator) {
+        byte[] content = ByteUtils.getIsoBytes(operator.toString());
+        setOperator(content, content.length);
+        this.operator = operator;
+    }
+
+    /**
+     * Removes all the operands and the operator.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            objects[i] = null;
+        }
+        size = 0;
+        numberBytesSize = 0;
+        operatorLength = 0;
+        operator = null;
+    }
+
+    /**
+     * Fills the stack from the list of operands. The list may end with the operator, which is the form
+     * used by {@link PdfCanvasParser#parse(List)}.
+     *
+     * @param operator the operator, may be null if the list ends with the operator
+     * @param operands the list of operands, may be null
+     * @return this {@link ContentOperandStack} instance
+     */
+    public ContentOperandStack load(PdfLiteral operator, List<PdfObject> operands) {
+        clear();
+        int count = operands == null ? 0 : operands.size();
+        if (count > 0 && operands.get(count - 1) instanceof PdfLiteral) {
+            count--;
+            if (operator == null) {
+                operator = (PdfLiteral) operands.get(count);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            push(operands.get(i));
+        }
+        if (operator != null) {
+            setOperator(operator);
+        }
+        return this;
+    }
+
+    /**
+     * Copies the operands followed by the operator to the list, which is the form
+     * used by {@link PdfCanvasParser#parse(List)}.
+     *
+     * @param list a list to use. It will be cleared before using. If it's <CODE>null</CODE>
+     *             a new list is created
+     * @return the same list given as argument or a new one
+     */
+    public List<PdfObject> toList(List<PdfObject> list) {
+        if (list == null) {
+            list = new ArrayList<>(size + 1);
+        } else {
+            list.clear();
+        }
+        for (int i = 0; i < size; i++) {
+            list.add(get(i));
+        }
+        if (hasOperator()) {
+            list.add(getOperator());
+        }
+        return list;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+    }
+
+    private void ensureCapacity() {
+        if (size == objects.length) {
+            int capacity = size << 1;
+            double[] newNumbers = new double[capacity];
+            System.arraycopy(numbers, 0, newNumbers, 0, size);
+            numbers = newNumbers;
+            PdfObject[] newObjects = new PdfObject[capacity];
+            System.arraycopy(objects, 0, newObjects, 0, size);
+            objects = newObjects;
+            int[] newOffsets = new int[capacity];
+            System.arraycopy(numberOffsets, 0, newOffsets, 0, size);
+            numberOffsets = newOffsets;
+            int[] newLengths = new int[capacity];
+            System.arraycopy(numberLengths, 0, newLengths, 0, size);
+            numberLengths = newLengths;
+        }
+    }
+}
@@ -44,6 +44,7 @@
 package com.itextpdf.kernel.pdf.canvas.parser.util;
 
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
@@ -65,6 +66,9 @@ import java.util.List;
  */
 public class PdfCanvasParser {
 
+    private static final byte[] BI = ByteUtils.getIsoBytes("BI");
+    private static final byte[] EI = ByteUtils.getIsoBytes("EI");
+
     /**
      * Holds value of property tokeniser.
      */
@@ -127,6 +131,43 @@ public class PdfCanvasParser {
         return ls;
     }
 
+    /**
+     * Parses a single command from the content into the operand stack. Unlike {@link #parse(List)}
+     * numeric operands are not wrapped into {@link PdfNumber} objects and the operator is kept
+     * apart from the operands, so that the stack can be reused without allocations per command.
+     * <br>
+     * Inline images are handled in the same way as in {@link #parse(List)}: the stack will hold
+     * a single {@link PdfStream} operand and the EI operator.
+     * @param stack the stack to fill. It will be cleared before using
+     * @return <CODE>true</CODE> if a command was read, <CODE>false</CODE> if the end of content was reached
+     * @throws IOException on error
+     */
+    public boolean parseCommand(ContentOperandStack stack) throws IOException {
+        stack.clear();
+        while (nextValidToken()) {
+            switch (tokeniser.getTokenType()) {
+                case Number:
+                    stack.pushNumber(tokeniser.getTokenBuffer(), 0, tokeniser.getTokenLength());
+                    break;
+                case Other:
+                    if (tokeniser.tokenValueEqualsTo(BI)) {
+                        PdfStream inlineImageAsStream = InlineImageParsingUtils.parse(this, currentResources.getResource(PdfName.ColorSpace));
+                        stack.clear();
+                        stack.push(inlineImageAsStream);
+                        stack.setOperator(EI, EI.length);
+                    } else {
+                        stack.setOperator(tokeniser.getTokenBuffer(), tokeniser.getTokenLength());
+                    }
+                    return true;
+                default:
+                    stack.push(readCurrentObject());
+                    break;
+            }
+        }
+        // trailing operands without an operator are still reported, same as in parse(List)
+        return stack.size() > 0;
+    }
+
     /**
      * Gets the tokeniser.
      * @return the tokeniser.
@@ -157,7 +198,10 @@ public class PdfCanvasParser {
                 break;
             if (tokeniser.getTokenType() != PdfTokenizer.TokenType.Name)
                 tokeniser.throwError(PdfException.DictionaryKey1IsNotAName, tokeniser.getStringValue());
-            PdfName name = new PdfName(tokeniser.getStringValue());
+            PdfName name = PdfName.getStaticName(tokeniser.getTokenBuffer(), 0, tokeniser.getTokenLength());
+            if (name == null) {
+                name = new PdfName(tokeniser.getStringValue());
+            }
             PdfObject obj = readObject();
             dic.put(name, obj);
         }
@@ -190,6 +234,24 @@ public class PdfCanvasParser {
     public PdfObject readObject() throws IOException {
         if (!nextValidToken())
             return null;
+        return readCurrentObject();
+    }
+
+    /**
+     * Reads the next token skipping over the comments.
+     * @return <CODE>true</CODE> if a token was read, <CODE>false</CODE> if the end of content was reached
+     * @throws IOException on error
+     */
+    public boolean nextValidToken() throws IOException {
+        while (tokeniser.nextToken()) {
+            if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Comment)
+                continue;
+            return true;
+        }
+        return false;
+    }
+
+    private PdfObject readCurrentObject() throws IOException {
         final PdfTokenizer.TokenType type = tokeniser.getTokenType();
         switch (type) {
             case StartDic: {
@@ -202,7 +264,8 @@ public class PdfCanvasParser {
                 PdfString str = new PdfString(tokeniser.getDecodedStringContent()).setHexWriting(tokeniser.isHexString());
                 return str;
             case Name:
-                return new PdfName(tokeniser.getByteContent());
+                PdfName name = PdfName.getStaticName(tokeniser.getTokenBuffer(), 0, tokeniser.getTokenLength());
+                return name != null ? name : new PdfName(tokeniser.getByteContent());
             case Number:
                 //use PdfNumber(byte[]) here, as in this case number parsing won't happen until it's needed.
                 return new PdfNumber(tokeniser.getByteContent());
@@ -211,17 +274,4 @@ public class PdfCanvasParser {
         }
     }
 
-    /**
-     * Reads the next token skipping over the comments.
-     * @return <CODE>true</CODE> if a token was read, <CODE>false</CODE> if the end of content was reached
-     * @throws IOException on error
-     */
-    public boolean nextValidToken() throws IOException {
-        while (tokeniser.nextToken()) {
-            if (tokeniser.getTokenType() == PdfTokenizer.TokenType.Comment)
-                continue;
-            return true;
-        }
-        return false;
-    }
 }
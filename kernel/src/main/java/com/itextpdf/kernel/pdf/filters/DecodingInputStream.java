@@ -0,0 +1,164 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base class for the streams which decode the underlying stream chunk by chunk, keeping
+ * only the last decoded chunk in memory.
+ */
+abstract class DecodingInputStream extends InputStream {
+
+    protected final InputStream in;
+
+    /**
+     * The last decoded chunk. Bytes from {@link #position} to {@link #limit} are not read yet.
+     */
+    protected byte[] buffer;
+    protected int position;
+    protected int limit;
+
+    private final byte[] encoded;
+    private int encodedPosition;
+    private int encodedLimit;
+    private boolean finished;
+
+    DecodingInputStream(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+        this.encoded = new byte[bufferSize];
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureDecodedBytes()) {
+            return -1;
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureDecodedBytes()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Decodes the next chunk of data into the {@link #buffer} and updates {@link #position} and {@link #limit}.
+     *
+     * @return false if there is no more data to decode, true otherwise.
+     * @throws IOException on error.
+     */
+    protected abstract boolean decodeNextChunk() throws IOException;
+
+    /**
+     * Reads next byte of the encoded data. The underlying stream is read in chunks of the decoded buffer size.
+     *
+     * @return the next encoded byte or -1 if the end of the underlying stream is reached.
+     * @throws IOException on error.
+     */
+    protected int readEncodedByte() throws IOException {
+        while (encodedPosition >= encodedLimit) {
+            int n = in.read(encoded, 0, encoded.length);
+            if (n < 0) {
+                return -1;
+            }
+            encodedPosition = 0;
+            encodedLimit = n;
+        }
+        return encoded[encodedPosition++] & 0xff;
+    }
+
+    /**
+     * Reads encoded data until the requested number of bytes is read or the end of the underlying stream is reached.
+     *
+     * @param b   the buffer to read the data into.
+     * @param off the start offset in the buffer.
+     * @param len the number of bytes to read.
+     * @return the number of bytes actually read, which is less than requested only at the end of the stream.
+     * @throws IOException on error.
+     */
+    protected int readEncodedFully(byte[] b, int off, int len) throws IOException {
+        int total = 0;
+        while (total < len) {
+            if (encodedPosition >= encodedLimit) {
+                int n = in.read(encoded, 0, encoded.length);
+                if (n < 0) {
+                    break;
+                }
+                encodedPosition = 0;
+                encodedLimit = n;
+            }
+            int n = Math.min(len - total, encodedLimit - encodedPosition);
+            System.arraycopy(encoded, encodedPosition, b, off + total, n);
+            encodedPosition += n;
+            total += n;
+        }
+        return total;
+    }
+
+    private boolean ensureDecodedBytes() throws IOException {
+        while (position >= limit) {
+            if (finished || !decodeNextChunk()) {
+                finished = true;
+                return false;
+            }
+        }
+        return true;
+    }
+}
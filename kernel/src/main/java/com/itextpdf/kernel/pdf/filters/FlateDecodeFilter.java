@@ -54,13 +54,16 @@ import com.itextpdf.kernel.pdf.PdfObject;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
-import java.util.zip.InflaterInputStream;
+import java.io.InputStream;
 
 /**
  * Handles FlateDecode filter.
  */
-public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
+public class FlateDecodeFilter extends MemoryLimitsAwareFilter implements IStreamingFilterHandler {
+
+    private static final IFlateCodec DEFAULT_FLATE_CODEC = new ZipFlateCodec();
 
     /**
      * Creates a FlateDecodeFilter.
@@ -69,6 +72,15 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         this(false);
     }
 
+    /**
+     * Creates a FlateDecodeFilter, which decompresses the data with the given codec.
+     *
+     * @param flateCodec the codec to decompress the data with
+     */
+    public FlateDecodeFilter(IFlateCodec flateCodec) {
+        this.flateCodec = flateCodec;
+    }
+
     /**
      * Creates a FlateDecodeFilter.
      *
@@ -110,15 +122,29 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
         ByteArrayOutputStream outputStream = enableMemoryLimitsAwareHandler(streamDictionary);
-        byte[] res = flateDecode(b, true, outputStream);
+        byte[] res = flateDecode(b, true, outputStream, flateCodec);
         if (res == null && !strictDecoding) {
             outputStream.reset();
-            res = flateDecode(b, false, outputStream);
+            res = flateDecode(b, false, outputStream, flateCodec);
         }
         b = decodePredictor(res, decodeParams);
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If strict decoding is disabled, a corrupted stream is treated as if it ended right before the corruption.
+     */
+    @Override
+    public InputStream decodeStream(InputStream encoded, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        InputStream inflated = flateCodec.createInflaterStream(encoded);
+        if (!strictDecoding) {
+            inflated = new LenientInputStream(inflated);
+        }
+        return decodePredictor(inflated, decodeParams);
+    }
+
     /**
      * Defines how the corrupted streams should be treated.
      *
@@ -127,6 +153,8 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
     @Deprecated
     private boolean strictDecoding = false;
 
+    private IFlateCodec flateCodec = DEFAULT_FLATE_CODEC;
+
     /**
      * A helper to flateDecode.
      *
@@ -135,27 +163,53 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
      * @return the decoded data
      */
     public static byte[] flateDecode(byte[] in, boolean strict) {
-        return flateDecode(in, strict, new ByteArrayOutputStream());
+        return flateDecode(in, strict, DEFAULT_FLATE_CODEC);
     }
 
     /**
      * A helper to flateDecode.
      *
-     * @param in     the input data
-     * @param strict {@code true} to read a correct stream. {@code false} to try to read a corrupted stream.
-     * @param out    the out stream which will be used to write the bytes.
+     * @param in         the input data
+     * @param strict     {@code true} to read a correct stream. {@code false} to try to read a corrupted stream.
+     * @param flateCodec the codec to decompress the data with
      * @return the decoded data
      */
-    private static byte[] flateDecode(byte[] in, boolean strict, ByteArrayOutputStream out) {
+    public static byte[] flateDecode(byte[] in, boolean strict, IFlateCodec flateCodec) {
+        return flateDecode(in, strict, new ByteArrayOutputStream(), flateCodec);
+    }
+
+    /**
+     * Gets the codec the data is decompressed with.
+     *
+     * @return the codec of this filter
+     */
+    protected IFlateCodec getFlateCodec() {
+        return flateCodec;
+    }
+
+    /**
+     * A helper to flateDecode.
+     *
+     * @param in         the input data
+     * @param strict     {@code true} to read a correct stream. {@code false} to try to read a corrupted stream.
+     * @param out        the out stream which will be used to write the bytes.
+     * @param flateCodec the codec to decompress the data with
+     * @return the decoded data
+     */
+    private static byte[] flateDecode(byte[] in, boolean strict, ByteArrayOutputStream out, IFlateCodec flateCodec) {
         ByteArrayInputStream stream = new ByteArrayInputStream(in);
-        InflaterInputStream zip = new InflaterInputStream(stream);
+        InputStream zip = flateCodec.createInflaterStream(stream);
         byte[] b = new byte[strict ? 4092 : 1];
         try {
-            int n;
-            while ((n = zip.read(b)) >= 0) {
-                out.write(b, 0, n);
+            try {
+                int n;
+                while ((n = zip.read(b)) >= 0) {
+                    out.write(b, 0, n);
+                }
+            } finally {
+                // returns the decompressor to the pool also if the data are corrupted or exceed the limits
+                zip.close();
             }
-            zip.close();
             out.close();
             return out.toByteArray();
         } catch (MemoryLimitsAwareException e) {
@@ -168,6 +222,24 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
         }
     }
 
+    /**
+     * Creates a stream which reverts the predictor specified in the decode parameters row by row while being read.
+     *
+     * @param in           Input stream.
+     * @param decodeParams PdfDictionary of decodeParams.
+     * @return the passed stream if no predictor is used, otherwise the stream of the decoded data
+     */
+    public static InputStream decodePredictor(InputStream in, PdfObject decodeParams) {
+        if (decodeParams == null || decodeParams.getType() != PdfObject.DICTIONARY)
+            return in;
+        PdfDictionary dic = (PdfDictionary) decodeParams;
+        int predictor = getIntValue(dic, PdfName.Predictor, -1);
+        if (predictor < 10 && predictor != 2)
+            return in;
+        return new PredictorInputStream(in, predictor, getIntValue(dic, PdfName.Colors, 1),
+                getIntValue(dic, PdfName.BitsPerComponent, 8), getIntValue(dic, PdfName.Columns, 1));
+    }
+
     /**
      * @param in           Input byte array.
      * @param decodeParams PdfDictionary of decodeParams.
@@ -292,4 +364,49 @@ public class FlateDecodeFilter extends MemoryLimitsAwareFilter {
             curr = tmp;
         }
     }
+
+    private static int getIntValue(PdfDictionary dic, PdfName key, int defaultValue) {
+        PdfObject obj = dic.get(key);
+        return obj != null && obj.getType() == PdfObject.NUMBER ? ((PdfNumber) obj).intValue() : defaultValue;
+    }
+
+    /**
+     * Reads the inflated data until the end of the stream or the first error, after which the stream is treated
+     * as ended. The data is inflated block by block, so unlike {@link #flateDecode(byte[], boolean)}, which inflates
+     * a corrupted stream byte by byte, the bytes inflated by the call which fails are lost, i.e. at most one block
+     * of the data preceding the corruption.
+     */
+    private static class LenientInputStream extends FilterInputStream {
+
+        private final byte[] singleByte = new byte[1];
+
+        private boolean failed = false;
+
+        LenientInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(singleByte, 0, 1) == 1 ? singleByte[0] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (failed) {
+                return -1;
+            }
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failed = true;
+            } catch (RuntimeException e) {
+                failed = true;
+            }
+            return -1;
+        }
+    }
 }
@@ -49,41 +49,70 @@ import com.itextpdf.kernel.pdf.PdfObject;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.util.zip.InflaterInputStream;
+import java.io.InputStream;
 
 /**
  * Handles strict FlateDecode filter.
  */
 public class FlateDecodeStrictFilter extends FlateDecodeFilter {
 
+    /**
+     * Creates a FlateDecodeStrictFilter.
+     */
+    public FlateDecodeStrictFilter() {
+        super();
+    }
+
+    /**
+     * Creates a FlateDecodeStrictFilter, which decompresses the data with the given codec.
+     *
+     * @param flateCodec the codec to decompress the data with
+     */
+    public FlateDecodeStrictFilter(IFlateCodec flateCodec) {
+        super(flateCodec);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public byte[] decode(byte[] b, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
         ByteArrayOutputStream outputStream = enableMemoryLimitsAwareHandler(streamDictionary);
-        byte[] res = flateDecode(b, outputStream);
+        byte[] res = flateDecode(b, outputStream, getFlateCodec());
         b = decodePredictor(res, decodeParams);
         return b;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream decodeStream(InputStream encoded, PdfName filterName, PdfObject decodeParams, PdfDictionary streamDictionary) {
+        return decodePredictor(getFlateCodec().createInflaterStream(encoded), decodeParams);
+    }
+
     /**
      * A helper to flateDecode.
      *
-     * @param in     the input data
-     * @param out    the out stream which will be used to write the bytes.
+     * @param in         the input data
+     * @param out        the out stream which will be used to write the bytes.
+     * @param flateCodec the codec to decompress the data with
      * @return the decoded data
      */
-    private static byte[] flateDecode(byte[] in, ByteArrayOutputStream out) {
+    private static byte[] flateDecode(byte[] in, ByteArrayOutputStream out, IFlateCodec flateCodec) {
         ByteArrayInputStream stream = new ByteArrayInputStream(in);
-        InflaterInputStream zip = new InflaterInputStream(stream);
+        InputStream zip = flateCodec.createInflaterStream(stream);
         byte[] b = new byte[4092];
         try {
-            int n;
-            while ((n = zip.read(b)) >= 0) {
-                out.write(b, 0, n);
+            try {
+                int n;
+                while ((n = zip.read(b)) >= 0) {
+                    out.write(b, 0, n);
+                }
+            } finally {
+                // returns the decompressor to the pool also if the data are corrupted or exceed the limits
+                zip.close();
             }
-            zip.close();
             out.close();
             return out.toByteArray();
         } catch (MemoryLimitsAwareException e) {
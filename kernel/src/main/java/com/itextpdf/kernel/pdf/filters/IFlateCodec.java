@@ -0,0 +1,79 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Implementation of the Flate (zlib/deflate) compression used to compress the streams on writing
+ * and to decompress FlateDecode streams on reading.
+ * <p>
+ * Codec can be set via {@link com.itextpdf.kernel.pdf.WriterProperties#setFlateCodec(IFlateCodec)} and
+ * {@link com.itextpdf.kernel.pdf.ReaderProperties#setFlateCodec(IFlateCodec)}. The same codec instance may be
+ * used by several threads at once, e.g. if streams are compressed concurrently, so implementations shall be thread-safe.
+ * The default implementation is {@link ZipFlateCodec}.
+ */
+public interface IFlateCodec {
+
+    /**
+     * Creates a stream which compresses the written data to the zlib format.
+     * Closing the returned stream shall write the remaining compressed data and release the resources
+     * of the compressor, but it shall not close the passed {@code out} stream.
+     *
+     * @param out              the stream to write the compressed data to
+     * @param compressionLevel the compression level (0 = best speed, 9 = best compression, -1 is default)
+     * @param strategy         the compression strategy, see {@link com.itextpdf.kernel.pdf.CompressionConstants#DEFAULT_STRATEGY}
+     * @return the stream compressing the data written into it
+     */
+    OutputStream createDeflaterStream(OutputStream out, int compressionLevel, int strategy);
+
+    /**
+     * Creates a stream which decompresses the zlib data read from the passed stream.
+     * Closing the returned stream shall release the resources of the decompressor and close the passed {@code in} stream.
+     *
+     * @param in the stream of the compressed data
+     * @return the stream of the decompressed data
+     */
+    InputStream createInflaterStream(InputStream in);
+}
@@ -0,0 +1,180 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.kernel.PdfException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes LZW encoded data while it is being read, one code at a time, see {@link LZWDecoder}.
+ * The decoded strings are taken from the string table as they are, without copying.
+ */
+class LZWInputStream extends DecodingInputStream {
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final int CLEAR_TABLE = 256;
+    private static final int END_OF_DATA = 257;
+
+    private static final int[] andTable = {
+            511,
+            1023,
+            2047,
+            4095
+    };
+
+    private byte[][] stringTable;
+    private int tableIndex;
+    private int bitsToGet = 9;
+    private int nextData = 0;
+    private int nextBits = 0;
+    private int oldCode = 0;
+    private boolean endReached = false;
+
+    private int[] header;
+    private int headerPosition = 0;
+
+    LZWInputStream(InputStream in) {
+        super(in, BUFFER_SIZE);
+    }
+
+    @Override
+    protected boolean decodeNextChunk() throws IOException {
+        if (endReached) {
+            return false;
+        }
+        if (header == null) {
+            header = new int[] {readEncodedByte(), readEncodedByte()};
+            if (header[0] == 0x00 && header[1] == 0x01) {
+                throw new PdfException(PdfException.LzwFlavourNotSupported);
+            }
+            initializeStringTable();
+        }
+
+        int code = getNextCode();
+        byte[] string;
+        if (code == END_OF_DATA) {
+            endReached = true;
+            return false;
+        } else if (code == CLEAR_TABLE) {
+            initializeStringTable();
+            code = getNextCode();
+            if (code == END_OF_DATA) {
+                endReached = true;
+                return false;
+            }
+            string = stringTable[code];
+        } else if (code < tableIndex) {
+            string = stringTable[code];
+            addStringToTable(stringTable[oldCode], string[0]);
+        } else {
+            string = stringTable[oldCode];
+            string = addStringToTable(string, string[0]);
+        }
+        oldCode = code;
+        buffer = string;
+        position = 0;
+        limit = string.length;
+        return true;
+    }
+
+    private void initializeStringTable() {
+        stringTable = new byte[8192][];
+        for (int i = 0; i < 256; i++) {
+            stringTable[i] = new byte[] {(byte) i};
+        }
+        tableIndex = 258;
+        bitsToGet = 9;
+    }
+
+    private byte[] addStringToTable(byte[] oldString, byte newString) {
+        int length = oldString.length;
+        byte[] string = new byte[length + 1];
+        System.arraycopy(oldString, 0, string, 0, length);
+        string[length] = newString;
+
+        stringTable[tableIndex++] = string;
+        if (tableIndex == 511) {
+            bitsToGet = 10;
+        } else if (tableIndex == 1023) {
+            bitsToGet = 11;
+        } else if (tableIndex == 2047) {
+            bitsToGet = 12;
+        }
+        return string;
+    }
+
+    /**
+     * Gets the next 9, 10, 11 or 12 bits. The end of the data is treated as EndOfInformation code,
+     * since it may be omitted.
+     */
+    private int getNextCode() throws IOException {
+        int b = nextEncodedByte();
+        if (b < 0) {
+            return END_OF_DATA;
+        }
+        nextData = (nextData << 8) | b;
+        nextBits += 8;
+
+        if (nextBits < bitsToGet) {
+            b = nextEncodedByte();
+            if (b < 0) {
+                return END_OF_DATA;
+            }
+            nextData = (nextData << 8) | b;
+            nextBits += 8;
+        }
+
+        int code = (nextData >> (nextBits - bitsToGet)) & andTable[bitsToGet - 9];
+        nextBits -= bitsToGet;
+        return code;
+    }
+
+    private int nextEncodedByte() throws IOException {
+        if (headerPosition < header.length) {
+            return header[headerPosition++];
+        }
+        return readEncodedByte();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import com.itextpdf.kernel.PdfException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reverts TIFF and PNG predictors row by row while the data is being read,
+ * see {@link FlateDecodeFilter#decodePredictor(byte[], com.itextpdf.kernel.pdf.PdfObject)}.
+ */
+class PredictorInputStream extends DecodingInputStream {
+
+    private final int predictor;
+    private final int bytesPerPixel;
+    private final int bitsPerComponent;
+    private byte[] prior;
+
+    PredictorInputStream(InputStream in, int predictor, int colors, int bitsPerComponent, int columns) {
+        super(in, getBytesPerRow(colors, bitsPerComponent, columns));
+        this.predictor = predictor;
+        this.bytesPerPixel = colors * bitsPerComponent / 8;
+        this.bitsPerComponent = bitsPerComponent;
+        this.prior = new byte[buffer.length];
+    }
+
+    private static int getBytesPerRow(int colors, int bitsPerComponent, int columns) {
+        int bytesPerRow = (colors * columns * bitsPerComponent + 7) / 8;
+        // an empty row would never consume the input
+        if (bytesPerRow <= 0) {
+            throw new PdfException(PdfException.InvalidPredictorRowSize1).setMessageParams(bytesPerRow);
+        }
+        return bytesPerRow;
+    }
+
+    @Override
+    protected boolean decodeNextChunk() throws IOException {
+        if (predictor == 2) {
+            return decodeTiffRow();
+        } else {
+            return decodePngRow();
+        }
+    }
+
+    private boolean decodeTiffRow() throws IOException {
+        int bytesPerRow = buffer.length;
+        int n = readEncodedFully(buffer, 0, bytesPerRow);
+        if (n <= 0) {
+            return false;
+        }
+        // incomplete trailing row is passed as is
+        if (bitsPerComponent == 8 && n == bytesPerRow) {
+            for (int col = bytesPerPixel; col < bytesPerRow; col++) {
+                buffer[col] = (byte) (buffer[col] + buffer[col - bytesPerPixel]);
+            }
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+
+    private boolean decodePngRow() throws IOException {
+        byte[] curr = prior;
+        prior = buffer;
+        buffer = curr;
+        position = 0;
+        limit = 0;
+
+        int bytesPerRow = curr.length;
+        int filter = readEncodedByte();
+        if (filter < 0 || readEncodedFully(curr, 0, bytesPerRow) < bytesPerRow) {
+            return false;
+        }
+        switch (filter) {
+            case 0: //PNG_FILTER_NONE
+                break;
+            case 1: //PNG_FILTER_SUB
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += curr[i - bytesPerPixel];
+                }
+                break;
+            case 2: //PNG_FILTER_UP
+                for (int i = 0; i < bytesPerRow; i++) {
+                    curr[i] += prior[i];
+                }
+                break;
+            case 3: //PNG_FILTER_AVERAGE
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += (byte) (prior[i] / 2);
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    curr[i] += (byte) (((curr[i - bytesPerPixel] & 0xff) + (prior[i] & 0xff)) / 2);
+                }
+                break;
+            case 4: //PNG_FILTER_PAETH
+                for (int i = 0; i < bytesPerPixel; i++) {
+                    curr[i] += prior[i];
+                }
+                for (int i = bytesPerPixel; i < bytesPerRow; i++) {
+                    int a = curr[i - bytesPerPixel] & 0xff;
+                    int b = prior[i] & 0xff;
+                    int c = prior[i - bytesPerPixel] & 0xff;
+
+                    int p = a + b - c;
+                    int pa = Math.abs(p - a);
+                    int pb = Math.abs(p - b);
+                    int pc = Math.abs(p - c);
+
+                    int ret;
+                    if (pa <= pb && pa <= pc) {
+                        ret = a;
+                    } else if (pb <= pc) {
+                        ret = b;
+                    } else {
+                        ret = c;
+                    }
+                    curr[i] += (byte) ret;
+                }
+                break;
+            default:
+                // Error -- unknown filter type
+                throw new PdfException(PdfException.PngFilterUnknown);
+        }
+        limit = bytesPerRow;
+        return true;
+    }
+}
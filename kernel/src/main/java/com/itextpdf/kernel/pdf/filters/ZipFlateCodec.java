@@ -0,0 +1,167 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * {@link IFlateCodec} based on {@link Deflater} and {@link Inflater} of {@code java.util.zip}.
+ * <p>
+ * The {@link Deflater} and {@link Inflater} instances are taken from {@link ZipInstancePool} and returned
+ * to it once the stream is closed, which saves the allocation of the native zlib state and of the sliding window
+ * for each of the many small streams of a document. By default the pool shared by all the documents is used.
+ */
+public class ZipFlateCodec implements IFlateCodec {
+
+    private static final int BUFFER_SIZE = 0x8000;
+
+    private final ZipInstancePool pool;
+
+    /**
+     * Creates a codec which reuses instances from the shared pool, see {@link ZipInstancePool#getSharedInstance()}.
+     */
+    public ZipFlateCodec() {
+        this(ZipInstancePool.getSharedInstance());
+    }
+
+    /**
+     * Creates a codec which reuses instances from the given pool.
+     *
+     * @param pool the pool of the instances, or {@code null} to create a new instance for each stream.
+     */
+    public ZipFlateCodec(ZipInstancePool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public OutputStream createDeflaterStream(OutputStream out, int compressionLevel, int strategy) {
+        Deflater deflater;
+        if (pool != null) {
+            deflater = pool.acquireDeflater(compressionLevel, strategy);
+        } else {
+            deflater = new Deflater(compressionLevel);
+            if (strategy != Deflater.DEFAULT_STRATEGY) {
+                deflater.setStrategy(strategy);
+            }
+        }
+        return new ReleasingDeflaterOutputStream(out, deflater, compressionLevel, strategy, pool);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream createInflaterStream(InputStream in) {
+        Inflater inflater = pool != null ? pool.acquireInflater() : new Inflater();
+        return new ReleasingInflaterInputStream(in, inflater, pool);
+    }
+
+    private static class ReleasingDeflaterOutputStream extends DeflaterOutputStream {
+
+        private final int compressionLevel;
+        private final int strategy;
+        private final ZipInstancePool pool;
+        private boolean closed = false;
+
+        ReleasingDeflaterOutputStream(OutputStream out, Deflater deflater, int compressionLevel, int strategy, ZipInstancePool pool) {
+            super(out, deflater, BUFFER_SIZE);
+            this.compressionLevel = compressionLevel;
+            this.strategy = strategy;
+            this.pool = pool;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                finish();
+            } finally {
+                if (pool != null) {
+                    pool.releaseDeflater(def, compressionLevel, strategy);
+                } else {
+                    def.end();
+                }
+            }
+        }
+    }
+
+    private static class ReleasingInflaterInputStream extends InflaterInputStream {
+
+        private final ZipInstancePool pool;
+        private boolean closed = false;
+
+        ReleasingInflaterInputStream(InputStream in, Inflater inflater, ZipInstancePool pool) {
+            super(in, inflater, BUFFER_SIZE);
+            this.pool = pool;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                if (pool != null) {
+                    pool.releaseInflater(inf);
+                } else {
+                    inf.end();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.filters;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Pool of {@link Deflater} and {@link Inflater} instances, which are reset and reused instead of allocating
+ * the native zlib state for each compressed or decompressed stream.
+ * <p>
+ * The pool is split into stripes, the stripe is chosen by the id of the current thread, so that the threads
+ * working concurrently rarely contend for the same stripe. Each stripe keeps a limited number of idle instances,
+ * the instances released to the full stripe are ended. Deflaters are kept separately for each combination
+ * of compression level and strategy, so a reused deflater produces exactly the same data as a new one.
+ * <p>
+ * The pool shared by all the documents is available via {@link #getSharedInstance()} and it is used by
+ * the default {@link ZipFlateCodec}.
+ */
+public class ZipInstancePool {
+
+    private static final int DEFAULT_MAX_IDLE_PER_STRIPE = 2;
+
+    private static final ZipInstancePool SHARED_INSTANCE = new ZipInstancePool(DEFAULT_MAX_IDLE_PER_STRIPE);
+
+    private final Stripe[] stripes;
+    private final int maxIdlePerStripe;
+
+    private final AtomicLong deflaterHits = new AtomicLong();
+    private final AtomicLong deflaterMisses = new AtomicLong();
+    private final AtomicLong inflaterHits = new AtomicLong();
+    private final AtomicLong inflaterMisses = new AtomicLong();
+
+    /**
+     * Creates a pool with a stripe per available processor.
+     *
+     * @param maxIdlePerStripe the maximum number of idle instances kept by a stripe for each compression level
+     *                         and strategy, as well as for decompression
+     */
+    public ZipInstancePool(int maxIdlePerStripe) {
+        this(Runtime.getRuntime().availableProcessors(), maxIdlePerStripe);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param stripeCount      the number of stripes
+     * @param maxIdlePerStripe the maximum number of idle instances kept by a stripe for each compression level
+     *                         and strategy, as well as for decompression
+     */
+    public ZipInstancePool(int stripeCount, int maxIdlePerStripe) {
+        this.maxIdlePerStripe = Math.max(1, maxIdlePerStripe);
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(this.maxIdlePerStripe);
+        }
+    }
+
+    /**
+     * Gets the pool shared by all the documents.
+     *
+     * @return the shared pool
+     */
+    public static ZipInstancePool getSharedInstance() {
+        return SHARED_INSTANCE;
+    }
+
+    /**
+     * Gets an idle deflater with the given settings or creates a new one.
+     *
+     * @param compressionLevel the compression level
+     * @param strategy         the compression strategy
+     * @return the deflater, which is ready to compress new data
+     */
+    public Deflater acquireDeflater(int compressionLevel, int strategy) {
+        Deflater deflater = getStripe().getDeflaters(compressionLevel, strategy, maxIdlePerStripe).poll();
+        if (deflater != null) {
+            deflaterHits.incrementAndGet();
+            return deflater;
+        }
+        deflaterMisses.incrementAndGet();
+        deflater = new Deflater(compressionLevel);
+        if (strategy != Deflater.DEFAULT_STRATEGY) {
+            deflater.setStrategy(strategy);
+        }
+        return deflater;
+    }
+
+    /**
+     * Returns the deflater acquired via {@link #acquireDeflater(int, int)} to the pool.
+     * The deflater shall not be used after releasing.
+     *
+     * @param deflater         the deflater
+     * @param compressionLevel the compression level the deflater was acquired with
+     * @param strategy         the compression strategy the deflater was acquired with
+     */
+    public void releaseDeflater(Deflater deflater, int compressionLevel, int strategy) {
+        deflater.reset();
+        if (!getStripe().getDeflaters(compressionLevel, strategy, maxIdlePerStripe).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Gets an idle inflater or creates a new one.
+     *
+     * @return the inflater, which is ready to decompress new data
+     */
+    public Inflater acquireInflater() {
+        Inflater inflater = getStripe().inflaters.poll();
+        if (inflater != null) {
+            inflaterHits.incrementAndGet();
+            return inflater;
+        }
+        inflaterMisses.incrementAndGet();
+        return new Inflater();
+    }
+
+    /**
+     * Returns the inflater acquired via {@link #acquireInflater()} to the pool.
+     * The inflater shall not be used after releasing.
+     *
+     * @param inflater the inflater
+     */
+    public void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!getStripe().inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Ends all the idle instances kept by the pool, releasing their native resources.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            for (BlockingQueue<Deflater> deflaters : stripe.deflaters.values()) {
+                Deflater deflater;
+                while ((deflater = deflaters.poll()) != null) {
+                    deflater.end();
+                }
+            }
+            Inflater inflater;
+            while ((inflater = stripe.inflaters.poll()) != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of deflaters which were reused.
+     *
+     * @return the number of deflaters taken from the pool
+     */
+    public long getDeflaterHitCount() {
+        return deflaterHits.get();
+    }
+
+    /**
+     * Gets the number of deflaters which were created because there was no idle one in the pool.
+     *
+     * @return the number of created deflaters
+     */
+    public long getDeflaterMissCount() {
+        return deflaterMisses.get();
+    }
+
+    /**
+     * Gets the number of inflaters which were reused.
+     *
+     * @return the number of inflaters taken from the pool
+     */
+    public long getInflaterHitCount() {
+        return inflaterHits.get();
+    }
+
+    /**
+     * Gets the number of inflaters which were created because there was no idle one in the pool.
+     *
+     * @return the number of created inflaters
+     */
+    public long getInflaterMissCount() {
+        return inflaterMisses.get();
+    }
+
+    private Stripe getStripe() {
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+
+    private static class Stripe {
+        final ConcurrentMap<Integer, BlockingQueue<Deflater>> deflaters = new ConcurrentHashMap<>();
+        final BlockingQueue<Inflater> inflaters;
+
+        Stripe(int maxIdle) {
+            inflaters = new ArrayBlockingQueue<>(maxIdle);
+        }
+
+        BlockingQueue<Deflater> getDeflaters(int compressionLevel, int strategy, int maxIdle) {
+            // levels are in range -1..9, strategies in range 0..2
+            Integer key = (compressionLevel << 4) | strategy;
+            BlockingQueue<Deflater> pool = deflaters.get(key);
+            if (pool == null) {
+                BlockingQueue<Deflater> newPool = new ArrayBlockingQueue<>(maxIdle);
+                pool = deflaters.putIfAbsent(key, newPool);
+                if (pool == null) {
+                    pool = newPool;
+                }
+            }
+            return pool;
+        }
+    }
+}
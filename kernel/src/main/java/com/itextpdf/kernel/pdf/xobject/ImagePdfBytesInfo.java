@@ -52,8 +52,16 @@ import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfString;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 class ImagePdfBytesInfo {
+    /**
+     * The approximate size of the strips of the uncompressed TIFF images.
+     */
+    private static final int STRIP_SIZE = 65536;
+
     private int pngColorType;
     private int pngBitDepth;
     private int bpc;
@@ -87,73 +95,28 @@ class ImagePdfBytesInfo {
     public byte[] decodeTiffAndPngBytes(byte[] imageBytes) throws IOException {
         java.io.ByteArrayOutputStream ms = new java.io.ByteArrayOutputStream();
         if (pngColorType < 0) {
-            if (bpc != 8)
-                throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorDepthIsNotSupported).setMessageParams(bpc);
-
-            if (colorspace instanceof PdfArray) {
-                PdfArray ca = (PdfArray) colorspace;
-                PdfObject tyca = ca.get(0);
-                if (!PdfName.ICCBased.equals(tyca))
-                    throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorSpaceIsNotSupported).setMessageParams(tyca.toString());
-                PdfStream pr = (PdfStream) ca.get(1);
-                int n = pr.getAsNumber(PdfName.N).intValue();
-                if (n != 4) {
-                    throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.NValueIsNotSupported).setMessageParams(n);
-                }
-                icc = pr.getBytes();
-            } else if (!PdfName.DeviceCMYK.equals(colorspace)) {
-                throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorSpaceIsNotSupported).setMessageParams(colorspace.toString());
-            }
-            stride = 4 * width;
-            TiffWriter wr = new TiffWriter();
-            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_SAMPLESPERPIXEL, 4));
-            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_BITSPERSAMPLE, new int[]{8, 8, 8, 8}));
-            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_PHOTOMETRIC, TIFFConstants.PHOTOMETRIC_SEPARATED));
-            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGEWIDTH, (int) width));
-            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGELENGTH, (int) height));
+            TiffWriter wr = createCmykTiffWriter();
             wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_COMPRESSION, TIFFConstants.COMPRESSION_LZW));
             wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_PREDICTOR, TIFFConstants.PREDICTOR_HORIZONTAL_DIFFERENCING));
             wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_ROWSPERSTRIP, (int) height));
-            wr.addField(new TiffWriter.FieldRational(TIFFConstants.TIFFTAG_XRESOLUTION, new int[]{300, 1}));
-            wr.addField(new TiffWriter.FieldRational(TIFFConstants.TIFFTAG_YRESOLUTION, new int[]{300, 1}));
-            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_RESOLUTIONUNIT, TIFFConstants.RESUNIT_INCH));
-            wr.addField(new TiffWriter.FieldAscii(TIFFConstants.TIFFTAG_SOFTWARE, Version.getInstance().getVersion()));
             java.io.ByteArrayOutputStream comp = new java.io.ByteArrayOutputStream();
             TiffWriter.compressLZW(comp, 2, imageBytes, (int) height, 4, stride);
             byte[] buf = comp.toByteArray();
             wr.addField(new TiffWriter.FieldImage(buf));
             wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS, buf.length));
-            if (icc != null) {
-                wr.addField(new TiffWriter.FieldUndefined(TIFFConstants.TIFFTAG_ICCPROFILE, icc));
-            }
             wr.writeFile(ms);
 
             imageBytes = ms.toByteArray();
             return imageBytes;
         } else {
             PngWriter png = new PngWriter(ms);
-            if (decode != null) {
-                if (pngBitDepth == 1) {
-                    // if the decode array is 1,0, then we need to invert the image
-                    if (decode.getAsNumber(0).intValue() == 1 && decode.getAsNumber(1).intValue() == 0) {
-                        int len = imageBytes.length;
-                        for (int t = 0; t < len; ++t) {
-                            imageBytes[t] ^= 0xff;
-                        }
-                    } else {
-                        // if the decode array is 0,1, do nothing.  It's possible that the array could be 0,0 or 1,1 - but that would be silly, so we'll just ignore that case
-                    }
-                } else {
-                    // todo: add decode transformation for other depths
+            if (isInvertedBitmap()) {
+                int len = imageBytes.length;
+                for (int t = 0; t < len; ++t) {
+                    imageBytes[t] ^= 0xff;
                 }
             }
-            png.writeHeader(width, height, pngBitDepth, pngColorType);
-            if (icc != null) {
-                png.writeIccProfile(icc);
-            }
-            if (palette != null) {
-                png.writePalette(palette);
-            }
+            writePngHeader(png);
             png.writeData(imageBytes, stride);
             png.writeEnd();
             imageBytes = ms.toByteArray();
@@ -161,6 +124,109 @@ class ImagePdfBytesInfo {
         }
     }
 
+    /**
+     * Writes the image as TIFF or PNG file, reading the decoded image data from the stream row by row.
+     * Neither the decoded data nor the file are kept in memory as a whole. Unlike
+     * {@link #decodeTiffAndPngBytes(byte[])}, TIFF data is not compressed, because the sizes of the strips
+     * must be known before they are written.
+     *
+     * @param imageData    the stream of the decoded image data
+     * @param outputStream the stream to write the file to
+     * @throws IOException if the data couldn't be read or written
+     */
+    public void writeTiffOrPng(InputStream imageData, OutputStream outputStream) throws IOException {
+        if (pngColorType < 0) {
+            TiffWriter wr = createCmykTiffWriter();
+            int rowsPerStrip = Math.max(1, Math.min(height, STRIP_SIZE / Math.max(stride, 1)));
+            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_COMPRESSION, TIFFConstants.COMPRESSION_NONE));
+            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_ROWSPERSTRIP, rowsPerStrip));
+            wr.writeFile(outputStream, imageData, (long) stride * height, stride * rowsPerStrip);
+        } else {
+            PngWriter png = new PngWriter(outputStream);
+            writePngHeader(png);
+            boolean invert = isInvertedBitmap();
+            byte[] row = new byte[stride];
+            for (int i = 0; i < height; i++) {
+                int length = readRow(imageData, row);
+                // the rows missing in the truncated data are left empty
+                Arrays.fill(row, length, stride, (byte) 0);
+                if (invert) {
+                    for (int t = 0; t < stride; ++t) {
+                        row[t] ^= 0xff;
+                    }
+                }
+                png.writeRow(row, 0, stride);
+            }
+            png.endRows();
+            png.writeEnd();
+        }
+    }
+
+    private TiffWriter createCmykTiffWriter() {
+        if (bpc != 8)
+            throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorDepthIsNotSupported).setMessageParams(bpc);
+
+        if (colorspace instanceof PdfArray) {
+            PdfArray ca = (PdfArray) colorspace;
+            PdfObject tyca = ca.get(0);
+            if (!PdfName.ICCBased.equals(tyca))
+                throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorSpaceIsNotSupported).setMessageParams(tyca.toString());
+            PdfStream pr = (PdfStream) ca.get(1);
+            int n = pr.getAsNumber(PdfName.N).intValue();
+            if (n != 4) {
+                throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.NValueIsNotSupported).setMessageParams(n);
+            }
+            icc = pr.getBytes();
+        } else if (!PdfName.DeviceCMYK.equals(colorspace)) {
+            throw new com.itextpdf.io.IOException(com.itextpdf.io.IOException.ColorSpaceIsNotSupported).setMessageParams(colorspace.toString());
+        }
+        stride = 4 * width;
+        TiffWriter wr = new TiffWriter();
+        wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_SAMPLESPERPIXEL, 4));
+        wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_BITSPERSAMPLE, new int[]{8, 8, 8, 8}));
+        wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_PHOTOMETRIC, TIFFConstants.PHOTOMETRIC_SEPARATED));
+        wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGEWIDTH, (int) width));
+        wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGELENGTH, (int) height));
+        wr.addField(new TiffWriter.FieldRational(TIFFConstants.TIFFTAG_XRESOLUTION, new int[]{300, 1}));
+        wr.addField(new TiffWriter.FieldRational(TIFFConstants.TIFFTAG_YRESOLUTION, new int[]{300, 1}));
+        wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_RESOLUTIONUNIT, TIFFConstants.RESUNIT_INCH));
+        wr.addField(new TiffWriter.FieldAscii(TIFFConstants.TIFFTAG_SOFTWARE, Version.getInstance().getVersion()));
+        if (icc != null) {
+            wr.addField(new TiffWriter.FieldUndefined(TIFFConstants.TIFFTAG_ICCPROFILE, icc));
+        }
+        return wr;
+    }
+
+    private void writePngHeader(PngWriter png) throws IOException {
+        png.writeHeader(width, height, pngBitDepth, pngColorType);
+        if (icc != null) {
+            png.writeIccProfile(icc);
+        }
+        if (palette != null) {
+            png.writePalette(palette);
+        }
+    }
+
+    private boolean isInvertedBitmap() {
+        // todo: add decode transformation for other depths
+        // if the decode array is 0,1, do nothing.  It's possible that the array could be 0,0 or 1,1 - but that would be silly, so we'll just ignore that case
+        // if the decode array is 1,0, then we need to invert the image
+        return decode != null && pngBitDepth == 1
+                && decode.getAsNumber(0).intValue() == 1 && decode.getAsNumber(1).intValue() == 0;
+    }
+
+    private static int readRow(InputStream imageData, byte[] row) throws IOException {
+        int length = 0;
+        while (length < row.length) {
+            int read = imageData.read(row, length, row.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
     /**
      * Sets state of this object according to the color space
      *
@@ -53,6 +53,7 @@ import com.itextpdf.io.image.PngImageHelperConstants;
 import com.itextpdf.io.image.PngImageData;
 import com.itextpdf.io.image.RawImageData;
 import com.itextpdf.io.image.RawImageHelper;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.CompressionConstants;
 import com.itextpdf.kernel.pdf.PdfArray;
@@ -76,6 +77,8 @@ import com.itextpdf.kernel.pdf.filters.IFilterHandler;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -225,6 +228,49 @@ public class PdfImageXObject extends PdfXObject {
         return bytes;
     }
 
+    /**
+     * Writes the decoded image to the stream, in the same format as the bytes returned by {@link #getImageBytes()},
+     * see {@link #identifyImageFileExtension()}.
+     * <br>
+     * Unlike {@link #getImageBytes()}, the image is decoded while it is being written and PNG and TIFF images are
+     * written row by row, so that the memory consumption is bounded by a few rows of the image rather than by the
+     * whole raster, as long as all the filters of the image stream support streaming decoding,
+     * see {@link com.itextpdf.kernel.pdf.filters.IStreamingFilterHandler}. TIFF images are written uncompressed.
+     * Note, {@link PdfName#DCTDecode}, {@link PdfName#JBIG2Decode} and {@link PdfName#JPXDecode}
+     * filters will be ignored, the same way as by {@link #getImageBytes(boolean)}.
+     *
+     * @param outputStream the stream to write the image to. It is not closed by this method.
+     * @throws IOException if the image couldn't be read or written
+     */
+    public void writeImage(OutputStream outputStream) throws IOException {
+        Map<PdfName, IFilterHandler> filters = new HashMap<>(FilterHandlers.getDefaultFilterHandlers());
+        DoNothingFilter stubFilter = new DoNothingFilter();
+        filters.put(PdfName.DCTDecode, stubFilter);
+        filters.put(PdfName.JBIG2Decode, stubFilter);
+        filters.put(PdfName.JPXDecode, stubFilter);
+        InputStream encoded = null;
+        InputStream decoded = null;
+        try {
+            encoded = getPdfObject().openStream(false);
+            if (encoded == null) {
+                encoded = new ByteArrayInputStream(new byte[0]);
+            }
+            decoded = PdfReader.decodeStream(encoded, getPdfObject(), filters);
+            if (stubFilter.getLastFilterName() == null) {
+                new ImagePdfBytesInfo(this).writeTiffOrPng(decoded, outputStream);
+            } else {
+                StreamUtil.transferBytes(decoded, outputStream);
+            }
+        } finally {
+            // the decoded stream closes the streams it reads from
+            if (decoded != null) {
+                decoded.close();
+            } else if (encoded != null) {
+                encoded.close();
+            }
+        }
+    }
+
     /**
      * Identifies the type of the image that is stored in the bytes of this {@link PdfImageXObject}.
      * Note that this has nothing to do with the original type of the image. For instance, the return value
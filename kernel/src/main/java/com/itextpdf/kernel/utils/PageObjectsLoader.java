@@ -0,0 +1,177 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads the objects of the document which are copied when its pages are merged: the objects reachable from
+ * the pages, the structure tree and the outlines. Once read, the objects are kept by their indirect references,
+ * so that copying them does not involve reading and parsing any longer. The raw bytes of the streams are read
+ * as well, as long as they fit into the byte budget shared by the loaders. The bytes are handed over to the copies
+ * of the streams, the ones which were not copied are dropped with {@link #release()}, which also returns
+ * the reserved bytes to the budget.
+ * <p>
+ * The loader does not modify the document, but the document must not be used by other threads while
+ * the loader runs. A loader which is no longer needed can be stopped with {@link #stop()}, it then finishes
+ * as soon as possible.
+ */
+final class PageObjectsLoader implements Runnable {
+
+    private final PdfDocument document;
+    private final AtomicLong byteBudget;
+    private final List<PdfStream> prefetchedStreams = new ArrayList<>();
+    private long reservedBytes;
+
+    private volatile boolean stopped;
+
+    PageObjectsLoader(PdfDocument document, AtomicLong byteBudget) {
+        this.document = document;
+        this.byteBudget = byteBudget;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Drops the prefetched bytes which were not used and returns the reserved bytes to the budget.
+     * Must not be called while the loader runs.
+     */
+    void release() {
+        for (PdfStream stream : prefetchedStreams) {
+            stream.releasePrefetchedBytes();
+        }
+        prefetchedStreams.clear();
+        byteBudget.addAndGet(reservedBytes);
+        reservedBytes = 0;
+    }
+
+    @Override
+    public void run() {
+        Deque<PdfObject> objects = new ArrayDeque<>();
+        for (int i = 1; i <= document.getNumberOfPages() && !stopped; i++) {
+            objects.push(document.getPage(i).getPdfObject());
+        }
+        if (document.isTagged()) {
+            objects.push(document.getStructTreeRoot().getPdfObject());
+        }
+        PdfObject outlines = document.getCatalog().getPdfObject().get(PdfName.Outlines, false);
+        if (outlines != null) {
+            objects.push(outlines);
+        }
+
+        Set<PdfIndirectReference> visited = Collections.newSetFromMap(new IdentityHashMap<PdfIndirectReference, Boolean>());
+        while (!objects.isEmpty() && !stopped) {
+            PdfObject obj = objects.pop();
+            if (obj == null) {
+                continue;
+            }
+            if (obj.isIndirectReference()) {
+                if (!visited.add((PdfIndirectReference) obj)) {
+                    continue;
+                }
+                obj = ((PdfIndirectReference) obj).getRefersTo();
+                if (obj == null) {
+                    continue;
+                }
+            }
+            if (obj.isStream()) {
+                prefetch((PdfStream) obj);
+            }
+            if (obj.isDictionary() || obj.isStream()) {
+                for (PdfName key : ((PdfDictionary) obj).keySet()) {
+                    // parents are either visited anyway or not copied
+                    if (!PdfName.Parent.equals(key) && !PdfName.P.equals(key)) {
+                        objects.push(((PdfDictionary) obj).get(key, false));
+                    }
+                }
+            } else if (obj.isArray()) {
+                PdfArray array = (PdfArray) obj;
+                for (int i = 0; i < array.size(); i++) {
+                    objects.push(array.get(i, false));
+                }
+            }
+        }
+    }
+
+    private void prefetch(PdfStream stream) {
+        // the declared length is reserved, so that the budget is not exceeded while the bytes are being read
+        long length = stream.getLength();
+        if (length <= 0) {
+            return;
+        }
+        if (byteBudget.addAndGet(-length) < 0) {
+            byteBudget.addAndGet(length);
+            return;
+        }
+        int prefetched = 0;
+        try {
+            prefetched = stream.prefetchBytes();
+        } catch (PdfException e) {
+            // the bytes are read once again while copying, which reports the error
+        }
+        if (prefetched > 0) {
+            prefetchedStreams.add(stream);
+            reservedBytes += length;
+        } else {
+            byteBudget.addAndGet(length);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfOutputStream;
+import com.itextpdf.kernel.pdf.PdfPage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Counts the number of bytes needed to copy the pages of a document into the parts it is split into by size.
+ * Gives the same results as {@link PdfResourceCounter}, but the length of each indirect object is calculated
+ * only once for all the parts, the objects reachable from the trailer are collected only once, and the objects
+ * already counted in the current part are not walked again for each page, so that the whole document is counted
+ * in linear time.
+ */
+final class PartSizeCounter {
+
+    private final Map<Integer, Long> lengths = new HashMap<>();
+
+    private final Set<Integer> trailerObjects = new HashSet<>();
+
+    private final long trailerLength;
+
+    private final Set<Integer> partObjects = new HashSet<>();
+
+    private long partLength;
+
+    PartSizeCounter(PdfDocument document) {
+        trailerLength = add(document.getTrailer(), trailerObjects);
+        partLength = trailerLength;
+    }
+
+    /**
+     * Starts counting the next part, which initially contains only the objects reachable from the trailer.
+     */
+    void startPart() {
+        partObjects.clear();
+        partLength = trailerLength;
+    }
+
+    /**
+     * Adds the objects of the page which are not in the current part yet.
+     *
+     * @param page the page to add to the current part
+     */
+    void addPage(PdfPage page) {
+        partLength += add(page.getPdfObject(), partObjects);
+    }
+
+    /**
+     * Gets the number of bytes needed to write the objects of the current part, not including the cross-reference table.
+     *
+     * @return the length of the current part
+     */
+    long getPartLength() {
+        return partLength;
+    }
+
+    /**
+     * Gets the number of the indirect objects of the current part.
+     *
+     * @return the number of the objects
+     */
+    int getPartObjectsCount() {
+        return trailerObjects.size() + partObjects.size();
+    }
+
+    private long add(PdfObject root, Set<Integer> objects) {
+        long length = 0;
+        Deque<PdfObject> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            PdfObject obj = toVisit.pop();
+            PdfIndirectReference ref = obj.getIndirectReference();
+            if (ref != null) {
+                // everything reachable from the counted objects is already counted
+                if (trailerObjects.contains(ref.getObjNumber()) || !objects.add(ref.getObjNumber())) {
+                    continue;
+                }
+                length += getLength(ref.getObjNumber(), obj);
+            }
+            switch (obj.getType()) {
+                case PdfObject.ARRAY:
+                    PdfArray array = (PdfArray) obj;
+                    for (int i = 0; i < array.size(); i++) {
+                        pushIfNotNull(toVisit, array.get(i));
+                    }
+                    break;
+                case PdfObject.DICTIONARY:
+                case PdfObject.STREAM:
+                    PdfDictionary dict = (PdfDictionary) obj;
+                    if (PdfName.Pages.equals(dict.get(PdfName.Type))) {
+                        break;
+                    }
+                    for (PdfName name : dict.keySet()) {
+                        pushIfNotNull(toVisit, dict.get(name));
+                    }
+                    break;
+            }
+        }
+        return length;
+    }
+
+    private long getLength(int objNumber, PdfObject obj) {
+        Long length = lengths.get(objNumber);
+        if (length == null) {
+            PdfOutputStream os = new PdfOutputStream(new IdleOutputStream());
+            os.write(obj.clone());
+            length = os.getCurrentPos();
+            lengths.put(objNumber, length);
+        }
+        return (long) length;
+    }
+
+    private static void pushIfNotNull(Deque<PdfObject> toVisit, PdfObject obj) {
+        if (obj != null) {
+            toVisit.push(obj);
+        }
+    }
+}
@@ -43,18 +43,32 @@
  */
 package com.itextpdf.kernel.utils;
 
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDocument;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class PdfMerger {
 
+    /**
+     * The default maximum number of stream bytes read in advance by {@link #merge(List, ExecutorService)}.
+     */
+    public static final long DEFAULT_STREAM_PREFETCH_BUDGET = 64L * 1024 * 1024;
+
     private PdfDocument pdfDocument;
     private boolean closeSrcDocuments;
     private boolean mergeTags;
     private boolean mergeOutlines;
+    private long streamPrefetchBudget = DEFAULT_STREAM_PREFETCH_BUDGET;
 
     /**
      * This class is used to merge a number of existing documents into one. By default, if source document
@@ -96,6 +110,19 @@ public class PdfMerger {
         return this;
     }
 
+    /**
+     * Sets the maximum number of the raw stream bytes which {@link #merge(List, ExecutorService)} reads in advance,
+     * i.e. keeps in memory, for the documents which are not merged yet. The bytes of the streams which don't fit
+     * into the budget are read while the pages are being copied. Default value - {@link #DEFAULT_STREAM_PREFETCH_BUDGET}.
+     *
+     * @param streamPrefetchBudget the number of bytes, 0 disables reading the stream bytes in advance
+     * @return this {@code PdfMerger} instance
+     */
+    public PdfMerger setStreamPrefetchBudget(long streamPrefetchBudget) {
+        this.streamPrefetchBudget = streamPrefetchBudget;
+        return this;
+    }
+
     /**
      * This method merges pages from the source document to the current one.
      * <p>
@@ -144,6 +171,72 @@ public class PdfMerger {
         return this;
     }
 
+    /**
+     * This method merges all the pages of the source documents to the current one, in the order of the list.
+     * <p>
+     * The result is exactly the same as the one of merging the documents one by one with {@link #merge(PdfDocument, int, int)}.
+     * While the pages of a document are being copied, the objects of the next documents which are going to be
+     * copied, i.e. the objects of their pages, structure trees and outlines, are read and parsed in parallel
+     * on the executor, so that only the copying itself is done serially. Up to the number of available processors
+     * documents are read ahead. The raw bytes of their streams are read ahead as well, up to the budget set with
+     * {@link #setStreamPrefetchBudget(long)}; the bytes of the streams which don't fit into it are read serially
+     * while copying.
+     * <p>
+     * The source documents must not be used by other threads until the method returns. A document may occur
+     * in the list several times.
+     * <p>
+     * If <i>closeSourceDocuments</i> flag is set to <i>true</i> (see {@link #setCloseSourceDocuments(boolean)}),
+     * passed documents will be closed after their pages are merged.
+     *
+     * @param documents - documents, whose pages will be copied
+     * @param executor - the executor to read the documents on
+     * @return this {@code PdfMerger} instance
+     */
+    public PdfMerger merge(List<PdfDocument> documents, ExecutorService executor) {
+        int readAhead = Runtime.getRuntime().availableProcessors();
+        Set<PdfDocument> submitted = Collections.newSetFromMap(new IdentityHashMap<PdfDocument, Boolean>());
+        List<PageObjectsLoader> loaders = new ArrayList<>(documents.size());
+        List<Future<?>> loadings = new ArrayList<>(documents.size());
+        AtomicLong byteBudget = new AtomicLong(streamPrefetchBudget);
+        try {
+            for (int i = 0; i < documents.size(); i++) {
+                while (loadings.size() < documents.size() && loadings.size() < i + readAhead) {
+                    PdfDocument document = documents.get(loadings.size());
+                    // a document occurring several times is read once, and only by one thread
+                    if (submitted.add(document)) {
+                        PageObjectsLoader loader = new PageObjectsLoader(document, byteBudget);
+                        loadings.add(executor.submit(loader));
+                        loaders.add(loader);
+                    } else {
+                        loadings.add(null);
+                        loaders.add(null);
+                    }
+                }
+                if (loadings.get(i) != null) {
+                    try {
+                        loadings.get(i).get();
+                    } catch (ExecutionException e) {
+                        // the same error, if any, is thrown while copying
+                    }
+                }
+                PdfDocument from = documents.get(i);
+                merge(from, 1, from.getNumberOfPages());
+                if (loaders.get(i) != null) {
+                    // the bytes of the streams which were not copied are no longer needed
+                    loaders.get(i).release();
+                }
+            }
+        } catch (InterruptedException e) {
+            stop(loaders, loadings);
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.PageCopyingWasInterrupted, e);
+        } catch (RuntimeException e) {
+            stop(loaders, loadings);
+            throw e;
+        }
+        return this;
+    }
+
     /**
      * Closes the current document.
      * <p>
@@ -155,4 +248,37 @@ public class PdfMerger {
     public void close() {
         pdfDocument.close();
     }
+
+    /**
+     * Stops the loaders, waits until none of them uses its document any longer and drops the prefetched bytes,
+     * so that the documents can be closed or reused by the caller once the merging fails.
+     */
+    private static void stop(List<PageObjectsLoader> loaders, List<Future<?>> tasks) {
+        for (PageObjectsLoader loader : loaders) {
+            if (loader != null) {
+                loader.stop();
+            }
+        }
+        boolean interrupted = false;
+        for (Future<?> task : tasks) {
+            while (task != null) {
+                try {
+                    task.get();
+                    task = null;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    task = null;
+                }
+            }
+        }
+        for (PageObjectsLoader loader : loaders) {
+            if (loader != null) {
+                loader.release();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
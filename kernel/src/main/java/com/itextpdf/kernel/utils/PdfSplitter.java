@@ -47,17 +47,26 @@ import com.itextpdf.kernel.PdfException;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.kernel.counter.event.IMetaInfo;
 import com.itextpdf.kernel.pdf.DocumentProperties;
+import com.itextpdf.kernel.pdf.PageFlushingHelper;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfOutline;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.SharedPageObjectsCache;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class PdfSplitter {
 
@@ -65,6 +74,9 @@ public class PdfSplitter {
     private boolean preserveTagged;
     private boolean preserveOutlines;
     private IMetaInfo metaInfo;
+    private boolean releaseSourcePages;
+    private long sharedObjectsCacheSize = SharedPageObjectsCache.DEFAULT_MAX_SIZE;
+    private ExecutorService partWritingExecutor;
 
     /**
      * Creates a new instance of PdfSplitter class.
@@ -107,6 +119,44 @@ public class PdfSplitter {
         this.preserveOutlines = preserveOutlines;
     }
 
+    /**
+     * If set to true, the pages of the original document are released from memory with
+     * {@link PageFlushingHelper#releaseDeep(int)} once they are copied to all the resultant documents,
+     * so that splitting of huge documents doesn't keep the whole original document in memory.
+     * The objects shared by the pages of several resultant documents, e.g. fonts and color profiles,
+     * are kept in memory within the limit set by {@link #setSharedObjectsCacheSize(long)}.
+     * By default the pages are not released.
+     * <p>
+     * The original document shall be opened in reading mode and its pages shall not be processed
+     * by other means while it is being split. The pages are not released by {@link #splitByOutlines(List)},
+     * as the outlines are looked up on all the pages for each title.
+     */
+    public void setReleaseSourcePages(boolean releaseSourcePages) {
+        this.releaseSourcePages = releaseSourcePages;
+    }
+
+    /**
+     * Sets the limit of the estimated size in bytes of the objects shared by several resultant documents which
+     * are kept in memory when the pages of the original document are released,
+     * see {@link #setReleaseSourcePages(boolean)}. {@link SharedPageObjectsCache#DEFAULT_MAX_SIZE} by default.
+     */
+    public void setSharedObjectsCacheSize(long sharedObjectsCacheSize) {
+        this.sharedObjectsCacheSize = sharedObjectsCacheSize;
+    }
+
+    /**
+     * Sets the executor on which the {@link IDocumentReadyListener} is called, so that the resultant documents
+     * may be written and closed in the listener concurrently while the next documents are being created.
+     * The pages are still copied from the original document on the current thread. The listener shall not
+     * access the original document. The splitting methods wait for all the calls of the listener to complete.
+     * <p>
+     * The executor is only used by the splitting methods taking a listener. By default the listener is called
+     * on the current thread.
+     */
+    public void setPartWritingExecutor(ExecutorService partWritingExecutor) {
+        this.partWritingExecutor = partWritingExecutor;
+    }
+
     /**
      * Splits the document basing on the given size.
      *
@@ -118,9 +168,30 @@ public class PdfSplitter {
         List<PageRange> splitRanges = new ArrayList<>();
         int currentPage = 1;
         int numOfPages = pdfDocument.getNumberOfPages();
+        PartSizeCounter counter = new PartSizeCounter(pdfDocument);
+
+        if (releaseSourcePages) {
+            // each part is copied right after its range is found, not to keep the pages of all the ranges loaded
+            List<PdfDocument> splitDocuments = new ArrayList<>();
+            SourcePagesReleaser releaser = new SourcePagesReleaser();
+            try {
+                while (currentPage <= numOfPages) {
+                    PageRange nextRange = getNextRange(currentPage, numOfPages, size, counter);
+                    List<Integer> allPages = nextRange.getQualifyingPageNums(numOfPages);
+                    PdfDocument currentDocument = createPdfDocument(nextRange);
+                    splitDocuments.add(currentDocument);
+                    pdfDocument.copyPagesTo(allPages, currentDocument);
+                    releaser.release(allPages);
+                    currentPage = (int) allPages.get(allPages.size() - 1) + 1;
+                }
+            } finally {
+                releaser.close();
+            }
+            return splitDocuments;
+        }
 
         while (currentPage <= numOfPages) {
-            PageRange nextRange = getNextRange(currentPage, numOfPages, size);
+            PageRange nextRange = getNextRange(currentPage, numOfPages, size, counter);
             splitRanges.add(nextRange);
             List<Integer> allPages = nextRange.getQualifyingPageNums(numOfPages);
             currentPage = (int) allPages.get(allPages.size() - 1) + 1;
@@ -138,20 +209,7 @@ public class PdfSplitter {
      *                      You can close this document in this listener, for instance.
      */
     public void splitByPageNumbers(List<Integer> pageNumbers, IDocumentReadyListener documentReady) {
-        int currentPageNumber = 1;
-
-        for (int ind = 0; ind <= pageNumbers.size(); ind++) {
-            int nextPageNumber = ind == pageNumbers.size() ? pdfDocument.getNumberOfPages() + 1 : (int) pageNumbers.get(ind);
-            if (ind == 0 && nextPageNumber == 1)
-                continue;
-
-            PageRange currentPageRange = new PageRange().addPageSequence(currentPageNumber, nextPageNumber - 1);
-            PdfDocument currentDocument = createPdfDocument(currentPageRange);
-            pdfDocument.copyPagesTo(currentPageNumber, nextPageNumber - 1, currentDocument);
-            documentReady.documentReady(currentDocument, currentPageRange);
-
-            currentPageNumber = nextPageNumber;
-        }
+        splitByPageNumbers(pageNumbers, documentReady, partWritingExecutor);
     }
 
     /**
@@ -169,7 +227,7 @@ public class PdfSplitter {
             public void documentReady(PdfDocument pdfDocument, PageRange pageRange) {
                 splitDocuments.add(pdfDocument);
             }
-        });
+        }, null);
 
         return splitDocuments;
     }
@@ -182,14 +240,7 @@ public class PdfSplitter {
      *                      You can close this document in this listener, for instance.
      */
     public void splitByPageCount(int pageCount, IDocumentReadyListener documentReady) {
-        for (int startPage = 1; startPage <= pdfDocument.getNumberOfPages(); startPage += pageCount) {
-            int endPage = Math.min(startPage + pageCount - 1, pdfDocument.getNumberOfPages());
-
-            PageRange currentPageRange = new PageRange().addPageSequence(startPage, endPage);
-            PdfDocument currentDocument = createPdfDocument(currentPageRange);
-            pdfDocument.copyPagesTo(startPage, endPage, currentDocument);
-            documentReady.documentReady(currentDocument, currentPageRange);
-        }
+        splitByPageCount(pageCount, documentReady, partWritingExecutor);
     }
 
     /**
@@ -206,7 +257,7 @@ public class PdfSplitter {
             public void documentReady(PdfDocument pdfDocument, PageRange pageRange) {
                 splitDocuments.add(pdfDocument);
             }
-        });
+        }, null);
 
         return splitDocuments;
     }
@@ -220,13 +271,43 @@ public class PdfSplitter {
      */
     public List<PdfDocument> extractPageRanges(List<PageRange> pageRanges) {
         List<PdfDocument> splitDocuments = new ArrayList<>();
+        int numOfPages = pdfDocument.getNumberOfPages();
 
-        for (PageRange currentPageRange : pageRanges) {
-            PdfDocument currentPdfDocument = createPdfDocument(currentPageRange);
-            splitDocuments.add(currentPdfDocument);
-            pdfDocument.copyPagesTo(currentPageRange.getQualifyingPageNums(pdfDocument.getNumberOfPages()), currentPdfDocument);
+        SourcePagesReleaser releaser = null;
+        // the ranges may overlap, so a page is released only after the last range it belongs to is copied
+        Map<Integer, Integer> lastRangeOfPage = null;
+        if (releaseSourcePages) {
+            releaser = new SourcePagesReleaser();
+            lastRangeOfPage = new HashMap<>();
+            for (int i = 0; i < pageRanges.size(); i++) {
+                for (int pageNum : pageRanges.get(i).getQualifyingPageNums(numOfPages)) {
+                    lastRangeOfPage.put(pageNum, i);
+                }
+            }
         }
 
+        try {
+            for (int i = 0; i < pageRanges.size(); i++) {
+                PageRange currentPageRange = pageRanges.get(i);
+                PdfDocument currentPdfDocument = createPdfDocument(currentPageRange);
+                splitDocuments.add(currentPdfDocument);
+                List<Integer> pageNums = currentPageRange.getQualifyingPageNums(numOfPages);
+                pdfDocument.copyPagesTo(pageNums, currentPdfDocument);
+                if (releaser != null) {
+                    List<Integer> pagesToRelease = new ArrayList<>(pageNums.size());
+                    for (int pageNum : pageNums) {
+                        if (lastRangeOfPage.get(pageNum) == i) {
+                            pagesToRelease.add(pageNum);
+                        }
+                    }
+                    releaser.release(pagesToRelease);
+                }
+            }
+        } finally {
+            if (releaser != null) {
+                releaser.close();
+            }
+        }
         return splitDocuments;
     }
 
@@ -265,10 +346,147 @@ public class PdfSplitter {
         return newDocument;
     }
 
+    private void splitByPageNumbers(List<Integer> pageNumbers, IDocumentReadyListener documentReady, ExecutorService executor) {
+        PartDispatcher dispatcher = new PartDispatcher(documentReady, executor);
+        try {
+            int currentPageNumber = 1;
+
+            for (int ind = 0; ind <= pageNumbers.size(); ind++) {
+                int nextPageNumber = ind == pageNumbers.size() ? pdfDocument.getNumberOfPages() + 1 : (int) pageNumbers.get(ind);
+                if (ind == 0 && nextPageNumber == 1)
+                    continue;
+
+                PageRange currentPageRange = new PageRange().addPageSequence(currentPageNumber, nextPageNumber - 1);
+                PdfDocument currentDocument = createPdfDocument(currentPageRange);
+                pdfDocument.copyPagesTo(currentPageNumber, nextPageNumber - 1, currentDocument);
+                dispatcher.documentReady(currentDocument, currentPageRange);
+
+                currentPageNumber = nextPageNumber;
+            }
+            dispatcher.finish();
+        } catch (RuntimeException e) {
+            dispatcher.cancel();
+            throw e;
+        } finally {
+            dispatcher.close();
+        }
+    }
+
+    private void splitByPageCount(int pageCount, IDocumentReadyListener documentReady, ExecutorService executor) {
+        PartDispatcher dispatcher = new PartDispatcher(documentReady, executor);
+        try {
+            for (int startPage = 1; startPage <= pdfDocument.getNumberOfPages(); startPage += pageCount) {
+                int endPage = Math.min(startPage + pageCount - 1, pdfDocument.getNumberOfPages());
+
+                PageRange currentPageRange = new PageRange().addPageSequence(startPage, endPage);
+                PdfDocument currentDocument = createPdfDocument(currentPageRange);
+                pdfDocument.copyPagesTo(startPage, endPage, currentDocument);
+                dispatcher.documentReady(currentDocument, currentPageRange);
+            }
+            dispatcher.finish();
+        } catch (RuntimeException e) {
+            dispatcher.cancel();
+            throw e;
+        } finally {
+            dispatcher.close();
+        }
+    }
+
     public interface IDocumentReadyListener {
         void documentReady(PdfDocument pdfDocument, PageRange pageRange);
     }
 
+    /**
+     * Releases the pages of the original document, keeping the objects shared by several resultant documents.
+     */
+    private final class SourcePagesReleaser {
+        private final PageFlushingHelper flushingHelper = new PageFlushingHelper(pdfDocument);
+        private final SharedPageObjectsCache sharedObjects = new SharedPageObjectsCache(pdfDocument, sharedObjectsCacheSize);
+
+        void release(Collection<Integer> pageNums) {
+            sharedObjects.addPart(pageNums);
+            for (int pageNum : pageNums) {
+                flushingHelper.releaseDeep(pageNum);
+            }
+        }
+
+        void close() {
+            sharedObjects.clear();
+        }
+    }
+
+    /**
+     * Passes the resultant documents to the listener, on the executor if it is set, and releases the copied pages.
+     * The copies don't refer to the objects of the original document, so the pages are released as soon as
+     * the document is passed to the listener.
+     */
+    private final class PartDispatcher {
+        private final IDocumentReadyListener documentReady;
+        private final ExecutorService executor;
+        private final SourcePagesReleaser releaser;
+        private final Deque<Future<?>> writings = new ArrayDeque<>();
+        private final int maxWritings = Runtime.getRuntime().availableProcessors();
+
+        PartDispatcher(IDocumentReadyListener documentReady, ExecutorService executor) {
+            this.documentReady = documentReady;
+            this.executor = executor;
+            this.releaser = releaseSourcePages ? new SourcePagesReleaser() : null;
+        }
+
+        void documentReady(final PdfDocument document, final PageRange pageRange) {
+            if (executor == null) {
+                documentReady.documentReady(document, pageRange);
+            } else {
+                // the number of the documents being written is bounded, so that they don't pile up in memory
+                if (writings.size() >= maxWritings) {
+                    waitFor(writings.poll());
+                }
+                writings.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        documentReady.documentReady(document, pageRange);
+                    }
+                }));
+            }
+            if (releaser != null) {
+                releaser.release(pageRange.getQualifyingPageNums(pdfDocument.getNumberOfPages()));
+            }
+        }
+
+        void finish() {
+            while (!writings.isEmpty()) {
+                waitFor(writings.poll());
+            }
+        }
+
+        void cancel() {
+            for (Future<?> writing : writings) {
+                writing.cancel(true);
+            }
+            writings.clear();
+        }
+
+        void close() {
+            if (releaser != null) {
+                releaser.close();
+            }
+        }
+
+        private void waitFor(Future<?> writing) {
+            try {
+                writing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PdfException(PdfException.PageCopyingWasInterrupted, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new PdfException(e.getCause());
+            }
+        }
+    }
+
     /**
      * Split a document by outline title (bookmark name), find outline by name
      * and places the entire hierarchy in a separate document ( outlines and pages ) .
@@ -370,21 +588,16 @@ public class PdfSplitter {
         return nextPdfOutline;
     }
 
-    private PageRange getNextRange(int startPage, int endPage, long size) {
-        PdfResourceCounter counter = new PdfResourceCounter(pdfDocument.getTrailer());
-        Map<Integer, PdfObject> resources = counter.getResources();
-        // initialize with trailer length
-        long lengthWithoutXref = counter.getLength(null);
+    private PageRange getNextRange(int startPage, int endPage, long size, PartSizeCounter counter) {
+        // initialized with trailer length
+        counter.startPart();
         int currentPage = startPage;
         boolean oversized = false;
 
         do {
-            PdfPage page = pdfDocument.getPage(currentPage++);
-            counter = new PdfResourceCounter(page.getPdfObject());
-            lengthWithoutXref += counter.getLength(resources);
-            resources.putAll(counter.getResources());
+            counter.addPage(pdfDocument.getPage(currentPage++));
 
-            if (lengthWithoutXref + xrefLength(resources.size()) > size) {
+            if (counter.getPartLength() + xrefLength(counter.getPartObjectsCount()) > size) {
                 oversized = true;
             }
         } while (currentPage <= endPage && !oversized);
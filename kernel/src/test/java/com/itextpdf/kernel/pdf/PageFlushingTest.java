@@ -63,6 +63,7 @@ import com.itextpdf.test.annotations.type.IntegrationTest;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
 import org.junit.Assert;
@@ -395,6 +396,42 @@ public class PageFlushingTest extends ExtendedITextTest {
         // exception is not thrown
     }
 
+    @Test
+    public void releaseDeepKeepingSharedObjects() throws IOException {
+        PdfDocument pdf = new PdfDocument(new PdfReader(sourceFolder + "100pagesSharedResDict.pdf"));
+        PageFlushingHelper flushingHelper = new PageFlushingHelper(pdf);
+        SharedPageObjectsCache sharedObjects = new SharedPageObjectsCache(pdf);
+
+        PdfDictionary res = pdf.getPage(1).getPdfObject().getAsDictionary(PdfName.Resources);
+        sharedObjects.addPart(Collections.singletonList(1));
+        flushingHelper.releaseDeep(1);
+        // the resources are not known to be shared yet
+        Assert.assertNull(res.getIndirectReference());
+
+        res = pdf.getPage(2).getPdfObject().getAsDictionary(PdfName.Resources);
+        sharedObjects.addPart(Collections.singletonList(2));
+        flushingHelper.releaseDeep(2);
+        Assert.assertNotNull(res.getIndirectReference());
+        Assert.assertTrue(sharedObjects.getCount() > 0);
+        Assert.assertTrue(sharedObjects.getSize() <= SharedPageObjectsCache.DEFAULT_MAX_SIZE);
+        Assert.assertSame(res, pdf.getPage(3).getPdfObject().getAsDictionary(PdfName.Resources));
+
+        sharedObjects.clear();
+        Assert.assertEquals(0, sharedObjects.getCount());
+        Assert.assertNull(res.getIndirectReference());
+
+        SharedPageObjectsCache noSharedObjects = new SharedPageObjectsCache(pdf, 0);
+        res = pdf.getPage(4).getPdfObject().getAsDictionary(PdfName.Resources);
+        noSharedObjects.addPart(Collections.singletonList(4));
+        flushingHelper.releaseDeep(4);
+        noSharedObjects.addPart(Collections.singletonList(5));
+        flushingHelper.releaseDeep(5);
+        Assert.assertEquals(0, noSharedObjects.getCount());
+        Assert.assertNull(res.getIndirectReference());
+
+        pdf.close();
+    }
+
     @Test
     public void flushingPageResourcesMadeIndependent() throws IOException {
         String inputFile = sourceFolder + "100pagesSharedResDict.pdf";
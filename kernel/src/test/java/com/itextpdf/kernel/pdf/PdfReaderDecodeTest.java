@@ -43,26 +43,42 @@
 package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeStrictFilter;
+import com.itextpdf.kernel.pdf.filters.ZipFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipInstancePool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
 
 @Category(IntegrationTest.class)
 public class PdfReaderDecodeTest extends ExtendedITextTest {
 
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
     public static final String sourceFolder = "./src/test/resources/com/itextpdf/kernel/pdf/PdfReaderDecodeTest/";
     public static final String destinationFolder = "./target/test/com/itextpdf/kernel/pdf/PdfReaderDecodeTest/";
 
@@ -234,6 +250,67 @@ public class PdfReaderDecodeTest extends ExtendedITextTest {
         Assert.assertEquals(expectedExceptionMessage, thrownExceptionMessage);
     }
 
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.INVALID_INDIRECT_REFERENCE),
+            @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT)
+    })
+    public void customMemoryHandlerSingleDecodeStreamTest() throws IOException {
+        MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler();
+        handler.setMaxSizeOfSingleDecompressedPdfStream(1000);
+
+        PdfDocument pdfDocument = new PdfDocument(
+                new PdfReader(sourceFolder + "timing.pdf",
+                        new ReaderProperties().setMemoryLimitsAwareHandler(handler)),
+                new PdfWriter(new ByteArrayOutputStream()));
+
+        PdfStream stream = pdfDocument.getFirstPage().getContentStream(0);
+        byte[] b = stream.getBytes(false);
+
+        PdfArray array = new PdfArray();
+        stream.put(PdfName.Filter, array);
+        array.add(PdfName.Fl);
+        array.add(PdfName.Fl);
+        Assert.assertEquals(992, StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(b), stream)).length);
+
+        array.add(PdfName.Fl);
+        String expectedExceptionMessage = PdfException.DuringDecompressionSingleStreamOccupiedMoreMemoryThanAllowed;
+        String thrownExceptionMessage = null;
+        try {
+            StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(b), stream));
+        } catch (MemoryLimitsAwareException e) {
+            thrownExceptionMessage = e.getMessage();
+        }
+        Assert.assertEquals(expectedExceptionMessage, thrownExceptionMessage);
+    }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.INVALID_INDIRECT_REFERENCE),
+            @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT)
+    })
+    public void customMemoryHandlerSumDecodeStreamTest() throws IOException {
+        MemoryLimitsAwareHandler handler = new MemoryLimitsAwareHandler();
+        handler.setMaxSizeOfDecompressedPdfStreamsSum(100000);
+
+        PdfDocument pdfDocument = new PdfDocument(
+                new PdfReader(sourceFolder + "timing.pdf",
+                        new ReaderProperties().setMemoryLimitsAwareHandler(handler)),
+                new PdfWriter(new ByteArrayOutputStream()));
+
+        PdfStream stream = pdfDocument.getFirstPage().getContentStream(0);
+        byte[] b = stream.getBytes(false);
+
+        String expectedExceptionMessage = PdfException.DuringDecompressionMultipleStreamsInSumOccupiedMoreMemoryThanAllowed;
+        String thrownExceptionMessage = null;
+        try {
+            StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(b), stream));
+        } catch (MemoryLimitsAwareException e) {
+            thrownExceptionMessage = e.getMessage();
+        }
+        Assert.assertEquals(expectedExceptionMessage, thrownExceptionMessage);
+    }
+
     @Test
     @LogMessages(messages = {
             @LogMessage(messageTemplate = LogMessageConstant.INVALID_INDIRECT_REFERENCE),
@@ -283,4 +360,258 @@ public class PdfReaderDecodeTest extends ExtendedITextTest {
         }
         Assert.assertEquals(expectedExceptionMessage, thrownExceptionMessage);
     }
+
+    @Test
+    public void decodeStreamTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+
+        FileInputStream is = new FileInputStream(sourceFolder + "stream");
+        byte[] b = new byte[51];
+        is.read(b);
+
+        PdfArray array = new PdfArray();
+        array.add(PdfName.Fl);
+        array.add(PdfName.Fl);
+        array.add(PdfName.Fl);
+
+        PdfStream stream = new PdfStream(b);
+        stream.put(PdfName.Filter, array);
+        stream.makeIndirect(pdfDocument);
+
+        Assert.assertEquals(1000000, StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(b), stream)).length);
+    }
+
+    @Test
+    public void decodeStreamWithPredictorsTest() throws IOException {
+        Random random = new Random(42);
+        int[][] predictorParams = {{2, 3, 8, 7}, {2, 1, 4, 9}, {12, 1, 8, 7}, {15, 3, 8, 33}, {15, 4, 16, 5}};
+        for (int[] params : predictorParams) {
+            int bytesPerRow = (params[1] * params[3] * params[2] + 7) / 8;
+            int rowLength = params[0] == 2 ? bytesPerRow : bytesPerRow + 1;
+            // incomplete last row
+            byte[] data = new byte[rowLength * 500 + rowLength / 2];
+            random.nextBytes(data);
+            if (params[0] != 2) {
+                for (int i = 0; i < data.length; i += rowLength) {
+                    data[i] = (byte) random.nextInt(5);
+                }
+            }
+
+            PdfDictionary decodeParams = new PdfDictionary();
+            decodeParams.put(PdfName.Predictor, new PdfNumber(params[0]));
+            decodeParams.put(PdfName.Colors, new PdfNumber(params[1]));
+            decodeParams.put(PdfName.BitsPerComponent, new PdfNumber(params[2]));
+            decodeParams.put(PdfName.Columns, new PdfNumber(params[3]));
+            PdfArray decodeParamsArray = new PdfArray();
+            decodeParamsArray.add(PdfNull.PDF_NULL);
+            decodeParamsArray.add(decodeParams);
+            PdfArray filters = new PdfArray();
+            filters.add(PdfName.A85);
+            filters.add(PdfName.Fl);
+
+            byte[] encoded = ascii85Encode(flateEncode(data));
+            PdfStream stream = new PdfStream(encoded);
+            stream.put(PdfName.Filter, filters);
+            stream.put(PdfName.DecodeParms, decodeParamsArray);
+
+            byte[] expected = PdfReader.decodeBytes(encoded.clone(), stream);
+            byte[] actual = StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(encoded), stream));
+            Assert.assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void decodeStreamWithZeroPredictorColumnsTest() throws IOException {
+        PdfDictionary decodeParams = new PdfDictionary();
+        decodeParams.put(PdfName.Predictor, new PdfNumber(12));
+        decodeParams.put(PdfName.Columns, new PdfNumber(0));
+        byte[] encoded = flateEncode(new byte[] {0, 1, 2, 3});
+        PdfStream stream = new PdfStream(encoded);
+        stream.put(PdfName.Filter, PdfName.FlateDecode);
+        stream.put(PdfName.DecodeParms, decodeParams);
+
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(PdfException.InvalidPredictorRowSize1, 0));
+        PdfReader.decodeStream(new ByteArrayInputStream(encoded), stream);
+    }
+
+    @Test
+    public void decodeCorruptedFlateStreamTest() throws IOException {
+        byte[] data = new byte[20000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * i % 251);
+        }
+        byte[] encoded = flateEncode(data);
+        // the data is corrupted in the middle, so that the decoding fails after a part of it is inflated
+        for (int i = encoded.length / 2; i < encoded.length / 2 + 16; i++) {
+            encoded[i] = (byte) 0xff;
+        }
+        PdfStream stream = new PdfStream(encoded);
+        stream.put(PdfName.Filter, PdfName.FlateDecode);
+
+        byte[] expected = FlateDecodeFilter.flateDecode(encoded, false);
+        Assert.assertTrue(expected.length > 0);
+        byte[] actual = StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(encoded), stream));
+        // the stream is inflated block by block, so the bytes inflated by the failing call are lost
+        Assert.assertTrue(actual.length <= expected.length);
+        Assert.assertArrayEquals(Arrays.copyOf(expected, actual.length), actual);
+    }
+
+    @Test
+    public void corruptedFlateStreamReleasesInflaterTest() throws IOException {
+        byte[] data = new byte[20000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * i % 251);
+        }
+        byte[] encoded = flateEncode(data);
+        for (int i = encoded.length / 2; i < encoded.length / 2 + 16; i++) {
+            encoded[i] = (byte) 0xff;
+        }
+        ZipInstancePool pool = new ZipInstancePool(1, 2);
+        ZipFlateCodec codec = new ZipFlateCodec(pool);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(FlateDecodeFilter.flateDecode(encoded, false, codec).length > 0);
+            Assert.assertNull(FlateDecodeFilter.flateDecode(encoded, true, codec));
+            Assert.assertNull(new FlateDecodeStrictFilter(codec).decode(encoded, PdfName.FlateDecode, null, new PdfDictionary()));
+        }
+        // the inflater is returned to the pool after each failure and is reused
+        Assert.assertEquals(1, pool.getInflaterMissCount());
+        Assert.assertEquals(29, pool.getInflaterHitCount());
+        pool.clear();
+    }
+
+    @Test
+    public void openEncryptedStreamTest() throws IOException {
+        byte[] password = "password".getBytes();
+        int[] algorithms = {EncryptionConstants.STANDARD_ENCRYPTION_128, EncryptionConstants.ENCRYPTION_AES_128,
+                EncryptionConstants.ENCRYPTION_AES_256};
+        for (int algorithm : algorithms) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos,
+                    new WriterProperties().setStandardEncryption(password, password, EncryptionConstants.ALLOW_PRINTING, algorithm)));
+            for (int i = 0; i < 10; i++) {
+                PdfPage page = pdfDocument.addNewPage();
+                StringBuilder content = new StringBuilder();
+                for (int j = 0; j < 1000; j++) {
+                    content.append(i).append(' ').append(j).append(" m\n");
+                }
+                page.getFirstContentStream().setData(content.toString().getBytes());
+            }
+            pdfDocument.close();
+
+            PdfReader reader = new PdfReader(new ByteArrayInputStream(baos.toByteArray()), new ReaderProperties().setPassword(password));
+            pdfDocument = new PdfDocument(reader);
+            for (int i = 1; i <= pdfDocument.getNumberOfPages(); i++) {
+                PdfStream stream = pdfDocument.getPage(i).getFirstContentStream();
+                InputStream decoded = reader.openStream(stream, true);
+                Assert.assertArrayEquals(reader.readStreamBytes(stream, true), StreamUtil.inputStreamToArray(decoded));
+                decoded.close();
+                InputStream raw = reader.openStream(stream, false);
+                Assert.assertArrayEquals(reader.readStreamBytesRaw(stream), StreamUtil.inputStreamToArray(raw));
+                raw.close();
+            }
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    public void differentFiltersEmptyStreamTest() throws IOException {
+        byte[] b = new byte[1000];
+
+        PdfArray array = new PdfArray();
+        array.add(PdfName.Fl);
+        array.add(PdfName.AHx);
+        array.add(PdfName.A85);
+        array.add(PdfName.RunLengthDecode);
+
+        PdfStream stream = new PdfStream(b);
+        stream.put(PdfName.Filter, array);
+
+        Assert.assertEquals(0, StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(b), stream)).length);
+    }
+
+    @Test
+    public void decodeStreamWithAsciiHexAndRunLengthTest() throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream runLength = new ByteArrayOutputStream();
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextBoolean()) {
+                int count = random.nextInt(128);
+                runLength.write(count);
+                for (int j = 0; j <= count; j++) {
+                    runLength.write(random.nextInt(256));
+                }
+            } else {
+                runLength.write(257 - 2 - random.nextInt(127));
+                runLength.write(random.nextInt(256));
+            }
+        }
+        runLength.write(0x80);
+        StringBuilder hex = new StringBuilder();
+        for (byte b : runLength.toByteArray()) {
+            hex.append(String.format("%02X", b & 0xff));
+            if (hex.length() % 80 == 0) {
+                hex.append('\n');
+            }
+        }
+        hex.append('>');
+        byte[] encoded = hex.toString().getBytes();
+
+        PdfArray filters = new PdfArray();
+        filters.add(PdfName.AHx);
+        filters.add(PdfName.RunLengthDecode);
+        PdfStream stream = new PdfStream(encoded);
+        stream.put(PdfName.Filter, filters);
+
+        byte[] expected = PdfReader.decodeBytes(encoded, stream);
+        byte[] actual = StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(encoded), stream));
+        Assert.assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    public void decodeLzwStreamTest() throws IOException {
+        // example from ISO 32000-1, 7.4.4.2
+        byte[] encoded = {(byte) 0x80, 0x0B, 0x60, 0x50, 0x22, 0x0C, 0x0C, (byte) 0x85, 0x01};
+        PdfStream stream = new PdfStream(encoded);
+        stream.put(PdfName.Filter, PdfName.LZWDecode);
+
+        byte[] decoded = StreamUtil.inputStreamToArray(PdfReader.decodeStream(new ByteArrayInputStream(encoded), stream));
+        Assert.assertEquals("-----A---B", new String(decoded));
+        Assert.assertArrayEquals(PdfReader.decodeBytes(encoded, stream), decoded);
+    }
+
+    private static byte[] flateEncode(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DeflaterOutputStream zip = new DeflaterOutputStream(baos);
+        zip.write(data);
+        zip.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] ascii85Encode(byte[] data) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int i = 0; i < data.length; i += 4) {
+            int n = Math.min(4, data.length - i);
+            long value = 0;
+            for (int j = 0; j < 4; j++) {
+                value = (value << 8) | (j < n ? data[i + j] & 0xff : 0);
+            }
+            if (value == 0 && n == 4) {
+                baos.write('z');
+                continue;
+            }
+            byte[] group = new byte[5];
+            for (int j = 4; j >= 0; j--) {
+                group[j] = (byte) ('!' + value % 85);
+                value /= 85;
+            }
+            baos.write(group, 0, n + 1);
+            if (i % 64 == 0) {
+                baos.write('\n');
+            }
+        }
+        baos.write('~');
+        baos.write('>');
+        return baos.toByteArray();
+    }
 }
@@ -48,6 +48,7 @@ import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.util.FileUtil;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
@@ -61,6 +62,7 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -68,6 +70,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 @Category(IntegrationTest.class)
 public class PdfReaderTest extends ExtendedITextTest {
@@ -155,6 +158,60 @@ public class PdfReaderTest extends ExtendedITextTest {
         pdfDoc.close();
     }
 
+    @Test
+    public void lazyXrefLoadingWithFullCompression() throws IOException {
+        String filename = sourceFolder + "1000PagesDocumentWithFullCompression.pdf";
+
+        PdfDocument eagerDoc = new PdfDocument(new PdfReader(filename));
+        PdfReader reader = new PdfReader(filename, new ReaderProperties().setLazyXrefLoading(true));
+        PdfDocument lazyDoc = new PdfDocument(reader);
+        PdfXrefTable xref = lazyDoc.getXref();
+
+        Assert.assertEquals(eagerDoc.getNumberOfPdfObjects(), lazyDoc.getNumberOfPdfObjects());
+        int lastObjNr = lazyDoc.getNumberOfPdfObjects() - 1;
+        Assert.assertTrue(xref.hasLazyEntry(lastObjNr));
+
+        Assert.assertArrayEquals(eagerDoc.getPage(1).getContentBytes(), lazyDoc.getPage(1).getContentBytes());
+        Assert.assertTrue("Objects which were not requested shall not be loaded", xref.hasLazyEntry(lastObjNr));
+
+        for (int i = 0; i <= lastObjNr; i++) {
+            PdfObject eagerObject = eagerDoc.getPdfObject(i);
+            PdfObject lazyObject = lazyDoc.getPdfObject(i);
+            Assert.assertEquals(eagerObject == null ? null : eagerObject.toString(),
+                    lazyObject == null ? null : lazyObject.toString());
+        }
+        Assert.assertArrayEquals(eagerDoc.getPage(1000).getContentBytes(), lazyDoc.getPage(1000).getContentBytes());
+        Assert.assertFalse(xref.hasLazyEntry(lastObjNr));
+        Assert.assertFalse(reader.hasRebuiltXref());
+
+        eagerDoc.close();
+        lazyDoc.close();
+    }
+
+    @Test
+    public void lazyXrefLoadingWithIncrementalUpdates() throws IOException {
+        String filename = sourceFolder + "10PagesDocumentAppended.pdf";
+
+        PdfDocument eagerDoc = new PdfDocument(new PdfReader(filename));
+        PdfDocument lazyDoc = new PdfDocument(new PdfReader(filename, new ReaderProperties().setLazyXrefLoading(true)));
+
+        Assert.assertEquals(eagerDoc.getNumberOfPages(), lazyDoc.getNumberOfPages());
+        for (int i = 1; i <= eagerDoc.getNumberOfPages(); i++) {
+            Assert.assertArrayEquals(eagerDoc.getPage(i).getContentBytes(), lazyDoc.getPage(i).getContentBytes());
+        }
+        for (int i = 0; i < eagerDoc.getNumberOfPdfObjects(); i++) {
+            PdfIndirectReference eagerRef = eagerDoc.getXref().get(i);
+            PdfIndirectReference lazyRef = lazyDoc.getXref().get(i);
+            Assert.assertEquals(eagerRef == null ? null : eagerRef.toString(), lazyRef == null ? null : lazyRef.toString());
+            if (eagerRef != null) {
+                Assert.assertEquals(eagerRef.getOffset(), lazyRef.getOffset());
+            }
+        }
+
+        eagerDoc.close();
+        lazyDoc.close();
+    }
+
     @Test
     public void objectStreamIncrementalUpdateReading() throws IOException {
          /*
@@ -789,6 +846,46 @@ public class PdfReaderTest extends ExtendedITextTest {
         document.close();
     }
 
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR_WHILE_READING_TABLE_WILL_BE_REBUILT, count = 2))
+    public void rebuildXrefInParallel() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos, new WriterProperties().setCompressionLevel(CompressionConstants.NO_COMPRESSION)));
+        for (int i = 0; i < 5000; i++) {
+            new PdfCanvas(pdfDoc.addNewPage()).rectangle(100, 100, i % 400, 100).fill().release();
+        }
+        pdfDoc.close();
+        byte[] damaged = baos.toByteArray();
+        int startxref = new String(damaged, "ISO-8859-1").lastIndexOf("startxref");
+        damaged[startxref] = 'x';
+        // big enough to be split into several chunks
+        Assert.assertTrue(damaged.length > 1 << 20);
+
+        PdfReader serialReader = new PdfReader(new ByteArrayInputStream(damaged));
+        PdfDocument serialDoc = new PdfDocument(serialReader);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        PdfReader parallelReader = new PdfReader(new ByteArrayInputStream(damaged), new ReaderProperties().setXrefRebuildPool(pool));
+        PdfDocument parallelDoc = new PdfDocument(parallelReader);
+        pool.shutdown();
+
+        Assert.assertTrue(serialReader.hasRebuiltXref());
+        Assert.assertTrue(parallelReader.hasRebuiltXref());
+        Assert.assertEquals(serialDoc.getNumberOfPdfObjects(), parallelDoc.getNumberOfPdfObjects());
+        for (int i = 0; i < serialDoc.getNumberOfPdfObjects(); i++) {
+            PdfIndirectReference serialRef = serialDoc.getXref().get(i);
+            PdfIndirectReference parallelRef = parallelDoc.getXref().get(i);
+            Assert.assertEquals(serialRef == null ? null : serialRef.toString(), parallelRef == null ? null : parallelRef.toString());
+            if (serialRef != null) {
+                Assert.assertEquals(serialRef.getOffset(), parallelRef.getOffset());
+            }
+        }
+        Assert.assertEquals(5000, parallelDoc.getNumberOfPages());
+        Assert.assertArrayEquals(serialDoc.getPage(5000).getContentBytes(), parallelDoc.getPage(5000).getContentBytes());
+
+        serialDoc.close();
+        parallelDoc.close();
+    }
+
     @Test
     public void correctSimpleDoc2() throws IOException {
         String filename = sourceFolder + "correctSimpleDoc2.pdf";
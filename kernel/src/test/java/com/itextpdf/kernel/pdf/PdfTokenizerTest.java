@@ -341,4 +341,37 @@ public class PdfTokenizerTest extends ExtendedITextTest {
         tok.nextToken();
         Assert.assertTrue(tok.tokenValueEqualsTo(data.getBytes(StandardCharsets.ISO_8859_1)));
     }
+
+    @Test
+    public void primitiveValuesAndStaticNamesTest() throws IOException {
+        String data = "/Type 12 0 R -7 .25 -3.5 /CustomName 2147483648";
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource(data.getBytes(StandardCharsets.ISO_8859_1))));
+
+        tok.nextValidToken();
+        Assert.assertSame(PdfName.Type, PdfName.getStaticName(tok.getTokenBuffer(), 0, tok.getTokenLength()));
+
+        tok.nextValidToken();
+        Assert.assertEquals(PdfTokenizer.TokenType.Ref, tok.getTokenType());
+        Assert.assertEquals(12, tok.getObjNr());
+        Assert.assertEquals(0, tok.getGenNr());
+
+        tok.nextValidToken();
+        Assert.assertEquals(-7, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(0.25, tok.getDoubleValue(), 0);
+        tok.nextValidToken();
+        Assert.assertEquals(-3.5, tok.getDoubleValue(), 0);
+
+        tok.nextValidToken();
+        Assert.assertNull(PdfName.getStaticName(tok.getTokenBuffer(), 0, tok.getTokenLength()));
+
+        tok.nextValidToken();
+        Assert.assertEquals(2147483648L, tok.getLongValue());
+        try {
+            tok.getIntValue();
+            Assert.fail("Integer overflow shall cause NumberFormatException");
+        } catch (NumberFormatException expected) {
+        }
+    }
 }
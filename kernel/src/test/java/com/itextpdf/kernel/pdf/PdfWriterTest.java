@@ -45,6 +45,8 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.io.util.DateTimeUtil;
 import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.filters.ZipFlateCodec;
+import com.itextpdf.kernel.pdf.filters.ZipInstancePool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 import org.junit.Assert;
@@ -53,11 +55,15 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Category(IntegrationTest.class)
 public class PdfWriterTest extends ExtendedITextTest {
@@ -626,4 +632,192 @@ public class PdfWriterTest extends ExtendedITextTest {
         Assert.assertArrayEquals("Stream by InputStream", streamContent.getBytes(), pdfStream.getBytes());
         document.close();
     }
+
+    @Test
+    public void compactXrefTest() throws IOException {
+        compactXrefTest("compactXref", false);
+    }
+
+    @Test
+    public void compactXrefWithFullCompressionTest() throws IOException {
+        compactXrefTest("compactXrefWithFullCompression", true);
+    }
+
+    private void compactXrefTest(String name, boolean fullCompression) throws IOException {
+        String regularFilename = destinationFolder + name + "_regular.pdf";
+        String compactFilename = destinationFolder + name + "_compact.pdf";
+        createDocumentWithFlushedPages(new WriterProperties().setFullCompressionMode(fullCompression), regularFilename);
+        createDocumentWithFlushedPages(new WriterProperties().setFullCompressionMode(fullCompression).useCompactXref(), compactFilename);
+
+        PdfReader regularReader = new PdfReader(regularFilename);
+        PdfDocument regularDocument = new PdfDocument(regularReader);
+        PdfReader compactReader = new PdfReader(compactFilename);
+        PdfDocument compactDocument = new PdfDocument(compactReader);
+        Assert.assertFalse("Rebuilt", compactReader.hasRebuiltXref());
+        Assert.assertFalse("Fixed", compactReader.hasFixedXref());
+        Assert.assertEquals(regularDocument.getNumberOfPages(), compactDocument.getNumberOfPages());
+        Assert.assertEquals(regularDocument.getNumberOfPdfObjects(), compactDocument.getNumberOfPdfObjects());
+        for (int i = 1; i < regularDocument.getNumberOfPdfObjects(); i++) {
+            PdfIndirectReference regularReference = regularDocument.getXref().get(i);
+            PdfIndirectReference compactReference = compactDocument.getXref().get(i);
+            Assert.assertEquals(regularReference.isFree(), compactReference.isFree());
+            Assert.assertEquals(regularReference.getGenNumber(), compactReference.getGenNumber());
+            Assert.assertEquals(regularReference.getObjStreamNumber(), compactReference.getObjStreamNumber());
+            Assert.assertEquals(regularReference.getIndex(), compactReference.getIndex());
+        }
+        Assert.assertEquals("page 100", compactDocument.getPage(100).getPdfObject().getAsString(new PdfName("Label")).getValue());
+        regularDocument.close();
+        compactDocument.close();
+    }
+
+    private void createDocumentWithFlushedPages(WriterProperties properties, String filename) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(filename, properties));
+        for (int i = 1; i <= 100; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getPdfObject().put(new PdfName("Label"), new PdfString("page " + i));
+            int pageObjNr = page.getPdfObject().getIndirectReference().getObjNumber();
+            page.flush();
+            PdfIndirectReference pageReference = pdfDoc.getXref().get(pageObjNr);
+            Assert.assertTrue(pageReference.checkState(PdfObject.FLUSHED));
+            Assert.assertEquals(page.getPdfObject().getIndirectReference(), pageReference);
+        }
+        pdfDoc.close();
+    }
+
+    @Test
+    public void parallelCompressionTest() throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (boolean fullCompression : new boolean[] {false, true}) {
+                byte[] expected = createDocumentWithContent(new WriterProperties().setFullCompressionMode(fullCompression));
+                byte[] parallel = createDocumentWithContent(new WriterProperties().setFullCompressionMode(fullCompression)
+                        .setCompressionExecutor(executor));
+                // tiny budget makes writing thread wait for each stream
+                byte[] parallelWithTinyBudget = createDocumentWithContent(new WriterProperties().setFullCompressionMode(fullCompression)
+                        .setCompressionExecutor(executor, 1));
+                assertSameObjects(expected, parallel);
+                assertSameObjects(expected, parallelWithTinyBudget);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelCompressionEncryptedTest() throws IOException {
+        byte[] password = "password".getBytes();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int algorithm : new int[] {EncryptionConstants.STANDARD_ENCRYPTION_128, EncryptionConstants.ENCRYPTION_AES_128}) {
+                byte[] encrypted = createDocumentWithContent(new WriterProperties().setCompressionExecutor(executor)
+                        .setStandardEncryption(password, password, EncryptionConstants.ALLOW_PRINTING, algorithm));
+                PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(encrypted),
+                        new ReaderProperties().setPassword(password)));
+                for (int i = 1; i < pdfDoc.getNumberOfPdfObjects(); i++) {
+                    PdfObject object = pdfDoc.getPdfObject(i);
+                    if (object != null && object.isStream() && !PdfName.XRef.equals(((PdfStream) object).getAsName(PdfName.Type))) {
+                        // fails on a stream which is not encrypted
+                        Assert.assertNotNull(((PdfStream) object).getBytes());
+                    }
+                }
+                for (int i = 1; i <= pdfDoc.getNumberOfPages(); i++) {
+                    Assert.assertArrayEquals(createContent(i).getBytes(), pdfDoc.getPage(i).getContentBytes());
+                }
+                pdfDoc.close();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void flateCodecWithPoolTest() throws IOException {
+        ZipInstancePool pool = new ZipInstancePool(1, 2);
+        ZipFlateCodec codec = new ZipFlateCodec(pool);
+        byte[] expected = createDocumentWithContent(new WriterProperties().setFullCompressionMode(true)
+                .setFlateCodec(new ZipFlateCodec(null)));
+        byte[] pooled = createDocumentWithContent(new WriterProperties().setFullCompressionMode(true).setFlateCodec(codec));
+        assertSameObjects(expected, pooled);
+        // all the streams are compressed one by one with the same level, so a single deflater is reused
+        Assert.assertEquals(1, pool.getDeflaterMissCount());
+        Assert.assertTrue(pool.getDeflaterHitCount() > 200);
+
+        PdfDocument expectedDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(expected),
+                new ReaderProperties().setFlateCodec(new ZipFlateCodec(null))));
+        PdfDocument pooledDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(pooled), new ReaderProperties().setFlateCodec(codec)));
+        for (int i = 1; i <= expectedDoc.getNumberOfPages(); i++) {
+            Assert.assertArrayEquals(expectedDoc.getPage(i).getContentBytes(), pooledDoc.getPage(i).getContentBytes());
+        }
+        expectedDoc.close();
+        pooledDoc.close();
+        Assert.assertEquals(1, pool.getInflaterMissCount());
+        Assert.assertTrue(pool.getInflaterHitCount() > 200);
+        pool.clear();
+    }
+
+    @Test
+    public void streamTypeCompressionSettingsTest() throws IOException {
+        byte[] uncompressedContent = createDocumentWithContent(new WriterProperties().setFullCompressionMode(true)
+                .setCompressionLevel(CompressedStreamType.CONTENT, CompressionConstants.NO_COMPRESSION));
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(uncompressedContent)));
+        Assert.assertNull(pdfDoc.getPage(1).getFirstContentStream().get(PdfName.Filter));
+        PdfStream objectStream = (PdfStream) pdfDoc.getPdfObject(pdfDoc.getPage(1).getPdfObject().getIndirectReference().getObjStreamNumber());
+        Assert.assertEquals(PdfName.FlateDecode, objectStream.get(PdfName.Filter));
+        pdfDoc.close();
+
+        byte[] expected = createDocumentWithContent(new WriterProperties());
+        byte[] huffmanOnly = createDocumentWithContent(new WriterProperties()
+                .setCompressionStrategy(CompressedStreamType.CONTENT, CompressionConstants.HUFFMAN_ONLY));
+        Assert.assertFalse(Arrays.equals(expected, huffmanOnly));
+        PdfDocument expectedDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(expected)));
+        PdfDocument huffmanOnlyDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(huffmanOnly)));
+        for (int i = 1; i <= expectedDoc.getNumberOfPages(); i++) {
+            Assert.assertArrayEquals(expectedDoc.getPage(i).getContentBytes(), huffmanOnlyDoc.getPage(i).getContentBytes());
+        }
+        expectedDoc.close();
+        huffmanOnlyDoc.close();
+    }
+
+    private static byte[] createDocumentWithContent(WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos, properties));
+        for (int i = 1; i <= 200; i++) {
+            PdfPage page = pdfDoc.addNewPage();
+            page.getFirstContentStream().setData(createContent(i).getBytes());
+            PdfDictionary dictionary = new PdfDictionary();
+            dictionary.put(new PdfName("Page"), new PdfNumber(i));
+            page.getPdfObject().put(new PdfName("Info"), dictionary.makeIndirect(pdfDoc));
+            if (i % 3 == 0) {
+                page.flush();
+            }
+        }
+        pdfDoc.close();
+        return baos.toByteArray();
+    }
+
+    private static String createContent(int pageNumber) {
+        StringBuilder content = new StringBuilder();
+        for (int j = 0; j < 200; j++) {
+            content.append(pageNumber).append(' ').append(j).append(" m ").append(j).append(' ').append(pageNumber).append(" l S\n");
+        }
+        return content.toString();
+    }
+
+    private static void assertSameObjects(byte[] expected, byte[] actual) throws IOException {
+        Assert.assertEquals(expected.length, actual.length);
+        PdfDocument expectedDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(expected)));
+        PdfDocument actualDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(actual)));
+        Assert.assertEquals(expectedDoc.getNumberOfPdfObjects(), actualDoc.getNumberOfPdfObjects());
+        for (int i = 1; i < expectedDoc.getNumberOfPdfObjects(); i++) {
+            PdfIndirectReference expectedRef = expectedDoc.getXref().get(i);
+            PdfIndirectReference actualRef = actualDoc.getXref().get(i);
+            Assert.assertEquals(expectedRef.getOffset(), actualRef.getOffset());
+            Assert.assertEquals(expectedRef.getIndex(), actualRef.getIndex());
+        }
+        for (int i = 1; i <= expectedDoc.getNumberOfPages(); i++) {
+            Assert.assertArrayEquals(expectedDoc.getPage(i).getContentBytes(), actualDoc.getPage(i).getContentBytes());
+        }
+        expectedDoc.close();
+        actualDoc.close();
+    }
 }
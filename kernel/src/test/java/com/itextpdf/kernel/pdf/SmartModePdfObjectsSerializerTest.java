@@ -55,17 +55,32 @@ public class SmartModePdfObjectsSerializerTest extends ExtendedITextTest {
         SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
         SerializedObjectContent serializedObject = serializer.serializeObject(dict1);
 
-        //It is essential to serialize object with huge amount of memory
-        StringBuilder stringBytes = new StringBuilder().append("$D$N/FirstDict$A$S");
-        String end = "$D$\\D$\\A$\\D";
-        for (int i = 0; i < 10000; i++) {
-            stringBytes.append("\0");
-        }
-        stringBytes.append(end);
-
+        // nested objects are represented by the ids of their serialized contents
         SerializedObjectContent expected = new SerializedObjectContent(
-                stringBytes.toString().getBytes(StandardCharsets.UTF_8));
+                "$D$N/FirstDict$R0$\\D".getBytes(StandardCharsets.UTF_8));
 
         Assert.assertEquals(expected, serializedObject);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void nestedObjectsSerializedExactlyTest() {
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+        SerializedObjectContent first = serializer.serializeObject(createDictionaryWithNestedArray("/A"));
+        SerializedObjectContent same = serializer.serializeObject(createDictionaryWithNestedArray("/A"));
+        SerializedObjectContent other = serializer.serializeObject(createDictionaryWithNestedArray("/B"));
+
+        Assert.assertEquals(first, same);
+        Assert.assertNotEquals(first, other);
+    }
+
+    private static PdfDictionary createDictionaryWithNestedArray(String name) {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        PdfArray array = new PdfArray();
+        array.add(new PdfName(name));
+        array.makeIndirect(document);
+        PdfDictionary dict = new PdfDictionary();
+        dict.put(PdfName.Resources, array);
+        dict.makeIndirect(document);
+        return dict;
+    }
+}
@@ -49,11 +49,13 @@ import com.itextpdf.kernel.pdf.action.PdfAction;
 import com.itextpdf.kernel.pdf.annot.PdfCircleAnnotation;
 import com.itextpdf.kernel.pdf.annot.PdfLinkAnnotation;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.util.Map;
 import org.junit.Assert;
@@ -218,4 +220,151 @@ public class SmartModeTest extends ExtendedITextTest {
 
         Assert.assertNull(new CompareTool().compareByContent(outFile, cmpFile, destinationFolder));
     }
+
+    @Test
+    public void fingerprintTestVectorTest() {
+        Assert.assertArrayEquals(new byte[16], MurmurHash3.hash128(new byte[0]));
+        byte[] hash = MurmurHash3.hash128("The quick brown fox jumps over the lazy dog".getBytes());
+        StringBuilder hex = new StringBuilder();
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b & 0xff));
+        }
+        Assert.assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", hex.toString());
+
+        byte[] data = "The quick brown fox jumps over the lazy dog".getBytes();
+        MurmurHash3 incrementalHash = new MurmurHash3();
+        for (int i = 0; i < data.length; i += 5) {
+            incrementalHash.update(data, i, Math.min(5, data.length - i));
+        }
+        Assert.assertArrayEquals(hash, incrementalHash.digest());
+    }
+
+    @Test
+    public void smartModeFlushedFirstStreamTest() throws IOException {
+        ByteArrayOutputStream source = new ByteArrayOutputStream();
+        PdfDocument sourceDoc = new PdfDocument(new PdfWriter(source));
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(100, 100));
+        new PdfCanvas(xObject, sourceDoc).rectangle(10, 10, 80, 80).fill();
+        new PdfCanvas(sourceDoc.addNewPage()).addXObject(xObject, 0, 0);
+        sourceDoc.close();
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        StreamFingerprintStore store = new StreamFingerprintStore();
+        PdfDocument outputDoc = new PdfDocument(new PdfWriter(baos,
+                new WriterProperties().useSmartMode(new SmartModeProperties().setFingerprintStore(store))));
+        for (int i = 0; i < 2; i++) {
+            PdfDocument srcDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(source.toByteArray())));
+            srcDoc.copyPagesTo(1, 1, outputDoc);
+            srcDoc.close();
+            outputDoc.flushCopiedObjects(srcDoc);
+            if (i == 0) {
+                // the streams seen for the first time are not read to be hashed
+                Assert.assertEquals(0, store.getCount());
+            }
+        }
+        outputDoc.close();
+
+        PdfDocument assertDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfIndirectReference xObject1 = assertDoc.getPage(1).getResources().getResource(PdfName.XObject)
+                .values(false).iterator().next().getIndirectReference();
+        PdfIndirectReference xObject2 = assertDoc.getPage(2).getResources().getResource(PdfName.XObject)
+                .values(false).iterator().next().getIndirectReference();
+        Assert.assertEquals(xObject1, xObject2);
+        assertDoc.close();
+    }
+
+    @Test
+    public void smartModeMaxCachedObjectsTest() throws IOException {
+        String srcFile = sourceFolder + "indirectResourcesStructure.pdf";
+
+        Assert.assertEquals(getFontReferences(srcFile, new WriterProperties().useSmartMode())[0],
+                getFontReferences(srcFile, new WriterProperties().useSmartMode())[1]);
+
+        int[] fontReferences = getFontReferences(srcFile,
+                new WriterProperties().useSmartMode(new SmartModeProperties().setMaxCachedObjects(0)));
+        Assert.assertNotEquals(fontReferences[0], fontReferences[1]);
+    }
+
+    @Test
+    public void smartModeFastFingerprintsTest() throws IOException {
+        String srcFile = sourceFolder + "indirectResourcesStructure.pdf";
+
+        int[] fontReferences = getFontReferences(srcFile,
+                new WriterProperties().useSmartMode(new SmartModeProperties().setFastFingerprints(true)));
+        Assert.assertEquals(fontReferences[0], fontReferences[1]);
+
+        // the fingerprints of the different algorithms are kept apart in the same store
+        StreamFingerprintStore store = new StreamFingerprintStore();
+        getFontReferences(srcFile, new WriterProperties().useSmartMode(new SmartModeProperties()
+                .setFingerprintStore(store)));
+        int count = store.getCount();
+        Assert.assertTrue(count > 0);
+        getFontReferences(srcFile, new WriterProperties().useSmartMode(new SmartModeProperties()
+                .setFingerprintStore(store).setFastFingerprints(true)));
+        Assert.assertEquals(2 * count, store.getCount());
+    }
+
+    @Test
+    public void smartModeCollisionVerificationTest() {
+        PdfDocument doc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        doc.addNewPage();
+        PdfStream stream = (PdfStream) new PdfStream("content".getBytes()).makeIndirect(doc);
+        PdfStream sameStream = (PdfStream) new PdfStream("content".getBytes()).makeIndirect(doc);
+        PdfStream otherStream = (PdfStream) new PdfStream("another content".getBytes()).makeIndirect(doc);
+
+        SmartModePdfObjectsSerializer serializer = new SmartModePdfObjectsSerializer();
+        Assert.assertTrue(serializer.isSameContent(stream, sameStream.getIndirectReference()));
+        Assert.assertFalse(serializer.isSameContent(stream, otherStream.getIndirectReference()));
+
+        SmartModePdfObjectsSerializer notVerifyingSerializer = new SmartModePdfObjectsSerializer(
+                new SmartModeProperties().setCollisionVerification(false));
+        Assert.assertTrue(notVerifyingSerializer.isSameContent(stream, otherStream.getIndirectReference()));
+        doc.close();
+    }
+
+    @Test
+    public void smartModeFingerprintStoreTest() throws IOException {
+        String srcFile = sourceFolder + "indirectResourcesStructure.pdf";
+        File indexFile = new File(destinationFolder + "smartModeFingerprintStoreTest.idx");
+
+        StreamFingerprintStore store = new StreamFingerprintStore(StreamFingerprintStore.DEFAULT_MAX_ENTRIES, indexFile);
+        Assert.assertEquals(0, store.getCount());
+        int[] fontReferences = getFontReferences(srcFile,
+                new WriterProperties().useSmartMode(new SmartModeProperties().setFingerprintStore(store)));
+        Assert.assertEquals(fontReferences[0], fontReferences[1]);
+        int count = store.getCount();
+        Assert.assertTrue(count > 0);
+        store.save();
+
+        StreamFingerprintStore loadedStore = new StreamFingerprintStore(StreamFingerprintStore.DEFAULT_MAX_ENTRIES, indexFile);
+        Assert.assertEquals(count, loadedStore.getCount());
+        fontReferences = getFontReferences(srcFile,
+                new WriterProperties().useSmartMode(new SmartModeProperties().setFingerprintStore(loadedStore)));
+        Assert.assertEquals(fontReferences[0], fontReferences[1]);
+        // the streams of the same file are recognized by the stored fingerprints
+        Assert.assertEquals(count, loadedStore.getCount());
+
+        StreamFingerprintStore limitedStore = new StreamFingerprintStore(1, indexFile);
+        Assert.assertEquals(1, limitedStore.getCount());
+    }
+
+    private static int[] getFontReferences(String srcFile, WriterProperties properties) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument outputDoc = new PdfDocument(new PdfWriter(baos, properties));
+        for (int i = 0; i < 2; i++) {
+            PdfDocument sourceDoc = new PdfDocument(new PdfReader(srcFile));
+            sourceDoc.copyPagesTo(1, 1, outputDoc);
+            sourceDoc.close();
+        }
+        outputDoc.close();
+
+        PdfDocument assertDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        int[] fontReferences = new int[2];
+        for (int i = 0; i < 2; i++) {
+            fontReferences[i] = assertDoc.getPage(i + 1).getPdfObject().getAsDictionary(PdfName.Resources)
+                    .getAsDictionary(PdfName.Font).getIndirectReference().getObjNumber();
+        }
+        assertDoc.close();
+        return fontReferences;
+    }
 }
@@ -70,6 +70,62 @@ public class FilteredTextEventListenerTest extends ExtendedITextTest {
         Assert.assertFalse(textIsInRectangle(doc, "Upper Right", upperLeft));
     }
 
+    @Test
+    public void textInRectangleTest() throws Exception {
+        PdfDocument doc = new PdfDocument(new PdfReader(sourceFolder + "in.pdf"));
+        float pageHeight = doc.getPage(1).getPageSize().getHeight();
+        Rectangle upperLeft = new Rectangle(0, (int) pageHeight - 30, 250, (int) pageHeight);
+
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        PdfTextExtractor.getTextFromPage(doc.getPage(1), strategy);
+        Assert.assertEquals("Upper Left", strategy.getTextInRectangle(upperLeft));
+        doc.close();
+    }
+
+    @Test
+    public void textInRectangleSameAsFilteredTest() throws Exception {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument doc = new PdfDocument(new PdfReader(inFile));
+        Rectangle pageSize = doc.getPage(1).getPageSize();
+
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        PdfTextExtractor.getTextFromPage(doc.getPage(1), strategy);
+        for (float y = pageSize.getBottom(); y < pageSize.getTop(); y += 100) {
+            Rectangle region = new Rectangle(pageSize.getLeft() + 150, y, 200, 120);
+            FilteredTextEventListener filterListener = new FilteredTextEventListener(new LocationTextExtractionStrategy(), new TextRegionEventFilter(region));
+            Assert.assertEquals(PdfTextExtractor.getTextFromPage(doc.getPage(1), filterListener), strategy.getTextInRectangle(region));
+        }
+        doc.close();
+    }
+
+    @Test
+    public void textFromPageRegionSameAsFilteredTest() throws Exception {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument doc = new PdfDocument(new PdfReader(inFile));
+        for (int page = 1; page <= 3; page++) {
+            Rectangle pageSize = doc.getPage(page).getPageSize();
+            for (float y = pageSize.getBottom(); y < pageSize.getTop(); y += 70) {
+                for (float x = pageSize.getLeft(); x < pageSize.getRight(); x += 150) {
+                    Rectangle region = new Rectangle(x, y, 180, 90);
+                    FilteredTextEventListener filterListener = new FilteredTextEventListener(new LocationTextExtractionStrategy(), new TextRegionEventFilter(region));
+                    Assert.assertEquals(PdfTextExtractor.getTextFromPage(doc.getPage(page), filterListener),
+                            PdfTextExtractor.getTextFromPageRegion(doc.getPage(page), region));
+                }
+            }
+        }
+        doc.close();
+    }
+
+    @Test
+    public void textFromPageRegionTest() throws Exception {
+        PdfDocument doc = new PdfDocument(new PdfReader(sourceFolder + "in.pdf"));
+        float pageHeight = doc.getPage(1).getPageSize().getHeight();
+        Rectangle upperLeft = new Rectangle(0, (int) pageHeight - 30, 250, (int) pageHeight);
+
+        Assert.assertEquals("Upper Left", PdfTextExtractor.getTextFromPageRegion(doc.getPage(1), upperLeft));
+        doc.close();
+    }
+
     private boolean textIsInRectangle(PdfDocument doc, String text, Rectangle rect) {
         FilteredTextEventListener filterListener = new FilteredTextEventListener(new LocationTextExtractionStrategy(), new TextRegionEventFilter(rect));
         String extractedText = PdfTextExtractor.getTextFromPage(doc.getPage(1), filterListener);
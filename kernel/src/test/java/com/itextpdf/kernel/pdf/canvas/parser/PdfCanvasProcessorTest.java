@@ -43,14 +43,29 @@
 package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.kernel.KernelLogMessageConstant;
 import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.colors.Color;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.FillingRule;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
@@ -58,17 +73,22 @@ import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.canvas.parser.util.ContentOperandStack;
 import com.itextpdf.kernel.pdf.colorspace.PdfColorSpace;
 import com.itextpdf.kernel.pdf.colorspace.PdfSpecialCs;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -110,6 +130,303 @@ public class PdfCanvasProcessorTest extends ExtendedITextTest {
         Assert.assertEquals(expectedPageEventsLog, pageEventsLog.toString());
     }
 
+    @Test
+    public void legacyInvokeOperatorOverrideTest() throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(sourceFolder + "tableWithImageAndText.pdf"));
+
+        StringBuilder pageEventsLog = new StringBuilder();
+        final int[] invokedOperators = {0};
+        for (int i = 1; i <= document.getNumberOfPages(); ++i) {
+            PdfCanvasProcessor processor = new PdfCanvasProcessor(new RecordEveryHighLevelEventListener(pageEventsLog)) {
+                @Override
+                protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
+                    invokedOperators[0]++;
+                    super.invokeOperator(operator, operands);
+                }
+            };
+            processor.processPageContent(document.getPage(i));
+        }
+
+        byte[] logBytes = Files.readAllBytes(Paths.get(sourceFolder + "contentStreamProcessorTest_events_log.dat"));
+        Assert.assertEquals(new String(logBytes, StandardCharsets.UTF_8), pageEventsLog.toString());
+        Assert.assertTrue(invokedOperators[0] > 0);
+    }
+
+    @Test
+    public void legacyInvokeOperatorNestedFormXObjectsTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFormXObject inner = new PdfFormXObject(new Rectangle(100, 20));
+        new PdfCanvas(inner, document).beginText().setFontAndSize(PdfFontFactory.createFont(), 12)
+                .moveText(0, 5).showText("Inner").endText();
+        PdfFormXObject outer = new PdfFormXObject(new Rectangle(200, 50));
+        new PdfCanvas(outer, document).saveState().concatMatrix(1, 0, 0, 1, 10, 10).addXObject(inner, 0, 0)
+                .restoreState().beginText().setFontAndSize(PdfFontFactory.createFont(), 12).moveText(0, 30)
+                .showText("Outer").endText();
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.addXObject(outer, 50, 700);
+        canvas.addXObject(inner, 50, 600);
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        LocationTextExtractionStrategy expected = new LocationTextExtractionStrategy();
+        new PdfCanvasProcessor(expected).processPageContent(document.getPage(1));
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        // the operators are invoked with operand lists, the nested ones while the outer Do is being invoked
+        new PdfCanvasProcessor(strategy) {
+            @Override
+            protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
+                super.invokeOperator(operator, operands);
+            }
+        }.processPageContent(document.getPage(1));
+        document.close();
+
+        Assert.assertEquals(expected.getResultantText(), strategy.getResultantText());
+    }
+
+    @Test
+    public void listAndPrimitiveOperatorsTest() throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(sourceFolder + "tableWithImageAndText.pdf"));
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new NoOpEventListener());
+
+        final List<PdfObject> tdOperands = new ArrayList<>();
+        final IContentOperator[] originalTd = new IContentOperator[1];
+        originalTd[0] = processor.registerContentOperator("Td", new IContentOperator() {
+            @Override
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                tdOperands.addAll(operands);
+                originalTd[0].invoke(processor, operator, operands);
+            }
+        });
+        final int[] primitiveCalls = {0};
+        final IContentOperator originalTj = processor.registerContentOperator("Tj", new IPrimitiveContentOperator() {
+            @Override
+            public void invoke(PdfCanvasProcessor processor, ContentOperandStack operands) {
+                Assert.assertEquals("Tj", operands.getOperator().toString());
+                Assert.assertEquals(1, operands.size());
+                primitiveCalls[0]++;
+            }
+
+            @Override
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                Assert.fail();
+            }
+        });
+        processor.processPageContent(document.getPage(1));
+
+        Assert.assertTrue(originalTj instanceof IPrimitiveContentOperator);
+        Assert.assertTrue(primitiveCalls[0] > 0);
+        Assert.assertFalse(tdOperands.isEmpty());
+        Assert.assertTrue(tdOperands.get(0) instanceof PdfNumber);
+        Assert.assertEquals("Td", tdOperands.get(2).toString());
+    }
+
+    @Test
+    public void formXObjectContentCacheTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFormXObject header = new PdfFormXObject(new Rectangle(200, 50));
+        new PdfCanvas(header, document).beginText().setFontAndSize(PdfFontFactory.createFont(), 12)
+                .moveText(10, 20).showText("Repeated header").endText();
+        for (int i = 0; i < 3; i++) {
+            PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+            canvas.addXObject(header, 50, 700);
+            canvas.addXObject(header, 50 + 100 * i, 100);
+            canvas.beginText().setFontAndSize(PdfFontFactory.createFont(), 12).moveText(50, 400)
+                    .showText("Page " + (i + 1)).endText();
+        }
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        FormXObjectContentCache cache = new FormXObjectContentCache();
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            LocationTextExtractionStrategy expected = new LocationTextExtractionStrategy();
+            new PdfCanvasProcessor(expected).processPageContent(document.getPage(i));
+
+            LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+            PdfCanvasProcessor processor = new PdfCanvasProcessor(strategy);
+            processor.setFormXObjectContentCache(cache);
+            processor.processPageContent(document.getPage(i));
+            Assert.assertEquals(expected.getResultantText(), strategy.getResultantText());
+        }
+        Assert.assertEquals(1, cache.getCount());
+        long size = cache.getSize();
+        Assert.assertTrue(size > 0);
+
+        // the same form of another document is cached separately, and the contents of a closed document are removed
+        PdfDocument otherDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfCanvasProcessor otherProcessor = new PdfCanvasProcessor(new LocationTextExtractionStrategy());
+        otherProcessor.setFormXObjectContentCache(cache);
+        otherProcessor.processPageContent(otherDocument.getPage(1));
+        Assert.assertEquals(2, cache.getCount());
+        document.close();
+        cache.remove(document);
+        Assert.assertEquals(1, cache.getCount());
+        Assert.assertEquals(size, cache.getSize());
+        otherDocument.close();
+
+        FormXObjectContentCache tooSmallCache = new FormXObjectContentCache(1);
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(strategy);
+        processor.setFormXObjectContentCache(tooSmallCache);
+        processor.processPageContent(document.getPage(1));
+        Assert.assertTrue(strategy.getResultantText().contains("Repeated header"));
+        Assert.assertEquals(0, tooSmallCache.getCount());
+        document.close();
+    }
+
+    @Test
+    public void formXObjectWithoutResourcesNotCachedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(200, 50));
+        form.getPdfObject().setData("BT /F1 12 Tf 10 20 Td (Inherited resources) Tj ET".getBytes(StandardCharsets.ISO_8859_1));
+        form.getPdfObject().remove(PdfName.Resources);
+        for (int i = 0; i < 2; i++) {
+            PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+            // the font is registered in the page resources as /F1
+            canvas.beginText().setFontAndSize(PdfFontFactory.createFont(i == 0 ? StandardFonts.HELVETICA : StandardFonts.COURIER), 12)
+                    .moveText(50, 400).showText("Page " + (i + 1)).endText();
+            canvas.addXObject(form, 50, 700);
+        }
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        FormXObjectContentCache cache = new FormXObjectContentCache();
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+            PdfCanvasProcessor processor = new PdfCanvasProcessor(strategy);
+            processor.setFormXObjectContentCache(cache);
+            processor.processPageContent(document.getPage(i));
+            Assert.assertTrue(strategy.getResultantText().contains("Inherited resources"));
+        }
+        Assert.assertEquals(0, cache.getCount());
+        document.close();
+    }
+
+    @Test
+    public void clippingPathNotCalculatedOnCtmChangeTest() throws NoSuchFieldException, IllegalAccessException {
+        // the clips which are not intersected with the clipping path yet
+        Field pendingClips = ParserGraphicsState.class.getDeclaredField("pendingClips");
+        pendingClips.setAccessible(true);
+
+        ParserGraphicsState gs = new ParserGraphicsState();
+        Path pageArea = new Path();
+        pageArea.rectangle(0, 0, 600, 800);
+        gs.setClippingPath(pageArea);
+        Path triangle = new Path();
+        triangle.moveTo(100, 100);
+        triangle.lineTo(300, 100);
+        triangle.lineTo(100, 300);
+        gs.clip(triangle, FillingRule.NONZERO_WINDING);
+        gs.updateCtm(new Matrix(50, 50));
+        gs.updateCtm(new Matrix(2, 0, 0, 2, 0, 0));
+        // the pending clip is transformed together with the clipping path instead of being intersected with it
+        Assert.assertEquals(1, ((List<?>) pendingClips.get(gs)).size());
+
+        List<Point> points = new ArrayList<>();
+        for (Subpath subpath : gs.getClippingPath().getSubpaths()) {
+            points.addAll(subpath.getPiecewiseLinearApproximation());
+        }
+        Assert.assertNull(pendingClips.get(gs));
+        Assert.assertTrue(new Rectangle(25, 25, 100, 100).equalsWithEpsilon(Rectangle.calculateBBox(points), 0.001f));
+    }
+
+    @Test
+    public void fastRectangleClippingTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.saveState().rectangle(50, 50, 400, 600).clip().endPath();
+        canvas.saveState().rectangle(100, 20, 200, 200).eoClip().endPath();
+        canvas.saveState().rectangle(500, 500, 10, 10).clip().endPath().restoreState();
+        canvas.saveState().circle(200, 120, 50).clip().endPath();
+        canvas.rectangle(150, 100, 100, 100).clip().endPath().restoreState();
+        canvas.concatMatrix(1, 0, 0, 1, 30, 40);
+        canvas.rectangle(0, 0, 100, 100).clip().endPath();
+        canvas.restoreState().restoreState();
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        List<Rectangle> expected = new ArrayList<>();
+        PdfCanvasProcessor clipperProcessor = new PdfCanvasProcessor(new RecordClippingPathBoxes(expected));
+        clipperProcessor.setFastRectangleClipping(false);
+        clipperProcessor.processPageContent(document.getPage(1));
+        List<Rectangle> actual = new ArrayList<>();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new RecordClippingPathBoxes(actual));
+        Assert.assertTrue(processor.isFastRectangleClipping());
+        processor.processPageContent(document.getPage(1));
+        document.close();
+
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            if (expected.get(i) == null) {
+                Assert.assertNull(actual.get(i));
+            } else {
+                Assert.assertTrue(expected.get(i) + " " + actual.get(i), expected.get(i).equalsWithEpsilon(actual.get(i), 0.001f));
+            }
+        }
+        Assert.assertNull(expected.get(3));
+        Assert.assertTrue(new Rectangle(100, 50, 200, 170).equalsWithEpsilon(expected.get(2), 0.001f));
+    }
+
+    @Test
+    public void profilingProcessorStatisticsTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFormXObject inner = new PdfFormXObject(new Rectangle(100, 20));
+        new PdfCanvas(inner, document).beginText().setFontAndSize(PdfFontFactory.createFont(), 12)
+                .moveText(0, 5).showText("Inner").endText();
+        PdfFormXObject outer = new PdfFormXObject(new Rectangle(200, 50));
+        new PdfCanvas(outer, document).rectangle(0, 0, 200, 50).stroke().addXObject(inner, 10, 10);
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.addXObject(outer, 50, 700);
+        canvas.addXObject(inner, 50, 600);
+        ImageData image = ImageDataFactory.create(1, 1, 1, 8, new byte[] {(byte) 0x80}, null);
+        canvas.addImage(image, 50, 400, 10, true);
+        canvas.addImage(image, 50, 300, 10, false);
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        LocationTextExtractionStrategy expected = new LocationTextExtractionStrategy();
+        new PdfCanvasProcessor(expected).processPageContent(document.getPage(1));
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        ProfilingPdfCanvasProcessor processor = new ProfilingPdfCanvasProcessor(strategy).setResourceLengthCounting(true);
+        processor.processPageContent(document.getPage(1));
+        ContentStreamStatistics statistics = processor.getStatistics();
+        int pageContentLength = document.getPage(1).getContentBytes().length;
+        document.close();
+
+        Assert.assertEquals(expected.getResultantText(), strategy.getResultantText());
+        Assert.assertEquals(1, statistics.getPageNumber());
+        Assert.assertEquals(1, statistics.getPageContentStreamCount());
+        Assert.assertEquals(4, statistics.getProcessedContentCount());
+        Assert.assertEquals(4, statistics.getProcessedContentLengths().size());
+        Assert.assertEquals(pageContentLength, (int) statistics.getProcessedContentLengths().get(0));
+        long contentLength = 0;
+        for (int length : statistics.getProcessedContentLengths()) {
+            contentLength += length;
+        }
+        Assert.assertEquals(statistics.getProcessedContentLength(), contentLength);
+        Assert.assertEquals(3, statistics.getFormXObjectCount());
+        Assert.assertEquals(2, statistics.getMaxXObjectNestingDepth());
+        Assert.assertEquals(1, statistics.getImageXObjectCount());
+        Assert.assertEquals(1, statistics.getInlineImageCount());
+        Assert.assertEquals(Integer.valueOf(4), statistics.getOperatorCounts().get("Do"));
+        Assert.assertEquals(Integer.valueOf(2), statistics.getOperatorCounts().get("Tj"));
+        Assert.assertEquals(Integer.valueOf(1), statistics.getOperatorCounts().get("re"));
+        Assert.assertTrue(statistics.getResourceObjectCount() > 0);
+        Assert.assertTrue(statistics.getResourceLength() > 0);
+        long operatorsTime = 0;
+        for (ContentStreamStatistics.OperatorCategory category : ContentStreamStatistics.OperatorCategory.values()) {
+            Assert.assertTrue(statistics.getOperatorTime(category) >= 0);
+            operatorsTime += statistics.getOperatorTime(category);
+        }
+        Assert.assertTrue(operatorsTime <= statistics.getTotalTime());
+        Assert.assertEquals(3, statistics.toMap().get("formXObjectCount"));
+    }
+
     @Test
     public void processGraphicsStateResourceOperatorFillOpacityTest() throws IOException {
         PdfDocument document = new PdfDocument(new PdfReader(sourceFolder + "transparentText.pdf"));
@@ -332,6 +649,28 @@ public class PdfCanvasProcessorTest extends ExtendedITextTest {
         }
     }
 
+    private static class RecordClippingPathBoxes implements IEventListener {
+        private final List<Rectangle> boxes;
+
+        RecordClippingPathBoxes(List<Rectangle> boxes) {
+            this.boxes = boxes;
+        }
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            List<Point> points = new ArrayList<>();
+            for (Subpath subpath : ((ClippingPathInfo) data).getClippingPath().getSubpaths()) {
+                points.addAll(subpath.getPiecewiseLinearApproximation());
+            }
+            boxes.add(points.isEmpty() ? null : Rectangle.calculateBBox(points));
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return Collections.singleton(EventType.CLIP_PATH_CHANGED);
+        }
+    }
+
     private static class RecordEveryTextRenderEvent implements IEventListener {
         private Map<String, Object> map;
 
@@ -43,8 +43,24 @@
 package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.DecodedGlyphCache;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.EncryptionConstants;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.WriterProperties;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IPdfTextLocation;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextRunSink;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.TextSearchPatterns;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
@@ -53,7 +69,23 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Category(IntegrationTest.class)
 public class PdfTextExtractorTest extends ExtendedITextTest {
@@ -82,4 +114,209 @@ public class PdfTextExtractorTest extends ExtendedITextTest {
         pdfDocument.close();
     }
 
+    @Test
+    public void textFromAllPagesThreadSafeReadingTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument sequentialDocument = new PdfDocument(new PdfReader(inFile));
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile,
+                new ReaderProperties().setThreadSafeReading(true).setLazyXrefLoading(true)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromAllPages(pdfDocument, executor);
+            Assert.assertEquals(sequentialDocument.getNumberOfPages(), texts.size());
+            for (int i = 1; i <= sequentialDocument.getNumberOfPages(); i++) {
+                Assert.assertEquals(PdfTextExtractor.getTextFromPage(sequentialDocument.getPage(i)), texts.get(i - 1));
+            }
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+            sequentialDocument.close();
+        }
+    }
+
+    @Test
+    public void locationsFromAllPagesThreadSafeReadingTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        TextSearchPatterns patterns = new TextSearchPatterns(Arrays.asList("Alice", "Queen"),
+                Collections.singletonList(Pattern.compile("[Rr]abbit")));
+        PdfDocument sequentialDocument = new PdfDocument(new PdfReader(inFile));
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile,
+                new ReaderProperties().setThreadSafeReading(true)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<IPdfTextLocation> sequentialLocations = PdfTextExtractor.getLocationsFromAllPages(sequentialDocument, patterns, executor);
+            List<IPdfTextLocation> locations = PdfTextExtractor.getLocationsFromAllPages(pdfDocument, patterns, executor);
+            Assert.assertFalse(locations.isEmpty());
+            Assert.assertEquals(sequentialLocations.size(), locations.size());
+            int lastPageNumber = 1;
+            for (int i = 0; i < locations.size(); i++) {
+                IPdfTextLocation location = locations.get(i);
+                Assert.assertEquals(sequentialLocations.get(i).getText(), location.getText());
+                Assert.assertEquals(sequentialLocations.get(i).getPageNumber(), location.getPageNumber());
+                Assert.assertTrue(sequentialLocations.get(i).getRectangle().equalsWithEpsilon(location.getRectangle()));
+                Assert.assertTrue(location.getPageNumber() >= lastPageNumber);
+                lastPageNumber = location.getPageNumber();
+            }
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+            sequentialDocument.close();
+        }
+    }
+
+    @Test
+    public void textFromAllPagesRejectedTaskTest() throws IOException, InterruptedException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile,
+                new ReaderProperties().setThreadSafeReading(true)));
+        // the executor cannot accept the tasks of all the pages
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(1));
+        try {
+            PdfTextExtractor.getTextFromAllPages(pdfDocument, executor);
+            Assert.fail("RejectedExecutionException is expected");
+        } catch (RejectedExecutionException expected) {
+            // the tasks which are not started are cancelled, the started one is finished before the exception
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    public void textFromAllPagesEncryptedThreadSafeReadingTest() throws IOException, InterruptedException,
+            ExecutionException {
+        byte[] password = "password".getBytes();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument sourceDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties()
+                .setStandardEncryption(password, password, EncryptionConstants.ALLOW_PRINTING,
+                        EncryptionConstants.STANDARD_ENCRYPTION_128)));
+        sourceDocument.getDocumentInfo().setTitle("Encrypted title");
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        for (int i = 1; i <= 16; i++) {
+            new PdfCanvas(sourceDocument.addNewPage()).beginText().setFontAndSize(font, 12)
+                    .moveText(36, 700).showText("Page " + i).endText();
+        }
+        sourceDocument.close();
+
+        final PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray()),
+                new ReaderProperties().setPassword(password).setThreadSafeReading(true)));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromAllPages(pdfDocument, executor);
+            for (int i = 1; i <= 16; i++) {
+                Assert.assertEquals("Page " + i, texts.get(i - 1));
+            }
+
+            // the strings of the shared objects are decrypted by several threads at once
+            final PdfString title = pdfDocument.getTrailer().getAsDictionary(PdfName.Info).getAsString(PdfName.Title);
+            List<Future<String>> titles = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                titles.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return title.toUnicodeString();
+                    }
+                }));
+            }
+            for (Future<String> decryptedTitle : titles) {
+                Assert.assertEquals("Encrypted title", decryptedTitle.get());
+            }
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.PDF_REFERS_TO_NOT_EXISTING_PROPERTY_DICTIONARY))
+    public void textFromAllPagesWithoutThreadSafeReadingTest() throws IOException {
+        String inFile = sourceFolder + "noPropertiesInResources.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // without thread safe reading the pages are processed on the current thread
+            List<String> texts = PdfTextExtractor.getTextFromAllPages(pdfDocument, executor);
+            Assert.assertEquals(1, texts.size());
+            Assert.assertEquals("", texts.get(0));
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    public void decodedGlyphCacheSharedBetweenPagesTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile));
+        PdfDictionary fonts = pdfDocument.getPage(1).getResources().getResource(PdfName.Font);
+        PdfDictionary font = fonts.getAsDictionary(fonts.keySet().iterator().next());
+        DecodedGlyphCache cache = pdfDocument.getDecodedGlyphCache(font.getIndirectReference());
+
+        String text = PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1));
+        long misses = cache.getMisses();
+        Assert.assertTrue(misses > 0);
+        Assert.assertTrue(cache.getHits() > 0);
+        Assert.assertEquals(misses, cache.size());
+
+        // the page is processed with new font instances, which still use the same cache
+        Assert.assertEquals(text, PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1)));
+        Assert.assertEquals(misses, cache.getMisses());
+        Assert.assertTrue(cache.getHitRate() > 0.5);
+        pdfDocument.close();
+    }
+
+    @Test
+    public void decodedGlyphCacheSharedBetweenThreadsTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument sequentialDocument = new PdfDocument(new PdfReader(inFile));
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile,
+                new ReaderProperties().setThreadSafeReading(true)));
+        PdfDictionary fonts = pdfDocument.getPage(1).getResources().getResource(PdfName.Font);
+        PdfDictionary font = fonts.getAsDictionary(fonts.keySet().iterator().next());
+        DecodedGlyphCache cache = pdfDocument.getDecodedGlyphCache(font.getIndirectReference());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<String> texts = PdfTextExtractor.getTextFromAllPages(pdfDocument, executor);
+            for (int i = 1; i <= sequentialDocument.getNumberOfPages(); i++) {
+                Assert.assertEquals(PdfTextExtractor.getTextFromPage(sequentialDocument.getPage(i)), texts.get(i - 1));
+            }
+            // concurrent lookups of the same code may all miss, but the code is added only once
+            Assert.assertTrue(cache.size() > 0);
+            Assert.assertTrue(cache.getMisses() >= cache.size());
+            Assert.assertTrue(cache.getHits() > 0);
+        } finally {
+            executor.shutdown();
+            pdfDocument.close();
+            sequentialDocument.close();
+        }
+    }
+
+    @Test
+    public void streamTextFromAllPagesTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile));
+        final List<StringBuilder> pageTexts = new ArrayList<>();
+        PdfTextExtractor.streamTextFromAllPages(pdfDocument, new ITextRunSink() {
+            @Override
+            public void textRunAssembled(int pageNumber, String text, Rectangle boundingBox) {
+                Assert.assertTrue(pageNumber >= pageTexts.size());
+                while (pageTexts.size() < pageNumber) {
+                    pageTexts.add(new StringBuilder());
+                }
+                StringBuilder pageText = pageTexts.get(pageNumber - 1);
+                if (pageText.length() != 0) {
+                    pageText.append('\n');
+                }
+                pageText.append(text);
+                Assert.assertTrue(boundingBox.getWidth() > 0 && boundingBox.getHeight() > 0);
+            }
+        });
+        Assert.assertEquals(pdfDocument.getNumberOfPages(), pageTexts.size());
+        // the text of the page is shown line by line from the top, so it is the same as the reordered one
+        Assert.assertEquals(PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1)), pageTexts.get(0).toString());
+        pdfDocument.close();
+    }
+
 }
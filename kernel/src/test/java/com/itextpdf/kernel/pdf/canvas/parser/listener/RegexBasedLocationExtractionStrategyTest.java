@@ -52,6 +52,8 @@ import com.itextpdf.test.annotations.type.IntegrationTest;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -333,4 +335,64 @@ public class RegexBasedLocationExtractionStrategyTest extends ExtendedITextTest
 
         Assert.assertEquals(0, locations.size());
     }
+
+    @Test
+    public void multiPatternSameAsRegexTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile));
+        List<String> literals = Arrays.asList("Alice", "lice", "Rabbit", "Alice");
+        List<Pattern> patterns = Collections.singletonList(Pattern.compile("\\d+"));
+        TextSearchPatterns searchPatterns = new TextSearchPatterns(literals, patterns);
+        Assert.assertEquals(3, searchPatterns.getLiterals().size());
+
+        for (int x = 1; x <= 5; x++) {
+            List<String> expected = new ArrayList<>();
+            for (String literal : searchPatterns.getLiterals()) {
+                expected.addAll(getLocations(pdfDocument, x, new RegexBasedLocationExtractionStrategy(Pattern.compile(Pattern.quote(literal)))));
+            }
+            expected.addAll(getLocations(pdfDocument, x, new RegexBasedLocationExtractionStrategy(patterns.get(0))));
+            List<String> actual = getLocations(pdfDocument, x, new MultiPatternLocationExtractionStrategy(searchPatterns, x));
+            Collections.sort(expected);
+            Collections.sort(actual);
+            Assert.assertEquals(expected, actual);
+        }
+        MultiPatternLocationExtractionStrategy strategy = new MultiPatternLocationExtractionStrategy(searchPatterns, 1);
+        new PdfCanvasProcessor(strategy).processPageContent(pdfDocument.getPage(1));
+        Assert.assertFalse(strategy.getResultantLocations().isEmpty());
+        for (IPdfTextLocation location : strategy.getResultantLocations()) {
+            Assert.assertEquals(1, location.getPageNumber());
+        }
+
+        pdfDocument.close();
+    }
+
+    @Test
+    public void multiPatternSameMatchOfDifferentPatternsTest() throws IOException {
+        String inFile = "./src/test/resources/com/itextpdf/kernel/parser/LocationExtractionTest/aliceInWonderland.pdf";
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(inFile));
+        TextSearchPatterns searchPatterns = new TextSearchPatterns(Collections.singletonList("Alice"),
+                Collections.singletonList(Pattern.compile("Alice")));
+
+        List<String> single = getLocations(pdfDocument, 1, new RegexBasedLocationExtractionStrategy("Alice"));
+        Assert.assertFalse(single.isEmpty());
+        List<String> expected = new ArrayList<>(single);
+        expected.addAll(single);
+        List<String> actual = getLocations(pdfDocument, 1, new MultiPatternLocationExtractionStrategy(searchPatterns, 1));
+        Collections.sort(expected);
+        Collections.sort(actual);
+        // the literal and the regular expression both produce their locations
+        Assert.assertEquals(expected, actual);
+
+        pdfDocument.close();
+    }
+
+    private static List<String> getLocations(PdfDocument pdfDocument, int pageNumber, ILocationExtractionStrategy strategy) {
+        new PdfCanvasProcessor(strategy).processPageContent(pdfDocument.getPage(pageNumber));
+        List<String> locations = new ArrayList<>();
+        for (IPdfTextLocation location : strategy.getResultantLocations()) {
+            Rectangle rect = location.getRectangle();
+            locations.add(location.getText() + " " + rect.getX() + " " + rect.getY() + " " + rect.getWidth() + " " + rect.getHeight());
+        }
+        return locations;
+    }
 }
@@ -28,7 +28,9 @@ import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.kernel.pdf.PdfArray;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfResources;
@@ -37,6 +39,7 @@ import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -79,4 +82,66 @@ public class PdfCanvasParserTest extends ExtendedITextTest {
         Assert.assertTrue(new CompareTool().compareArrays(cmpArray,
                 (((PdfDictionary) actual.get(1)).getAsArray(new PdfName("ColorantsDef")))));
     }
+
+    @Test
+    public void parseIntoOperandStackTest() throws IOException {
+        byte[] content = "1 0 0 1 72.50 -3 cm /F1 12 Tf (Hi) Tj [(a) -250 (b)] TJ % comment\nQ 5 6".getBytes(StandardCharsets.ISO_8859_1);
+
+        PdfCanvasParser ps = new PdfCanvasParser(new PdfTokenizer(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createSource(content))));
+        ContentOperandStack stack = new ContentOperandStack();
+
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertEquals("cm", stack.getOperator().toString());
+        Assert.assertEquals(6, stack.size());
+        Assert.assertTrue(stack.isNumber(4));
+        Assert.assertEquals(72.5, stack.getDouble(4), 0);
+        Assert.assertEquals(-3, stack.getInt(5));
+        // numbers keep their original representation when requested as objects
+        Assert.assertEquals("72.50", stack.get(4).toString());
+
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertEquals("Tf", stack.getOperator().toString());
+        Assert.assertEquals(new PdfName("F1"), stack.get(0));
+        Assert.assertFalse(stack.isNumber(0));
+        Assert.assertEquals(12f, stack.getFloat(1), 0);
+
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertEquals("Tj", stack.getOperator().toString());
+        Assert.assertEquals("Hi", ((PdfString) stack.get(0)).toUnicodeString());
+
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertEquals("TJ", stack.getOperator().toString());
+        List<PdfObject> list = stack.toList(null);
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(-250, ((PdfArray) list.get(0)).getAsNumber(1).intValue());
+        Assert.assertEquals(new PdfLiteral("TJ").toString(), list.get(1).toString());
+
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertEquals("Q", stack.getOperator().toString());
+        Assert.assertEquals(0, stack.size());
+
+        // trailing operands without an operator
+        Assert.assertTrue(ps.parseCommand(stack));
+        Assert.assertFalse(stack.hasOperator());
+        Assert.assertEquals(2, stack.size());
+
+        Assert.assertFalse(ps.parseCommand(stack));
+    }
+
+    @Test
+    public void loadOperandStackFromListTest() {
+        List<PdfObject> operands = new ArrayList<PdfObject>();
+        operands.add(new PdfNumber(10));
+        operands.add(new PdfName("Name"));
+        operands.add(new PdfLiteral("op"));
+
+        ContentOperandStack stack = new ContentOperandStack().load(null, operands);
+        Assert.assertEquals("op", stack.getOperator().toString());
+        Assert.assertEquals(2, stack.size());
+        Assert.assertTrue(stack.isNumber(0));
+        Assert.assertEquals(10, stack.getInt(0));
+        Assert.assertSame(operands.get(1), stack.get(1));
+        Assert.assertEquals(operands, stack.toList(new ArrayList<PdfObject>()));
+    }
 }
@@ -48,11 +48,13 @@ import com.itextpdf.io.codec.TIFFField;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.Version;
 import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfIndirectReference;
 import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
 import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfResources;
@@ -65,6 +67,8 @@ import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -73,6 +77,8 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
 
 import java.util.Set;
 import org.junit.Assert;
@@ -236,6 +242,116 @@ public class GetImageBytesTest extends ExtendedITextTest {
         }
     }
 
+    @Test
+    public void writeEmptyTiffImageTest() throws IOException {
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Subtype, PdfName.Image);
+        stream.put(PdfName.Width, new PdfNumber(0));
+        stream.put(PdfName.Height, new PdfNumber(0));
+        stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+        stream.put(PdfName.ColorSpace, PdfName.DeviceCMYK);
+        PdfImageXObject img = new PdfImageXObject(stream);
+        Assert.assertEquals("tif", img.identifyImageFileExtension());
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        img.writeImage(baos);
+        byte[] result = baos.toByteArray();
+        TIFFDirectory dir = new TIFFDirectory(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(result)), 0);
+        Assert.assertEquals(1, dir.getField(TIFFConstants.TIFFTAG_STRIPOFFSETS).getCount());
+        Assert.assertEquals(0, dir.getField(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS).getAsLong(0));
+    }
+
+    @Test
+    public void writeTooLargeTiffImageTest() throws IOException {
+        // a 4800 dpi CMYK scan of an A4 page, the data length exceeds the 4 GB limit of the classic TIFF format
+        long dataLength = 39686L * 56126 * 4;
+        junitExpectedException.expect(com.itextpdf.io.IOException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(
+                com.itextpdf.io.IOException.TiffImageDataOf1BytesIsTooLarge, dataLength));
+
+        PdfStream stream = new PdfStream();
+        stream.put(PdfName.Subtype, PdfName.Image);
+        stream.put(PdfName.Width, new PdfNumber(39686));
+        stream.put(PdfName.Height, new PdfNumber(56126));
+        stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+        stream.put(PdfName.ColorSpace, PdfName.DeviceCMYK);
+        new PdfImageXObject(stream).writeImage(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void writeImageTest() throws Exception {
+        String[][] images = new String[][] {
+                {"ASCII85_RunLengthDecode.pdf", "Im9"},
+                {"ccittfaxdecode.pdf", "background0"},
+                {"dctdecode.pdf", "im1"},
+                {"jbig2decode.pdf", "2"},
+                {"img_cmyk.pdf", "Im1"},
+                {"img_cmyk_icc.pdf", "Im1"},
+                {"img_indexed.pdf", "Im1"},
+                {"img_rgb_icc.pdf", "Im1"},
+                {"img_calrgb.pdf", "Im1"},
+        };
+        for (String[] image : images) {
+            PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + image[0]));
+            try {
+                PdfDictionary xobjects = pdfDocument.getPage(1).getResources().getResource(PdfName.XObject);
+                PdfImageXObject img = new PdfImageXObject(xobjects.getAsStream(new PdfName(image[1])));
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                img.writeImage(baos);
+                byte[] result = baos.toByteArray();
+                byte[] cmpBytes = img.getImageBytes(true);
+
+                String extension = img.identifyImageFileExtension();
+                if (extension.equals("tif")) {
+                    TIFFDirectory dir = new TIFFDirectory(new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(result)), 0);
+                    Assert.assertEquals(TIFFConstants.COMPRESSION_NONE, dir.getFieldAsLong(TIFFConstants.TIFFTAG_COMPRESSION));
+                    TIFFField offsets = dir.getField(TIFFConstants.TIFFTAG_STRIPOFFSETS);
+                    TIFFField counts = dir.getField(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS);
+                    ByteArrayOutputStream strips = new ByteArrayOutputStream();
+                    for (int i = 0; i < offsets.getCount(); i++) {
+                        strips.write(result, (int) offsets.getAsLong(i), (int) counts.getAsLong(i));
+                    }
+                    Assert.assertArrayEquals(image[0], img.getPdfObject().getBytes(), strips.toByteArray());
+                } else if (extension.equals("png")) {
+                    List<byte[]> cmpChunks = readPngChunks(cmpBytes);
+                    List<byte[]> resultChunks = readPngChunks(result);
+                    Assert.assertEquals(image[0], cmpChunks.size(), resultChunks.size());
+                    for (int i = 0; i < cmpChunks.size(); i++) {
+                        Assert.assertArrayEquals(image[0], cmpChunks.get(i), resultChunks.get(i));
+                    }
+                } else {
+                    Assert.assertArrayEquals(image[0], cmpBytes, result);
+                }
+            } finally {
+                pdfDocument.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the chunks of a PNG file, the data of the IDAT chunks is joined and decompressed.
+     */
+    private static List<byte[]> readPngChunks(byte[] png) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        ByteArrayOutputStream idat = new ByteArrayOutputStream();
+        int pos = 8;
+        while (pos < png.length) {
+            int length = ((png[pos] & 0xff) << 24) | ((png[pos + 1] & 0xff) << 16) | ((png[pos + 2] & 0xff) << 8) | (png[pos + 3] & 0xff);
+            String type = new String(png, pos + 4, 4, StandardCharsets.ISO_8859_1);
+            if (type.equals("IDAT")) {
+                idat.write(png, pos + 8, length);
+            } else {
+                if (type.equals("IEND")) {
+                    InflaterInputStream inflater = new InflaterInputStream(new ByteArrayInputStream(idat.toByteArray()));
+                    chunks.add(StreamUtil.inputStreamToArray(inflater));
+                }
+                chunks.add(Arrays.copyOfRange(png, pos + 4, pos + 8 + length));
+            }
+            pos += length + 12;
+        }
+        return chunks;
+    }
+
     private void testFile(String filename, String objectid, String expectedImageFormat) throws Exception {
         PdfDocument pdfDocument = new PdfDocument(new PdfReader(sourceFolder + filename));
         try {
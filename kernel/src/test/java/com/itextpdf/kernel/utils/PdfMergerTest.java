@@ -43,20 +43,32 @@
 package com.itextpdf.kernel.utils;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfName;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfString;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.WriterProperties;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.xml.parsers.ParserConfigurationException;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -327,4 +339,115 @@ public class PdfMergerTest extends ExtendedITextTest {
         merger.close();
         mergedDoc.close();
     }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.NOT_TAGGED_PAGES_IN_TAGGED_DOCUMENT, count = 4)
+    })
+    public void mergeDocumentsInParallelTest() throws IOException {
+        String[] sources = new String[] {"courierTest.pdf", "outlinesNamedDestinations.pdf", "tableWithEmptyTd.pdf",
+                "pdf_open_parameters.pdf", "helveticaTest.pdf"};
+
+        byte[] serialResult = mergeDocuments(sources, null, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            byte[] parallelResult = mergeDocuments(sources, executor, PdfMerger.DEFAULT_STREAM_PREFETCH_BUDGET);
+            Assert.assertArrayEquals(removeDates(serialResult), removeDates(parallelResult));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.NOT_TAGGED_PAGES_IN_TAGGED_DOCUMENT, count = 4)
+    })
+    public void mergeDocumentsInParallelWithSmallPrefetchBudgetTest() throws IOException {
+        String[] sources = new String[] {"courierTest.pdf", "outlinesNamedDestinations.pdf", "tableWithEmptyTd.pdf",
+                "pdf_open_parameters.pdf", "helveticaTest.pdf"};
+
+        byte[] serialResult = mergeDocuments(sources, null, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // only some of the streams are read in advance, the rest are read while copying
+            byte[] parallelResult = mergeDocuments(sources, executor, 4096);
+            Assert.assertArrayEquals(removeDates(serialResult), removeDates(parallelResult));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void mergeDocumentsInParallelFailureTest() throws IOException {
+        final AtomicInteger unfinishedLoadings = new AtomicInteger();
+        ExecutorService executor = new ThreadPoolExecutor(3, 3, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(final Runnable runnable, T value) {
+                unfinishedLoadings.incrementAndGet();
+                return super.newTaskFor(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            runnable.run();
+                        } finally {
+                            unfinishedLoadings.decrementAndGet();
+                        }
+                    }
+                }, value);
+            }
+        };
+        List<PdfDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            documents.add(new PdfDocument(new PdfReader(sourceFolder + "doc1.pdf")));
+        }
+        PdfDocument resultDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        resultDoc.addNewPage();
+        resultDoc.close();
+        try {
+            new PdfMerger(resultDoc).merge(documents, executor);
+            Assert.fail("Merging to a closed document shall fail");
+        } catch (PdfException e) {
+            // the source documents are no longer used once the merging fails
+            Assert.assertEquals(0, unfinishedLoadings.get());
+        } finally {
+            executor.shutdown();
+        }
+        for (PdfDocument document : documents) {
+            document.close();
+        }
+    }
+
+    private static byte[] mergeDocuments(String[] sources, ExecutorService executor, long prefetchBudget)
+            throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfString id = new PdfString("mergeDocumentsInParallelTest");
+        PdfDocument resultDoc = new PdfDocument(new PdfWriter(baos,
+                new WriterProperties().setInitialDocumentId(id).setModifiedDocumentId(id)));
+        List<PdfDocument> documents = new ArrayList<>();
+        for (String source : sources) {
+            documents.add(new PdfDocument(new PdfReader(sourceFolder + source)));
+        }
+        // the same document may be merged several times
+        documents.add(documents.get(0));
+
+        PdfMerger merger = new PdfMerger(resultDoc).setStreamPrefetchBudget(prefetchBudget);
+        if (executor == null) {
+            for (PdfDocument document : documents) {
+                merger.merge(document, 1, document.getNumberOfPages());
+            }
+        } else {
+            merger.merge(documents, executor);
+        }
+        merger.close();
+        for (PdfDocument document : documents) {
+            document.close();
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] removeDates(byte[] pdf) {
+        return new String(pdf, StandardCharsets.ISO_8859_1).replaceAll("/(CreationDate|ModDate) *\\([^)]*\\)", "")
+                .getBytes(StandardCharsets.ISO_8859_1);
+    }
 }
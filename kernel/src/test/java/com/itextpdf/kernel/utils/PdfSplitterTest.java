@@ -43,7 +43,10 @@
 package com.itextpdf.kernel.utils;
 
 import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.test.ExtendedITextTest;
@@ -55,11 +58,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Category(IntegrationTest.class)
 public class PdfSplitterTest extends ExtendedITextTest{
@@ -256,4 +263,139 @@ public class PdfSplitterTest extends ExtendedITextTest{
                                                                  sourceFolder + "cmp/" + "cmp_splitBySize_part" + i + ".pdf", destinationFolder, "diff_"));
         }
     }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.SOURCE_DOCUMENT_HAS_ACROFORM_DICTIONARY, count = 3)
+    })
+    public void splitByPageCountReleasingSourcePagesTest() throws IOException, InterruptedException {
+        String inputFileName =  sourceFolder + "iphone_user_guide.pdf";
+        PdfDocument inputPdfDoc = new PdfDocument(new PdfReader(inputFileName));
+
+        PdfSplitter splitter = new PdfSplitter(inputPdfDoc) {
+            int partNumber = 1;
+
+            @Override
+            protected PdfWriter getNextPdfWriter(PageRange documentPageRange) {
+                try {
+                    return new PdfWriter(destinationFolder + "splitReleasingSourcePages_" + String.valueOf(partNumber++) + ".pdf");
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException();
+                }
+            }
+        };
+        splitter.setReleaseSourcePages(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        splitter.setPartWritingExecutor(executor);
+        try {
+            splitter.splitByPageCount(60, new PdfSplitter.IDocumentReadyListener() {
+                @Override
+                public void documentReady(PdfDocument pdfDocument, PageRange pageRange) {
+                    if (new PageRange("61-120").equals(pageRange)) {
+                        pdfDocument.getDocumentInfo().setAuthor("Modified Author");
+                    }
+
+                    pdfDocument.close();
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+        inputPdfDoc.close();
+
+        for (int i = 1; i <= 3; i++) {
+            Assert.assertNull(new CompareTool().compareByContent(destinationFolder + "splitReleasingSourcePages_" + String.valueOf(i) + ".pdf",
+                    sourceFolder + "cmp/" + "cmp_splitDocument2_" + String.valueOf(i) + ".pdf", destinationFolder, "diff_"));
+        }
+    }
+
+    @Test
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = LogMessageConstant.SOURCE_DOCUMENT_HAS_ACROFORM_DICTIONARY, count = 4)
+    })
+    public void splitReleasingSourcePagesFailureTest() throws IOException {
+        PdfDocument inputPdfDoc = new PdfDocument(new PdfReader(sourceFolder + "iphone_user_guide.pdf"));
+        PdfSplitter splitter = new PdfSplitter(inputPdfDoc) {
+            @Override
+            protected PdfWriter getNextPdfWriter(PageRange documentPageRange) {
+                return new PdfWriter(new ByteArrayOutputStream());
+            }
+        };
+        splitter.setReleaseSourcePages(true);
+        try {
+            splitter.splitByPageCount(10, new PdfSplitter.IDocumentReadyListener() {
+                @Override
+                public void documentReady(PdfDocument pdfDocument, PageRange pageRange) {
+                    pdfDocument.close();
+                    if (new PageRange("31-40").equals(pageRange)) {
+                        throw new IllegalStateException("Part writing failed");
+                    }
+                }
+            });
+            Assert.fail("The failure of the listener shall be propagated");
+        } catch (IllegalStateException e) {
+            // the objects shared by the parts may be released again once splitting fails
+            PdfDictionary fonts = inputPdfDoc.getPage(41).getPdfObject().getAsDictionary(PdfName.Resources)
+                    .getAsDictionary(PdfName.Font);
+            for (PdfName fontName : fonts.keySet()) {
+                Assert.assertFalse(fonts.get(fontName).isReleaseForbidden());
+            }
+        }
+        inputPdfDoc.close();
+    }
+
+    @Test
+    public void splitBySizeReleasingSourcePagesTest() throws IOException, InterruptedException {
+        String inputFileName = sourceFolder + "splitBySize.pdf";
+        PdfDocument inputPdfDoc = new PdfDocument(new PdfReader(inputFileName));
+        PdfSplitter splitter = new PdfSplitter(inputPdfDoc) {
+
+            int partNumber = 1;
+
+            @Override
+            protected PdfWriter getNextPdfWriter(PageRange documentPageRange) {
+                try {
+                    return new PdfWriter(destinationFolder + "splitBySizeReleasingSourcePages_part" + String.valueOf(partNumber++) + ".pdf");
+                } catch (FileNotFoundException e) {
+                    throw new RuntimeException();
+                }
+            }
+        };
+        splitter.setReleaseSourcePages(true);
+
+        List<PdfDocument> documents = splitter.splitBySize(100000);
+
+        Assert.assertEquals(4, documents.size());
+        for (PdfDocument doc : documents) {
+            doc.close();
+        }
+
+        for (int i = 1; i <= 4; ++i) {
+            Assert.assertNull(new CompareTool().compareByContent(destinationFolder + "splitBySizeReleasingSourcePages_part" + i + ".pdf",
+                                                                 sourceFolder + "cmp/" + "cmp_splitBySize_part" + i + ".pdf", destinationFolder, "diff_"));
+        }
+    }
+
+    @Test
+    public void partSizeCounterTest() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(sourceFolder + "iphone_user_guide.pdf"));
+        PartSizeCounter counter = new PartSizeCounter(pdfDoc);
+
+        for (int startPage : new int[] {1, 21}) {
+            counter.startPart();
+            PdfResourceCounter resourceCounter = new PdfResourceCounter(pdfDoc.getTrailer());
+            Map<Integer, PdfObject> resources = resourceCounter.getResources();
+            long length = resourceCounter.getLength(null);
+            for (int i = startPage; i < startPage + 30; i++) {
+                resourceCounter = new PdfResourceCounter(pdfDoc.getPage(i).getPdfObject());
+                length += resourceCounter.getLength(resources);
+                resources.putAll(resourceCounter.getResources());
+
+                counter.addPage(pdfDoc.getPage(i));
+                Assert.assertEquals(length, counter.getPartLength());
+                Assert.assertEquals(resources.size(), counter.getPartObjectsCount());
+            }
+        }
+        pdfDoc.close();
+    }
 }